@@ -4,6 +4,7 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Data
 @Builder
@@ -17,10 +18,15 @@ public class DetailedInteractionStatsDTO {
     BigDecimal medianLikesPerRecipe;
     BigDecimal medianCommentsPerRecipe;
     BigDecimal medianSavesPerRecipe;
+    // Chỉ có khi đọc từ sketch tương tác
+    BigDecimal p90LikesPerRecipe;
+    BigDecimal p90CommentsPerRecipe;
+    BigDecimal p90SavesPerRecipe;
     Long maxLikesOnRecipe;
     Long maxCommentsOnRecipe;
     Long maxSavesOnRecipe;
     InteractionDistribution likeDistribution;
     InteractionDistribution commentDistribution;
     InteractionDistribution saveDistribution;
+    List<RecipeInteractionCountDTO> topCommentedRecipes;
 }
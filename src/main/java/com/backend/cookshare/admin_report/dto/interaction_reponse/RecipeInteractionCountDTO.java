@@ -0,0 +1,18 @@
+package com.backend.cookshare.admin_report.dto.interaction_reponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeInteractionCountDTO {
+    private UUID recipeId;
+    private Long count;       // Số tương tác ước lượng trong cửa sổ
+    private Long maxError;    // Sai số tuyệt đối tối đa của count
+}
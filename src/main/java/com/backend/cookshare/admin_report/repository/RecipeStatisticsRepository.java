@@ -14,47 +14,51 @@ import java.util.UUID;
 @Repository
 public interface RecipeStatisticsRepository extends JpaRepository<Recipe, UUID> {
 
-    // Tổng số công thức
-    @Query("""
-            SELECT COUNT(r) FROM Recipe r 
-            WHERE r.isPublished = true AND r.status = 'APPROVED'
-            """)
-    Long countTotalRecipes();
-
-    // Công thức mới theo khoảng thời gian
-    @Query("""
-            SELECT COUNT(r) FROM Recipe r 
-            WHERE r.createdAt >= :startDate 
-            AND r.isPublished = true 
-            AND r.status = 'APPROVED'
-            """)
-    Long countNewRecipes(@Param("startDate") LocalDateTime startDate);
-
-    // Phân bố theo danh mục
+    // Tổng số công thức, công thức mới và số của kỳ trước trong một lần quét
     @Query(value = """
-        SELECT c.name as name, COUNT(rc.recipe_id) as count
-        FROM categories c
-        LEFT JOIN recipe_categories rc ON c.category_id = rc.category_id
-        LEFT JOIN recipes r ON rc.recipe_id = r.recipe_id 
-          AND r.is_published = true 
-          AND r.status = 'APPROVED'
-        WHERE c.is_active = true
-        GROUP BY c.category_id, c.name
-        ORDER BY count DESC
+        SELECT
+            COUNT(*) as totalRecipes,
+            COUNT(*) FILTER (WHERE created_at >= :startOfToday) as newToday,
+            COUNT(*) FILTER (WHERE created_at >= :startOfWeek) as newThisWeek,
+            COUNT(*) FILTER (WHERE created_at >= :startOfMonth) as newThisMonth,
+            COUNT(*) FILTER (WHERE created_at >= :previousDay AND created_at < :startOfToday) as previousDay,
+            COUNT(*) FILTER (WHERE created_at >= :previousWeek AND created_at < :startOfWeek) as previousWeek,
+            COUNT(*) FILTER (WHERE created_at >= :previousMonth AND created_at < :startOfMonth) as previousMonth
+        FROM recipes
+        WHERE is_published = true
+        AND status = 'APPROVED'
         """, nativeQuery = true)
-    List<CategoryDistribution> countRecipesByCategory();
+    RecipeOverviewCounts getRecipeOverviewCounts(
+            @Param("startOfToday") LocalDateTime startOfToday,
+            @Param("startOfWeek") LocalDateTime startOfWeek,
+            @Param("startOfMonth") LocalDateTime startOfMonth,
+            @Param("previousDay") LocalDateTime previousDay,
+            @Param("previousWeek") LocalDateTime previousWeek,
+            @Param("previousMonth") LocalDateTime previousMonth
+    );
 
-    // Phân bố theo độ khó
+    // Phân bố theo danh mục (CATEGORY) và độ khó (DIFFICULTY)
     @Query(value = """
-        SELECT difficulty, COUNT(*) as count
-        FROM recipes
-        WHERE is_published = true 
-        AND status = 'APPROVED'
-        AND difficulty IS NOT NULL
-        GROUP BY difficulty
-        ORDER BY count DESC
+        SELECT dimension, name, count FROM (
+            SELECT 'CATEGORY' as dimension, c.name as name, COUNT(rc.recipe_id) as count
+            FROM categories c
+            LEFT JOIN recipe_categories rc ON c.category_id = rc.category_id
+            LEFT JOIN recipes r ON rc.recipe_id = r.recipe_id
+              AND r.is_published = true
+              AND r.status = 'APPROVED'
+            WHERE c.is_active = true
+            GROUP BY c.category_id, c.name
+            UNION ALL
+            SELECT 'DIFFICULTY' as dimension, CAST(difficulty AS TEXT) as name, COUNT(*) as count
+            FROM recipes
+            WHERE is_published = true
+            AND status = 'APPROVED'
+            AND difficulty IS NOT NULL
+            GROUP BY difficulty
+        ) distributions
+        ORDER BY dimension, count DESC
         """, nativeQuery = true)
-    List<DifficultyDistribution> countRecipesByDifficulty();
+    List<OverviewDistribution> getOverviewDistributions();
 
     // Top công thức theo lượt xem
     @Query(value = """
@@ -196,74 +200,34 @@ public interface RecipeStatisticsRepository extends JpaRepository<Recipe, UUID>
             @Param("limit") int limit
     );
 
-    // Phân tích thời gian nấu trung bình
-    @Query(value = """
-        SELECT 
-            AVG(cook_time) as avgCookTime,
-            AVG(prep_time) as avgPrepTime,
-            AVG(cook_time + prep_time) as avgTotalTime
-        FROM recipes
-        WHERE is_published = true
-        AND status = 'APPROVED'
-        AND cook_time IS NOT NULL 
-        AND prep_time IS NOT NULL
-        """, nativeQuery = true)
-    CookingTimeStats getAverageCookingTimes();
-
-    // Số lượng nguyên liệu trung bình
+    // Thời gian nấu, số nguyên liệu / bước, media và độ dài nội dung trong một lần quét
     @Query(value = """
-        SELECT AVG(ingredient_count) as avgIngredientCount
-        FROM (
-            SELECT r.recipe_id, COUNT(ri.ingredient_id) as ingredient_count
-            FROM recipes r
-            LEFT JOIN recipe_ingredients ri ON r.recipe_id = ri.recipe_id
-            WHERE r.is_published = true AND r.status = 'APPROVED'
-            GROUP BY r.recipe_id
-        ) subquery
-        """, nativeQuery = true)
-    Double getAverageIngredientCount();
-
-    // Số bước nấu trung bình
-    @Query(value = """
-        SELECT AVG(step_count) as avgStepCount
-        FROM (
-            SELECT r.recipe_id, COUNT(rs.step_id) as step_count
-            FROM recipes r
-            LEFT JOIN recipe_steps rs ON r.recipe_id = rs.recipe_id
-            WHERE r.is_published = true AND r.status = 'APPROVED'
-            GROUP BY r.recipe_id
-        ) subquery
-        """, nativeQuery = true)
-    Double getAverageStepCount();
-
-    // Công thức có hình ảnh/video
-    @Query(value = """
-        SELECT 
-            COUNT(CASE WHEN r.featured_image IS NOT NULL THEN 1 END) as recipesWithImage,
-            COUNT(CASE WHEN EXISTS (
-                SELECT 1 FROM recipe_steps rs 
-                WHERE rs.recipe_id = r.recipe_id 
-                AND rs.video_url IS NOT NULL
-            ) THEN 1 END) as recipesWithVideo,
-            COUNT(*) as totalRecipes
+        SELECT
+            AVG(r.cook_time) FILTER (WHERE r.cook_time IS NOT NULL AND r.prep_time IS NOT NULL) as avgCookTime,
+            AVG(r.prep_time) FILTER (WHERE r.cook_time IS NOT NULL AND r.prep_time IS NOT NULL) as avgPrepTime,
+            AVG(r.cook_time + r.prep_time) as avgTotalTime,
+            AVG(COALESCE(ri.ingredient_count, 0)) as avgIngredientCount,
+            AVG(COALESCE(rs.step_count, 0)) as avgStepCount,
+            COUNT(*) FILTER (WHERE r.featured_image IS NOT NULL) as recipesWithImage,
+            COUNT(*) FILTER (WHERE rs.video_step_count > 0) as recipesWithVideo,
+            COUNT(*) as totalRecipes,
+            AVG(LENGTH(r.description)) FILTER (WHERE r.instructions IS NOT NULL) as avgDescriptionLength,
+            AVG(LENGTH(r.instructions)) FILTER (WHERE r.description IS NOT NULL) as avgInstructionLength
         FROM recipes r
+        LEFT JOIN (
+            SELECT recipe_id, COUNT(ingredient_id) as ingredient_count
+            FROM recipe_ingredients
+            GROUP BY recipe_id
+        ) ri ON ri.recipe_id = r.recipe_id
+        LEFT JOIN (
+            SELECT recipe_id, COUNT(step_id) as step_count,
+                COUNT(*) FILTER (WHERE video_url IS NOT NULL) as video_step_count
+            FROM recipe_steps
+            GROUP BY recipe_id
+        ) rs ON rs.recipe_id = r.recipe_id
         WHERE r.is_published = true AND r.status = 'APPROVED'
         """, nativeQuery = true)
-    MediaStats getMediaStatistics();
-
-
-    // Độ dài mô tả và hướng dẫn trung bình
-    @Query(value = """
-        SELECT 
-            AVG(LENGTH(description)) as avgDescriptionLength,
-            AVG(LENGTH(instructions)) as avgInstructionLength
-        FROM recipes
-        WHERE is_published = true
-        AND status = 'APPROVED'
-        AND description IS NOT NULL 
-        AND instructions IS NOT NULL
-        """, nativeQuery = true)
-    ContentLengthStats getAverageContentLength();
+    ContentAnalysisStats getContentAnalysisStats();
 
     // Thống kê theo thời gian (time series)
     @Query(value = """
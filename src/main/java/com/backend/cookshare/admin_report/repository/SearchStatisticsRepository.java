@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -101,6 +102,60 @@ public interface SearchStatisticsRepository extends JpaRepository<SearchHistory,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
+    /**
+     * Top từ khóa đọc từ bảng gộp theo ngày search_keyword_daily (xem SearchHistoryPipeline),
+     * khoảng thời gian được làm tròn theo ngày. Bảng gộp không có số user khác nhau nên uniqueUsers luôn null,
+     * dùng countUniqueUsersByQueries để lấy cho các từ khóa trả về
+     */
+    @Query(value = """
+            SELECT
+              search_query as searchQuery,
+              SUM(search_count) as searchCount,
+              CAST(NULL AS BIGINT) as uniqueUsers,
+              SUM(result_sum) * 1.0 / SUM(search_count) as avgResults,
+              MAX(last_searched) as lastSearched
+            FROM search_keyword_daily
+            WHERE stat_date BETWEEN CAST(:startDate AS date) AND CAST(:endDate AS date)
+            AND TRIM(search_query) != ''
+            GROUP BY search_query
+            ORDER BY searchCount DESC
+            LIMIT :limit
+            """,
+            nativeQuery = true)
+    List<PopularKeywordProjection> getPopularKeywordsFromRollup(
+            @Param("limit") int limit,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Đếm số user khác nhau trên search_history cho một tập từ khóa cho trước
+     */
+    @Query(value = """
+            SELECT
+              search_query as searchQuery,
+              COUNT(DISTINCT user_id) as uniqueUsers
+            FROM search_history
+            WHERE created_at >= :startDate AND created_at < :endDate
+            AND search_query IN (:queries)
+            GROUP BY search_query
+            """,
+            nativeQuery = true)
+    List<KeywordUserCountProjection> countUniqueUsersByQueries(
+            @Param("queries") Collection<String> queries,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Đếm số từ khóa unique từ bảng gộp theo ngày
+     */
+    @Query(value = """
+            SELECT COUNT(DISTINCT search_query) FROM search_keyword_daily
+            WHERE stat_date BETWEEN CAST(:startDate AS date) AND CAST(:endDate AS date)
+            """,
+            nativeQuery = true)
+    Long countUniqueQueriesFromRollup(@Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate);
+
     /**
      * Lấy từ khóa không có kết quả
      */
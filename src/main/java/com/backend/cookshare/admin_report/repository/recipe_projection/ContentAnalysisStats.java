@@ -0,0 +1,14 @@
+package com.backend.cookshare.admin_report.repository.recipe_projection;
+
+public interface ContentAnalysisStats {
+    Double getAvgCookTime();
+    Double getAvgPrepTime();
+    Double getAvgTotalTime();
+    Double getAvgIngredientCount();
+    Double getAvgStepCount();
+    Long getRecipesWithImage();
+    Long getRecipesWithVideo();
+    Long getTotalRecipes();
+    Double getAvgDescriptionLength();
+    Double getAvgInstructionLength();
+}
@@ -1,6 +0,0 @@
-package com.backend.cookshare.admin_report.repository.recipe_projection;
-
-public interface DifficultyDistribution {
-    String getDifficulty();
-    Long getCount();
-}
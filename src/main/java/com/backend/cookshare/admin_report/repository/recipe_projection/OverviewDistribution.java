@@ -1,6 +1,7 @@
 package com.backend.cookshare.admin_report.repository.recipe_projection;
 
-public interface CategoryDistribution {
+public interface OverviewDistribution {
+    String getDimension();
     String getName();
     Long getCount();
 }
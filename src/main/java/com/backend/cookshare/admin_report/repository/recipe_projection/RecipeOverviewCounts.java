@@ -0,0 +1,11 @@
+package com.backend.cookshare.admin_report.repository.recipe_projection;
+
+public interface RecipeOverviewCounts {
+    Long getTotalRecipes();
+    Long getNewToday();
+    Long getNewThisWeek();
+    Long getNewThisMonth();
+    Long getPreviousDay();
+    Long getPreviousWeek();
+    Long getPreviousMonth();
+}
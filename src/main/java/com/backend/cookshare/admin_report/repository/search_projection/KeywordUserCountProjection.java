@@ -0,0 +1,6 @@
+package com.backend.cookshare.admin_report.repository.search_projection;
+
+public interface KeywordUserCountProjection {
+    String getSearchQuery();
+    Long getUniqueUsers();
+}
@@ -0,0 +1,55 @@
+package com.backend.cookshare.admin_report.service.cache;
+
+import com.backend.cookshare.admin_report.dto.interaction_reponse.*;
+import com.backend.cookshare.admin_report.dto.search_response.EngagementByCategoryDTO;
+import com.backend.cookshare.admin_report.service.InteractionStatisticsService;
+import com.backend.cookshare.admin_report.service.impl.InteractionStatisticsServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Đọc thống kê tương tác qua {@link StatisticsResultCache}, tính toán thật do {@link InteractionStatisticsServiceImpl} làm
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class CachedInteractionStatisticsService implements InteractionStatisticsService {
+
+    private final InteractionStatisticsServiceImpl delegate;
+    private final StatisticsResultCache cache;
+
+    @Override
+    public InteractionOverviewDTO getInteractionOverview(LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("interaction.overview", startDate, endDate, delegate::getInteractionOverview);
+    }
+
+    @Override
+    public DetailedInteractionStatsDTO getDetailedInteractionStats(LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("interaction.detailed", startDate, endDate, delegate::getDetailedInteractionStats);
+    }
+
+    @Override
+    public PeakHoursStatsDTO getPeakHoursStats(LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("interaction.peak-hours", startDate, endDate, delegate::getPeakHoursStats);
+    }
+
+    @Override
+    public TopCommentsDTO getTopComments(int limit, LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("interaction.top-comments", startDate, endDate,
+                (start, end) -> delegate.getTopComments(limit, start, end), limit);
+    }
+
+    @Override
+    public FollowTrendsDTO getFollowTrends(LocalDateTime startDate, LocalDateTime endDate, String groupBy) {
+        return cache.get("interaction.follow-trends", startDate, endDate,
+                (start, end) -> delegate.getFollowTrends(start, end, groupBy), groupBy);
+    }
+
+    @Override
+    public EngagementByCategoryDTO getEngagementByCategory(LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("interaction.engagement-by-category", startDate, endDate, delegate::getEngagementByCategory);
+    }
+}
@@ -0,0 +1,94 @@
+package com.backend.cookshare.admin_report.service.cache;
+
+import com.backend.cookshare.admin_report.dto.recipe_response.*;
+import com.backend.cookshare.admin_report.service.RecipeStatisticsService;
+import com.backend.cookshare.admin_report.service.impl.RecipeStatisticsServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Đọc thống kê công thức qua {@link StatisticsResultCache}, tính toán thật do {@link RecipeStatisticsServiceImpl} làm
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class CachedRecipeStatisticsService implements RecipeStatisticsService {
+
+    private final RecipeStatisticsServiceImpl delegate;
+    private final StatisticsResultCache cache;
+
+    @Override
+    public RecipeStatisticsResponse getComprehensiveStatistics(LocalDateTime startDate, LocalDateTime endDate, Integer topLimit) {
+        return cache.get("recipes.comprehensive", startDate, endDate,
+                (start, end) -> delegate.getComprehensiveStatistics(start, end, topLimit), topLimit);
+    }
+
+    @Override
+    public RecipeOverviewDTO getRecipeOverview() {
+        return cache.get("recipes.overview", delegate::getRecipeOverview);
+    }
+
+    @Override
+    public List<RecipePerformanceDTO> getTopViewedRecipes(int limit) {
+        return cache.get("recipes.top-viewed", () -> delegate.getTopViewedRecipes(limit), limit);
+    }
+
+    @Override
+    public List<RecipePerformanceDTO> getTopLikedRecipes(int limit) {
+        return cache.get("recipes.top-liked", () -> delegate.getTopLikedRecipes(limit), limit);
+    }
+
+    @Override
+    public List<RecipePerformanceDTO> getTopSavedRecipes(int limit) {
+        return cache.get("recipes.top-saved", () -> delegate.getTopSavedRecipes(limit), limit);
+    }
+
+    @Override
+    public List<RecipePerformanceDTO> getTopCommentedRecipes(int limit) {
+        return cache.get("recipes.top-commented", () -> delegate.getTopCommentedRecipes(limit), limit);
+    }
+
+    @Override
+    public List<TrendingRecipeDTO> getTrendingRecipes(int limit) {
+        return cache.get("recipes.trending", () -> delegate.getTrendingRecipes(limit), limit);
+    }
+
+    @Override
+    public List<RecipePerformanceDTO> getLowPerformanceRecipes(int limit) {
+        return cache.get("recipes.low-performance", () -> delegate.getLowPerformanceRecipes(limit), limit);
+    }
+
+    @Override
+    public RecipeContentAnalysisDTO getContentAnalysis() {
+        return cache.get("recipes.content-analysis", delegate::getContentAnalysis);
+    }
+
+    @Override
+    public List<TimeSeriesStatDTO> getTimeSeriesData(LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("recipes.time-series", startDate, endDate, delegate::getTimeSeriesData);
+    }
+
+    @Override
+    public List<TopAuthorDTO> getTopAuthors(int limit) {
+        return cache.get("recipes.top-authors", () -> delegate.getTopAuthors(limit), limit);
+    }
+
+    @Override
+    public List<EngagementRateDTO> getHighEngagementRecipes(int limit) {
+        return cache.get("recipes.high-engagement", () -> delegate.getHighEngagementRecipes(limit), limit);
+    }
+
+    @Override
+    public List<CategoryPerformanceDTO> getCategoryPerformance() {
+        return cache.get("recipes.category-performance", delegate::getCategoryPerformance);
+    }
+
+    @Override
+    public RecipeCompletionStatsDTO getRecipeCompletionStats() {
+        return cache.get("recipes.completion-stats", delegate::getRecipeCompletionStats);
+    }
+}
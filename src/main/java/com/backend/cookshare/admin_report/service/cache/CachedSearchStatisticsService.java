@@ -0,0 +1,61 @@
+package com.backend.cookshare.admin_report.service.cache;
+
+import com.backend.cookshare.admin_report.dto.search_response.*;
+import com.backend.cookshare.admin_report.service.SearchStatisticsService;
+import com.backend.cookshare.admin_report.service.impl.SearchStatisticsServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Đọc thống kê tìm kiếm qua {@link StatisticsResultCache}, tính toán thật do {@link SearchStatisticsServiceImpl} làm
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class CachedSearchStatisticsService implements SearchStatisticsService {
+
+    private final SearchStatisticsServiceImpl delegate;
+    private final StatisticsResultCache cache;
+
+    @Override
+    public SearchOverviewDTO getSearchOverview(LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("search.overview", startDate, endDate, delegate::getSearchOverview);
+    }
+
+    @Override
+    public PopularKeywordsDTO getPopularKeywords(int limit, LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("search.popular-keywords", startDate, endDate,
+                (start, end) -> delegate.getPopularKeywords(limit, start, end), limit);
+    }
+
+    @Override
+    public PopularIngredientsDTO getPopularIngredients(int limit, LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("search.popular-ingredients", startDate, endDate,
+                (start, end) -> delegate.getPopularIngredients(limit, start, end), limit);
+    }
+
+    @Override
+    public PopularCategoriesDTO getPopularCategories(LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("search.popular-categories", startDate, endDate, delegate::getPopularCategories);
+    }
+
+    @Override
+    public SearchSuccessRateDTO getSearchSuccessRate(LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("search.success-rate", startDate, endDate, delegate::getSearchSuccessRate);
+    }
+
+    @Override
+    public ZeroResultKeywordsDTO getZeroResultKeywords(int limit, LocalDateTime startDate, LocalDateTime endDate) {
+        return cache.get("search.zero-result-keywords", startDate, endDate,
+                (start, end) -> delegate.getZeroResultKeywords(limit, start, end), limit);
+    }
+
+    @Override
+    public SearchTrendsDTO getSearchTrends(LocalDateTime startDate, LocalDateTime endDate, String groupBy) {
+        return cache.get("search.trends", startDate, endDate,
+                (start, end) -> delegate.getSearchTrends(start, end, groupBy), groupBy);
+    }
+}
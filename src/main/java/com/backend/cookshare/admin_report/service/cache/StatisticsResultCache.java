@@ -0,0 +1,275 @@
+package com.backend.cookshare.admin_report.service.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Cache kết quả cho các API /api/admin/statistics/**, key theo (endpoint, khoảng thời gian đã làm tròn, tham số).
+ *
+ * Khoảng thời gian kết thúc gần hiện tại (mặc định "1 tháng gần nhất đến nay") được coi là khoảng trượt và key theo
+ * độ dài làm tròn bucket-seconds, nên mọi admin xem cùng khoảng dùng chung một entry; lúc load thì khoảng được tính
+ * lại từ thời điểm hiện tại làm tròn lên. Khoảng đã qua được làm tròn ra ngoài theo bucket và key tuyệt đối.
+ *
+ * Entry mới hơn fresh-ttl-ms được trả ngay. Entry cũ hơn nhưng chưa quá stale-ttl-ms vẫn được trả ngay và được
+ * làm mới nền trên statisticsRefreshExecutor (stale-while-revalidate), nên entry đang được xem không bao giờ phải chờ query.
+ * Không dùng statisticsExecutor vì loader có thể tự fan-out vào pool đó rồi join.
+ * Entry quá stale-ttl-ms load lại đồng bộ; nhiều request cùng lúc cho một key chỉ load một lần.
+ */
+@Component
+@Slf4j
+public class StatisticsResultCache {
+
+    private final ConcurrentHashMap<CacheKey, CachedResult> entries = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final boolean enabled;
+    private final long bucketSeconds;
+    private final long freshMillis;
+    private final long staleMillis;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final Timer missLoadTimer;
+    private final Timer refreshLoadTimer;
+
+    public StatisticsResultCache(
+            MeterRegistry meterRegistry,
+            @Qualifier("statisticsRefreshExecutor") Executor executor,
+            @Value("${cookshare.statistics.cache.enabled:true}") boolean enabled,
+            @Value("${cookshare.statistics.cache.bucket-seconds:300}") long bucketSeconds,
+            @Value("${cookshare.statistics.cache.fresh-ttl-ms:60000}") long freshMillis,
+            @Value("${cookshare.statistics.cache.stale-ttl-ms:600000}") long staleMillis,
+            @Value("${cookshare.statistics.cache.max-entries:500}") int maxEntries) {
+        this.executor = executor;
+        this.enabled = enabled;
+        this.bucketSeconds = Math.max(1, bucketSeconds);
+        this.freshMillis = Math.max(0, freshMillis);
+        this.staleMillis = Math.max(this.freshMillis, staleMillis);
+        this.maxEntries = Math.max(1, maxEntries);
+
+        Gauge.builder("cookshare.statistics.cache.size", entries, ConcurrentHashMap::size)
+                .description("Số kết quả thống kê đang có trong cache")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.statistics.cache.hits", hits, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("cookshare.statistics.cache.stale-hits", staleHits, LongAdder::sum)
+                .description("Số lần trả kết quả cũ và làm mới nền")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.statistics.cache.misses", misses, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("cookshare.statistics.cache.refresh.failures", refreshFailures, LongAdder::sum)
+                .register(meterRegistry);
+        this.missLoadTimer = Timer.builder("cookshare.statistics.cache.load")
+                .tag("trigger", "miss")
+                .description("Thời gian tính thống kê khi chưa có trong cache (request phải chờ)")
+                .register(meterRegistry);
+        this.refreshLoadTimer = Timer.builder("cookshare.statistics.cache.load")
+                .tag("trigger", "refresh")
+                .description("Thời gian làm mới nền một kết quả thống kê")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lấy kết quả của endpoint không có khoảng thời gian
+     */
+    public <T> T get(String endpoint, Supplier<T> loader, Object... params) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return get(new CacheKey(endpoint, null, Arrays.asList(params)), loader);
+    }
+
+    /**
+     * Lấy kết quả của endpoint theo khoảng thời gian; loader nhận khoảng đã làm tròn (null giữ nguyên là mặc định)
+     */
+    public <T> T get(String endpoint, LocalDateTime startDate, LocalDateTime endDate,
+                     BiFunction<LocalDateTime, LocalDateTime, T> loader, Object... params) {
+        if (!enabled) {
+            return loader.apply(startDate, endDate);
+        }
+        RangeKey range = RangeKey.of(startDate, endDate, LocalDateTime.now(), bucketSeconds);
+        return get(new CacheKey(endpoint, range, Arrays.asList(params)), () -> {
+            LocalDateTime end = range.resolveEnd(LocalDateTime.now(), bucketSeconds);
+            return loader.apply(range.resolveStart(end), end);
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(CacheKey key, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        CachedResult cached = entries.get(key);
+        if (cached != null) {
+            long age = now - cached.loadedAt();
+            if (!cached.future().isDone() || age < freshMillis) {
+                hits.increment();
+                return (T) join(key, cached);
+            }
+            if (age < staleMillis && !cached.future().isCompletedExceptionally()) {
+                staleHits.increment();
+                refreshAsync(key, cached, loader);
+                return (T) join(key, cached);
+            }
+        }
+
+        CachedResult fresh = new CachedResult(new CompletableFuture<>(), now, new AtomicBoolean());
+        CachedResult winner = cached == null
+                ? entries.putIfAbsent(key, fresh)
+                : (entries.replace(key, cached, fresh) ? null : entries.get(key));
+        if (winner != null && (!winner.future().isDone() || now - winner.loadedAt() < staleMillis)) {
+            hits.increment();
+            return (T) join(key, winner);
+        }
+        if (winner != null) {
+            // Entry hết hạn vừa bị thay bởi luồng khác: tự load, không tranh chỗ trong cache
+            return loader.get();
+        }
+
+        misses.increment();
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+        try {
+            T result = missLoadTimer.record(loader);
+            fresh.future().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(key, fresh);
+            fresh.future().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Làm mới nền một entry cũ, mỗi entry tối đa một lần làm mới cùng lúc
+     */
+    private void refreshAsync(CacheKey key, CachedResult cached, Supplier<?> loader) {
+        if (!cached.refreshing().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                long startedAt = System.currentTimeMillis();
+                try {
+                    Object result = refreshLoadTimer.record(loader);
+                    entries.replace(key, cached,
+                            new CachedResult(CompletableFuture.completedFuture(result), startedAt, new AtomicBoolean()));
+                } catch (RuntimeException e) {
+                    refreshFailures.increment();
+                    cached.refreshing().set(false);
+                    log.warn("Không thể làm mới cache thống kê {}: {}", key.endpoint(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cached.refreshing().set(false);
+            log.debug("statisticsRefreshExecutor từ chối làm mới cache thống kê {}", key.endpoint());
+        }
+    }
+
+    private Object join(CacheKey key, CachedResult cached) {
+        try {
+            return cached.future().join();
+        } catch (CompletionException e) {
+            entries.remove(key, cached);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Dọn entry đã quá stale-ttl; nếu vẫn đầy thì bỏ bớt một phần tư để giữ bộ nhớ có giới hạn
+     */
+    private void evict(long now) {
+        entries.values().removeIf(cached -> cached.future().isDone() && now - cached.loadedAt() >= staleMillis);
+        int toRemove = entries.size() - maxEntries * 3 / 4;
+        Iterator<Map.Entry<CacheKey, CachedResult>> iterator = entries.entrySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        log.debug("Đã dọn cache thống kê, còn {} entry", entries.size());
+    }
+
+    static LocalDateTime floorToBucket(LocalDateTime time, long bucketSeconds) {
+        long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(epochSecond - Math.floorMod(epochSecond, bucketSeconds), 0, ZoneOffset.UTC);
+    }
+
+    static LocalDateTime ceilToBucket(LocalDateTime time, long bucketSeconds) {
+        LocalDateTime floor = floorToBucket(time, bucketSeconds);
+        return floor.equals(time) ? floor : floor.plusSeconds(bucketSeconds);
+    }
+
+    private record CacheKey(String endpoint, RangeKey range, List<Object> params) {
+    }
+
+    private record CachedResult(CompletableFuture<Object> future, long loadedAt, AtomicBoolean refreshing) {
+    }
+
+    /**
+     * Khoảng thời gian đã chuẩn hóa. Khoảng trượt (kết thúc trong một bucket gần hiện tại hoặc null) chỉ giữ
+     * độ dài {@code rollingSeconds} (null nếu ngày bắt đầu cũng mặc định); khoảng đã qua giữ mốc tuyệt đối.
+     */
+    record RangeKey(LocalDateTime start, LocalDateTime end, Long rollingSeconds, boolean rolling) {
+
+        static RangeKey of(LocalDateTime startDate, LocalDateTime endDate, LocalDateTime now, long bucketSeconds) {
+            boolean rolling = endDate == null || !endDate.isBefore(now.minusSeconds(bucketSeconds));
+            if (!rolling) {
+                LocalDateTime start = startDate != null ? floorToBucket(startDate, bucketSeconds) : null;
+                return new RangeKey(start, ceilToBucket(endDate, bucketSeconds), null, false);
+            }
+            if (startDate == null) {
+                return new RangeKey(null, null, null, true);
+            }
+            long seconds = Duration.between(startDate, endDate != null ? endDate : now).getSeconds();
+            long rounded = Math.max(bucketSeconds, Math.round((double) seconds / bucketSeconds) * bucketSeconds);
+            return new RangeKey(null, null, rounded, true);
+        }
+
+        /**
+         * Mốc kết thúc để load: khoảng trượt có độ dài thì lấy hiện tại làm tròn lên, còn lại giữ nguyên
+         */
+        LocalDateTime resolveEnd(LocalDateTime now, long bucketSeconds) {
+            if (rolling) {
+                return rollingSeconds != null ? ceilToBucket(now, bucketSeconds) : null;
+            }
+            return end;
+        }
+
+        LocalDateTime resolveStart(LocalDateTime resolvedEnd) {
+            if (rolling) {
+                return rollingSeconds != null ? resolvedEnd.minusSeconds(rollingSeconds) : null;
+            }
+            return start;
+        }
+    }
+}
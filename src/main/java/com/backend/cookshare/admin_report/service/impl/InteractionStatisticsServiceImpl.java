@@ -5,6 +5,11 @@ import com.backend.cookshare.admin_report.dto.search_response.EngagementByCatego
 import com.backend.cookshare.admin_report.repository.InteractionStatisticsRepository;
 import com.backend.cookshare.admin_report.repository.interaction_projection.*;
 import com.backend.cookshare.admin_report.service.InteractionStatisticsService;
+import com.backend.cookshare.admin_report.service.rollup.RollupMetric;
+import com.backend.cookshare.admin_report.service.rollup.StatisticsRollupReader;
+import com.backend.cookshare.admin_report.service.rollup.StatisticsRollupReader.RecipeMetricSummary;
+import com.backend.cookshare.admin_report.service.sketch.InteractionSketchService;
+import com.backend.cookshare.admin_report.service.sketch.InteractionSketchService.PercentileSummary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,6 +19,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -23,7 +29,11 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class InteractionStatisticsServiceImpl implements InteractionStatisticsService {
 
+    private static final int TOP_SKETCH_RECIPES = 10;
+
     private final InteractionStatisticsRepository interactionRepository;
+    private final StatisticsRollupReader rollupReader;
+    private final InteractionSketchService interactionSketchService;
 
     @Override
     public InteractionOverviewDTO getInteractionOverview(LocalDateTime startDate, LocalDateTime endDate) {
@@ -33,12 +43,24 @@ public class InteractionStatisticsServiceImpl implements InteractionStatisticsSe
         LocalDateTime start = startDate != null ? startDate : LocalDateTime.now().minusMonths(1);
         LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
 
-        // Lấy tổng số tương tác từ database
-        Long totalLikes = interactionRepository.countTotalLikes(start, end);
-        Long totalComments = interactionRepository.countTotalComments(start, end);
-        Long totalSaves = interactionRepository.countTotalSaves(start, end);
+        // Lấy tổng số tương tác từ bảng gộp nếu đã bật, ngược lại đếm trực tiếp trên bảng sự kiện
+        Long totalLikes;
+        Long totalComments;
+        Long totalSaves;
+        Long totalViews;
+        if (rollupReader.isEnabled()) {
+            Map<RollupMetric, Long> totals = rollupReader.totals(start, end);
+            totalLikes = totals.get(RollupMetric.LIKE);
+            totalComments = totals.get(RollupMetric.COMMENT);
+            totalSaves = totals.get(RollupMetric.SAVE);
+            totalViews = totals.get(RollupMetric.VIEW);
+        } else {
+            totalLikes = interactionRepository.countTotalLikes(start, end);
+            totalComments = interactionRepository.countTotalComments(start, end);
+            totalSaves = interactionRepository.countTotalSaves(start, end);
+            totalViews = interactionRepository.countTotalViews(start, end);
+        }
         Long totalRecipes = interactionRepository.countPublishedRecipes(start, end);
-        Long totalViews = interactionRepository.countTotalViews(start, end);
 
         // Tính engagement rate: (likes + comments + saves) / views * 100
         BigDecimal engagementRate = BigDecimal.ZERO;
@@ -78,45 +100,102 @@ public class InteractionStatisticsServiceImpl implements InteractionStatisticsSe
         LocalDateTime start = startDate != null ? startDate : LocalDateTime.now().minusMonths(1);
         LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
 
-        // Lấy các giá trị trung bình
-        BigDecimal avgLikes = interactionRepository.getAverageLikesPerRecipe(start, end);
-        BigDecimal avgComments = interactionRepository.getAverageCommentsPerRecipe(start, end);
-        BigDecimal avgSaves = interactionRepository.getAverageSavesPerRecipe(start, end);
-
-        // Lấy các giá trị trung vị
-        BigDecimal medianLikes = interactionRepository.getMedianLikesPerRecipe(start, end);
-        BigDecimal medianComments = interactionRepository.getMedianCommentsPerRecipe(start, end);
-        BigDecimal medianSaves = interactionRepository.getMedianSavesPerRecipe(start, end);
-
-        // Lấy giá trị lớn nhất
-        Long maxLikes = interactionRepository.getMaxLikesOnRecipe(start, end);
-        Long maxComments = interactionRepository.getMaxCommentsOnRecipe(start, end);
-        Long maxSaves = interactionRepository.getMaxSavesOnRecipe(start, end);
-
-        // Lấy phân phối tương tác
-        InteractionDistribution likeDistribution = mapToInteractionDistribution(
-                interactionRepository.getInteractionDistribution(start, end, "LIKE"));
-        InteractionDistribution commentDistribution = mapToInteractionDistribution(
-                interactionRepository.getInteractionDistribution(start, end, "COMMENT"));
-        InteractionDistribution saveDistribution = mapToInteractionDistribution(
-                interactionRepository.getInteractionDistribution(start, end, "SAVE"));
+        // Trung vị / p90 / max đọc từ sketch trong bộ nhớ khi khoảng thời gian khớp cửa sổ của sketch
+        boolean fromSketch = interactionSketchService.covers(start, end);
+        DetailedInteractionStatsDTO stats = rollupReader.isEnabled()
+                ? getDetailedInteractionStatsFromRollup(start, end, fromSketch)
+                : getDetailedInteractionStatsFromEvents(start, end, fromSketch);
+        if (fromSketch) {
+            applySketchStatistics(stats);
+        }
 
         log.info("Hoàn thành thống kê chi tiết");
+        return stats;
+    }
 
-        return DetailedInteractionStatsDTO.builder()
-                .averageLikesPerRecipe(avgLikes)
-                .averageCommentsPerRecipe(avgComments)
-                .averageSavesPerRecipe(avgSaves)
-                .medianLikesPerRecipe(medianLikes)
-                .medianCommentsPerRecipe(medianComments)
-                .medianSavesPerRecipe(medianSaves)
-                .maxLikesOnRecipe(maxLikes)
-                .maxCommentsOnRecipe(maxComments)
-                .maxSavesOnRecipe(maxSaves)
-                .likeDistribution(likeDistribution)
-                .commentDistribution(commentDistribution)
-                .saveDistribution(saveDistribution)
-                .build();
+    private DetailedInteractionStatsDTO getDetailedInteractionStatsFromEvents(LocalDateTime start, LocalDateTime end,
+                                                                             boolean fromSketch) {
+        DetailedInteractionStatsDTO.DetailedInteractionStatsDTOBuilder builder = DetailedInteractionStatsDTO.builder()
+                // Lấy các giá trị trung bình
+                .averageLikesPerRecipe(interactionRepository.getAverageLikesPerRecipe(start, end))
+                .averageCommentsPerRecipe(interactionRepository.getAverageCommentsPerRecipe(start, end))
+                .averageSavesPerRecipe(interactionRepository.getAverageSavesPerRecipe(start, end))
+                // Lấy phân phối tương tác
+                .likeDistribution(mapToInteractionDistribution(
+                        interactionRepository.getInteractionDistribution(start, end, "LIKE")))
+                .commentDistribution(mapToInteractionDistribution(
+                        interactionRepository.getInteractionDistribution(start, end, "COMMENT")))
+                .saveDistribution(mapToInteractionDistribution(
+                        interactionRepository.getInteractionDistribution(start, end, "SAVE")));
+
+        if (!fromSketch) {
+            // Lấy các giá trị trung vị và lớn nhất
+            builder.medianLikesPerRecipe(interactionRepository.getMedianLikesPerRecipe(start, end))
+                    .medianCommentsPerRecipe(interactionRepository.getMedianCommentsPerRecipe(start, end))
+                    .medianSavesPerRecipe(interactionRepository.getMedianSavesPerRecipe(start, end))
+                    .maxLikesOnRecipe(interactionRepository.getMaxLikesOnRecipe(start, end))
+                    .maxCommentsOnRecipe(interactionRepository.getMaxCommentsOnRecipe(start, end))
+                    .maxSavesOnRecipe(interactionRepository.getMaxSavesOnRecipe(start, end));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Trung bình, giá trị lớn nhất và phân phối lấy từ stats_recipe_daily; trung vị tính trên bảng sự kiện
+     * nếu không có sketch
+     */
+    private DetailedInteractionStatsDTO getDetailedInteractionStatsFromRollup(LocalDateTime start, LocalDateTime end,
+                                                                             boolean fromSketch) {
+        RecipeMetricSummary likes = rollupReader.recipeSummary(RollupMetric.LIKE, start, end);
+        RecipeMetricSummary comments = rollupReader.recipeSummary(RollupMetric.COMMENT, start, end);
+        RecipeMetricSummary saves = rollupReader.recipeSummary(RollupMetric.SAVE, start, end);
+
+        DetailedInteractionStatsDTO.DetailedInteractionStatsDTOBuilder builder = DetailedInteractionStatsDTO.builder()
+                .averageLikesPerRecipe(calculateAverage(likes.total(), likes.publishedRecipes()))
+                .averageCommentsPerRecipe(calculateAverage(comments.total(), comments.publishedRecipes()))
+                .averageSavesPerRecipe(calculateAverage(saves.total(), saves.publishedRecipes()))
+                .maxLikesOnRecipe(likes.max())
+                .maxCommentsOnRecipe(comments.max())
+                .maxSavesOnRecipe(saves.max())
+                .likeDistribution(mapToInteractionDistribution(likes.distribution()))
+                .commentDistribution(mapToInteractionDistribution(comments.distribution()))
+                .saveDistribution(mapToInteractionDistribution(saves.distribution()));
+
+        if (!fromSketch) {
+            builder.medianLikesPerRecipe(interactionRepository.getMedianLikesPerRecipe(start, end))
+                    .medianCommentsPerRecipe(interactionRepository.getMedianCommentsPerRecipe(start, end))
+                    .medianSavesPerRecipe(interactionRepository.getMedianSavesPerRecipe(start, end));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Điền trung vị, p90, top công thức nhiều bình luận từ sketch; max chỉ lấy từ sketch khi chưa có số chính xác
+     */
+    private void applySketchStatistics(DetailedInteractionStatsDTO stats) {
+        PercentileSummary likes = interactionSketchService.percentiles(RollupMetric.LIKE);
+        PercentileSummary comments = interactionSketchService.percentiles(RollupMetric.COMMENT);
+        PercentileSummary saves = interactionSketchService.percentiles(RollupMetric.SAVE);
+
+        stats.setMedianLikesPerRecipe(likes.median());
+        stats.setMedianCommentsPerRecipe(comments.median());
+        stats.setMedianSavesPerRecipe(saves.median());
+        stats.setP90LikesPerRecipe(likes.p90());
+        stats.setP90CommentsPerRecipe(comments.p90());
+        stats.setP90SavesPerRecipe(saves.p90());
+        if (stats.getMaxLikesOnRecipe() == null) {
+            stats.setMaxLikesOnRecipe(likes.max());
+            stats.setMaxCommentsOnRecipe(comments.max());
+            stats.setMaxSavesOnRecipe(saves.max());
+        }
+        stats.setTopCommentedRecipes(interactionSketchService.topRecipes(RollupMetric.COMMENT, TOP_SKETCH_RECIPES)
+                .stream()
+                .map(top -> RecipeInteractionCountDTO.builder()
+                        .recipeId(top.recipeId())
+                        .count(top.count())
+                        .maxError(top.maxError())
+                        .build())
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -127,13 +206,17 @@ public class InteractionStatisticsServiceImpl implements InteractionStatisticsSe
         LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
 
         // Lấy thống kê theo giờ
-        List<HourlyInteractionProjection> hourlyData = interactionRepository.getInteractionsByHour(start, end);
+        List<HourlyInteractionProjection> hourlyData = rollupReader.isEnabled()
+                ? rollupReader.interactionsByHour(start, end)
+                : interactionRepository.getInteractionsByHour(start, end);
         List<HourlyInteractionDTO> hourlyStats = hourlyData.stream()
                 .map(this::mapToHourlyInteraction)
                 .collect(Collectors.toList());
 
         // Lấy thống kê theo ngày trong tuần
-        List<DailyInteractionProjection> dailyData = interactionRepository.getInteractionsByDayOfWeek(start, end);
+        List<DailyInteractionProjection> dailyData = rollupReader.isEnabled()
+                ? rollupReader.interactionsByDayOfWeek(start, end)
+                : interactionRepository.getInteractionsByDayOfWeek(start, end);
         List<DailyInteractionDTO> dailyStats = dailyData.stream()
                 .map(this::mapToDailyInteraction)
                 .collect(Collectors.toList());
@@ -192,7 +275,9 @@ public class InteractionStatisticsServiceImpl implements InteractionStatisticsSe
         LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
 
         // Lấy dữ liệu xu hướng theo thời gian
-        List<FollowTrendProjection> trendData = interactionRepository.getFollowTrendsByPeriod(start, end, groupBy);
+        List<FollowTrendProjection> trendData = rollupReader.isEnabled()
+                ? rollupReader.followTrends(start, end, groupBy)
+                : interactionRepository.getFollowTrendsByPeriod(start, end, groupBy);
         List<FollowTrendDataDTO> trends = trendData.stream()
                 .map(this::mapToFollowTrendData)
                 .collect(Collectors.toList());
@@ -227,7 +312,9 @@ public class InteractionStatisticsServiceImpl implements InteractionStatisticsSe
         LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
 
         // Lấy engagement theo category
-        List<CategoryEngagementProjection> categoryData = interactionRepository.getEngagementByCategory(start, end);
+        List<CategoryEngagementProjection> categoryData = rollupReader.isEnabled()
+                ? rollupReader.engagementByCategory(start, end)
+                : interactionRepository.getEngagementByCategory(start, end);
         List<CategoryEngagementDTO> categoryEngagements = categoryData.stream()
                 .map(this::mapToCategoryEngagement)
                 .collect(Collectors.toList());
@@ -16,8 +16,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -43,7 +41,8 @@ public class RecipeStatisticsServiceImpl implements RecipeStatisticsService {
         final int finalLimit = topLimit;
 
         try {
-            // Chạy song song tất cả các truy vấn độc lập
+            // Chạy song song các phần độc lập; mỗi phần chỉ gọi truy vấn trực tiếp, không submit thêm task
+            // vào cùng pool nên không thể chờ lẫn nhau khi pool hết thread
             CompletableFuture<RecipeOverviewDTO> overviewFuture =
                     CompletableFuture.supplyAsync(this::getRecipeOverview, executorService);
 
@@ -102,87 +101,38 @@ public class RecipeStatisticsServiceImpl implements RecipeStatisticsService {
         LocalDateTime previousWeek = startOfWeek.minusWeeks(1);
         LocalDateTime previousMonth = startOfMonth.minusMonths(1);
 
-        try {
-            // Chạy song song các truy vấn đếm
-            CompletableFuture<Long> totalFuture =
-                    CompletableFuture.supplyAsync(statisticsRepository::countTotalRecipes, executorService);
-
-            CompletableFuture<Long> todayFuture =
-                    CompletableFuture.supplyAsync(() -> statisticsRepository.countNewRecipes(startOfToday), executorService);
-
-            CompletableFuture<Long> weekFuture =
-                    CompletableFuture.supplyAsync(() -> statisticsRepository.countNewRecipes(startOfWeek), executorService);
-
-            CompletableFuture<Long> monthFuture =
-                    CompletableFuture.supplyAsync(() -> statisticsRepository.countNewRecipes(startOfMonth), executorService);
-
-            CompletableFuture<Long> prevDayFuture =
-                    CompletableFuture.supplyAsync(() -> statisticsRepository.countNewRecipes(previousDay), executorService);
-
-            CompletableFuture<Long> prevWeekFuture =
-                    CompletableFuture.supplyAsync(() -> statisticsRepository.countNewRecipes(previousWeek), executorService);
-
-            CompletableFuture<Long> prevMonthFuture =
-                    CompletableFuture.supplyAsync(() -> statisticsRepository.countNewRecipes(previousMonth), executorService);
-
-            CompletableFuture<Map<String, Long>> byCategoryFuture =
-                    CompletableFuture.supplyAsync(() ->
-                            statisticsRepository.countRecipesByCategory()
-                                    .stream()
-                                    .collect(Collectors.toMap(
-                                            CategoryDistribution::getName,
-                                            CategoryDistribution::getCount,
-                                            (a, b) -> a,
-                                            LinkedHashMap::new
-                                    )), executorService);
-
-            CompletableFuture<Map<String, Long>> byDifficultyFuture =
-                    CompletableFuture.supplyAsync(() ->
-                            statisticsRepository.countRecipesByDifficulty()
-                                    .stream()
-                                    .collect(Collectors.toMap(
-                                            DifficultyDistribution::getDifficulty,
-                                            DifficultyDistribution::getCount,
-                                            (a, b) -> a,
-                                            LinkedHashMap::new
-                                    )), executorService);
-
-            // Đợi tất cả hoàn thành
-            CompletableFuture.allOf(
-                    totalFuture, todayFuture, weekFuture, monthFuture,
-                    prevDayFuture, prevWeekFuture, prevMonthFuture,
-                    byCategoryFuture, byDifficultyFuture
-            ).join();
+        // Tổng số, công thức mới và kỳ trước trong một lần quét bảng recipes
+        RecipeOverviewCounts counts = statisticsRepository.getRecipeOverviewCounts(
+                startOfToday, startOfWeek, startOfMonth, previousDay, previousWeek, previousMonth);
 
-            // Lấy kết quả
-            Long totalRecipes = totalFuture.get();
-            Long newToday = todayFuture.get();
-            Long newThisWeek = weekFuture.get();
-            Long newThisMonth = monthFuture.get();
-            Long previousDayCount = prevDayFuture.get() - newToday;
-            Long previousWeekCount = prevWeekFuture.get() - newThisWeek;
-            Long previousMonthCount = prevMonthFuture.get() - newThisMonth;
-
-            // Tính tốc độ tăng trưởng
-            Double dailyGrowth = calculateGrowthRate(newToday, previousDayCount);
-            Double weeklyGrowth = calculateGrowthRate(newThisWeek, previousWeekCount);
-            Double monthlyGrowth = calculateGrowthRate(newThisMonth, previousMonthCount);
-
-            return RecipeOverviewDTO.builder()
-                    .totalRecipes(totalRecipes)
-                    .newRecipesToday(newToday)
-                    .newRecipesThisWeek(newThisWeek)
-                    .newRecipesThisMonth(newThisMonth)
-                    .growthRateDaily(dailyGrowth)
-                    .growthRateWeekly(weeklyGrowth)
-                    .growthRateMonthly(monthlyGrowth)
-                    .recipesByCategory(byCategoryFuture.get())
-                    .recipesByDifficulty(byDifficultyFuture.get())
-                    .build();
-        } catch (Exception e) {
-            log.error("Error fetching recipe overview", e);
-            throw new RuntimeException("Failed to fetch recipe overview", e);
+        // Phân bố theo danh mục và độ khó trong một truy vấn
+        Map<String, Long> byCategory = new LinkedHashMap<>();
+        Map<String, Long> byDifficulty = new LinkedHashMap<>();
+        for (OverviewDistribution distribution : statisticsRepository.getOverviewDistributions()) {
+            Map<String, Long> target = "DIFFICULTY".equals(distribution.getDimension()) ? byDifficulty : byCategory;
+            target.putIfAbsent(distribution.getName(), distribution.getCount());
         }
+
+        Long newToday = counts.getNewToday();
+        Long newThisWeek = counts.getNewThisWeek();
+        Long newThisMonth = counts.getNewThisMonth();
+
+        // Tính tốc độ tăng trưởng
+        Double dailyGrowth = calculateGrowthRate(newToday, counts.getPreviousDay());
+        Double weeklyGrowth = calculateGrowthRate(newThisWeek, counts.getPreviousWeek());
+        Double monthlyGrowth = calculateGrowthRate(newThisMonth, counts.getPreviousMonth());
+
+        return RecipeOverviewDTO.builder()
+                .totalRecipes(counts.getTotalRecipes())
+                .newRecipesToday(newToday)
+                .newRecipesThisWeek(newThisWeek)
+                .newRecipesThisMonth(newThisMonth)
+                .growthRateDaily(dailyGrowth)
+                .growthRateWeekly(weeklyGrowth)
+                .growthRateMonthly(monthlyGrowth)
+                .recipesByCategory(byCategory)
+                .recipesByDifficulty(byDifficulty)
+                .build();
     }
 
 
@@ -265,62 +215,30 @@ public class RecipeStatisticsServiceImpl implements RecipeStatisticsService {
     public RecipeContentAnalysisDTO getContentAnalysis() {
         log.debug("Fetching content analysis");
 
-        try {
-            // Chạy song song các truy vấn phân tích
-            CompletableFuture<CookingTimeStats> cookingTimesFuture =
-                    CompletableFuture.supplyAsync(statisticsRepository::getAverageCookingTimes, executorService);
-
-            CompletableFuture<Double> avgIngredientsFuture =
-                    CompletableFuture.supplyAsync(statisticsRepository::getAverageIngredientCount, executorService);
-
-            CompletableFuture<Double> avgStepsFuture =
-                    CompletableFuture.supplyAsync(statisticsRepository::getAverageStepCount, executorService);
-
-            CompletableFuture<MediaStats> mediaStatsFuture =
-                    CompletableFuture.supplyAsync(statisticsRepository::getMediaStatistics, executorService);
-
-            CompletableFuture<ContentLengthStats> contentLengthFuture =
-                    CompletableFuture.supplyAsync(statisticsRepository::getAverageContentLength, executorService);
-
-            // Đợi tất cả hoàn thành
-            CompletableFuture.allOf(
-                    cookingTimesFuture, avgIngredientsFuture, avgStepsFuture,
-                    mediaStatsFuture, contentLengthFuture
-            ).join();
-
-            // Lấy kết quả
-            CookingTimeStats cookingTimes = cookingTimesFuture.get();
-            Double avgIngredients = avgIngredientsFuture.get();
-            Double avgSteps = avgStepsFuture.get();
-            MediaStats mediaStats = mediaStatsFuture.get();
-            ContentLengthStats contentLength = contentLengthFuture.get();
-
-            // Tính phần trăm media
-            Long total = mediaStats.getTotalRecipes();
-            Double imagePercentage = total > 0
-                    ? (mediaStats.getRecipesWithImage() * 100.0 / total)
-                    : 0.0;
-            Double videoPercentage = total > 0
-                    ? (mediaStats.getRecipesWithVideo() * 100.0 / total)
-                    : 0.0;
-
-            return RecipeContentAnalysisDTO.builder()
-                    .avgCookTime(cookingTimes.getAvgCookTime())
-                    .avgPrepTime(cookingTimes.getAvgPrepTime())
-                    .avgTotalTime(cookingTimes.getAvgTotalTime())
-                    .avgIngredientCount(avgIngredients != null ? avgIngredients : 0.0)
-                    .avgStepCount(avgSteps != null ? avgSteps : 0.0)
-                    .recipesWithImage(mediaStats.getRecipesWithImage())
-                    .recipesWithVideo(mediaStats.getRecipesWithVideo())
-                    .imagePercentage(imagePercentage)
-                    .videoPercentage(videoPercentage)
-                    .avgDescriptionLength(contentLength.getAvgDescriptionLength())
-                    .avgInstructionLength(contentLength.getAvgInstructionLength())
-                    .build();
-        } catch (Exception e) {
-            log.error("Error fetching content analysis", e);
-            throw new RuntimeException("Failed to fetch content analysis", e);
-        }
+        ContentAnalysisStats stats = statisticsRepository.getContentAnalysisStats();
+
+        // Tính phần trăm media
+        Long total = stats.getTotalRecipes();
+        Double imagePercentage = total > 0
+                ? (stats.getRecipesWithImage() * 100.0 / total)
+                : 0.0;
+        Double videoPercentage = total > 0
+                ? (stats.getRecipesWithVideo() * 100.0 / total)
+                : 0.0;
+
+        return RecipeContentAnalysisDTO.builder()
+                .avgCookTime(stats.getAvgCookTime())
+                .avgPrepTime(stats.getAvgPrepTime())
+                .avgTotalTime(stats.getAvgTotalTime())
+                .avgIngredientCount(stats.getAvgIngredientCount() != null ? stats.getAvgIngredientCount() : 0.0)
+                .avgStepCount(stats.getAvgStepCount() != null ? stats.getAvgStepCount() : 0.0)
+                .recipesWithImage(stats.getRecipesWithImage())
+                .recipesWithVideo(stats.getRecipesWithVideo())
+                .imagePercentage(imagePercentage)
+                .videoPercentage(videoPercentage)
+                .avgDescriptionLength(stats.getAvgDescriptionLength())
+                .avgInstructionLength(stats.getAvgInstructionLength())
+                .build();
     }
 
     @Override
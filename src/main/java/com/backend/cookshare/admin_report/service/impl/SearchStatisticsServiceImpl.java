@@ -4,8 +4,11 @@ import com.backend.cookshare.admin_report.dto.search_response.*;
 import com.backend.cookshare.admin_report.repository.SearchStatisticsRepository;
 import com.backend.cookshare.admin_report.repository.search_projection.*;
 import com.backend.cookshare.admin_report.service.SearchStatisticsService;
+import com.backend.cookshare.admin_report.service.rollup.RollupMetric;
+import com.backend.cookshare.admin_report.service.rollup.StatisticsRollupReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +17,7 @@ import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -24,6 +28,11 @@ import java.util.stream.Collectors;
 public class SearchStatisticsServiceImpl implements SearchStatisticsService {
 
     private final SearchStatisticsRepository searchRepository;
+    private final StatisticsRollupReader statisticsRollupReader;
+
+    // Đọc từ khóa phổ biến từ bảng gộp search_keyword_daily thay vì GROUP BY trên search_history
+    @Value("${cookshare.search-history.rollup.enabled:false}")
+    private boolean rollupEnabled;
 
     @Override
     public SearchOverviewDTO getSearchOverview(LocalDateTime startDate, LocalDateTime endDate) {
@@ -33,9 +42,10 @@ public class SearchStatisticsServiceImpl implements SearchStatisticsService {
         LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
 
         // Lấy các metrics cơ bản
-        Long totalSearches = searchRepository.countTotalSearches(start, end);
+        SearchCounts counts = countSearches(start, end);
+        Long totalSearches = counts.total();
         Long uniqueQueries = searchRepository.countUniqueQueries(start, end);
-        Long successfulSearches = searchRepository.countSuccessfulSearches(start, end);
+        Long successfulSearches = counts.successful();
         Long failedSearches = totalSearches - successfulSearches;
         Long totalUsers = searchRepository.countUniqueSearchUsers(start, end);
 
@@ -76,12 +86,19 @@ public class SearchStatisticsServiceImpl implements SearchStatisticsService {
         LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
 
         // Lấy keywords
-        List<PopularKeywordProjection> keywordData = searchRepository.getPopularKeywords(limit, start, end);
+        List<PopularKeywordProjection> keywordData = rollupEnabled
+                ? searchRepository.getPopularKeywordsFromRollup(limit, start, end)
+                : searchRepository.getPopularKeywords(limit, start, end);
         List<KeywordStatsDTO> keywords = keywordData.stream()
                 .map(this::mapToKeywordStats)
                 .collect(Collectors.toList());
+        if (rollupEnabled) {
+            fillUniqueUsersFromHistory(keywords, start, end);
+        }
 
-        Integer totalUnique = searchRepository.countUniqueQueries(start, end).intValue();
+        Integer totalUnique = (rollupEnabled
+                ? searchRepository.countUniqueQueriesFromRollup(start, end)
+                : searchRepository.countUniqueQueries(start, end)).intValue();
 
         log.info("Đã lấy {} từ khóa từ tổng {} từ khóa unique", keywords.size(), totalUnique);
 
@@ -152,8 +169,9 @@ public class SearchStatisticsServiceImpl implements SearchStatisticsService {
         LocalDateTime start = startDate != null ? startDate : LocalDateTime.now().minusMonths(1);
         LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
 
-        Long totalSearches = searchRepository.countTotalSearches(start, end);
-        Long successful = searchRepository.countSuccessfulSearches(start, end);
+        SearchCounts counts = countSearches(start, end);
+        Long totalSearches = counts.total();
+        Long successful = counts.successful();
         Long failed = totalSearches - successful;
 
         BigDecimal successRate = calculatePercentage(successful, totalSearches);
@@ -251,6 +269,23 @@ public class SearchStatisticsServiceImpl implements SearchStatisticsService {
 
 
 
+    /**
+     * Số user khác nhau không cộng được qua các ngày của bảng gộp, nên đếm trực tiếp trên search_history
+     * cho riêng các từ khóa top bằng một câu truy vấn, cùng khoảng ngày với bảng gộp
+     */
+    private void fillUniqueUsersFromHistory(List<KeywordStatsDTO> keywords, LocalDateTime start, LocalDateTime end) {
+        if (keywords.isEmpty()) {
+            return;
+        }
+        List<String> queries = keywords.stream().map(KeywordStatsDTO::getKeyword).collect(Collectors.toList());
+        Map<String, Long> uniqueUsers = searchRepository.countUniqueUsersByQueries(queries,
+                        start.toLocalDate().atStartOfDay(), end.toLocalDate().plusDays(1).atStartOfDay())
+                .stream()
+                .collect(Collectors.toMap(KeywordUserCountProjection::getSearchQuery,
+                        KeywordUserCountProjection::getUniqueUsers));
+        keywords.forEach(keyword -> keyword.setUniqueUsers(uniqueUsers.getOrDefault(keyword.getKeyword(), 0L)));
+    }
+
     private KeywordStatsDTO mapToKeywordStats(PopularKeywordProjection projection) {
         BigDecimal avgResults = projection.getAvgResults() != null ? projection.getAvgResults() : BigDecimal.ZERO;
         BigDecimal successRate = avgResults.compareTo(BigDecimal.ZERO) > 0
@@ -363,6 +398,21 @@ public class SearchStatisticsServiceImpl implements SearchStatisticsService {
                 .build();
     }
 
+    /**
+     * Tổng số lượt tìm kiếm và số lượt có kết quả, lấy từ bảng gộp thống kê nếu đã bật
+     */
+    private SearchCounts countSearches(LocalDateTime start, LocalDateTime end) {
+        if (statisticsRollupReader.isEnabled()) {
+            Map<RollupMetric, Long> totals = statisticsRollupReader.totals(start, end);
+            return new SearchCounts(totals.get(RollupMetric.SEARCH), totals.get(RollupMetric.SEARCH_SUCCESS));
+        }
+        return new SearchCounts(searchRepository.countTotalSearches(start, end),
+                searchRepository.countSuccessfulSearches(start, end));
+    }
+
+    private record SearchCounts(Long total, Long successful) {
+    }
+
     private BigDecimal calculatePercentage(Long part, Long total) {
         if (total == null || total == 0) {
             return BigDecimal.ZERO;
@@ -0,0 +1,38 @@
+package com.backend.cookshare.admin_report.service.rollup;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Các chỉ số được gộp theo giờ/ngày và bảng sự kiện gốc của từng chỉ số.
+ * Cột trong SQL luôn đi kèm alias "e" của bảng nguồn.
+ */
+@Getter
+@AllArgsConstructor
+public enum RollupMetric {
+    LIKE("recipe_likes", "e.created_at", "e.recipe_id", null),
+    COMMENT("comments", "e.created_at", "e.recipe_id", null),
+    SAVE("collection_recipes", "e.added_at", "e.recipe_id", null),
+    VIEW("activity_logs", "e.created_at", "e.target_id", "e.activity_type = 'VIEW'"),
+    FOLLOW("follows", "e.created_at", null, null),
+    SEARCH("search_history", "e.created_at", null, null),
+    SEARCH_SUCCESS("search_history", "e.created_at", null, "e.result_count > 0");
+
+    private final String sourceTable;
+    private final String timeColumn;
+    // null nếu sự kiện không gắn với công thức (không gộp theo công thức / danh mục)
+    private final String recipeColumn;
+    private final String filter;
+
+    public boolean hasRecipe() {
+        return recipeColumn != null;
+    }
+
+    /**
+     * Điều kiện lọc sự kiện trong khoảng [?, ?) theo cột thời gian
+     */
+    String windowCondition() {
+        String window = timeColumn + " >= ? AND " + timeColumn + " < ?";
+        return filter != null ? window + " AND " + filter : window;
+    }
+}
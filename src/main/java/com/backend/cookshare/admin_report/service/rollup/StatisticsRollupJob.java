@@ -0,0 +1,186 @@
+package com.backend.cookshare.admin_report.service.rollup;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gộp dần các bảng sự kiện (recipe_likes, comments, collection_recipes, activity_logs, follows, search_history)
+ * vào bảng thống kê theo giờ/ngày, theo từng chỉ số, từng công thức và từng danh mục.
+ *
+ * Mỗi chỉ số có một high-watermark trên cột thời gian: mỗi lần chạy chỉ đọc sự kiện trong [watermark, now - lag),
+ * cộng dồn vào các bảng gộp và dời watermark trong cùng một transaction, nên chạy lại không bị đếm trùng.
+ * Lần chạy đầu bắt đầu từ sự kiện cũ nhất và tiến tối đa max-window-hours mỗi lần để không quét cả bảng một lúc.
+ * Sự kiện bị xóa sau đó (unlike, xóa bình luận) không bị trừ khỏi bảng gộp; sự kiện commit trễ hơn lag bị bỏ sót.
+ * Chỉ dùng khi bật cookshare.statistics.rollup.enabled:
+ * CREATE TABLE stats_metric_hourly (metric VARCHAR(20) NOT NULL, bucket_start TIMESTAMP NOT NULL,
+ *   event_count BIGINT NOT NULL, PRIMARY KEY (metric, bucket_start));
+ * CREATE TABLE stats_metric_daily (metric VARCHAR(20) NOT NULL, bucket_date DATE NOT NULL,
+ *   event_count BIGINT NOT NULL, PRIMARY KEY (metric, bucket_date));
+ * CREATE TABLE stats_recipe_daily (metric VARCHAR(20) NOT NULL, bucket_date DATE NOT NULL, recipe_id UUID NOT NULL,
+ *   event_count BIGINT NOT NULL, PRIMARY KEY (metric, bucket_date, recipe_id));
+ * CREATE TABLE stats_category_daily (metric VARCHAR(20) NOT NULL, bucket_date DATE NOT NULL, category_id UUID NOT NULL,
+ *   event_count BIGINT NOT NULL, PRIMARY KEY (metric, bucket_date, category_id));
+ * CREATE TABLE stats_rollup_watermark (metric VARCHAR(20) PRIMARY KEY, high_watermark TIMESTAMP NOT NULL);
+ */
+@Component
+@Slf4j
+public class StatisticsRollupJob {
+
+    // Khóa advisory để nhiều instance không cùng gộp một khoảng
+    static final long ADVISORY_LOCK_KEY = 0x636f6f6b726f6c6cL;
+
+    static final String LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+
+    static final String WATERMARK_SQL = "SELECT high_watermark FROM stats_rollup_watermark WHERE metric = ?";
+
+    static final String SAVE_WATERMARK_SQL = "INSERT INTO stats_rollup_watermark (metric, high_watermark) VALUES (?, ?) "
+            + "ON CONFLICT (metric) DO UPDATE SET high_watermark = EXCLUDED.high_watermark";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration lag;
+    private final Duration maxWindow;
+
+    private final LongAdder upsertedRows = new LongAdder();
+    private final LongAdder failedRuns = new LongAdder();
+
+    public StatisticsRollupJob(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${cookshare.statistics.rollup.enabled:false}") boolean enabled,
+                               @Value("${cookshare.statistics.rollup.lag-seconds:120}") long lagSeconds,
+                               @Value("${cookshare.statistics.rollup.max-window-hours:168}") long maxWindowHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.lag = Duration.ofSeconds(lagSeconds);
+        this.maxWindow = Duration.ofHours(maxWindowHours);
+
+        Gauge.builder("cookshare.statistics.rollup.upserted", upsertedRows, LongAdder::sum)
+                .description("Số dòng bảng thống kê gộp đã được cộng dồn")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.statistics.rollup.failed", failedRuns, LongAdder::sum)
+                .description("Số lần gộp thống kê bị lỗi")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cookshare.statistics.rollup.interval-ms:300000}",
+            initialDelayString = "${cookshare.statistics.rollup.interval-ms:300000}")
+    public void scheduledRollup() {
+        if (enabled) {
+            rollup(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Gộp mọi chỉ số tới thời điểm now - lag
+     *
+     * @return số dòng bảng gộp đã được ghi
+     */
+    public int rollup(LocalDateTime now) {
+        LocalDateTime upperBound = now.minus(lag).truncatedTo(ChronoUnit.MINUTES);
+        int total = 0;
+        for (RollupMetric metric : RollupMetric.values()) {
+            try {
+                Integer rows = transactionTemplate.execute(status -> rollupMetric(metric, upperBound));
+                total += rows != null ? rows : 0;
+            } catch (Exception e) {
+                failedRuns.increment();
+                log.warn("Không thể gộp thống kê {}: {}", metric, e.getMessage());
+            }
+        }
+        upsertedRows.add(total);
+        return total;
+    }
+
+    int rollupMetric(RollupMetric metric, LocalDateTime upperBound) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class, ADVISORY_LOCK_KEY + metric.ordinal()))) {
+            return 0;
+        }
+        LocalDateTime from = currentWatermark(metric, upperBound);
+        LocalDateTime to = from.plus(maxWindow).isBefore(upperBound) ? from.plus(maxWindow) : upperBound;
+        if (!to.isAfter(from)) {
+            return 0;
+        }
+
+        Timestamp fromTs = Timestamp.valueOf(from);
+        Timestamp toTs = Timestamp.valueOf(to);
+        String name = metric.name();
+        int rows = jdbcTemplate.update(hourlySql(metric), name, fromTs, toTs);
+        rows += jdbcTemplate.update(dailySql(metric), name, fromTs, toTs);
+        if (metric.hasRecipe()) {
+            rows += jdbcTemplate.update(recipeDailySql(metric), name, fromTs, toTs);
+            rows += jdbcTemplate.update(categoryDailySql(metric), name, fromTs, toTs);
+        }
+        jdbcTemplate.update(SAVE_WATERMARK_SQL, name, toTs);
+        log.debug("Đã gộp {} từ {} tới {} ({} dòng)", metric, from, to, rows);
+        return rows;
+    }
+
+    /**
+     * Watermark đã lưu; chưa có thì bắt đầu từ giờ của sự kiện cũ nhất
+     */
+    private LocalDateTime currentWatermark(RollupMetric metric, LocalDateTime upperBound) {
+        List<Timestamp> saved = jdbcTemplate.queryForList(WATERMARK_SQL, Timestamp.class, metric.name());
+        if (!saved.isEmpty()) {
+            return saved.get(0).toLocalDateTime();
+        }
+        Timestamp oldest = jdbcTemplate.queryForObject(oldestEventSql(metric), Timestamp.class);
+        return oldest != null ? oldest.toLocalDateTime().truncatedTo(ChronoUnit.HOURS) : upperBound;
+    }
+
+    static String oldestEventSql(RollupMetric metric) {
+        return "SELECT MIN(" + metric.getTimeColumn() + ") FROM " + metric.getSourceTable() + " e"
+                + (metric.getFilter() != null ? " WHERE " + metric.getFilter() : "");
+    }
+
+    static String hourlySql(RollupMetric metric) {
+        return "INSERT INTO stats_metric_hourly (metric, bucket_start, event_count) "
+                + "SELECT ?, DATE_TRUNC('hour', " + metric.getTimeColumn() + "), COUNT(*) "
+                + "FROM " + metric.getSourceTable() + " e WHERE " + metric.windowCondition() + " GROUP BY 2 "
+                + "ON CONFLICT (metric, bucket_start) DO UPDATE "
+                + "SET event_count = stats_metric_hourly.event_count + EXCLUDED.event_count";
+    }
+
+    static String dailySql(RollupMetric metric) {
+        return "INSERT INTO stats_metric_daily (metric, bucket_date, event_count) "
+                + "SELECT ?, CAST(" + metric.getTimeColumn() + " AS DATE), COUNT(*) "
+                + "FROM " + metric.getSourceTable() + " e WHERE " + metric.windowCondition() + " GROUP BY 2 "
+                + "ON CONFLICT (metric, bucket_date) DO UPDATE "
+                + "SET event_count = stats_metric_daily.event_count + EXCLUDED.event_count";
+    }
+
+    static String recipeDailySql(RollupMetric metric) {
+        return "INSERT INTO stats_recipe_daily (metric, bucket_date, recipe_id, event_count) "
+                + "SELECT ?, CAST(" + metric.getTimeColumn() + " AS DATE), " + metric.getRecipeColumn() + ", COUNT(*) "
+                + "FROM " + metric.getSourceTable() + " e WHERE " + metric.windowCondition()
+                + " AND " + metric.getRecipeColumn() + " IS NOT NULL GROUP BY 2, 3 "
+                + "ON CONFLICT (metric, bucket_date, recipe_id) DO UPDATE "
+                + "SET event_count = stats_recipe_daily.event_count + EXCLUDED.event_count";
+    }
+
+    static String categoryDailySql(RollupMetric metric) {
+        return "INSERT INTO stats_category_daily (metric, bucket_date, category_id, event_count) "
+                + "SELECT ?, CAST(" + metric.getTimeColumn() + " AS DATE), rc.category_id, COUNT(*) "
+                + "FROM " + metric.getSourceTable() + " e "
+                + "JOIN recipe_categories rc ON rc.recipe_id = " + metric.getRecipeColumn()
+                + " WHERE " + metric.windowCondition() + " GROUP BY 2, 3 "
+                + "ON CONFLICT (metric, bucket_date, category_id) DO UPDATE "
+                + "SET event_count = stats_category_daily.event_count + EXCLUDED.event_count";
+    }
+}
@@ -0,0 +1,230 @@
+package com.backend.cookshare.admin_report.service.rollup;
+
+import com.backend.cookshare.admin_report.repository.interaction_projection.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Đọc thống kê từ các bảng gộp của {@link StatisticsRollupJob} thay vì quét bảng sự kiện.
+ *
+ * Khoảng [start, end] được chia thành các ngày trọn vẹn (đọc stats_*_daily) và phần lẻ ở hai đầu
+ * (đọc stats_metric_hourly), nên một khoảng vài tháng chỉ cộng vài trăm dòng. Độ chính xác là theo giờ
+ * (giờ đầu và giờ cuối được tính trọn), các thống kê theo công thức / danh mục chính xác theo ngày.
+ * Dữ liệu mới hơn watermark (tối đa một chu kỳ job cộng lag) chưa có trong kết quả.
+ */
+@Component
+public class StatisticsRollupReader {
+
+    static final String TOTALS_SQL = "SELECT metric, SUM(event_count) FROM ("
+            + "SELECT metric, event_count FROM stats_metric_daily WHERE bucket_date >= ? AND bucket_date < ? "
+            + "UNION ALL "
+            + "SELECT metric, event_count FROM stats_metric_hourly "
+            + "WHERE (bucket_start >= ? AND bucket_start < ?) OR (bucket_start >= ? AND bucket_start < ?)"
+            + ") s GROUP BY metric";
+
+    static final String BY_HOUR_SQL = "SELECT EXTRACT(HOUR FROM bucket_start)::integer AS hour, "
+            + "COALESCE(SUM(event_count) FILTER (WHERE metric = 'LIKE'), 0) AS likes, "
+            + "COALESCE(SUM(event_count) FILTER (WHERE metric = 'COMMENT'), 0) AS comments, "
+            + "COALESCE(SUM(event_count) FILTER (WHERE metric = 'SAVE'), 0) AS saves, "
+            + "SUM(event_count) AS total "
+            + "FROM stats_metric_hourly WHERE metric IN ('LIKE', 'COMMENT', 'SAVE') "
+            + "AND bucket_start >= ? AND bucket_start < ? GROUP BY 1 ORDER BY 1";
+
+    static final String BY_DAY_OF_WEEK_SQL = "SELECT EXTRACT(ISODOW FROM bucket_start)::integer AS day_of_week, "
+            + "COALESCE(SUM(event_count) FILTER (WHERE metric = 'LIKE'), 0) AS likes, "
+            + "COALESCE(SUM(event_count) FILTER (WHERE metric = 'COMMENT'), 0) AS comments, "
+            + "COALESCE(SUM(event_count) FILTER (WHERE metric = 'SAVE'), 0) AS saves, "
+            + "SUM(event_count) AS total "
+            + "FROM stats_metric_hourly WHERE metric IN ('LIKE', 'COMMENT', 'SAVE') "
+            + "AND bucket_start >= ? AND bucket_start < ? GROUP BY 1 ORDER BY 1";
+
+    // Đơn vị DATE_TRUNC chỉ bind một lần: Postgres coi hai tham số khác nhau là hai biểu thức khác nhau khi GROUP BY
+    static final String FOLLOW_TRENDS_SQL = "WITH periods AS ("
+            + "SELECT DATE_TRUNC(?, bucket_date::timestamp) AS period_date, SUM(event_count) AS new_follows "
+            + "FROM stats_metric_daily WHERE metric = 'FOLLOW' AND bucket_date >= ? AND bucket_date <= ? "
+            + "GROUP BY 1) "
+            + "SELECT period_date, new_follows, SUM(new_follows) OVER (ORDER BY period_date) AS cumulative_follows "
+            + "FROM periods ORDER BY period_date";
+
+    static final String CATEGORY_ENGAGEMENT_SQL = "SELECT c.category_id, c.name, rc.recipe_count, "
+            + "COALESCE(SUM(s.event_count) FILTER (WHERE s.metric = 'VIEW'), 0) AS total_views, "
+            + "COALESCE(SUM(s.event_count) FILTER (WHERE s.metric = 'LIKE'), 0) AS total_likes, "
+            + "COALESCE(SUM(s.event_count) FILTER (WHERE s.metric = 'COMMENT'), 0) AS total_comments, "
+            + "COALESCE(SUM(s.event_count) FILTER (WHERE s.metric = 'SAVE'), 0) AS total_saves "
+            + "FROM categories c "
+            + "JOIN (SELECT rc.category_id, COUNT(DISTINCT r.recipe_id) AS recipe_count FROM recipe_categories rc "
+            + "JOIN recipes r ON r.recipe_id = rc.recipe_id WHERE r.is_published = true GROUP BY rc.category_id) rc "
+            + "ON rc.category_id = c.category_id "
+            + "LEFT JOIN stats_category_daily s ON s.category_id = c.category_id "
+            + "AND s.bucket_date >= ? AND s.bucket_date <= ? "
+            + "GROUP BY c.category_id, c.name, rc.recipe_count ORDER BY total_views DESC";
+
+    static final String RECIPE_SUMMARY_SQL = "WITH per_recipe AS ("
+            + "SELECT s.recipe_id, SUM(s.event_count) AS cnt FROM stats_recipe_daily s "
+            + "JOIN recipes r ON r.recipe_id = s.recipe_id AND r.is_published = true "
+            + "WHERE s.metric = ? AND s.bucket_date >= ? AND s.bucket_date <= ? GROUP BY s.recipe_id) "
+            + "SELECT (SELECT COUNT(*) FROM recipes WHERE is_published = true) AS recipes, "
+            + "COUNT(*) AS active_recipes, COALESCE(SUM(cnt), 0) AS total, COALESCE(MAX(cnt), 0) AS max_count, "
+            + "COUNT(*) FILTER (WHERE cnt <= 10) AS range1_10, "
+            + "COUNT(*) FILTER (WHERE cnt BETWEEN 11 AND 50) AS range11_50, "
+            + "COUNT(*) FILTER (WHERE cnt BETWEEN 51 AND 100) AS range51_100, "
+            + "COUNT(*) FILTER (WHERE cnt BETWEEN 101 AND 500) AS range101_500, "
+            + "COUNT(*) FILTER (WHERE cnt > 500) AS range_over500 "
+            + "FROM per_recipe";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public StatisticsRollupReader(JdbcTemplate jdbcTemplate,
+                                  @Value("${cookshare.statistics.rollup.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Tổng số sự kiện của mọi chỉ số trong khoảng, chỉ số không có sự kiện trả về 0
+     */
+    public Map<RollupMetric, Long> totals(LocalDateTime start, LocalDateTime end) {
+        RangeSplit split = RangeSplit.of(start, end);
+        Map<RollupMetric, Long> totals = new EnumMap<>(RollupMetric.class);
+        for (RollupMetric metric : RollupMetric.values()) {
+            totals.put(metric, 0L);
+        }
+        jdbcTemplate.query(TOTALS_SQL, rs -> {
+            totals.put(RollupMetric.valueOf(rs.getString(1)), rs.getLong(2));
+        }, Date.valueOf(split.fullDaysStart()), Date.valueOf(split.fullDaysEnd()),
+                Timestamp.valueOf(split.headStart()), Timestamp.valueOf(split.headEnd()),
+                Timestamp.valueOf(split.tailStart()), Timestamp.valueOf(split.tailEnd()));
+        return totals;
+    }
+
+    public List<HourlyInteractionProjection> interactionsByHour(LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.query(BY_HOUR_SQL, (rs, rowNum) -> new HourlyRow(
+                        rs.getInt(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                Timestamp.valueOf(start.truncatedTo(ChronoUnit.HOURS)), Timestamp.valueOf(end));
+    }
+
+    public List<DailyInteractionProjection> interactionsByDayOfWeek(LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.query(BY_DAY_OF_WEEK_SQL, (rs, rowNum) -> new DayOfWeekRow(
+                        rs.getInt(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                Timestamp.valueOf(start.truncatedTo(ChronoUnit.HOURS)), Timestamp.valueOf(end));
+    }
+
+    public List<FollowTrendProjection> followTrends(LocalDateTime start, LocalDateTime end, String groupBy) {
+        String unit = switch (groupBy == null ? "" : groupBy) {
+            case "WEEK" -> "week";
+            case "MONTH" -> "month";
+            default -> "day";
+        };
+        return jdbcTemplate.query(FOLLOW_TRENDS_SQL, (rs, rowNum) -> new FollowTrendRow(
+                        rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2), rs.getLong(3)),
+                unit, Date.valueOf(start.toLocalDate()), Date.valueOf(end.toLocalDate()));
+    }
+
+    public List<CategoryEngagementProjection> engagementByCategory(LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.query(CATEGORY_ENGAGEMENT_SQL, (rs, rowNum) -> new CategoryEngagementRow(
+                        rs.getObject(1, UUID.class), rs.getString(2), rs.getLong(3),
+                        rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7)),
+                Date.valueOf(start.toLocalDate()), Date.valueOf(end.toLocalDate()));
+    }
+
+    /**
+     * Tổng, giá trị lớn nhất và phân phối số sự kiện trên mỗi công thức đã xuất bản (tính theo ngày)
+     */
+    public RecipeMetricSummary recipeSummary(RollupMetric metric, LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.queryForObject(RECIPE_SUMMARY_SQL, (rs, rowNum) -> {
+                    long recipes = rs.getLong(1);
+                    long inactive = Math.max(0, recipes - rs.getLong(2));
+                    return new RecipeMetricSummary(recipes, rs.getLong(3), rs.getLong(4),
+                            new DistributionRow(inactive + rs.getLong(5), rs.getLong(6), rs.getLong(7),
+                                    rs.getLong(8), rs.getLong(9)));
+                },
+                metric.name(), Date.valueOf(start.toLocalDate()), Date.valueOf(end.toLocalDate()));
+    }
+
+    /**
+     * Ngày trọn vẹn [fullDaysStart, fullDaysEnd) và hai phần lẻ theo giờ [headStart, headEnd), [tailStart, tailEnd)
+     */
+    record RangeSplit(LocalDate fullDaysStart, LocalDate fullDaysEnd,
+                      LocalDateTime headStart, LocalDateTime headEnd,
+                      LocalDateTime tailStart, LocalDateTime tailEnd) {
+
+        static RangeSplit of(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime hourStart = start.truncatedTo(ChronoUnit.HOURS);
+            LocalDate firstFullDay = start.equals(start.toLocalDate().atStartOfDay())
+                    ? start.toLocalDate() : start.toLocalDate().plusDays(1);
+            LocalDate endDay = end.toLocalDate();
+            if (!firstFullDay.isBefore(endDay)) {
+                // Không có ngày trọn vẹn: chỉ đọc theo giờ
+                return new RangeSplit(endDay, endDay, hourStart, end, end, end);
+            }
+            return new RangeSplit(firstFullDay, endDay,
+                    hourStart, firstFullDay.atStartOfDay(), endDay.atStartOfDay(), end);
+        }
+    }
+
+    public record RecipeMetricSummary(long publishedRecipes, long total, long max,
+                                      InteractionDistributionProjection distribution) {
+    }
+
+    record HourlyRow(Integer hour, Long likes, Long comments, Long saves, Long total)
+            implements HourlyInteractionProjection {
+        public Integer getHour() { return hour; }
+        public Long getLikes() { return likes; }
+        public Long getComments() { return comments; }
+        public Long getSaves() { return saves; }
+        public Long getTotal() { return total; }
+    }
+
+    record DayOfWeekRow(Integer dayOfWeek, Long likes, Long comments, Long saves, Long total)
+            implements DailyInteractionProjection {
+        public Integer getDayOfWeek() { return dayOfWeek; }
+        public Long getLikes() { return likes; }
+        public Long getComments() { return comments; }
+        public Long getSaves() { return saves; }
+        public Long getTotal() { return total; }
+    }
+
+    record FollowTrendRow(LocalDateTime periodDate, Long newFollows, Long cumulativeFollows)
+            implements FollowTrendProjection {
+        public LocalDateTime getPeriodDate() { return periodDate; }
+        public Long getNewFollows() { return newFollows; }
+        public Long getCumulativeFollows() { return cumulativeFollows; }
+    }
+
+    record CategoryEngagementRow(UUID categoryId, String categoryName, Long recipeCount, Long totalViews,
+                                 Long totalLikes, Long totalComments, Long totalSaves)
+            implements CategoryEngagementProjection {
+        public UUID getCategoryId() { return categoryId; }
+        public String getCategoryName() { return categoryName; }
+        public Long getRecipeCount() { return recipeCount; }
+        public Long getTotalViews() { return totalViews; }
+        public Long getTotalLikes() { return totalLikes; }
+        public Long getTotalComments() { return totalComments; }
+        public Long getTotalSaves() { return totalSaves; }
+    }
+
+    record DistributionRow(Long range0To10, Long range11To50, Long range51To100, Long range101To500, Long rangeOver500)
+            implements InteractionDistributionProjection {
+        public Long getRange0To10() { return range0To10; }
+        public Long getRange11To50() { return range11To50; }
+        public Long getRange51To100() { return range51To100; }
+        public Long getRange101To500() { return range101To500; }
+        public Long getRangeOver500() { return rangeOver500; }
+    }
+}
@@ -0,0 +1,389 @@
+package com.backend.cookshare.admin_report.service.sketch;
+
+import com.backend.cookshare.admin_report.service.rollup.RollupMetric;
+import com.backend.cookshare.admin_report.service.sketch.SpaceSavingCounter.HeavyHitter;
+import com.backend.cookshare.common.transaction.AfterCommit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thống kê tương tác dạng streaming cho dashboard: trung vị / p90 / max số like, comment, save trên mỗi công thức
+ * và top công thức nhiều tương tác nhất trong cửa sổ window-days ngày gần nhất, đọc trong bộ nhớ thay vì
+ * GROUP BY + PERCENTILE_CONT trên bảng sự kiện.
+ *
+ * Mỗi chỉ số giữ số sự kiện theo (ngày, công thức) cho các công thức có tương tác trong cửa sổ, tổng theo công thức
+ * và một {@link LogLinearHistogram} của các tổng đó (sai số tương đối ≤ 1/64). Công thức đã xuất bản không có
+ * tương tác được tính là 0 khi lấy phân vị. Top-K dùng một {@link SpaceSavingCounter} mỗi ngày, gộp lúc đọc.
+ * Phân vị theo nearest-rank nên có thể lệch một bậc so với PERCENTILE_CONT (nội suy) khi số công thức chẵn.
+ *
+ * Chỉ cộng sự kiện mới (bỏ like, xóa bình luận không bị trừ). Mỗi lần checkpoint cộng phần tăng thêm kể từ lần trước
+ * vào interaction_sketch_checkpoint nên nhiều instance cùng ghi không đè số của nhau; khi khởi động nạp lại tổng từ bảng.
+ * Sự kiện của instance khác sau lần nạp chỉ thấy sau khi khởi động lại; sự kiện sau checkpoint cuối bị mất nếu ứng dụng
+ * dừng đột ngột. Lần đầu bật (checkpoint của một chỉ số còn trống) thì số đếm được nạp từ bảng sự kiện gốc.
+ * Chỉ dùng khi bật cookshare.statistics.sketch.enabled:
+ * CREATE TABLE interaction_sketch_checkpoint (metric VARCHAR(20) NOT NULL, bucket_date DATE NOT NULL,
+ *   recipe_id UUID NOT NULL, event_count BIGINT NOT NULL, PRIMARY KEY (metric, bucket_date, recipe_id));
+ */
+@Component
+@Slf4j
+public class InteractionSketchService {
+
+    static final List<RollupMetric> METRICS = List.of(RollupMetric.LIKE, RollupMetric.COMMENT, RollupMetric.SAVE);
+
+    static final String UPSERT_SQL = "INSERT INTO interaction_sketch_checkpoint (metric, bucket_date, recipe_id, event_count) "
+            + "VALUES (?, ?, ?, ?) ON CONFLICT (metric, bucket_date, recipe_id) DO UPDATE SET event_count = interaction_sketch_checkpoint.event_count + EXCLUDED.event_count";
+
+    static final String PRUNE_SQL = "DELETE FROM interaction_sketch_checkpoint WHERE bucket_date < ?";
+
+    static final String RESTORE_SQL = "SELECT metric, bucket_date, recipe_id, event_count "
+            + "FROM interaction_sketch_checkpoint WHERE bucket_date >= ?";
+
+    /**
+     * Nạp checkpoint từ bảng sự kiện gốc nếu chỉ số chưa có dòng nào. Hai instance cùng nạp thì tính ra cùng số,
+     * ON CONFLICT DO NOTHING bỏ qua bên đến sau.
+     */
+    static String seedSql(RollupMetric metric) {
+        String day = "CAST(" + metric.getTimeColumn() + " AS DATE)";
+        String filter = metric.getFilter() != null ? " AND " + metric.getFilter() : "";
+        return "INSERT INTO interaction_sketch_checkpoint (metric, bucket_date, recipe_id, event_count) "
+                + "SELECT ?, " + day + ", " + metric.getRecipeColumn() + ", COUNT(*) FROM " + metric.getSourceTable() + " e "
+                + "WHERE " + metric.getTimeColumn() + " >= ?" + filter
+                + " AND NOT EXISTS (SELECT 1 FROM interaction_sketch_checkpoint c WHERE c.metric = ?) "
+                + "GROUP BY 2, 3 ON CONFLICT (metric, bucket_date, recipe_id) DO NOTHING";
+    }
+
+    static final String PUBLISHED_COUNT_SQL = "SELECT COUNT(*) FROM recipes WHERE is_published = true";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int windowDays;
+    private final int toleranceDays;
+
+    private final Map<RollupMetric, RecipeCountSketch> sketches = new EnumMap<>(RollupMetric.class);
+    private final LongAdder checkpointFailures = new LongAdder();
+    private final Object checkpointLock = new Object();
+    private volatile long publishedRecipes;
+    // Chưa nạp checkpoint thì không ghi đè, tránh thay số đã lưu bằng số đếm từ rỗng
+    private volatile boolean restored;
+
+    public InteractionSketchService(JdbcTemplate jdbcTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${cookshare.statistics.sketch.enabled:false}") boolean enabled,
+                                    @Value("${cookshare.statistics.sketch.window-days:31}") int windowDays,
+                                    @Value("${cookshare.statistics.sketch.tolerance-days:3}") int toleranceDays,
+                                    @Value("${cookshare.statistics.sketch.top-k-capacity:200}") int topKCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.windowDays = Math.max(1, windowDays);
+        this.toleranceDays = Math.max(0, toleranceDays);
+        for (RollupMetric metric : METRICS) {
+            sketches.put(metric, new RecipeCountSketch(topKCapacity));
+        }
+
+        Gauge.builder("cookshare.statistics.sketch.recipes", this,
+                        service -> service.sketches.values().stream().mapToLong(RecipeCountSketch::trackedRecipes).sum())
+                .description("Số cặp (chỉ số, công thức) đang được theo dõi trong sketch tương tác")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.statistics.sketch.checkpoint.failures", checkpointFailures, LongAdder::sum)
+                .description("Số lần checkpoint sketch tương tác thất bại")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ghi nhận một sự kiện like / comment / save; trong transaction thì chỉ ghi sau khi commit
+     */
+    public void record(RollupMetric metric, UUID recipeId) {
+        if (!enabled || recipeId == null || !sketches.containsKey(metric)) {
+            return;
+        }
+        AfterCommit.run("ghi nhận sự kiện vào sketch tương tác", () -> record(metric, recipeId, LocalDate.now()));
+    }
+
+    void record(RollupMetric metric, UUID recipeId, LocalDate day) {
+        RecipeCountSketch sketch = sketches.get(metric);
+        sketch.expireBefore(windowStart(day));
+        sketch.add(day, recipeId, 1, true);
+    }
+
+    /**
+     * Khoảng [start, end] có khớp cửa sổ của sketch không: kết thúc từ hôm nay trở đi
+     * và ngày bắt đầu lệch đầu cửa sổ không quá tolerance-days
+     */
+    public boolean covers(LocalDateTime start, LocalDateTime end) {
+        return covers(start, end, LocalDate.now());
+    }
+
+    boolean covers(LocalDateTime start, LocalDateTime end, LocalDate today) {
+        if (!enabled || start == null || end == null || end.toLocalDate().isBefore(today)) {
+            return false;
+        }
+        return Math.abs(ChronoUnit.DAYS.between(windowStart(today), start.toLocalDate())) <= toleranceDays;
+    }
+
+    /**
+     * Trung vị, p90 và giá trị lớn nhất của số sự kiện trên mỗi công thức đã xuất bản trong cửa sổ
+     */
+    public PercentileSummary percentiles(RollupMetric metric) {
+        return percentiles(metric, LocalDate.now());
+    }
+
+    PercentileSummary percentiles(RollupMetric metric, LocalDate today) {
+        RecipeCountSketch sketch = sketches.get(metric);
+        sketch.expireBefore(windowStart(today));
+        return sketch.percentiles(publishedRecipes);
+    }
+
+    /**
+     * Top công thức theo số sự kiện trong cửa sổ, kèm sai số tuyệt đối tối đa của số đếm
+     */
+    public List<TopRecipe> topRecipes(RollupMetric metric, int limit) {
+        RecipeCountSketch sketch = sketches.get(metric);
+        sketch.expireBefore(windowStart(LocalDate.now()));
+        return sketch.top(limit).stream()
+                .map(hitter -> new TopRecipe(hitter.key(), hitter.count(), hitter.error()))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreOnStartup() {
+        if (enabled) {
+            restore(LocalDate.now());
+        }
+    }
+
+    /**
+     * Nạp lại số đếm theo ngày từ checkpoint và số công thức đã xuất bản; lỗi thì thử lại ở lần checkpoint kế tiếp
+     */
+    void restore(LocalDate today) {
+        synchronized (checkpointLock) {
+            if (!restored) {
+                restoreCheckpoint(today);
+            }
+        }
+    }
+
+    private void restoreCheckpoint(LocalDate today) {
+        LocalDate from = windowStart(today);
+        try {
+            for (RollupMetric metric : METRICS) {
+                int seeded = jdbcTemplate.update(seedSql(metric), metric.name(), Timestamp.valueOf(from.atStartOfDay()),
+                        metric.name());
+                if (seeded > 0) {
+                    // Sự kiện ghi trong bộ nhớ trước lúc nạp đã có trong số vừa tính từ bảng gốc
+                    sketches.get(metric).clear();
+                    log.info("Đã nạp {} dòng sketch {} từ bảng sự kiện gốc", seeded, metric);
+                }
+            }
+            int[] rows = {0};
+            jdbcTemplate.query(RESTORE_SQL, rs -> {
+                RecipeCountSketch sketch = sketches.get(RollupMetric.valueOf(rs.getString(1)));
+                if (sketch != null) {
+                    sketch.add(rs.getDate(2).toLocalDate(), rs.getObject(3, UUID.class), rs.getLong(4), false);
+                    rows[0]++;
+                }
+            }, Date.valueOf(from));
+            refreshPublishedRecipes();
+            restored = true;
+            log.info("Đã nạp {} dòng checkpoint sketch tương tác từ {}", rows[0], from);
+        } catch (Exception e) {
+            checkpointFailures.increment();
+            log.warn("Không thể nạp checkpoint sketch tương tác, sẽ thử lại: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cookshare.statistics.sketch.checkpoint-interval-ms:60000}",
+            initialDelayString = "${cookshare.statistics.sketch.checkpoint-interval-ms:60000}")
+    public void scheduledCheckpoint() {
+        if (enabled) {
+            checkpoint(LocalDate.now());
+        }
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        if (enabled) {
+            checkpoint(LocalDate.now());
+        }
+    }
+
+    /**
+     * Cộng phần tăng thêm của các (ngày, công thức) kể từ lần trước vào checkpoint và dọn ngày đã ra khỏi cửa sổ
+     *
+     * @return số dòng đã ghi
+     */
+    int checkpoint(LocalDate today) {
+        synchronized (checkpointLock) {
+            if (!restored) {
+                restoreCheckpoint(today);
+                if (!restored) {
+                    return 0;
+                }
+            }
+            LocalDate from = windowStart(today);
+            int written = 0;
+            for (RollupMetric metric : METRICS) {
+                RecipeCountSketch sketch = sketches.get(metric);
+                sketch.expireBefore(from);
+                List<DayCount> dirty = sketch.drainDirty();
+                if (dirty.isEmpty()) {
+                    continue;
+                }
+                try {
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, dirty, dirty.size(), (ps, row) -> {
+                        ps.setString(1, metric.name());
+                        ps.setDate(2, Date.valueOf(row.day()));
+                        ps.setObject(3, row.recipeId());
+                        ps.setLong(4, row.delta());
+                    });
+                    written += dirty.size();
+                } catch (Exception e) {
+                    checkpointFailures.increment();
+                    sketch.markDirty(dirty);
+                    log.warn("Không thể checkpoint {} dòng sketch {}, sẽ thử lại: {}", dirty.size(), metric, e.getMessage());
+                }
+            }
+            try {
+                jdbcTemplate.update(PRUNE_SQL, Date.valueOf(from));
+                refreshPublishedRecipes();
+            } catch (Exception e) {
+                checkpointFailures.increment();
+                log.warn("Không thể dọn checkpoint sketch tương tác: {}", e.getMessage());
+            }
+            return written;
+        }
+    }
+
+    private void refreshPublishedRecipes() {
+        Long count = jdbcTemplate.queryForObject(PUBLISHED_COUNT_SQL, Long.class);
+        publishedRecipes = count != null ? count : 0;
+    }
+
+    private LocalDate windowStart(LocalDate today) {
+        return today.minusDays(windowDays - 1L);
+    }
+
+    public record PercentileSummary(BigDecimal median, BigDecimal p90, long max) {
+    }
+
+    public record TopRecipe(UUID recipeId, long count, long maxError) {
+    }
+
+    /**
+     * delta: số sự kiện tăng thêm chưa được ghi vào checkpoint
+     */
+    record DayCount(LocalDate day, UUID recipeId, long delta) {
+    }
+
+    /**
+     * Trạng thái của một chỉ số. Mọi thao tác đồng bộ trên chính đối tượng, mỗi sự kiện chỉ cập nhật vài map
+     * và dời một phần tử trong histogram nên giữ khóa rất ngắn.
+     */
+    static final class RecipeCountSketch {
+        private final int topKCapacity;
+        private final NavigableMap<LocalDate, Map<UUID, Long>> days = new TreeMap<>();
+        private final Map<LocalDate, SpaceSavingCounter<UUID>> heavyHitters = new HashMap<>();
+        private final Map<UUID, Long> windowCounts = new HashMap<>();
+        private final Map<DayKey, Long> dirty = new HashMap<>();
+        private final LogLinearHistogram histogram = new LogLinearHistogram();
+
+        RecipeCountSketch(int topKCapacity) {
+            this.topKCapacity = Math.max(1, topKCapacity);
+        }
+
+        synchronized void add(LocalDate day, UUID recipeId, long count, boolean markDirty) {
+            if (count <= 0) {
+                return;
+            }
+            days.computeIfAbsent(day, d -> new HashMap<>()).merge(recipeId, count, Long::sum);
+            heavyHitters.computeIfAbsent(day, d -> new SpaceSavingCounter<>(topKCapacity)).offer(recipeId, count);
+            long before = windowCounts.getOrDefault(recipeId, 0L);
+            move(recipeId, before, before + count);
+            if (markDirty) {
+                dirty.merge(new DayKey(day, recipeId), count, Long::sum);
+            }
+        }
+
+        synchronized void expireBefore(LocalDate firstDay) {
+            while (!days.isEmpty() && days.firstKey().isBefore(firstDay)) {
+                Map.Entry<LocalDate, Map<UUID, Long>> expired = days.pollFirstEntry();
+                heavyHitters.remove(expired.getKey());
+                expired.getValue().forEach((recipeId, count) -> {
+                    long before = windowCounts.getOrDefault(recipeId, 0L);
+                    move(recipeId, before, Math.max(0, before - count));
+                    dirty.remove(new DayKey(expired.getKey(), recipeId));
+                });
+            }
+        }
+
+        synchronized PercentileSummary percentiles(long publishedRecipes) {
+            long zeros = Math.max(0, publishedRecipes - histogram.totalCount());
+            return new PercentileSummary(
+                    BigDecimal.valueOf(histogram.valueAtQuantile(0.5, zeros)),
+                    BigDecimal.valueOf(histogram.valueAtQuantile(0.9, zeros)),
+                    histogram.max());
+        }
+
+        synchronized List<HeavyHitter<UUID>> top(int limit) {
+            return SpaceSavingCounter.merge(heavyHitters.values(), limit);
+        }
+
+        synchronized List<DayCount> drainDirty() {
+            List<DayCount> rows = new ArrayList<>(dirty.size());
+            dirty.forEach((key, delta) -> rows.add(new DayCount(key.day(), key.recipeId(), delta)));
+            dirty.clear();
+            return rows;
+        }
+
+        synchronized void markDirty(List<DayCount> rows) {
+            rows.forEach(row -> dirty.merge(new DayKey(row.day(), row.recipeId()), row.delta(), Long::sum));
+        }
+
+        synchronized void clear() {
+            days.clear();
+            heavyHitters.clear();
+            windowCounts.clear();
+            dirty.clear();
+            histogram.clear();
+        }
+
+        synchronized int trackedRecipes() {
+            return windowCounts.size();
+        }
+
+        private void move(UUID recipeId, long before, long after) {
+            if (before > 0) {
+                histogram.record(before, -1);
+            }
+            if (after > 0) {
+                histogram.record(after, 1);
+                windowCounts.put(recipeId, after);
+            } else {
+                windowCounts.remove(recipeId);
+            }
+        }
+
+        private record DayKey(LocalDate day, UUID recipeId) {
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.backend.cookshare.admin_report.service.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Histogram giá trị nguyên không âm theo kiểu HdrHistogram: giá trị nhỏ hơn 64 được đếm chính xác,
+ * từ 64 trở lên mỗi khoảng [2^e, 2^(e+1)) chia thành 32 bucket bằng nhau.
+ * Giá trị trả về là điểm giữa bucket nên sai số tương đối không quá 1/64 (~1.6%),
+ * bộ nhớ cố định 1888 bộ đếm với mọi giá trị long dương.
+ *
+ * Cho phép cộng / trừ số lượng của một giá trị để dời một phần tử khi giá trị của nó thay đổi.
+ * Không thread-safe, lớp gọi phải tự đồng bộ.
+ */
+final class LogLinearHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int EXACT_LIMIT = SUB_BUCKETS * 2;
+    static final int BUCKET_COUNT = (62 - SUB_BUCKET_BITS) * SUB_BUCKETS + EXACT_LIMIT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+
+    void record(long value, long delta) {
+        if (value < 0 || delta == 0) {
+            return;
+        }
+        int index = indexOf(value);
+        counts[index] += delta;
+        totalCount += delta;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+    }
+
+    long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Giá trị tại phân vị {@code quantile} (nearest-rank), coi như có thêm {@code extraZeros} phần tử bằng 0
+     */
+    long valueAtQuantile(double quantile, long extraZeros) {
+        long zeros = Math.max(0, extraZeros);
+        long total = totalCount + zeros;
+        if (total <= 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * total));
+        if (rank <= zeros) {
+            return 0;
+        }
+        long seen = zeros;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return midpointOf(index);
+            }
+        }
+        return max();
+    }
+
+    long max() {
+        for (int index = counts.length - 1; index >= 0; index--) {
+            if (counts[index] > 0) {
+                return midpointOf(index);
+            }
+        }
+        return 0;
+    }
+
+    static int indexOf(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift);
+        return shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBoundOf(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return subBucket << shift;
+    }
+
+    static long midpointOf(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return lowerBoundOf(index) + ((1L << shift) - 1) / 2;
+    }
+}
@@ -0,0 +1,99 @@
+package com.backend.cookshare.admin_report.service.sketch;
+
+import java.util.*;
+
+/**
+ * Đếm heavy hitter theo thuật toán Space-Saving với tối đa {@code capacity} khóa.
+ * Khi đầy, khóa có số đếm nhỏ nhất bị thay bằng khóa mới và khóa mới kế thừa số đếm đó làm sai số.
+ * Số đếm ước lượng không bao giờ thấp hơn số thật và cao hơn tối đa {@code error} của khóa đó
+ * (không quá tổng số sự kiện / capacity), mọi khóa có hơn tổng / capacity sự kiện chắc chắn được giữ lại.
+ *
+ * Không thread-safe, lớp gọi phải tự đồng bộ.
+ */
+final class SpaceSavingCounter<K> {
+
+    private final int capacity;
+    private final Map<K, long[]> counters;
+
+    SpaceSavingCounter(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.counters = new HashMap<>(this.capacity * 2);
+    }
+
+    void offer(K key, long weight) {
+        if (key == null || weight <= 0) {
+            return;
+        }
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0] += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[]{weight, 0});
+            return;
+        }
+        K minKey = null;
+        long minCount = Long.MAX_VALUE;
+        for (Map.Entry<K, long[]> entry : counters.entrySet()) {
+            if (entry.getValue()[0] < minCount) {
+                minCount = entry.getValue()[0];
+                minKey = entry.getKey();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new long[]{minCount + weight, minCount});
+    }
+
+    /**
+     * Số đếm nhỏ nhất đang giữ khi đã đầy; khóa không có mặt có số thật không vượt quá giá trị này
+     */
+    long floor() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        long min = Long.MAX_VALUE;
+        for (long[] counter : counters.values()) {
+            min = Math.min(min, counter[0]);
+        }
+        return min;
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    /**
+     * Gộp nhiều bộ đếm (ví dụ mỗi ngày một bộ) và trả về {@code limit} khóa có số đếm lớn nhất.
+     * Sai số của khóa là tổng sai số ở các bộ có khóa đó cộng floor của các bộ không có khóa.
+     */
+    static <K> List<HeavyHitter<K>> merge(Collection<SpaceSavingCounter<K>> summaries, int limit) {
+        Map<K, long[]> merged = new HashMap<>();
+        long totalFloor = 0;
+        List<Long> floors = new ArrayList<>(summaries.size());
+        for (SpaceSavingCounter<K> summary : summaries) {
+            long floor = summary.floor();
+            floors.add(floor);
+            totalFloor += floor;
+        }
+        int position = 0;
+        for (SpaceSavingCounter<K> summary : summaries) {
+            long floor = floors.get(position++);
+            for (Map.Entry<K, long[]> entry : summary.counters.entrySet()) {
+                // Khởi tạo error bằng tổng floor, bộ nào có khóa thì thay floor của bộ đó bằng error thật
+                long[] total = merged.computeIfAbsent(entry.getKey(), key -> new long[]{0, 0});
+                total[0] += entry.getValue()[0];
+                total[1] += entry.getValue()[1] - floor;
+            }
+        }
+        long baseError = totalFloor;
+        return merged.entrySet().stream()
+                .map(entry -> new HeavyHitter<>(entry.getKey(), entry.getValue()[0], entry.getValue()[1] + baseError))
+                .sorted(Comparator.comparingLong((HeavyHitter<K> hitter) -> hitter.count()).reversed())
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+
+    record HeavyHitter<K>(K key, long count, long error) {
+    }
+}
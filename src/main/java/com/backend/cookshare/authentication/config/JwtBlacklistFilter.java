@@ -1,6 +1,7 @@
 package com.backend.cookshare.authentication.config;
 
 import com.backend.cookshare.authentication.service.TokenBlacklistService;
+import com.backend.cookshare.authentication.util.TokenFingerprint;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -33,8 +34,8 @@ public class JwtBlacklistFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
 
-            // Kiểm tra token có bị blacklist không
-            if (tokenBlacklistService.isTokenBlacklisted(token)) {
+            // Kiểm tra token có bị blacklist không; dấu vân tay được giữ lại cho JwtTokenVerifier trong cùng request
+            if (tokenBlacklistService.isBlacklisted(TokenFingerprint.forCurrentRequest(token))) {
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.setContentType("application/json");
                 response.getWriter().write("{\"error\": \"Access token không hợp lệ\", \"code\": 4004}");
@@ -1,5 +1,6 @@
 package com.backend.cookshare.authentication.config;
 
+import com.backend.cookshare.authentication.util.JwtTokenVerifier;
 import com.backend.cookshare.authentication.util.SecurityUtil;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
@@ -21,8 +22,6 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtGra
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
@@ -42,6 +41,7 @@ public class SecurityConfiguration implements WebMvcConfigurer {
 
     private final JwtBlacklistFilter jwtBlacklistFilter;
     private final CustomPermissionEvaluator customPermissionEvaluator;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -71,9 +71,12 @@ public class SecurityConfiguration implements WebMvcConfigurer {
                                 .requestMatchers("/auth/facebook/**").permitAll()
                                 .requestMatchers("forgotPassword/**").permitAll()
                                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                                .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("ADMIN")
                                 .anyRequest().authenticated()
                 )
-                .oauth2ResourceServer((oauth2) -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())))
+                .oauth2ResourceServer((oauth2) -> oauth2.jwt(jwt -> jwt
+                        .decoder(jwtTokenVerifier)
+                        .jwtAuthenticationConverter(jwtAuthenticationConverter())))
                 .addFilterBefore(jwtBlacklistFilter, UsernamePasswordAuthenticationFilter.class)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
@@ -96,20 +99,6 @@ public class SecurityConfiguration implements WebMvcConfigurer {
         return jwtAuthenticationConverter;
     }
 
-    @Bean
-    public JwtDecoder jwtDecoder() {
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(
-                getSecretKey()).macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
-        return token -> {
-            try {
-                return jwtDecoder.decode(token);
-            } catch (Exception e) {
-                System.out.println(">>> JWT error: " + e.getMessage());
-                throw e;
-            }
-        };
-    }
-
     private SecretKey getSecretKey() {
         byte[] keyBytes = Base64.from(jwtKey).decode();
         return new SecretKeySpec(keyBytes, 0, keyBytes.length, SecurityUtil.JWT_ALGORITHM.getName());
@@ -0,0 +1,29 @@
+package com.backend.cookshare.authentication.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+/**
+ * Access token đã bị thu hồi (logout), chỉ lưu dấu vân tay và thời điểm hết hạn của token.
+ * Chỉ dùng khi bật cookshare.jwt.blacklist.persistent:
+ * CREATE TABLE revoked_tokens (fingerprint VARCHAR(32) PRIMARY KEY, expires_at TIMESTAMPTZ NOT NULL)
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    @Column(name = "fingerprint", length = 32)
+    String fingerprint;
+
+    @Column(name = "expires_at", nullable = false)
+    Instant expiresAt;
+}
@@ -62,10 +62,11 @@ public class User {
     @Column(name = "last_active")
     LocalDateTime lastActive;
 
-    @Column(name = "follower_count")
+    // Chỉ cập nhật qua CounterDeltaBuffer (UPDATE cộng dồn), save entity không ghi đè
+    @Column(name = "follower_count", updatable = false)
     Integer followerCount = 0;
 
-    @Column(name = "following_count")
+    @Column(name = "following_count", updatable = false)
     Integer followingCount = 0;
 
     @Column(name = "recipe_count")
@@ -10,6 +10,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,6 +20,9 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<User, UUID> {
     //Tìm người dùng theo username.
     Optional<User> findByUsername(String username);
+
+    @Query("SELECT u.userId FROM User u WHERE u.username = :username")
+    Optional<UUID> findUserIdByUsername(@Param("username") String username);
     User findByUserId(UUID userId);
     //Tìm người dùng theo email.
     Optional<User> findByEmail(String email);
@@ -65,4 +70,48 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Transactional
     @Query(value = "UPDATE users SET recipe_count = GREATEST(COALESCE(recipe_count, 0) - 1, 0) WHERE user_id = :userId", nativeQuery = true)
     void decrementRecipeCount(@Param("userId") UUID userId);
+
+    /**
+     * Lấy tên và avatar của nhiều user trong một câu truy vấn, không nạp các quan hệ của User
+     */
+    @Query("SELECT u.userId AS userId, u.fullName AS fullName, u.avatarUrl AS avatarUrl " +
+            "FROM User u WHERE u.userId IN :userIds")
+    List<UserSummaryProjection> findSummariesByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+
+    interface UserSummaryProjection {
+        UUID getUserId();
+        String getFullName();
+        String getAvatarUrl();
+    }
+
+    /**
+     * Lấy tên và số follower của user (dùng để dựng index gợi ý typeahead)
+     */
+    @Query("SELECT u.userId AS userId, u.fullName AS fullName, u.followerCount AS followerCount " +
+            "FROM User u WHERE u.fullName IS NOT NULL")
+    List<UserNameProjection> findAllNames();
+
+    /**
+     * Lấy tên và số follower của các user thay đổi sau thời điểm cho trước (cập nhật tăng dần index typeahead)
+     */
+    @Query("SELECT u.userId AS userId, u.fullName AS fullName, u.followerCount AS followerCount " +
+            "FROM User u WHERE u.updatedAt > :since")
+    List<UserNameProjection> findNamesUpdatedAfter(@Param("since") LocalDateTime since);
+
+    /**
+     * Đổi nhiều username sang userId trong một câu truy vấn (dùng khi ghi lịch sử tìm kiếm theo batch)
+     */
+    @Query("SELECT u.userId AS userId, u.username AS username FROM User u WHERE u.username IN :usernames")
+    List<UserIdProjection> findIdsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    interface UserIdProjection {
+        UUID getUserId();
+        String getUsername();
+    }
+
+    interface UserNameProjection {
+        UUID getUserId();
+        String getFullName();
+        Integer getFollowerCount();
+    }
 }
\ No newline at end of file
@@ -1,21 +1,101 @@
 package com.backend.cookshare.authentication.service;
 
+import com.backend.cookshare.authentication.entity.RevokedToken;
+import com.backend.cookshare.authentication.repository.RevokedTokenRepository;
+import com.backend.cookshare.authentication.util.TokenFingerprint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Blacklist access token đã logout.
+ * Mỗi token chỉ lưu dấu vân tay 128-bit kèm thời điểm hết hạn; entry hết hạn được dọn định kỳ
+ * nên kích thước blacklist chỉ tỉ lệ với số token đã logout mà vẫn còn hiệu lực.
+ * Khi bật cookshare.jwt.blacklist.persistent, blacklist được lưu vào bảng revoked_tokens
+ * để khởi động lại không làm token đã thu hồi dùng lại được.
+ */
 @Service
+@Slf4j
 public class TokenBlacklistService {
 
-    private final Set<String> blacklistedTokens = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<TokenFingerprint, Long> blacklistedTokens = new ConcurrentHashMap<>();
+    private final LongAdder evictedTokens = new LongAdder();
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long accessTokenValiditySeconds;
+    private final boolean persistent;
+
+    public TokenBlacklistService(
+            RevokedTokenRepository revokedTokenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${cookshare.jwt.access-token-validity-in-seconds:86400}") long accessTokenValiditySeconds,
+            @Value("${cookshare.jwt.blacklist.persistent:false}") boolean persistent) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.accessTokenValiditySeconds = accessTokenValiditySeconds;
+        this.persistent = persistent;
+
+        Gauge.builder("cookshare.jwt.blacklist.size", blacklistedTokens, ConcurrentHashMap::size)
+                .description("Số access token đang bị thu hồi và chưa hết hạn")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.jwt.blacklist.evicted", evictedTokens, LongAdder::sum)
+                .description("Số token đã bị dọn khỏi blacklist do hết hạn")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Nạp lại các token bị thu hồi còn hiệu lực từ DB
+     */
+    @PostConstruct
+    public void loadPersisted() {
+        if (!persistent) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            revokedTokenRepository.findByExpiresAtAfter(now).forEach(revoked -> blacklistedTokens.put(
+                    TokenFingerprint.fromHex(revoked.getFingerprint()), revoked.getExpiresAt().getEpochSecond()));
+            log.info("Đã nạp {} token bị thu hồi từ DB", blacklistedTokens.size());
+        } catch (Exception e) {
+            log.warn("Không thể nạp blacklist token từ DB: {}", e.getMessage());
+        }
+    }
 
     /**
-     * Thêm token vào blacklist
+     * Thêm token vào blacklist, giữ đến hết thời hạn tối đa của access token
      */
     public void blacklistToken(String token) {
-        if (token != null && !token.isEmpty()) {
-            blacklistedTokens.add(token);
+        blacklistToken(token, null);
+    }
+
+    /**
+     * Thêm token vào blacklist cho đến thời điểm token hết hạn
+     */
+    public void blacklistToken(String token, Instant expiresAt) {
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+        Instant expiry = expiresAt != null ? expiresAt : Instant.now().plusSeconds(accessTokenValiditySeconds);
+        TokenFingerprint fingerprint = TokenFingerprint.of(token);
+        blacklistedTokens.put(fingerprint, expiry.getEpochSecond());
+
+        if (persistent) {
+            try {
+                revokedTokenRepository.save(RevokedToken.builder()
+                        .fingerprint(fingerprint.toHex())
+                        .expiresAt(expiry)
+                        .build());
+            } catch (Exception e) {
+                log.warn("Không thể lưu token bị thu hồi vào DB: {}", e.getMessage());
+            }
         }
     }
 
@@ -23,14 +103,65 @@ public class TokenBlacklistService {
      * Kiểm tra token có bị blacklist không
      */
     public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokens.contains(token);
+        if (token == null || token.isEmpty()) {
+            return false;
+        }
+        return isBlacklisted(TokenFingerprint.of(token));
+    }
+
+    public boolean isBlacklisted(TokenFingerprint fingerprint) {
+        Long expiresAt = blacklistedTokens.get(fingerprint);
+        return expiresAt != null && expiresAt > Instant.now().getEpochSecond();
     }
 
     /**
      * Xóa token khỏi blacklist (có thể dùng cho cleanup)
      */
     public void removeFromBlacklist(String token) {
-        blacklistedTokens.remove(token);
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+        TokenFingerprint fingerprint = TokenFingerprint.of(token);
+        blacklistedTokens.remove(fingerprint);
+        if (persistent) {
+            try {
+                revokedTokenRepository.deleteById(fingerprint.toHex());
+            } catch (Exception e) {
+                log.warn("Không thể xóa token bị thu hồi khỏi DB: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Dọn các token đã hết hạn: token hết hạn sẽ bị JwtDecoder từ chối nên không cần giữ trong blacklist
+     */
+    @Scheduled(fixedDelayString = "${cookshare.jwt.blacklist.sweep-interval-ms:60000}",
+            initialDelayString = "${cookshare.jwt.blacklist.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        evictExpired(Instant.now());
+    }
+
+    int evictExpired(Instant now) {
+        long nowSeconds = now.getEpochSecond();
+        int evicted = 0;
+        for (Map.Entry<TokenFingerprint, Long> entry : blacklistedTokens.entrySet()) {
+            if (entry.getValue() <= nowSeconds && blacklistedTokens.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        evictedTokens.add(evicted);
+
+        if (persistent) {
+            try {
+                revokedTokenRepository.deleteExpired(now);
+            } catch (Exception e) {
+                log.warn("Không thể dọn token hết hạn trong DB: {}", e.getMessage());
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Đã dọn {} token hết hạn khỏi blacklist", evicted);
+        }
+        return evicted;
     }
 
     /**
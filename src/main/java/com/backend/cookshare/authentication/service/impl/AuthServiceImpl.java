@@ -195,8 +195,8 @@ public class AuthServiceImpl implements AuthService {
         userService.getUserByUsernameOrEmail(username)
                 .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
 
-        // Đưa access token vào blacklist
-        tokenBlacklistService.blacklistToken(accessToken);
+        // Đưa access token vào blacklist cho đến khi token hết hạn
+        tokenBlacklistService.blacklistToken(accessToken, decodedToken.getExpiresAt());
 
         // Xoá refresh token trong database
         userService.updateUserToken(null, username);
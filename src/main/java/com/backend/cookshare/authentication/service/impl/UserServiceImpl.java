@@ -11,6 +11,7 @@ import com.backend.cookshare.authentication.service.UserService;
 import com.backend.cookshare.authentication.util.SecurityUtil;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
+import com.backend.cookshare.recipe_management.service.search.TypeaheadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -37,6 +38,7 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final FirebaseStorageService firebaseStorageService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final TypeaheadService typeaheadService;
 
     /**
      * Lấy thông tin user đang đăng nhập từ SecurityContext
@@ -101,6 +103,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUser(UUID userId) {
         userRepository.deleteById(userId);
+        typeaheadService.removeUser(userId);
     }
 
     @Override
@@ -345,6 +348,7 @@ public class UserServiceImpl implements UserService {
         // other admins
         // or performing soft delete instead of hard delete
         userRepository.delete(user);
+        typeaheadService.removeUser(userId);
 
         log.info("User {} has been deleted successfully", userId);
     }
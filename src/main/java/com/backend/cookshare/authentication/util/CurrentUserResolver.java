@@ -0,0 +1,148 @@
+package com.backend.cookshare.authentication.util;
+
+import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.common.exception.CustomException;
+import com.backend.cookshare.common.exception.ErrorCode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Xác định userId của người dùng hiện tại, dùng chung cho các service thay vì mỗi nơi tự findByUsername.
+ *
+ * Thứ tự: kết quả đã tính trong request hiện tại → claim "user" của access token → cache username → userId
+ * (TTL ngắn, cho token cũ chưa có claim) → truy vấn DB. Kết quả được giữ trong request attribute nên
+ * một request gọi nhiều service chỉ tính một lần; ngoài request (luồng async, job) thì bỏ qua bước đó.
+ * User đổi username hoặc bị xóa thì mapping cũ còn sống tối đa bằng TTL của cache.
+ */
+@Component
+public class CurrentUserResolver {
+
+    static final String REQUEST_ATTRIBUTE = CurrentUserResolver.class.getName() + ".CURRENT_USER";
+
+    private final UserRepository userRepository;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<String, CachedUserId> userIdsByUsername = new ConcurrentHashMap<>();
+    private final LongAdder tokenHits = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+
+    public CurrentUserResolver(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${cookshare.current-user.cache-size:10000}") int maxEntries,
+            @Value("${cookshare.current-user.cache-ttl-ms:60000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+
+        Gauge.builder("cookshare.current-user.cache.size", userIdsByUsername, ConcurrentHashMap::size)
+                .description("Số username đang có userId trong cache")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.current-user.token-hits", tokenHits, LongAdder::sum)
+                .description("Số lần lấy được userId trực tiếp từ JWT")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.current-user.cache.hits", cacheHits, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("cookshare.current-user.lookups", lookups, LongAdder::sum)
+                .description("Số lần phải truy vấn DB để lấy userId theo username")
+                .register(meterRegistry);
+    }
+
+    /**
+     * userId của người dùng hiện tại, rỗng nếu chưa đăng nhập hoặc không tìm thấy user
+     */
+    public Optional<UUID> getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return Optional.empty();
+        }
+        String username = SecurityUtil.getCurrentUserLogin().orElse(null);
+        if (username == null) {
+            return Optional.empty();
+        }
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof CurrentUser memo
+                && memo.username().equals(username)) {
+            return Optional.of(memo.userId());
+        }
+
+        Optional<UUID> userId = resolve(username);
+        if (attributes != null) {
+            userId.ifPresent(id -> attributes.setAttribute(
+                    REQUEST_ATTRIBUTE, new CurrentUser(username, id), RequestAttributes.SCOPE_REQUEST));
+        }
+        return userId;
+    }
+
+    /**
+     * userId của người dùng hiện tại, không có thì ném USER_NOT_FOUND
+     */
+    public UUID requireCurrentUserId() {
+        return getCurrentUserId().orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
+    }
+
+    private Optional<UUID> resolve(String username) {
+        Optional<UUID> fromToken = SecurityUtil.getCurrentUserId();
+        if (fromToken.isPresent()) {
+            tokenHits.increment();
+            return fromToken;
+        }
+
+        long now = System.currentTimeMillis();
+        CachedUserId cached = userIdsByUsername.get(username);
+        if (cached != null && cached.expiresAt() > now) {
+            cacheHits.increment();
+            return Optional.of(cached.userId());
+        }
+
+        lookups.increment();
+        Optional<UUID> userId = userRepository.findUserIdByUsername(username);
+        userId.ifPresent(id -> {
+            if (userIdsByUsername.size() >= maxEntries) {
+                evictExpired(now);
+            }
+            userIdsByUsername.put(username, new CachedUserId(id, now + ttlMillis));
+        });
+        return userId;
+    }
+
+    /**
+     * Dọn entry hết hạn; nếu cache vẫn đầy thì bỏ bớt một nửa để giữ bộ nhớ có giới hạn
+     */
+    private void evictExpired(long now) {
+        userIdsByUsername.values().removeIf(cached -> cached.expiresAt() <= now);
+        if (userIdsByUsername.size() < maxEntries) {
+            return;
+        }
+        Iterator<Map.Entry<String, CachedUserId>> iterator = userIdsByUsername.entrySet().iterator();
+        int toRemove = userIdsByUsername.size() - maxEntries / 2;
+        while (iterator.hasNext() && toRemove-- > 0) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record CurrentUser(String username, UUID userId) {
+    }
+
+    private record CachedUserId(UUID userId, long expiresAt) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.backend.cookshare.authentication.util;
+
+import com.backend.cookshare.authentication.service.TokenBlacklistService;
+import com.nimbusds.jose.util.Base64;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JwtDecoder dùng chung cho HTTP (resource server), STOMP CONNECT, WebSocket handshake và refresh token.
+ *
+ * Decoder Nimbus và secret key chỉ được tạo một lần. Token đã xác thực chữ ký được cache theo
+ * dấu vân tay 128-bit cho đến khi hết hạn, nên reconnect / refresh liên tục không phải tính lại HMAC-SHA512.
+ * Mọi lần decode (kể cả khi lấy từ cache) đều kiểm tra blacklist. Trong request HTTP, dấu vân tay đã được
+ * JwtBlacklistFilter tính trước đó nên được dùng lại thay vì băm token lần nữa.
+ */
+@Component
+@Slf4j
+public class JwtTokenVerifier implements JwtDecoder {
+
+    private final NimbusJwtDecoder delegate;
+    private final TokenBlacklistService tokenBlacklistService;
+    private final int maxCachedTokens;
+
+    private final ConcurrentHashMap<TokenFingerprint, Jwt> verifiedTokens = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    public JwtTokenVerifier(
+            @Value("${cookshare.jwt.base64-secret}") String jwtKey,
+            @Value("${cookshare.jwt.verified-cache-size:10000}") int maxCachedTokens,
+            TokenBlacklistService tokenBlacklistService,
+            MeterRegistry meterRegistry) {
+        byte[] keyBytes = Base64.from(jwtKey).decode();
+        this.delegate = NimbusJwtDecoder
+                .withSecretKey(new SecretKeySpec(keyBytes, 0, keyBytes.length, SecurityUtil.JWT_ALGORITHM.getName()))
+                .macAlgorithm(SecurityUtil.JWT_ALGORITHM)
+                .build();
+        this.maxCachedTokens = maxCachedTokens;
+        this.tokenBlacklistService = tokenBlacklistService;
+
+        Gauge.builder("cookshare.jwt.verified-cache.size", verifiedTokens, ConcurrentHashMap::size)
+                .register(meterRegistry);
+        Gauge.builder("cookshare.jwt.verified-cache.hits", cacheHits, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("cookshare.jwt.verified-cache.misses", cacheMisses, LongAdder::sum)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (token == null || token.isEmpty()) {
+            throw new BadJwtException("Token rỗng");
+        }
+        TokenFingerprint fingerprint = TokenFingerprint.forCurrentRequest(token);
+        if (tokenBlacklistService.isBlacklisted(fingerprint)) {
+            verifiedTokens.remove(fingerprint);
+            throw new BadJwtException("Token đã bị thu hồi");
+        }
+
+        Jwt cached = verifiedTokens.get(fingerprint);
+        if (cached != null) {
+            if (isLive(cached, Instant.now())) {
+                cacheHits.increment();
+                return cached;
+            }
+            verifiedTokens.remove(fingerprint, cached);
+        }
+
+        cacheMisses.increment();
+        Jwt jwt;
+        try {
+            jwt = delegate.decode(token);
+        } catch (JwtException e) {
+            log.debug("JWT không hợp lệ: {}", e.getMessage());
+            throw e;
+        }
+        if (jwt.getExpiresAt() != null) {
+            if (verifiedTokens.size() >= maxCachedTokens) {
+                evict(Instant.now());
+            }
+            verifiedTokens.put(fingerprint, jwt);
+        }
+        return jwt;
+    }
+
+    int cachedTokenCount() {
+        return verifiedTokens.size();
+    }
+
+    /**
+     * Dọn token hết hạn; nếu cache vẫn đầy thì bỏ bớt một nửa để giữ bộ nhớ có giới hạn
+     */
+    private void evict(Instant now) {
+        verifiedTokens.values().removeIf(jwt -> !isLive(jwt, now));
+        if (verifiedTokens.size() < maxCachedTokens) {
+            return;
+        }
+        Iterator<Map.Entry<TokenFingerprint, Jwt>> iterator = verifiedTokens.entrySet().iterator();
+        int toRemove = verifiedTokens.size() - maxCachedTokens / 2;
+        while (iterator.hasNext() && toRemove-- > 0) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static boolean isLive(Jwt jwt, Instant now) {
+        return jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(now);
+    }
+}
@@ -1,7 +1,7 @@
 package com.backend.cookshare.authentication.util;
 
 import com.backend.cookshare.authentication.dto.response.LoginResponseDTO;
-import com.nimbusds.jose.util.Base64;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -11,26 +11,26 @@ import org.springframework.security.oauth2.jwt.*;
 import org.springframework.stereotype.Service;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
+@Slf4j
 public class SecurityUtil {
 
     public final JwtEncoder jwtEncoder;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
-    public SecurityUtil (JwtEncoder jwtEncoder) {
+    public SecurityUtil (JwtEncoder jwtEncoder, JwtTokenVerifier jwtTokenVerifier) {
         this.jwtEncoder = jwtEncoder;
+        this.jwtTokenVerifier = jwtTokenVerifier;
     }
 
     public static final MacAlgorithm JWT_ALGORITHM = MacAlgorithm.HS512;
 
-    @Value("${cookshare.jwt.base64-secret}")
-    private String jwtKey;
-
     @Value("${cookshare.jwt.access-token-validity-in-seconds}")
     private long accessTokenExpiration;
 
@@ -76,30 +76,21 @@ public class SecurityUtil {
 
     }
 
-    private SecretKey getSecretKey() {
-        byte[] keyBytes = Base64.from(jwtKey).decode();
-        return new SecretKeySpec(keyBytes, 0, keyBytes.length,
-                JWT_ALGORITHM.getName());
-    }
-
     public Jwt checkValidRefreshToken(String token) {
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(
-                getSecretKey()).macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
         try {
-            return jwtDecoder.decode(token);
+            return jwtTokenVerifier.decode(token);
         } catch (Exception e) {
-            System.out.println(">>> Refresh Token error: " + e.getMessage());
+            log.warn("Refresh token không hợp lệ: {}", e.getMessage());
             throw e;
         }
     }
 
     public Jwt checkValidAccessToken(String token) {
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(
-                getSecretKey()).macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
         try {
-            return jwtDecoder.decode(token);
+            return jwtTokenVerifier.decode(token);
         } catch (Exception e) {
-            System.out.println(">>> Access Token error: " + e.getMessage());
+            // Access token hết hạn là chuyện thường xuyên, không cần ghi ở mức warn
+            log.debug("Access token không hợp lệ: {}", e.getMessage());
             throw e;
         }
     }
@@ -109,6 +100,25 @@ public class SecurityUtil {
         return Optional.ofNullable(extractPrincipal(securityContext.getAuthentication()));
     }
 
+    /**
+     * Lấy userId từ claim "user" của access token, không truy vấn DB.
+     * Token cũ không có claim này (hoặc xác thực không qua JWT) thì trả về rỗng.
+     */
+    public static Optional<UUID> getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof Jwt jwt)) {
+            return Optional.empty();
+        }
+        if (!(jwt.getClaims().get("user") instanceof Map<?, ?> user) || user.get("userId") == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(user.get("userId").toString()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     private static String extractPrincipal(Authentication authentication) {
         if (authentication == null) {
             return null;
@@ -0,0 +1,58 @@
+package com.backend.cookshare.authentication.util;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Dấu vân tay 128-bit của một token (nửa đầu SHA-256), dùng làm khóa thay cho chuỗi JWT ~1KB
+ * trong blacklist và cache token đã xác thực.
+ */
+public record TokenFingerprint(long high, long low) {
+
+    static final String REQUEST_ATTRIBUTE = TokenFingerprint.class.getName() + ".BEARER_TOKEN";
+
+    public static TokenFingerprint of(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new TokenFingerprint(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+
+    /**
+     * Như {@link #of(String)} nhưng giữ kết quả trong request attribute: JwtBlacklistFilter và JwtTokenVerifier
+     * cùng xử lý bearer token của một request nên SHA-256 chỉ tính một lần. Ngoài request (STOMP, job) thì tính trực tiếp.
+     */
+    public static TokenFingerprint forCurrentRequest(String token) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return of(token);
+        }
+        if (attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof RequestToken memo
+                && memo.token().equals(token)) {
+            return memo.fingerprint();
+        }
+        TokenFingerprint fingerprint = of(token);
+        attributes.setAttribute(REQUEST_ATTRIBUTE, new RequestToken(token, fingerprint), RequestAttributes.SCOPE_REQUEST);
+        return fingerprint;
+    }
+
+    public static TokenFingerprint fromHex(String hex) {
+        return new TokenFingerprint(Long.parseUnsignedLong(hex.substring(0, 16), 16),
+                Long.parseUnsignedLong(hex.substring(16, 32), 16));
+    }
+
+    public String toHex() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    private record RequestToken(String token, TokenFingerprint fingerprint) {
+    }
+}
@@ -93,6 +93,32 @@ public class AsyncExecutorConfig {
         return executor;
     }
 
+    /**
+     * Executor riêng cho việc làm mới nền cache thống kê.
+     * Loader (ví dụ thống kê tổng hợp) tự fan-out vào statisticsExecutor rồi join, nên không được chạy
+     * trên chính statisticsExecutor: hai lần làm mới cùng lúc sẽ chiếm hết thread và chờ task con mãi mãi.
+     * Hàng đợi đầy thì từ chối (không CallerRuns) để request không phải gánh việc làm mới.
+     */
+    @Bean(name = "statisticsRefreshExecutor")
+    public Executor statisticsRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("statistics-refresh-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+
+        executor.initialize();
+
+        log.info("Initialized statisticsRefreshExecutor: core={}, max={}, queue={}",
+                2, 2, 20);
+
+        return executor;
+    }
+
     /**
      * Executor chung cho các tác vụ async khác
      * Default executor cho @Async annotation
@@ -0,0 +1,97 @@
+package com.backend.cookshare.common.config;
+
+import com.backend.cookshare.common.datasource.ReplicaLagMonitor;
+import com.backend.cookshare.common.datasource.ReplicaRoutingDataSource;
+import com.backend.cookshare.common.datasource.ReplicaStickiness;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Tách đọc / ghi khi bật cookshare.datasource.replica.enabled: transaction @Transactional(readOnly = true)
+ * (thống kê admin, gợi ý, báo cáo, bảng tin...) đọc từ replica, còn lại đi primary.
+ *
+ * Mỗi pool có cấu hình HikariCP riêng: primary lấy từ spring.datasource.hikari, replica từ
+ * cookshare.datasource.replica.hikari. Tắt thì Spring Boot tự tạo một DataSource như trước.
+ *
+ * Chạy thử ở máy: trỏ replica url vào một container Postgres thứ hai (streaming replica của primary),
+ * hoặc vào chính primary / một database H2 với lag-query "SELECT 0" để kiểm tra việc định tuyến.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cookshare.datasource.replica.enabled", havingValue = "true")
+@Slf4j
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("cookshare.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${cookshare.datasource.replica.url}") String url,
+            @Value("${cookshare.datasource.replica.username:}") String username,
+            @Value("${cookshare.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isBlank() ? properties.determineUsername() : username)
+                .password(password.isBlank() ? properties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${cookshare.datasource.replica.lag-query:}") String lagQuery,
+            @Value("${cookshare.datasource.replica.max-lag-ms:5000}") long maxLagMillis,
+            @Value("${cookshare.datasource.replica.lag-check-interval-ms:5000}") long checkIntervalMillis) {
+        JdbcTemplate replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        replicaJdbcTemplate.setQueryTimeout(2);
+        return new ReplicaLagMonitor(replicaJdbcTemplate, meterRegistry, lagQuery, maxLagMillis, checkIntervalMillis);
+    }
+
+    @Bean
+    public ReplicaStickiness replicaStickiness(
+            @Value("${cookshare.datasource.replica.sticky-window-ms:5000}") long windowMillis) {
+        return new ReplicaStickiness(windowMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReplicaLagMonitor replicaLagMonitor,
+            ReplicaStickiness replicaStickiness,
+            MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+                primaryDataSource, replicaDataSource, replicaLagMonitor, replicaStickiness, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        log.info("Đã bật định tuyến đọc replica: transaction read-only đi pool replica");
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,78 @@
+package com.backend.cookshare.common.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Đo độ trễ replica định kỳ bằng lag-query (trả về số ms, NULL nếu không xác định được).
+ * Replica chỉ được dùng khi lần đo gần nhất thành công, trễ không quá max-lag-ms và kết quả đo
+ * chưa cũ quá 3 chu kỳ; ngược lại mọi transaction read-only quay về primary.
+ * Trạng thái ban đầu là không dùng được cho đến lần đo đầu tiên.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    static final String POSTGRES_LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long staleAfterMillis;
+
+    private volatile long lagMillis = -1;
+    private volatile long checkedAt;
+    private volatile boolean healthy;
+
+    public ReplicaLagMonitor(JdbcTemplate replicaJdbcTemplate, MeterRegistry meterRegistry,
+                             String lagQuery, long maxLagMillis, long checkIntervalMillis) {
+        this.replicaJdbcTemplate = replicaJdbcTemplate;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? POSTGRES_LAG_SQL : lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        this.staleAfterMillis = Math.max(1, checkIntervalMillis) * 3;
+
+        Gauge.builder("cookshare.datasource.replica.lag", this, monitor -> monitor.lagMillis)
+                .description("Độ trễ replica đo được gần nhất (ms), -1 nếu không đo được")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.datasource.replica.usable", this, monitor -> monitor.isReplicaUsable() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cookshare.datasource.replica.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        check(System.currentTimeMillis());
+    }
+
+    void check(long now) {
+        try {
+            Long lag = replicaJdbcTemplate.queryForObject(lagQuery, Long.class);
+            boolean wasHealthy = healthy;
+            lagMillis = lag != null ? lag : -1;
+            healthy = lag != null && lag <= maxLagMillis;
+            if (wasHealthy && !healthy) {
+                log.warn("Replica trễ {} ms (tối đa {} ms), chuyển đọc về primary", lagMillis, maxLagMillis);
+            } else if (!wasHealthy && healthy) {
+                log.info("Replica trễ {} ms, dùng replica cho transaction read-only", lagMillis);
+            }
+        } catch (Exception e) {
+            if (healthy) {
+                log.warn("Không thể đo độ trễ replica, chuyển đọc về primary: {}", e.getMessage());
+            }
+            lagMillis = -1;
+            healthy = false;
+        }
+        checkedAt = now;
+    }
+
+    public boolean isReplicaUsable() {
+        return isReplicaUsable(System.currentTimeMillis());
+    }
+
+    boolean isReplicaUsable(long now) {
+        return healthy && now - checkedAt <= staleAfterMillis;
+    }
+}
@@ -0,0 +1,90 @@
+package com.backend.cookshare.common.datasource;
+
+import com.backend.cookshare.authentication.util.SecurityUtil;
+import com.backend.cookshare.common.transaction.AfterCommit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chọn pool cho mỗi connection: transaction read-only đi replica, còn lại đi primary.
+ * Read-only vẫn về primary khi replica trễ quá ngưỡng ({@link ReplicaLagMonitor}) hoặc người dùng hiện tại
+ * vừa ghi trong cửa sổ sticky ({@link ReplicaStickiness}).
+ *
+ * Phải được bọc trong LazyConnectionDataSourceProxy: JpaTransactionManager lấy connection trước khi cờ read-only
+ * của transaction được đặt, proxy hoãn việc lấy connection thật đến câu SQL đầu tiên.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReplicaStickiness stickiness;
+
+    private final LongAdder replicaRoutes = new LongAdder();
+    private final LongAdder lagFallbacks = new LongAdder();
+    private final LongAdder stickyFallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReplicaLagMonitor lagMonitor, ReplicaStickiness stickiness,
+                                    MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.stickiness = stickiness;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+
+        Gauge.builder("cookshare.datasource.routing.replica", replicaRoutes, LongAdder::sum)
+                .description("Số connection read-only đã đi replica")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.datasource.routing.lag-fallbacks", lagFallbacks, LongAdder::sum)
+                .description("Số connection read-only về primary vì replica trễ hoặc không đo được")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.datasource.routing.sticky-fallbacks", stickyFallbacks, LongAdder::sum)
+                .description("Số connection read-only về primary vì người dùng vừa ghi")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registerWriteStickiness();
+            return Route.PRIMARY;
+        }
+        if (stickiness.isSticky(currentUser())) {
+            stickyFallbacks.increment();
+            return Route.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            lagFallbacks.increment();
+            return Route.PRIMARY;
+        }
+        replicaRoutes.increment();
+        return Route.REPLICA;
+    }
+
+    /**
+     * Transaction ghi của người dùng đã đăng nhập: sau khi commit thì giữ các lần đọc của họ ở primary một lúc
+     */
+    private void registerWriteStickiness() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        String user = currentUser();
+        if (user == null) {
+            return;
+        }
+        AfterCommit.run("đánh dấu user vừa ghi", () -> stickiness.markWrite(user));
+    }
+
+    private static String currentUser() {
+        return SecurityUtil.getCurrentUserLogin().orElse(null);
+    }
+}
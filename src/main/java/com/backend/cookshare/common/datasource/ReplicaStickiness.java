@@ -0,0 +1,57 @@
+package com.backend.cookshare.common.datasource;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ghi nhớ thời điểm commit ghi gần nhất của từng người dùng để các lần đọc của chính họ trong sticky-window-ms
+ * sau đó đi primary, tránh đọc phải replica chưa kịp nhận thay đổi vừa ghi.
+ * Chỉ giữ trong bộ nhớ của từng instance; request sang instance khác trong cửa sổ này vẫn có thể đọc replica.
+ */
+public class ReplicaStickiness {
+
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final long windowMillis;
+
+    public ReplicaStickiness(long windowMillis) {
+        this.windowMillis = Math.max(0, windowMillis);
+    }
+
+    public void markWrite(String user) {
+        markWrite(user, System.currentTimeMillis());
+    }
+
+    void markWrite(String user, long now) {
+        if (user == null || windowMillis == 0) {
+            return;
+        }
+        lastWrites.put(user, now);
+        if (lastWrites.size() > SWEEP_THRESHOLD) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowMillis);
+        }
+    }
+
+    public boolean isSticky(String user) {
+        return isSticky(user, System.currentTimeMillis());
+    }
+
+    boolean isSticky(String user, long now) {
+        if (user == null) {
+            return false;
+        }
+        Long writtenAt = lastWrites.get(user);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (now - writtenAt >= windowMillis) {
+            lastWrites.remove(user, writtenAt);
+            return false;
+        }
+        return true;
+    }
+
+    int size() {
+        return lastWrites.size();
+    }
+}
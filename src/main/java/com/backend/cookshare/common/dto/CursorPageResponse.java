@@ -0,0 +1,27 @@
+package com.backend.cookshare.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Một lát dữ liệu phân trang theo cursor: không có totalElements/totalPages nên không cần COUNT(*),
+ * trang sau được lấy bằng cách gửi lại nextCursor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResponse<T> {
+    List<T> content;
+    int size;
+    String nextCursor;
+    boolean hasNext;
+
+    @Builder.Default
+    int numberOfElements = 0;
+}
@@ -0,0 +1,56 @@
+package com.backend.cookshare.common.dto;
+
+import com.backend.cookshare.common.exception.CustomException;
+import com.backend.cookshare.common.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Vị trí (created_at, id) của dòng cuối cùng đã trả về, dùng cho truy vấn
+ * {@code (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC}.
+ * Client chỉ nhận chuỗi base64url và gửi lại nguyên vẹn.
+ */
+public record PageCursor(LocalDateTime createdAt, UUID id) {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Cursor của trang đầu: lớn hơn mọi (created_at, id) thực tế
+     */
+    public static final PageCursor FIRST = new PageCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Giải mã cursor từ client, rỗng thì trả về trang đầu
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new CustomException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Giới hạn size client gửi lên trong khoảng [1, MAX_PAGE_SIZE]
+     */
+    public static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
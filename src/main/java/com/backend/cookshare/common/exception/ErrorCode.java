@@ -17,6 +17,7 @@ public enum ErrorCode {
     NOT_FOUND(1006, "Không tìm thấy dữ liệu yêu cầu", HttpStatus.NOT_FOUND),
     REQUEST_TIMEOUT(1007, "Yêu cầu timeout", HttpStatus.REQUEST_TIMEOUT),
     RECIPE_APPROVAL(1008, "Công thức đã được duyệt bạn không thể chỉnh sửa", HttpStatus.BAD_REQUEST),
+    INVALID_CURSOR(1009, "Cursor phân trang không hợp lệ", HttpStatus.BAD_REQUEST),
 
     TAG_NOT_FOUND(1101, "Không tìm thấy thẻ (Tag)", HttpStatus.NOT_FOUND),
     TAG_ALREADY_EXISTS(1102, "Thẻ (Tag) đã tồn tại", HttpStatus.CONFLICT),
@@ -73,6 +74,7 @@ public enum ErrorCode {
     NOTIFICATION_FORBIDDEN(5002, "Không có quyền truy cập thông báo này", HttpStatus.FORBIDDEN),
     RECIPE_ALREADY_LIKED(6003, "Công thức đã được thích", HttpStatus.CONFLICT),
     RECIPE_NOT_LIKED(6004, "Công thức chưa được thích", HttpStatus.BAD_REQUEST),
+    TOO_MANY_RECIPE_IDS(6005, "Số lượng công thức trong một yêu cầu vượt quá giới hạn", HttpStatus.BAD_REQUEST),
 
     REPORT_NOT_FOUND(7001, "Không tìm thấy báo cáo", HttpStatus.NOT_FOUND),
     REPORT_ALREADY_EXISTS(7002, "Bạn đã báo cáo công thức này rồi", HttpStatus.CONFLICT),
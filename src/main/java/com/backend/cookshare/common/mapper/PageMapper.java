@@ -1,5 +1,7 @@
 package com.backend.cookshare.common.mapper;
 
+import com.backend.cookshare.common.dto.CursorPageResponse;
+import com.backend.cookshare.common.dto.PageCursor;
 import com.backend.cookshare.common.dto.PageResponse;
 import org.mapstruct.Mapper;
 import org.springframework.data.domain.Page;
@@ -57,4 +59,24 @@ public interface PageMapper {
                 .numberOfElements(content.size())
                 .build();
     }
+
+    /**
+     * Tạo CursorPageResponse từ kết quả truy vấn keyset đã lấy dư một dòng (LIMIT size + 1):
+     * có dòng dư nghĩa là còn trang sau, cursor là vị trí của dòng cuối cùng được trả về.
+     */
+    static <T, R> CursorPageResponse<R> toCursorPageResponse(List<T> rows, int size,
+                                                            Function<T, PageCursor> cursorOf,
+                                                            Function<List<T>, List<R>> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<T> slice = hasNext ? rows.subList(0, size) : rows;
+        List<R> content = mapper.apply(slice);
+
+        return CursorPageResponse.<R>builder()
+                .content(content)
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(slice.get(slice.size() - 1)).encode() : null)
+                .numberOfElements(content.size())
+                .build();
+    }
 }
@@ -0,0 +1,207 @@
+package com.backend.cookshare.common.pipeline;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Hàng đợi ghi bất đồng bộ dùng chung cho các pipeline ghi log (activity_logs, search_history...).
+ *
+ * Người gọi chỉ đưa bản ghi vào một buffer có giới hạn; một luồng daemon gom tối đa batch-size bản ghi
+ * rồi giao cho {@link BatchHandler} của pipeline ghi xuống DB. Khi buffer đầy, người gọi chờ tối đa
+ * enqueue-timeout-ms rồi bỏ bản ghi (0 = bỏ ngay), để việc ghi log không làm chậm luồng nghiệp vụ chính.
+ * Lỗi ghi chỉ được đếm và log, batch lỗi bị bỏ. Khi dừng, phần còn lại trong buffer được ghi nốt trên luồng gọi.
+ *
+ * Các gauge {prefix}.queue.size, .queue.lag.ms, .accepted, .dropped, .written, .failed được đăng ký
+ * theo metricPrefix của pipeline.
+ */
+@Slf4j
+public class BoundedBatchWriter<T> {
+
+    /**
+     * Phần riêng của từng pipeline: ghi một batch xuống DB
+     */
+    @FunctionalInterface
+    public interface BatchHandler<T> {
+
+        /**
+         * @return số bản ghi đã ghi (có thể ít hơn batch nếu pipeline bỏ qua một số bản ghi)
+         */
+        int write(List<T> batch) throws Exception;
+    }
+
+    private final String name;
+    private final BlockingQueue<T> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long enqueueTimeoutMs;
+    private final Function<T, LocalDateTime> createdAt;
+    private final BatchHandler<T> handler;
+
+    private final LongAdder acceptedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder writtenEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+
+    private volatile boolean running;
+    private Thread consumer;
+
+    /**
+     * @param name      tên pipeline, dùng cho tên luồng ghi ({name}-writer) và log
+     * @param createdAt thời điểm tạo bản ghi, dùng cho gauge tuổi của bản ghi cũ nhất đang chờ
+     */
+    public BoundedBatchWriter(String name, MeterRegistry meterRegistry, String metricPrefix,
+                              int bufferCapacity, int batchSize, long flushIntervalMs, long enqueueTimeoutMs,
+                              Function<T, LocalDateTime> createdAt, BatchHandler<T> handler) {
+        this.name = name;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.createdAt = createdAt;
+        this.handler = handler;
+
+        Gauge.builder(metricPrefix + ".queue.size", buffer, BlockingQueue::size)
+                .description("Số bản ghi " + name + " đang chờ ghi")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".queue.lag.ms", this, BoundedBatchWriter::lagMillis)
+                .description("Tuổi của bản ghi " + name + " cũ nhất đang chờ ghi")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".accepted", acceptedEvents, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".dropped", droppedEvents, LongAdder::sum)
+                .description("Số bản ghi " + name + " bị bỏ do buffer đầy")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".written", writtenEvents, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".failed", failedEvents, LongAdder::sum)
+                .description("Số bản ghi " + name + " ghi lỗi")
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        running = true;
+        consumer = new Thread(this::consumeLoop, name + "-writer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Dừng luồng ghi và ghi nốt những gì còn trong buffer
+     */
+    public void stop() {
+        running = false;
+        if (consumer != null) {
+            consumer.interrupt();
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int remaining = drainAll();
+        log.info("Đã dừng {} pipeline, ghi nốt {} bản ghi", name, remaining);
+    }
+
+    /**
+     * Đưa bản ghi vào buffer; buffer đầy thì bỏ và trả về false
+     */
+    public boolean offer(T item) {
+        boolean accepted;
+        try {
+            accepted = enqueueTimeoutMs > 0
+                    ? buffer.offer(item, enqueueTimeoutMs, TimeUnit.MILLISECONDS)
+                    : buffer.offer(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (accepted) {
+            acceptedEvents.increment();
+        } else {
+            droppedEvents.increment();
+        }
+        return accepted;
+    }
+
+    public long droppedCount() {
+        return droppedEvents.sum();
+    }
+
+    public long pendingCount() {
+        return buffer.size();
+    }
+
+    long lagMillis() {
+        T oldest = buffer.peek();
+        LocalDateTime oldestAt = oldest != null ? createdAt.apply(oldest) : null;
+        if (oldestAt == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(oldestAt, LocalDateTime.now()).toMillis());
+    }
+
+    /**
+     * Ghi toàn bộ buffer hiện tại trên luồng gọi (dùng khi tắt ứng dụng)
+     *
+     * @return số bản ghi đã lấy ra khỏi buffer
+     */
+    public int drainAll() {
+        int total = 0;
+        List<T> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            total += batch.size();
+            writeBatch(batch);
+            batch.clear();
+        }
+        return total;
+    }
+
+    /**
+     * Giao một batch cho handler; lỗi được đếm và log, không ném ra
+     */
+    public void writeBatch(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            writtenEvents.add(handler.write(batch));
+        } catch (Exception e) {
+            failedEvents.add(batch.size());
+            log.warn("Không thể ghi {} bản ghi {}: {}", batch.size(), name, e.getMessage());
+        }
+    }
+
+    private void consumeLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                T first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } catch (Exception e) {
+                log.warn("Lỗi không mong muốn trong {} pipeline: {}", name, e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
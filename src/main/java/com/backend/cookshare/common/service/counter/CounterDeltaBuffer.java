@@ -0,0 +1,148 @@
+package com.backend.cookshare.common.service.counter;
+
+import com.backend.cookshare.common.transaction.AfterCommit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gộp thay đổi của các cột đếm nóng (like, follower, following) trong bộ nhớ rồi ghi xuống DB theo lô,
+ * thay cho việc đọc cả entity, sửa bộ đếm và save lại cả dòng (mất cập nhật khi có nhiều request đồng thời).
+ *
+ * Mỗi (loại, ID) giữ một delta chưa ghi; delta chỉ được cộng sau khi transaction của thao tác commit
+ * nên rollback không làm lệch bộ đếm. Khi flush, mỗi loại được ghi bằng các câu UPDATE ... FROM (VALUES ...)
+ * cộng nguyên tử vào cột; ghi lỗi thì giữ delta để lần sau ghi lại.
+ * Sai lệch còn lại (ví dụ mất delta khi ứng dụng dừng đột ngột) do CounterReconciliationJob sửa định kỳ.
+ */
+@Component
+@Slf4j
+public class CounterDeltaBuffer {
+
+    static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<CounterKey, Long> pending = new ConcurrentHashMap<>();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final Object flushLock = new Object();
+
+    public CounterDeltaBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        Gauge.builder("cookshare.counters.pending", pending, Map::size)
+                .description("Số bộ đếm có thay đổi chưa ghi xuống DB")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.counters.flushed", flushedRows, LongAdder::sum)
+                .description("Tổng số dòng bộ đếm đã ghi xuống DB")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.counters.flush.failures", failedFlushes, LongAdder::sum)
+                .description("Số lần ghi bộ đếm thất bại")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cộng {@code delta} vào bộ đếm; trong transaction thì chỉ cộng sau khi commit
+     */
+    public void add(CounterType type, UUID id, int delta) {
+        if (type == null || id == null || delta == 0) {
+            return;
+        }
+        AfterCommit.run("cộng delta bộ đếm", () -> apply(new CounterKey(type, id), delta));
+    }
+
+    /**
+     * Delta chưa ghi xuống DB của một bộ đếm
+     */
+    public long pending(CounterType type, UUID id) {
+        return pending.getOrDefault(new CounterKey(type, id), 0L);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${cookshare.counters.flush-interval-ms:2000}",
+            initialDelayString = "${cookshare.counters.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        log.info("Đã ghi {} bộ đếm còn chờ trước khi tắt ứng dụng", flushed);
+    }
+
+    /**
+     * Ghi toàn bộ delta đang chờ, mỗi loại bộ đếm bằng các câu UPDATE theo lô
+     *
+     * @return số bộ đếm đã ghi thành công
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            Map<CounterType, List<Map.Entry<CounterKey, Long>>> byType = new EnumMap<>(CounterType.class);
+            pending.forEach((key, delta) -> byType
+                    .computeIfAbsent(key.type(), type -> new ArrayList<>())
+                    .add(Map.entry(key, Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, delta)))));
+            if (byType.isEmpty()) {
+                return 0;
+            }
+
+            int written = 0;
+            for (Map.Entry<CounterType, List<Map.Entry<CounterKey, Long>>> group : byType.entrySet()) {
+                List<Map.Entry<CounterKey, Long>> rows = group.getValue();
+                for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+                    List<Map.Entry<CounterKey, Long>> chunk = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+                    try {
+                        jdbcTemplate.update(group.getKey().buildUpdateSql(chunk.size()), toArgs(chunk));
+                    } catch (Exception e) {
+                        failedFlushes.increment();
+                        log.warn("Không thể ghi {} bộ đếm {}, sẽ thử lại ở lần sau: {}",
+                                chunk.size(), group.getKey(), e.getMessage());
+                        continue;
+                    }
+                    for (Map.Entry<CounterKey, Long> entry : chunk) {
+                        // Trừ đúng phần đã ghi, giữ lại delta phát sinh trong lúc flush
+                        pending.computeIfPresent(entry.getKey(), (key, current) -> {
+                            long remaining = current - entry.getValue();
+                            return remaining == 0 ? null : remaining;
+                        });
+                    }
+                    flushedRows.add(chunk.size());
+                    written += chunk.size();
+                }
+            }
+            log.debug("Đã ghi {} bộ đếm xuống DB", written);
+            return written;
+        }
+    }
+
+    private void apply(CounterKey key, int delta) {
+        pending.merge(key, (long) delta, (current, added) -> {
+            long sum = current + added;
+            return sum == 0 ? null : sum;
+        });
+    }
+
+    private static Object[] toArgs(List<Map.Entry<CounterKey, Long>> chunk) {
+        Object[] args = new Object[chunk.size() * 2];
+        int i = 0;
+        for (Map.Entry<CounterKey, Long> entry : chunk) {
+            args[i++] = entry.getKey().id().toString();
+            args[i++] = entry.getValue().intValue();
+        }
+        return args;
+    }
+
+    private record CounterKey(CounterType type, UUID id) {
+    }
+}
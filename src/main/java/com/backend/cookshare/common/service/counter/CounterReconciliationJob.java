@@ -0,0 +1,123 @@
+package com.backend.cookshare.common.service.counter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Định kỳ tính lại like_count, follower_count, following_count, rating_count và average_rating
+ * (cùng rating_sum khi bật cookshare.counters.rating-sum.enabled) từ các bảng nguồn (recipe_likes, follows, recipe_ratings) để sửa sai lệch của bộ đếm.
+ *
+ * Trước khi tính lại, các delta đang chờ trong {@link CounterDeltaBuffer} được ghi xuống DB;
+ * chỉ những dòng có giá trị khác với bảng nguồn mới bị UPDATE. Thao tác diễn ra đúng lúc đối chiếu
+ * vẫn có thể lệch 1 đơn vị và sẽ được sửa ở lần chạy sau.
+ */
+@Component
+@Slf4j
+public class CounterReconciliationJob {
+
+    static final Map<String, String> RECONCILE_SQL = new LinkedHashMap<>();
+
+    static {
+        RECONCILE_SQL.put("like_count", """
+                UPDATE recipes r SET like_count = s.cnt
+                FROM (SELECT r2.recipe_id, COUNT(l.recipe_id) AS cnt
+                      FROM recipes r2 LEFT JOIN recipe_likes l ON l.recipe_id = r2.recipe_id
+                      GROUP BY r2.recipe_id) s
+                WHERE r.recipe_id = s.recipe_id AND r.like_count IS DISTINCT FROM s.cnt
+                """);
+        RECONCILE_SQL.put("follower_count", """
+                UPDATE users u SET follower_count = s.cnt, updated_at = LOCALTIMESTAMP
+                FROM (SELECT u2.user_id, COUNT(f.following_id) AS cnt
+                      FROM users u2 LEFT JOIN follows f ON f.following_id = u2.user_id
+                      GROUP BY u2.user_id) s
+                WHERE u.user_id = s.user_id AND u.follower_count IS DISTINCT FROM s.cnt
+                """);
+        RECONCILE_SQL.put("following_count", """
+                UPDATE users u SET following_count = s.cnt, updated_at = LOCALTIMESTAMP
+                FROM (SELECT u2.user_id, COUNT(f.follower_id) AS cnt
+                      FROM users u2 LEFT JOIN follows f ON f.follower_id = u2.user_id
+                      GROUP BY u2.user_id) s
+                WHERE u.user_id = s.user_id AND u.following_count IS DISTINCT FROM s.cnt
+                """);
+        RECONCILE_SQL.put("rating", """
+                UPDATE recipes r SET rating_count = s.cnt, average_rating = s.avg
+                FROM (SELECT r2.recipe_id, COUNT(rr.rating) AS cnt,
+                             COALESCE(ROUND(AVG(rr.rating), 2), 0) AS avg
+                      FROM recipes r2 LEFT JOIN recipe_ratings rr ON rr.recipe_id = r2.recipe_id
+                      GROUP BY r2.recipe_id) s
+                WHERE r.recipe_id = s.recipe_id
+                AND (r.rating_count IS DISTINCT FROM s.cnt OR r.average_rating IS DISTINCT FROM s.avg)
+                """);
+    }
+
+    // Thay cho câu "rating" khi bật cột rating_sum
+    static final String RATING_WITH_SUM_SQL = """
+            UPDATE recipes r SET rating_count = s.cnt, rating_sum = s.total, average_rating = s.avg
+            FROM (SELECT r2.recipe_id, COUNT(rr.rating) AS cnt, COALESCE(SUM(rr.rating), 0) AS total,
+                         COALESCE(ROUND(AVG(rr.rating), 2), 0) AS avg
+                  FROM recipes r2 LEFT JOIN recipe_ratings rr ON rr.recipe_id = r2.recipe_id
+                  GROUP BY r2.recipe_id) s
+            WHERE r.recipe_id = s.recipe_id
+            AND (r.rating_count IS DISTINCT FROM s.cnt OR r.rating_sum IS DISTINCT FROM s.total
+                 OR r.average_rating IS DISTINCT FROM s.avg)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CounterDeltaBuffer counterDeltaBuffer;
+    private final Map<String, String> statements = new LinkedHashMap<>(RECONCILE_SQL);
+    private final LongAdder repairedRows = new LongAdder();
+
+    public CounterReconciliationJob(JdbcTemplate jdbcTemplate,
+                                    CounterDeltaBuffer counterDeltaBuffer,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${cookshare.counters.rating-sum.enabled:false}") boolean ratingSumEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.counterDeltaBuffer = counterDeltaBuffer;
+        if (ratingSumEnabled) {
+            statements.put("rating", RATING_WITH_SUM_SQL);
+        }
+
+        Gauge.builder("cookshare.counters.reconciled", repairedRows, LongAdder::sum)
+                .description("Tổng số dòng bộ đếm đã được sửa khi đối chiếu với bảng nguồn")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cookshare.counters.reconcile-interval-ms:21600000}",
+            initialDelayString = "${cookshare.counters.reconcile-interval-ms:21600000}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Đối chiếu toàn bộ bộ đếm với bảng nguồn
+     *
+     * @return số dòng đã sửa
+     */
+    public int reconcile() {
+        counterDeltaBuffer.flush();
+
+        int repaired = 0;
+        for (Map.Entry<String, String> statement : statements.entrySet()) {
+            try {
+                int rows = jdbcTemplate.update(statement.getValue());
+                if (rows > 0) {
+                    log.info("Đã sửa {} dòng lệch {}", rows, statement.getKey());
+                }
+                repaired += rows;
+            } catch (Exception e) {
+                log.warn("Không thể đối chiếu {}: {}", statement.getKey(), e.getMessage());
+            }
+        }
+        repairedRows.add(repaired);
+        return repaired;
+    }
+}
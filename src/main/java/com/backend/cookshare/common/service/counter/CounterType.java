@@ -0,0 +1,38 @@
+package com.backend.cookshare.common.service.counter;
+
+/**
+ * Các cột đếm được cộng dồn qua {@link CounterDeltaBuffer}: bảng, khóa chính và cột đếm tương ứng.
+ * Bộ đếm của users cập nhật cả updated_at như @PreUpdate của entity, vì TypeaheadService đọc
+ * các user thay đổi (số follower) theo updated_at.
+ */
+public enum CounterType {
+    RECIPE_LIKES("recipes", "recipe_id", "like_count", false),
+    USER_FOLLOWERS("users", "user_id", "follower_count", true),
+    USER_FOLLOWING("users", "user_id", "following_count", true);
+
+    private final String table;
+    private final String idColumn;
+    private final String countColumn;
+    private final boolean touchesUpdatedAt;
+
+    CounterType(String table, String idColumn, String countColumn, boolean touchesUpdatedAt) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.countColumn = countColumn;
+        this.touchesUpdatedAt = touchesUpdatedAt;
+    }
+
+    /**
+     * Câu UPDATE ... FROM (VALUES ...) cộng delta cho {@code rows} dòng, không để cột đếm âm
+     */
+    String buildUpdateSql(int rows) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            values.append(i == 0 ? "" : ", ").append("(CAST(? AS uuid), CAST(? AS integer))");
+        }
+        return "UPDATE " + table + " t SET " + countColumn + " = GREATEST(COALESCE(t." + countColumn + ", 0) + v.delta, 0)"
+                + (touchesUpdatedAt ? ", updated_at = LOCALTIMESTAMP " : " ")
+                + "FROM (VALUES " + values + ") AS v(id, delta) "
+                + "WHERE t." + idColumn + " = v.id";
+    }
+}
@@ -0,0 +1,122 @@
+package com.backend.cookshare.common.service.counter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Kiểm tra lại rating_count / average_rating của các công thức vừa được đánh giá.
+ *
+ * Luồng đánh giá chỉ cộng delta (RecipeRepository.applyRating) nên có thể lệch vài phần trăm do làm tròn,
+ * hoặc lệch khi hai lần sửa cùng một đánh giá chạy đồng thời; định kỳ các công thức đã chạm tới
+ * được tính lại từ recipe_ratings,
+ * chỉ đọc rating của đúng những công thức đó thay vì quét toàn bảng như CounterReconciliationJob.
+ *
+ * Khi bật cookshare.counters.rating-sum.enabled (cần thêm cột recipes.rating_sum, xem
+ * RecipeRepository.applyRatingWithSum), tổng điểm được giữ chính xác và cũng được tính lại ở đây.
+ */
+@Component
+@Slf4j
+public class RatingAggregateVerifier {
+
+    static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean ratingSumEnabled;
+    private final Set<UUID> changedRecipes = ConcurrentHashMap.newKeySet();
+    private final LongAdder repairedRecipes = new LongAdder();
+
+    public RatingAggregateVerifier(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                   @Value("${cookshare.counters.rating-sum.enabled:false}") boolean ratingSumEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ratingSumEnabled = ratingSumEnabled;
+
+        Gauge.builder("cookshare.ratings.verify.pending", changedRecipes, Set::size)
+                .description("Số công thức có đánh giá mới chờ kiểm tra lại điểm trung bình")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.ratings.verify.repaired", repairedRecipes, LongAdder::sum)
+                .description("Số công thức đã được sửa điểm trung bình")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Có dùng cột rating_sum hay không (luồng đánh giá chọn RecipeRepository.applyRatingWithSum)
+     */
+    public boolean isRatingSumEnabled() {
+        return ratingSumEnabled;
+    }
+
+    /**
+     * Đánh dấu công thức cần kiểm tra lại ở lần chạy tới
+     */
+    public void markChanged(UUID recipeId) {
+        if (recipeId != null) {
+            changedRecipes.add(recipeId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cookshare.counters.rating-verify-interval-ms:600000}",
+            initialDelayString = "${cookshare.counters.rating-verify-interval-ms:600000}")
+    public void scheduledVerify() {
+        verify();
+    }
+
+    /**
+     * Tính lại các công thức đã đánh dấu
+     *
+     * @return số công thức bị lệch đã được sửa
+     */
+    public int verify() {
+        List<UUID> batch = new ArrayList<>();
+        Iterator<UUID> iterator = changedRecipes.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        int repaired = 0;
+        for (int from = 0; from < batch.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<UUID> chunk = batch.subList(from, Math.min(batch.size(), from + MAX_ROWS_PER_STATEMENT));
+            try {
+                repaired += jdbcTemplate.update(buildVerifySql(chunk.size(), ratingSumEnabled),
+                        chunk.stream().map(UUID::toString).toArray());
+            } catch (Exception e) {
+                changedRecipes.addAll(chunk);
+                log.warn("Không thể kiểm tra điểm đánh giá của {} công thức, sẽ thử lại: {}", chunk.size(), e.getMessage());
+            }
+        }
+        if (repaired > 0) {
+            log.info("Đã sửa điểm đánh giá của {}/{} công thức", repaired, batch.size());
+        }
+        repairedRecipes.add(repaired);
+        return repaired;
+    }
+
+    static String buildVerifySql(int rows, boolean withRatingSum) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rows; i++) {
+            values.add("(CAST(? AS uuid))");
+        }
+        return "UPDATE recipes r SET rating_count = s.cnt, "
+                + (withRatingSum ? "rating_sum = s.total, " : "") + "average_rating = s.avg "
+                + "FROM (SELECT v.id AS recipe_id, COUNT(rr.rating) AS cnt, COALESCE(SUM(rr.rating), 0) AS total, "
+                + "COALESCE(ROUND(AVG(rr.rating), 2), 0) AS avg "
+                + "FROM (VALUES " + values + ") AS v(id) "
+                + "LEFT JOIN recipe_ratings rr ON rr.recipe_id = v.id GROUP BY v.id) s "
+                + "WHERE r.recipe_id = s.recipe_id "
+                + "AND (r.rating_count IS DISTINCT FROM s.cnt "
+                + (withRatingSum ? "OR r.rating_sum IS DISTINCT FROM s.total " : "")
+                + "OR r.average_rating IS DISTINCT FROM s.avg)";
+    }
+}
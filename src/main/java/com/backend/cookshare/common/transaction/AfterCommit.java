@@ -0,0 +1,62 @@
+package com.backend.cookshare.common.transaction;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Chạy thao tác phụ (cập nhật index, bộ đếm, cache trong bộ nhớ, fan-out...) sau khi transaction của luồng gọi commit.
+ * Không có transaction thì chạy ngay; transaction rollback thì thao tác bị bỏ.
+ *
+ * Lỗi của thao tác chỉ được log, không ném lại cho luồng gọi: lúc chạy sau commit thì dữ liệu chính đã được ghi,
+ * ném lỗi không rollback được gì mà chỉ làm request báo lỗi sai.
+ * Synchronization đăng ký trong lúc afterCommit đang chạy sẽ không bao giờ được gọi,
+ * nên mỗi thành phần tự hoãn phần việc của mình thay vì gọi lồng nhau từ một afterCommit khác.
+ */
+@Slf4j
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Chạy thao tác trên luồng hiện tại sau khi commit
+     *
+     * @param description mô tả thao tác, dùng trong log khi lỗi (ví dụ "cập nhật index nguyên liệu")
+     */
+    public static void run(String description, Runnable action) {
+        Runnable task = guarded(description, action);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Giao thao tác cho executor sau khi commit, dùng cho việc nặng không nên giữ luồng request
+     *
+     * @param description mô tả thao tác, dùng trong log khi lỗi hoặc khi executor từ chối
+     */
+    public static void execute(Executor executor, String description, Runnable action) {
+        Runnable task = guarded(description, action);
+        run(description, () -> executor.execute(task));
+    }
+
+    private static Runnable guarded(String description, Runnable action) {
+        return () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.warn("Không thể {}: {}", description, e.getMessage());
+            }
+        };
+    }
+}
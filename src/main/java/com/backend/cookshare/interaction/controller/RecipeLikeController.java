@@ -3,7 +3,9 @@ package com.backend.cookshare.interaction.controller;
 import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.interaction.dto.request.RecipeLikeRequest;
 import com.backend.cookshare.interaction.dto.response.RecipeLikeResponse;
+import com.backend.cookshare.interaction.dto.response.RecipeViewerStateResponse;
 import com.backend.cookshare.interaction.sevice.RecipeLikeService;
+import com.backend.cookshare.interaction.sevice.RecipeViewerStateService;
 import com.backend.cookshare.recipe_management.dto.ApiResponse;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +24,7 @@ import java.util.UUID;
 @Slf4j
 public class RecipeLikeController {
     RecipeLikeService recipeLikeService;
+    RecipeViewerStateService recipeViewerStateService;
     @PostMapping("/like")
     public ApiResponse<RecipeLikeResponse> likerecipe (@RequestBody RecipeLikeRequest request) {
         return ApiResponse.<RecipeLikeResponse>builder()
@@ -57,4 +60,11 @@ public class RecipeLikeController {
                 .result(recipeLikeService.checkMultipleLikes(recipeIds))
                 .build();
     }
+    // Trạng thái like / đánh giá / lưu của người dùng hiện tại cho nhiều công thức (render feed)
+    @PostMapping("/viewer-state")
+    public ApiResponse<Map<UUID, RecipeViewerStateResponse>> getViewerStates(@RequestBody List<UUID> recipeIds) {
+        return ApiResponse.<Map<UUID, RecipeViewerStateResponse>>builder()
+                .result(recipeViewerStateService.getViewerStates(recipeIds))
+                .build();
+    }
 }
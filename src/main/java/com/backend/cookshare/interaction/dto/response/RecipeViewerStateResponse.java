@@ -0,0 +1,21 @@
+package com.backend.cookshare.interaction.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeViewerStateResponse {
+    private UUID recipeId;
+    private Boolean liked;
+    private Integer myRating;   // null nếu chưa đánh giá
+    private Boolean saved;
+    private List<UUID> collectionIds;
+}
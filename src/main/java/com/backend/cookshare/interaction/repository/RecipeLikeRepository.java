@@ -5,8 +5,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,4 +22,7 @@ public interface RecipeLikeRepository extends JpaRepository<RecipeLike, UUID> {
     @Query("SELECT rl FROM RecipeLike rl WHERE rl.userId = :userId ORDER BY rl.createdAt DESC")
     Page<RecipeLike> findAllByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
     List<RecipeLike> findAllByUserIdAndRecipeIdIn(UUID userId, List<UUID> recipeIds);
-}
\ No newline at end of file
+
+    @Query("SELECT rl.recipeId FROM RecipeLike rl WHERE rl.userId = :userId AND rl.recipeId IN :recipeIds")
+    List<UUID> findLikedRecipeIds(@Param("userId") UUID userId, @Param("recipeIds") Collection<UUID> recipeIds);
+}
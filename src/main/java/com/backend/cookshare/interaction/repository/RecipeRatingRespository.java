@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,4 +16,15 @@ public interface RecipeRatingRespository extends JpaRepository<RecipeRating, UUI
     BigDecimal getAverageRatingByRecipeId(@Param("recipeId") UUID recipeId);
     Boolean existsByUserIdAndRecipeId(UUID userId, UUID recipeId);
     Optional<RecipeRating> findByUserIdAndRecipeId(UUID userId, UUID recipeId);
+
+    @Query("SELECT r.recipeId AS recipeId, r.rating AS rating FROM RecipeRating r " +
+            "WHERE r.userId = :userId AND r.recipeId IN :recipeIds")
+    List<UserRatingProjection> findUserRatings(@Param("userId") UUID userId,
+                                               @Param("recipeIds") Collection<UUID> recipeIds);
+
+    interface UserRatingProjection {
+        UUID getRecipeId();
+        Integer getRating();
+    }
 }
+
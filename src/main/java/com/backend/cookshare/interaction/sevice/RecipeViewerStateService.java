@@ -0,0 +1,11 @@
+package com.backend.cookshare.interaction.sevice;
+
+import com.backend.cookshare.interaction.dto.response.RecipeViewerStateResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface RecipeViewerStateService {
+    Map<UUID, RecipeViewerStateResponse> getViewerStates(List<UUID> recipeIds);
+}
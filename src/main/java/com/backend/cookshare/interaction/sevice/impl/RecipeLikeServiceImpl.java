@@ -1,11 +1,12 @@
 package com.backend.cookshare.interaction.sevice.impl;
 
-import com.backend.cookshare.authentication.entity.User;
-import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.authentication.service.FirebaseStorageService;
 import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
+import com.backend.cookshare.common.service.counter.CounterDeltaBuffer;
+import com.backend.cookshare.common.service.counter.CounterType;
 import com.backend.cookshare.interaction.entity.RecipeLike;
 import com.backend.cookshare.interaction.dto.response.RecipeLikeResponse;
 import com.backend.cookshare.interaction.mapper.RecipeLikeMapper;
@@ -13,6 +14,7 @@ import com.backend.cookshare.interaction.repository.RecipeLikeRepository;
 import com.backend.cookshare.interaction.sevice.RecipeLikeService;
 import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import com.backend.cookshare.user.service.NotificationService;
 import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
@@ -22,7 +24,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -38,62 +39,61 @@ import java.util.stream.Collectors;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class RecipeLikeServiceImpl implements RecipeLikeService {
     RecipeLikeRepository recipeLikeRepository;
-    UserRepository userRepository;
+    CurrentUserResolver currentUserResolver;
     RecipeRepository recipeRepository;
     RecipeLikeMapper recipeLikeMapper;
     FirebaseStorageService firebaseStorageService;
     NotificationService notificationService;
-    private User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
-    }
+    RecipeFeedSynchronizer recipeFeedSynchronizer;
+    CounterDeltaBuffer counterDeltaBuffer;
 
     @Override
     @Transactional
     public RecipeLikeResponse likerecipe(UUID recipeId) {
-        User currentUser = getCurrentUser();
-        Recipe recipe = recipeRepository.findById(recipeId)
-                .orElseThrow(() -> new CustomException(ErrorCode.RECIPE_NOT_FOUND));
+        UUID currentUserId = currentUserResolver.requireCurrentUserId();
+        if (!recipeRepository.existsById(recipeId)) {
+            throw new CustomException(ErrorCode.RECIPE_NOT_FOUND);
+        }
 
         // Kiểm tra like trùng lặp
-        if (recipeLikeRepository.existsByUserIdAndRecipeId(currentUser.getUserId(), recipeId)) {
+        if (recipeLikeRepository.existsByUserIdAndRecipeId(currentUserId, recipeId)) {
             throw new CustomException(ErrorCode.RECIPE_ALREADY_LIKED);
         }
 
         RecipeLike recipeLike = RecipeLike.builder()
-                .userId(currentUser.getUserId())
+                .userId(currentUserId)
                 .recipeId(recipeId)
                 .createdAt(LocalDateTime.now())
                 .build();
         recipeLike = recipeLikeRepository.save(recipeLike);
-        recipe.setLikeCount(recipe.getLikeCount() + 1);
-        recipeRepository.save(recipe);
-        notificationService.createLikeNotification(recipeRepository.findUserIdByRecipeId(recipeId), currentUser.getUserId(), recipeId);
+        counterDeltaBuffer.add(CounterType.RECIPE_LIKES, recipeId, 1);
+        recipeFeedSynchronizer.likeChanged(recipeId, 1);
+        notificationService.createLikeNotification(recipeRepository.findUserIdByRecipeId(recipeId), currentUserId, recipeId);
         return recipeLikeMapper.toRecipeLikeResponse(recipeLike);
     }
 
     @Override
     @Transactional
     public void unlikerecipe(UUID recipeId) {
-        User currentUser = getCurrentUser();
-        Recipe recipe = recipeRepository.findById(recipeId)
-                .orElseThrow(() -> new CustomException(ErrorCode.RECIPE_NOT_FOUND));
+        UUID currentUserId = currentUserResolver.requireCurrentUserId();
+        if (!recipeRepository.existsById(recipeId)) {
+            throw new CustomException(ErrorCode.RECIPE_NOT_FOUND);
+        }
 
-        RecipeLike recipeLike = recipeLikeRepository.findByUserIdAndRecipeId(currentUser.getUserId(), recipeId)
+        RecipeLike recipeLike = recipeLikeRepository.findByUserIdAndRecipeId(currentUserId, recipeId)
                 .orElseThrow(() -> new CustomException(ErrorCode.RECIPE_NOT_LIKED));
 
-//        notificationService.deleteLikeNotification(recipeRepository.findUserIdByRecipeId(recipeId), currentUser.getUserId(), recipeId);
+//        notificationService.deleteLikeNotification(recipeRepository.findUserIdByRecipeId(recipeId), currentUserId, recipeId);
         recipeLikeRepository.delete(recipeLike);
-        recipe.setLikeCount(Math.max(0, recipe.getLikeCount() - 1));
-        recipeRepository.save(recipe);
+        counterDeltaBuffer.add(CounterType.RECIPE_LIKES, recipeId, -1);
+        recipeFeedSynchronizer.likeChanged(recipeId, -1);
     }
     @Override
     @Transactional
     public PageResponse<RecipeLikeResponse> getallRecipeLiked(int page, int size) {
-        User currentUser = getCurrentUser();
+        UUID currentUserId = currentUserResolver.requireCurrentUserId();
         Pageable pageable = PageRequest.of(page, size);
-        Page<RecipeLike> likedRecipes = recipeLikeRepository.findAllByUserIdOrderByCreatedAtDesc(currentUser.getUserId(), pageable);
+        Page<RecipeLike> likedRecipes = recipeLikeRepository.findAllByUserIdOrderByCreatedAtDesc(currentUserId, pageable);
 
         Page<RecipeLikeResponse> responsePage = likedRecipes.map(like -> {
             Recipe recipe = recipeRepository.findById(like.getRecipeId()).orElse(null);
@@ -120,16 +120,16 @@ public class RecipeLikeServiceImpl implements RecipeLikeService {
     }
     @Override
     public Boolean isRecipeLiked(UUID recipeId) {
-        User currentUser = getCurrentUser();
-        return recipeLikeRepository.existsByUserIdAndRecipeId(currentUser.getUserId(), recipeId);
+        UUID currentUserId = currentUserResolver.requireCurrentUserId();
+        return recipeLikeRepository.existsByUserIdAndRecipeId(currentUserId, recipeId);
     }
     @Override
     public Map<UUID, Boolean> checkMultipleLikes(List<UUID> recipeIds) {
-        User currentUser = getCurrentUser();
+        UUID currentUserId = currentUserResolver.requireCurrentUserId();
 
         // Query 1 lần duy nhất cho tất cả recipes
         List<RecipeLike> likes = recipeLikeRepository
-                .findAllByUserIdAndRecipeIdIn(currentUser.getUserId(), recipeIds);
+                .findAllByUserIdAndRecipeIdIn(currentUserId, recipeIds);
 
         // Convert thành Map để tra cứu nhanh
         Set<UUID> likedRecipeIds = likes.stream()
@@ -1,22 +1,21 @@
 package com.backend.cookshare.interaction.sevice.impl;
 
-import com.backend.cookshare.authentication.entity.User;
-import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
+import com.backend.cookshare.common.service.counter.RatingAggregateVerifier;
 import com.backend.cookshare.interaction.dto.response.RecipeRatingResponse;
 import com.backend.cookshare.interaction.entity.RecipeRating;
 import com.backend.cookshare.interaction.mapper.RecipeRatingMapper;
 import com.backend.cookshare.interaction.repository.RecipeRatingRespository;
 import com.backend.cookshare.interaction.sevice.RecipeRatingService;
-import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -29,51 +28,61 @@ import java.util.UUID;
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class RecipeRatingServiceimpl implements RecipeRatingService {
-    UserRepository userRepository;
+    CurrentUserResolver currentUserResolver;
     RecipeRepository recipeRepository;
     RecipeRatingRespository recipeRatingRespository;
     RecipeRatingMapper recipeRatingMapper;
-    private User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
-    }
+    RecipeFeedSynchronizer recipeFeedSynchronizer;
+    RatingAggregateVerifier ratingAggregateVerifier;
     @Override
     @Transactional
     public RecipeRatingResponse ratingrecipe(UUID recipeId, Integer rate) {
 
-        User currentUser = getCurrentUser();
-        Recipe recipe = recipeRepository.findById(recipeId)
-                .orElseThrow(() -> new CustomException(ErrorCode.RECIPE_NOT_FOUND));
+        UUID currentUserId = currentUserResolver.requireCurrentUserId();
+        if (!recipeRepository.existsById(recipeId)) {
+            throw new CustomException(ErrorCode.RECIPE_NOT_FOUND);
+        }
 
         Optional<RecipeRating> existingRating = recipeRatingRespository
-                .findByUserIdAndRecipeId(currentUser.getUserId(), recipeId);
+                .findByUserIdAndRecipeId(currentUserId, recipeId);
 
         RecipeRating rating;
+        int countDelta = 0;
+        int ratingDelta;
 
         if (existingRating.isPresent()) {
             // update đánh giá
             rating = existingRating.get();
+            ratingDelta = rate - rating.getRating();
             rating.setRating(rate);
             rating.setUpdatedAt(LocalDateTime.now());
         } else {
             // tạo đánh giá mới
             rating = RecipeRating.builder()
-                    .userId(currentUser.getUserId())
+                    .userId(currentUserId)
                     .recipeId(recipeId)
                     .rating(rate)
                     .review(null)
                     .build();
 
-            recipe.setRatingCount(recipe.getRatingCount() + 1);
+            countDelta = 1;
+            ratingDelta = rate;
         }
 
         recipeRatingRespository.save(rating);
 
-        // cập nhật avg mới
-        BigDecimal avg = recipeRatingRespository.getAverageRatingByRecipeId(recipeId);
-        recipe.setAverageRating(avg);
-        recipeRepository.save(recipe);
+        // cộng delta vào số lượt đánh giá và điểm trung bình bằng một câu UPDATE, không AVG lại toàn bộ đánh giá
+        if (ratingAggregateVerifier.isRatingSumEnabled()) {
+            recipeRepository.applyRatingWithSum(recipeId, countDelta, ratingDelta);
+        } else {
+            recipeRepository.applyRating(recipeId, countDelta, ratingDelta);
+        }
+        ratingAggregateVerifier.markChanged(recipeId);
+        RecipeRepository.RatingSummaryProjection summary = recipeRepository.findRatingSummary(recipeId)
+                .orElseThrow(() -> new CustomException(ErrorCode.RECIPE_NOT_FOUND));
+        int ratingCount = summary.getRatingCount() != null ? summary.getRatingCount() : 0;
+        BigDecimal avg = summary.getAverageRating() != null ? summary.getAverageRating() : BigDecimal.ZERO;
+        recipeFeedSynchronizer.ratingChanged(recipeId, ratingCount, avg, countDelta > 0);
 
         // trả về response kèm avg + count
         return RecipeRatingResponse.builder()
@@ -84,19 +93,19 @@ public class RecipeRatingServiceimpl implements RecipeRatingService {
                 .review(rating.getReview())
                 .createdAt(rating.getCreatedAt())
                 .updatedAt(rating.getUpdatedAt())
-                .averageRating(recipe.getAverageRating())
-                .ratingCount(recipe.getRatingCount())
+                .averageRating(avg)
+                .ratingCount(ratingCount)
                 .build();
     }
     @Override
     public Boolean isRecipeRated(UUID recipeId) {
-        User currentUser = getCurrentUser();
-        return recipeRatingRespository.existsByUserIdAndRecipeId(currentUser.getUserId(), recipeId);
+        UUID currentUserId = currentUserResolver.requireCurrentUserId();
+        return recipeRatingRespository.existsByUserIdAndRecipeId(currentUserId, recipeId);
     }
     @Override
     public Integer getMyRating(UUID recipeId){
-        User currentUser = getCurrentUser();
-        return recipeRatingRespository.findByUserIdAndRecipeId(currentUser.getUserId(), recipeId)
+        UUID currentUserId = currentUserResolver.requireCurrentUserId();
+        return recipeRatingRespository.findByUserIdAndRecipeId(currentUserId, recipeId)
                 .map(RecipeRating::getRating)
                 .orElse(null);
     }
@@ -0,0 +1,81 @@
+package com.backend.cookshare.interaction.sevice.impl;
+
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
+import com.backend.cookshare.common.exception.CustomException;
+import com.backend.cookshare.common.exception.ErrorCode;
+import com.backend.cookshare.interaction.dto.response.RecipeViewerStateResponse;
+import com.backend.cookshare.interaction.repository.RecipeLikeRepository;
+import com.backend.cookshare.interaction.repository.RecipeRatingRespository;
+import com.backend.cookshare.interaction.sevice.RecipeViewerStateService;
+import com.backend.cookshare.user.repository.CollectionRecipeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Trạng thái like / đánh giá / lưu của người xem cho một trang feed.
+ *
+ * userId lấy một lần qua CurrentUserResolver, mỗi quan hệ chỉ tốn đúng một câu IN (recipe_likes, recipe_ratings,
+ * collection_recipes) thay vì gọi isRecipeLiked / getMyRating / kiểm tra bộ sưu tập cho từng thẻ.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecipeViewerStateServiceImpl implements RecipeViewerStateService {
+
+    private final CurrentUserResolver currentUserResolver;
+    private final RecipeLikeRepository recipeLikeRepository;
+    private final RecipeRatingRespository recipeRatingRespository;
+    private final CollectionRecipeRepository collectionRecipeRepository;
+
+    @Value("${cookshare.interaction.viewer-state.max-recipes:100}")
+    private int maxRecipes;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<UUID, RecipeViewerStateResponse> getViewerStates(List<UUID> recipeIds) {
+        if (recipeIds == null || recipeIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Set<UUID> ids = new LinkedHashSet<>(recipeIds);
+        ids.remove(null);
+        if (ids.size() > maxRecipes) {
+            throw new CustomException(ErrorCode.TOO_MANY_RECIPE_IDS);
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        UUID userId = currentUserResolver.requireCurrentUserId();
+
+        Set<UUID> liked = new HashSet<>(recipeLikeRepository.findLikedRecipeIds(userId, ids));
+
+        Map<UUID, Integer> ratings = new HashMap<>();
+        for (RecipeRatingRespository.UserRatingProjection rating : recipeRatingRespository.findUserRatings(userId, ids)) {
+            ratings.put(rating.getRecipeId(), rating.getRating());
+        }
+
+        Map<UUID, List<UUID>> collections = new HashMap<>();
+        for (CollectionRecipeRepository.SavedRecipeProjection saved : collectionRecipeRepository.findSavedRecipes(userId, ids)) {
+            collections.computeIfAbsent(saved.getRecipeId(), id -> new ArrayList<>()).add(saved.getCollectionId());
+        }
+
+        // Giữ nguyên thứ tự recipeIds của feed
+        Map<UUID, RecipeViewerStateResponse> states = new LinkedHashMap<>();
+        for (UUID recipeId : ids) {
+            List<UUID> collectionIds = collections.getOrDefault(recipeId, Collections.emptyList());
+            states.put(recipeId, RecipeViewerStateResponse.builder()
+                    .recipeId(recipeId)
+                    .liked(liked.contains(recipeId))
+                    .myRating(ratings.get(recipeId))
+                    .saved(!collectionIds.isEmpty())
+                    .collectionIds(collectionIds)
+                    .build());
+        }
+        return states;
+    }
+}
@@ -0,0 +1,192 @@
+package com.backend.cookshare.interaction.sevice.pipeline;
+
+import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.repository.UserRepository.UserIdProjection;
+import com.backend.cookshare.common.pipeline.BoundedBatchWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Hàng đợi ghi search_history bất đồng bộ trên {@link BoundedBatchWriter}, cùng cách làm với ActivityLogPipeline.
+ *
+ * Luồng tìm kiếm chỉ đưa (username, từ khóa, loại, số kết quả) vào một buffer có giới hạn, không truy vấn DB
+ * và không bao giờ ném lỗi; buffer đầy thì bỏ sự kiện. Một luồng riêng gom tối đa batch-size sự kiện,
+ * đổi username sang userId bằng một câu IN rồi ghi bằng một JDBC batch insert.
+ * Sự kiện của username không còn tồn tại bị bỏ qua.
+ *
+ * Khi bật cookshare.search-history.rollup.enabled, mỗi batch còn được gộp theo (ngày, từ khóa) trong bộ nhớ
+ * và cộng dồn vào bảng search_keyword_daily để thống kê từ khóa phổ biến không phải GROUP BY trên log thô:
+ * CREATE TABLE search_keyword_daily (stat_date DATE NOT NULL, search_query TEXT NOT NULL,
+ *   search_count BIGINT NOT NULL, result_sum BIGINT NOT NULL,
+ *   last_searched TIMESTAMP NOT NULL, PRIMARY KEY (stat_date, search_query))
+ * Bảng gộp không lưu số user khác nhau vì không cộng được qua nhiều ngày; con số đó được đếm
+ * từ search_history cho riêng các từ khóa top (xem SearchStatisticsServiceImpl).
+ */
+@Component
+@Slf4j
+public class SearchHistoryPipeline {
+
+    static final String INSERT_SQL = "INSERT INTO search_history "
+            + "(search_id, user_id, search_query, search_type, result_count, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    static final String ROLLUP_UPSERT_SQL = "INSERT INTO search_keyword_daily "
+            + "(stat_date, search_query, search_count, result_sum, last_searched) "
+            + "VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT (stat_date, search_query) DO UPDATE SET "
+            + "search_count = search_keyword_daily.search_count + EXCLUDED.search_count, "
+            + "result_sum = search_keyword_daily.result_sum + EXCLUDED.result_sum, "
+            + "last_searched = GREATEST(search_keyword_daily.last_searched, EXCLUDED.last_searched)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final boolean rollupEnabled;
+    private final BoundedBatchWriter<SearchEvent> writer;
+
+    public SearchHistoryPipeline(
+            JdbcTemplate jdbcTemplate,
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${cookshare.search-history.buffer-capacity:10000}") int bufferCapacity,
+            @Value("${cookshare.search-history.batch-size:500}") int batchSize,
+            @Value("${cookshare.search-history.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${cookshare.search-history.rollup.enabled:false}") boolean rollupEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.rollupEnabled = rollupEnabled;
+        this.writer = new BoundedBatchWriter<>("search-history", meterRegistry, "cookshare.search-history",
+                bufferCapacity, batchSize, flushIntervalMs, 0, SearchEvent::createdAt, this::insert);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Dừng luồng ghi và ghi nốt những gì còn trong buffer
+     */
+    @PreDestroy
+    public void stop() {
+        writer.stop();
+    }
+
+    /**
+     * Ghi nhận một lượt tìm kiếm; không chặn luồng gọi và không truy vấn DB
+     */
+    public void record(String username, String query, String type, long resultCount) {
+        if (username == null || query == null || query.isBlank()) {
+            return;
+        }
+        SearchEvent event = new SearchEvent(username, query, type,
+                (int) Math.min(resultCount, Integer.MAX_VALUE), LocalDateTime.now());
+        if (!writer.offer(event)) {
+            log.debug("Buffer lịch sử tìm kiếm đã đầy, bỏ lượt tìm '{}' của {}", query, username);
+        }
+    }
+
+    public long pendingCount() {
+        return writer.pendingCount();
+    }
+
+    public long droppedCount() {
+        return writer.droppedCount();
+    }
+
+    /**
+     * Ghi toàn bộ buffer hiện tại trên luồng gọi (dùng khi tắt ứng dụng)
+     */
+    int drainAll() {
+        return writer.drainAll();
+    }
+
+    void writeBatch(List<SearchEvent> batch) {
+        writer.writeBatch(batch);
+    }
+
+    /**
+     * Đổi username sang userId bằng một câu IN, ghi các lượt tìm của user còn tồn tại rồi cộng vào bảng gộp
+     */
+    private int insert(List<SearchEvent> batch) {
+        Set<String> usernames = batch.stream().map(SearchEvent::username).collect(Collectors.toSet());
+        Map<String, UUID> userIds = userRepository.findIdsByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(UserIdProjection::getUsername, UserIdProjection::getUserId, (a, b) -> a));
+
+        List<ResolvedEvent> resolved = new ArrayList<>(batch.size());
+        for (SearchEvent event : batch) {
+            UUID userId = userIds.get(event.username());
+            if (userId != null) {
+                resolved.add(new ResolvedEvent(userId, event));
+            }
+        }
+        if (resolved.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, resolved, resolved.size(), (ps, item) -> {
+            ps.setObject(1, UUID.randomUUID());
+            ps.setObject(2, item.userId());
+            ps.setString(3, item.event().query());
+            ps.setString(4, item.event().type());
+            ps.setInt(5, item.event().resultCount());
+            ps.setTimestamp(6, Timestamp.valueOf(item.event().createdAt()));
+        });
+        if (rollupEnabled) {
+            writeRollup(resolved);
+        }
+        return resolved.size();
+    }
+
+    /**
+     * Gộp batch theo (ngày, từ khóa) rồi cộng dồn vào search_keyword_daily bằng một batch upsert
+     */
+    private void writeRollup(List<ResolvedEvent> resolved) {
+        Map<RollupKey, RollupRow> rows = new LinkedHashMap<>();
+        for (ResolvedEvent item : resolved) {
+            SearchEvent event = item.event();
+            LocalDate day = event.createdAt().toLocalDate();
+            RollupRow row = rows.computeIfAbsent(new RollupKey(day, event.query()), key -> new RollupRow());
+            row.searchCount++;
+            row.resultSum += event.resultCount();
+            if (row.lastSearched == null || event.createdAt().isAfter(row.lastSearched)) {
+                row.lastSearched = event.createdAt();
+            }
+        }
+
+        List<Map.Entry<RollupKey, RollupRow>> entries = new ArrayList<>(rows.entrySet());
+        jdbcTemplate.batchUpdate(ROLLUP_UPSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setDate(1, Date.valueOf(entry.getKey().day()));
+            ps.setString(2, entry.getKey().query());
+            ps.setLong(3, entry.getValue().searchCount);
+            ps.setLong(4, entry.getValue().resultSum);
+            ps.setTimestamp(5, Timestamp.valueOf(entry.getValue().lastSearched));
+        });
+    }
+
+    record SearchEvent(String username, String query, String type, int resultCount, LocalDateTime createdAt) {
+    }
+
+    private record ResolvedEvent(UUID userId, SearchEvent event) {
+    }
+
+    private record RollupKey(LocalDate day, String query) {
+    }
+
+    private static final class RollupRow {
+        long searchCount;
+        long resultSum;
+        LocalDateTime lastSearched;
+    }
+}
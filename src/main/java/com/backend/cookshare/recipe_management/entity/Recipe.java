@@ -78,7 +78,8 @@ public class Recipe {
     @Builder.Default
     private Integer saveCount = 0;
 
-    @Column(name = "like_count")
+    // Chỉ cập nhật qua CounterDeltaBuffer (UPDATE cộng dồn), save entity không ghi đè
+    @Column(name = "like_count", updatable = false)
     @Builder.Default
     private Integer likeCount = 0;
 
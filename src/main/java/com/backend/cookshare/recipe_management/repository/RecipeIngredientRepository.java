@@ -66,4 +66,27 @@ public interface RecipeIngredientRepository extends JpaRepository<RecipeIngredie
     void deleteAllByRecipeId(@Param("recipeId") UUID recipeId);
     @Query(value = "SELECT ingredient_id, quantity, unit, notes FROM recipe_ingredients WHERE recipe_id = :recipeId", nativeQuery = true)
     List<Map<String, Object>> findIngredientDetailsByRecipeId(@Param("recipeId") UUID recipeId);
+
+    // Tên nguyên liệu của một công thức (dùng để cập nhật index tìm kiếm)
+    @Query("SELECT i.name FROM RecipeIngredient ri JOIN Ingredient i ON ri.ingredientId = i.ingredientId " +
+            "WHERE ri.recipeId = :recipeId")
+    List<String> findIngredientNamesByRecipeId(@Param("recipeId") UUID recipeId);
+
+    // ID và tên nguyên liệu của một công thức (dùng để cập nhật index nguyên liệu → công thức)
+    @Query("SELECT ri.recipeId AS recipeId, i.ingredientId AS ingredientId, i.name AS name FROM RecipeIngredient ri " +
+            "JOIN Ingredient i ON ri.ingredientId = i.ingredientId WHERE ri.recipeId = :recipeId")
+    List<RecipeIngredientNameProjection> findIngredientRefsByRecipeId(@Param("recipeId") UUID recipeId);
+
+    // Nguyên liệu của tất cả công thức đã publish (dùng để dựng các index tìm kiếm)
+    @Query("SELECT ri.recipeId AS recipeId, i.ingredientId AS ingredientId, i.name AS name FROM RecipeIngredient ri " +
+            "JOIN Ingredient i ON ri.ingredientId = i.ingredientId " +
+            "JOIN Recipe r ON r.recipeId = ri.recipeId " +
+            "WHERE r.isPublished = true AND r.status = 'APPROVED'")
+    List<RecipeIngredientNameProjection> findPublishedIngredientNames();
+
+    interface RecipeIngredientNameProjection {
+        UUID getRecipeId();
+        UUID getIngredientId();
+        String getName();
+    }
 }
\ No newline at end of file
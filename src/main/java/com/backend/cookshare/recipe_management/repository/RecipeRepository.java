@@ -8,10 +8,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -68,6 +70,52 @@ public interface RecipeRepository extends JpaRepository<Recipe, UUID>, JpaSpecif
         @Query("SELECT r.userId FROM Recipe r WHERE r.recipeId = :recipeId")
         UUID findUserIdByRecipeId(@Param("recipeId") UUID recipeId);
 
+        /**
+         * Cộng một thay đổi đánh giá vào rating_count / average_rating bằng một câu UPDATE nguyên tử, O(1):
+         * tổng điểm được suy ra từ average_rating * rating_count (làm tròn về số nguyên, chính xác khi
+         * số lượt đánh giá nhỏ; sai số làm tròn với công thức có nhiều lượt được RatingAggregateVerifier sửa).
+         * Đánh giá mới: countDelta = 1, ratingDelta = điểm; sửa đánh giá: countDelta = 0, ratingDelta = mới - cũ.
+         */
+        @Modifying(flushAutomatically = true)
+        @Query(value = "UPDATE recipes SET " +
+                        "rating_count = GREATEST(COALESCE(rating_count, 0) + :countDelta, 0), " +
+                        "average_rating = CASE WHEN COALESCE(rating_count, 0) + :countDelta <= 0 THEN 0 " +
+                        "ELSE ROUND(CAST(ROUND(COALESCE(average_rating, 0) * COALESCE(rating_count, 0)) + :ratingDelta AS numeric) " +
+                        "/ (COALESCE(rating_count, 0) + :countDelta), 2) END " +
+                        "WHERE recipe_id = :recipeId", nativeQuery = true)
+        int applyRating(@Param("recipeId") UUID recipeId,
+                        @Param("countDelta") int countDelta,
+                        @Param("ratingDelta") int ratingDelta);
+
+        /**
+         * Giống applyRating nhưng giữ tổng điểm nguyên trong cột rating_sum, nên average_rating luôn bằng
+         * rating_sum / rating_count làm tròn và không tích lũy sai số. Chỉ dùng khi bật
+         * cookshare.counters.rating-sum.enabled, sau khi đã thêm cột:
+         * ALTER TABLE recipes ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0;
+         * UPDATE recipes r SET rating_sum = s.total FROM (SELECT recipe_id, SUM(rating) AS total FROM recipe_ratings
+         *   GROUP BY recipe_id) s WHERE r.recipe_id = s.recipe_id;
+         */
+        @Modifying(flushAutomatically = true)
+        @Query(value = "UPDATE recipes SET " +
+                        "rating_count = GREATEST(COALESCE(rating_count, 0) + :countDelta, 0), " +
+                        "rating_sum = CASE WHEN COALESCE(rating_count, 0) + :countDelta <= 0 THEN 0 " +
+                        "ELSE rating_sum + :ratingDelta END, " +
+                        "average_rating = CASE WHEN COALESCE(rating_count, 0) + :countDelta <= 0 THEN 0 " +
+                        "ELSE ROUND(CAST(rating_sum + :ratingDelta AS numeric) / (COALESCE(rating_count, 0) + :countDelta), 2) END " +
+                        "WHERE recipe_id = :recipeId", nativeQuery = true)
+        int applyRatingWithSum(@Param("recipeId") UUID recipeId,
+                               @Param("countDelta") int countDelta,
+                               @Param("ratingDelta") int ratingDelta);
+
+        @Query("SELECT r.ratingCount AS ratingCount, r.averageRating AS averageRating " +
+                        "FROM Recipe r WHERE r.recipeId = :recipeId")
+        Optional<RatingSummaryProjection> findRatingSummary(@Param("recipeId") UUID recipeId);
+
+        interface RatingSummaryProjection {
+                Integer getRatingCount();
+                BigDecimal getAverageRating();
+        }
+
         // Tong so luot thich cua tat ca cac cong thuc
         @Query("SELECT COALESCE(SUM(r.likeCount), 0) FROM Recipe r WHERE r.userId = :userId")
         Integer getTotalLikeCountByUserId(@Param("userId") UUID userId);
@@ -95,6 +143,31 @@ public interface RecipeRepository extends JpaRepository<Recipe, UUID>, JpaSpecif
         @Query("SELECT r FROM Recipe r WHERE r.isPublished = true ORDER BY r.recipeId")
         List<Recipe> findAllPublishedRecipes();
 
+        /**
+         * Chỉ lấy ID của các công thức đã publish (dùng cho index gợi ý hàng ngày)
+         */
+        @Query("SELECT r.recipeId FROM Recipe r WHERE r.isPublished = true AND r.status = 'APPROVED'")
+        List<UUID> findPublishedRecipeIds();
+
+        /**
+         * Lấy các chỉ số tương tác của công thức đã publish (dùng để dựng bảng xếp hạng trong bộ nhớ)
+         */
+        @Query("SELECT r.recipeId AS recipeId, r.likeCount AS likeCount, r.viewCount AS viewCount, " +
+                        "r.saveCount AS saveCount, r.ratingCount AS ratingCount, r.averageRating AS averageRating, " +
+                        "r.createdAt AS createdAt " +
+                        "FROM Recipe r WHERE r.isPublished = true AND r.status = 'APPROVED'")
+        List<RecipeRankingProjection> findPublishedRankingStats();
+
+        interface RecipeRankingProjection {
+                UUID getRecipeId();
+                Integer getLikeCount();
+                Integer getViewCount();
+                Integer getSaveCount();
+                Integer getRatingCount();
+                BigDecimal getAverageRating();
+                LocalDateTime getCreatedAt();
+        }
+
         /**
          * Đếm số lượng công thức theo trạng thái
          */
@@ -116,18 +189,74 @@ public interface RecipeRepository extends JpaRepository<Recipe, UUID>, JpaSpecif
         @Query("SELECT r FROM Recipe r WHERE r.user.userId IN :followingIds ORDER BY r.createdAt DESC")
         Page<Recipe> findRecipesByFollowingIds(List<UUID> followingIds, Pageable pageable);
 
+        // Công thức của những người mà user đang follow theo cursor (created_at, recipe_id);
+        // danh sách following được lấy bằng subquery thay vì truyền cả danh sách id vào IN;
+        // chỉ lấy công thức đã duyệt và đang công khai, giống các công thức đọc qua home timeline
+        @Query(value = "SELECT * FROM recipes WHERE user_id IN "
+                + "(SELECT following_id FROM follows WHERE follower_id = :userId) "
+                + "AND status = 'APPROVED' AND is_published = true "
+                + "AND (created_at, recipe_id) < (:createdAt, :id) "
+                + "ORDER BY created_at DESC, recipe_id DESC LIMIT :limit", nativeQuery = true)
+        List<Recipe> findFollowingFeedSlice(@Param("userId") UUID userId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") UUID id,
+                                            @Param("limit") int limit);
+
         // Thêm vào RecipeRepository.java
 
         List<Recipe> findByTitleContainingIgnoreCaseAndStatus(String title, String status);
 
         List<Recipe> findByTitleContainingIgnoreCaseAndStatus(String title, RecipeStatus status);
 
-    /**
-     * Tăng view count bằng native query (hiệu quả hơn)
-     */
-    @Modifying
-    @Transactional
-    @Query(value = "UPDATE recipes SET view_count = view_count + 1 WHERE recipe_id = :recipeId", nativeQuery = true)
-    void incrementViewCount(@Param("recipeId") UUID recipeId);
+        /**
+         * Lấy thông tin rút gọn của nhiều công thức trong một câu truy vấn (dùng để hydrate thông báo)
+         */
+        @Query("SELECT r.recipeId AS recipeId, r.title AS title, r.featuredImage AS featuredImage, " +
+                        "r.userId AS userId FROM Recipe r WHERE r.recipeId IN :recipeIds")
+        List<RecipeCardProjection> findCardsByRecipeIdIn(@Param("recipeIds") Collection<UUID> recipeIds);
+
+        interface RecipeCardProjection {
+                UUID getRecipeId();
+                String getTitle();
+                String getFeaturedImage();
+                UUID getUserId();
+        }
+
+        /**
+         * Lấy tiêu đề, mô tả và họ tên người tạo của các công thức đã publish (dùng để dựng index tìm kiếm trong bộ nhớ)
+         */
+        @Query("SELECT r.recipeId AS recipeId, r.title AS title, r.description AS description, " +
+                        "u.fullName AS authorName " +
+                        "FROM Recipe r LEFT JOIN r.user u WHERE r.isPublished = true AND r.status = 'APPROVED'")
+        List<RecipeSearchProjection> findPublishedSearchDocuments();
+
+        interface RecipeSearchProjection {
+                UUID getRecipeId();
+                String getTitle();
+                String getDescription();
+                String getAuthorName();
+        }
+
+        /**
+         * Lấy họ tên người tạo của một công thức (dùng khi đồng bộ một công thức vào index tìm kiếm)
+         */
+        @Query("SELECT u.fullName FROM Recipe r JOIN r.user u WHERE r.recipeId = :recipeId")
+        String findAuthorFullNameByRecipeId(@Param("recipeId") UUID recipeId);
+
+        /**
+         * Lấy tiêu đề và chỉ số tương tác của công thức đã publish (dùng để dựng index gợi ý typeahead)
+         */
+        @Query("SELECT r.recipeId AS recipeId, r.title AS title, r.likeCount AS likeCount, " +
+                        "r.viewCount AS viewCount, r.saveCount AS saveCount " +
+                        "FROM Recipe r WHERE r.isPublished = true AND r.status = 'APPROVED'")
+        List<RecipeTitleProjection> findPublishedTitles();
+
+        interface RecipeTitleProjection {
+                UUID getRecipeId();
+                String getTitle();
+                Integer getLikeCount();
+                Integer getViewCount();
+                Integer getSaveCount();
+        }
 
 }
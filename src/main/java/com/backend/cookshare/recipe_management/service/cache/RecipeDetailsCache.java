@@ -0,0 +1,142 @@
+package com.backend.cookshare.recipe_management.service.cache;
+
+import com.backend.cookshare.common.transaction.AfterCommit;
+import com.backend.cookshare.recipe_management.dto.response.RecipeDetailsResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache read-through cho phần chi tiết ít thay đổi của công thức (steps, ingredients, tags, categories, tên tác giả),
+ * để mỗi lượt xem không phải chạy lại 5 câu truy vấn trên recipeLoaderExecutor.
+ *
+ * Bộ đếm sống (view / like / save / rating) không nằm trong cache mà luôn lấy từ entity Recipe.
+ * Cache giới hạn theo số công thức và TTL; các luồng sửa / xóa / ẩn / duyệt gọi invalidate.
+ * Mỗi key giữ một CompletableFuture nên nhiều request cùng lúc cho một công thức chỉ load một lần,
+ * và invalidate trong lúc đang load sẽ bỏ kết quả cũ khỏi cache.
+ */
+@Component
+@Slf4j
+public class RecipeDetailsCache {
+
+    private final ConcurrentHashMap<UUID, CachedDetails> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RecipeDetailsCache(
+            MeterRegistry meterRegistry,
+            @Value("${cookshare.recipe.details-cache.max-size:5000}") int maxEntries,
+            @Value("${cookshare.recipe.details-cache.ttl-ms:600000}") long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+
+        Gauge.builder("cookshare.recipe.details-cache.size", entries, ConcurrentHashMap::size)
+                .description("Số công thức đang có chi tiết trong cache")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.recipe.details-cache.hits", hits, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("cookshare.recipe.details-cache.misses", misses, LongAdder::sum)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lấy chi tiết công thức từ cache, nếu chưa có hoặc đã hết hạn thì gọi loader
+     */
+    public RecipeDetailsResult get(UUID recipeId, Supplier<RecipeDetailsResult> loader) {
+        long now = System.currentTimeMillis();
+        CachedDetails cached = entries.get(recipeId);
+        if (cached != null && !cached.isExpired(now)) {
+            hits.increment();
+            return join(recipeId, cached);
+        }
+
+        CachedDetails fresh = new CachedDetails(new CompletableFuture<>(), now + ttlMillis);
+        CachedDetails winner = cached == null
+                ? entries.putIfAbsent(recipeId, fresh)
+                : (entries.replace(recipeId, cached, fresh) ? null : entries.get(recipeId));
+        if (winner != null && !winner.isExpired(now)) {
+            hits.increment();
+            return join(recipeId, winner);
+        }
+        if (winner != null) {
+            // Entry hết hạn vừa bị thay bởi luồng khác: tự load, không tranh chỗ trong cache
+            return loader.get();
+        }
+
+        misses.increment();
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+        try {
+            RecipeDetailsResult result = loader.get();
+            fresh.future().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(recipeId, fresh);
+            fresh.future().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Bỏ chi tiết công thức khỏi cache. Nếu đang trong transaction thì bỏ thêm một lần sau khi commit,
+     * để request đọc chen giữa không giữ lại dữ liệu trước khi commit.
+     */
+    public void invalidate(UUID recipeId) {
+        if (recipeId == null) {
+            return;
+        }
+        entries.remove(recipeId);
+        AfterCommit.run("bỏ chi tiết công thức khỏi cache", () -> entries.remove(recipeId));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private RecipeDetailsResult join(UUID recipeId, CachedDetails cached) {
+        try {
+            return cached.future().join();
+        } catch (CompletionException e) {
+            entries.remove(recipeId, cached);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Dọn entry hết hạn; nếu vẫn đầy thì bỏ bớt một phần tư để giữ bộ nhớ có giới hạn
+     */
+    private void evict(long now) {
+        entries.values().removeIf(cached -> cached.isExpired(now));
+        int toRemove = entries.size() - maxEntries * 3 / 4;
+        Iterator<Map.Entry<UUID, CachedDetails>> iterator = entries.entrySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        log.debug("Đã dọn cache chi tiết công thức, còn {} entry", entries.size());
+    }
+
+    private record CachedDetails(CompletableFuture<RecipeDetailsResult> future, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
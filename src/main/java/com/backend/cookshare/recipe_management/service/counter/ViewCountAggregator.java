@@ -0,0 +1,202 @@
+package com.backend.cookshare.recipe_management.service.counter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gộp lượt xem công thức trong bộ nhớ rồi ghi xuống DB theo lô (write-behind),
+ * thay cho mỗi lượt xem một câu UPDATE trên cùng một dòng recipes.
+ *
+ * Mỗi công thức có một LongAdder tích lũy (không bao giờ reset) và số đã ghi xuống DB;
+ * phần chênh lệch là lượt xem đang chờ. Ghi lỗi thì giữ nguyên phần chênh lệch để lần sau ghi lại,
+ * nên không mất lượt xem. Dữ liệu được flush định kỳ, khi số lượt chờ vượt ngưỡng và khi tắt ứng dụng.
+ */
+@Component
+@Slf4j
+public class ViewCountAggregator {
+
+    static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Executor executor;
+    private final long flushThreshold;
+
+    private final ConcurrentHashMap<UUID, ViewCounter> counters = new ConcurrentHashMap<>();
+    private final LongAdder recordedViews = new LongAdder();
+    private final LongAdder flushedViews = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    public ViewCountAggregator(
+            JdbcTemplate jdbcTemplate,
+            @Qualifier("taskExecutor") Executor executor,
+            MeterRegistry meterRegistry,
+            @Value("${cookshare.recipe.view-count.flush-threshold:1000}") long flushThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.flushThreshold = flushThreshold;
+
+        Gauge.builder("cookshare.recipe.views.pending", this, ViewCountAggregator::pendingViews)
+                .description("Lượt xem đã nhận nhưng chưa ghi xuống DB")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.recipe.views.pending.recipes", this, ViewCountAggregator::pendingRecipes)
+                .description("Số công thức có lượt xem đang chờ ghi")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.recipe.views.flushed", flushedViews, LongAdder::sum)
+                .description("Tổng lượt xem đã ghi xuống DB")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.recipe.views.flush.failures", failedFlushes, LongAdder::sum)
+                .description("Số lần ghi lượt xem thất bại")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ghi nhận một lượt xem, chỉ thao tác trong bộ nhớ
+     */
+    public void record(UUID recipeId) {
+        if (recipeId == null) {
+            return;
+        }
+        counters.computeIfAbsent(recipeId, id -> new ViewCounter()).views.increment();
+        recordedViews.increment();
+
+        if (pendingViews() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        flush();
+                    } finally {
+                        flushScheduled.set(false);
+                    }
+                });
+            } catch (Exception e) {
+                flushScheduled.set(false);
+                log.warn("Không thể lên lịch ghi lượt xem: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Bỏ bộ đếm của công thức đã bị xóa
+     */
+    public void forget(UUID recipeId) {
+        if (recipeId == null) {
+            return;
+        }
+        synchronized (flushLock) {
+            ViewCounter counter = counters.remove(recipeId);
+            if (counter != null) {
+                // Coi như phần chưa ghi đã xử lý để metric pending không bị treo
+                flushedViews.add(counter.pending());
+            }
+        }
+    }
+
+    public long pendingViews() {
+        return recordedViews.sum() - flushedViews.sum();
+    }
+
+    public long pendingRecipes() {
+        return counters.values().stream().filter(counter -> counter.pending() > 0).count();
+    }
+
+    @Scheduled(fixedDelayString = "${cookshare.recipe.view-count.flush-interval-ms:5000}",
+            initialDelayString = "${cookshare.recipe.view-count.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        long flushed = flush();
+        log.info("Đã ghi {} lượt xem còn chờ trước khi tắt ứng dụng", flushed);
+    }
+
+    /**
+     * Ghi toàn bộ lượt xem đang chờ bằng các câu UPDATE ... FROM (VALUES ...) theo lô
+     *
+     * @return số lượt xem đã ghi thành công
+     */
+    public long flush() {
+        synchronized (flushLock) {
+            List<PendingDelta> batch = new ArrayList<>();
+            counters.forEach((recipeId, counter) -> {
+                long delta = Math.min(counter.pending(), Integer.MAX_VALUE);
+                if (delta > 0) {
+                    batch.add(new PendingDelta(recipeId, counter, delta));
+                }
+            });
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            long written = 0;
+            for (int from = 0; from < batch.size(); from += MAX_ROWS_PER_STATEMENT) {
+                List<PendingDelta> chunk = batch.subList(from, Math.min(batch.size(), from + MAX_ROWS_PER_STATEMENT));
+                try {
+                    jdbcTemplate.update(buildUpdateSql(chunk.size()), toArgs(chunk));
+                } catch (Exception e) {
+                    failedFlushes.increment();
+                    log.warn("Không thể ghi {} lượt xem, sẽ thử lại ở lần sau: {}", chunk.size(), e.getMessage());
+                    continue;
+                }
+                for (PendingDelta pending : chunk) {
+                    pending.counter().flushed += pending.delta();
+                    flushedViews.add(pending.delta());
+                    written += pending.delta();
+                }
+            }
+            log.debug("Đã ghi {} lượt xem cho {} công thức", written, batch.size());
+            return written;
+        }
+    }
+
+    static String buildUpdateSql(int rows) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rows; i++) {
+            values.add("(CAST(? AS uuid), CAST(? AS integer))");
+        }
+        return "UPDATE recipes r SET view_count = COALESCE(r.view_count, 0) + v.delta "
+                + "FROM (VALUES " + values + ") AS v(recipe_id, delta) "
+                + "WHERE r.recipe_id = v.recipe_id";
+    }
+
+    private static Object[] toArgs(List<PendingDelta> chunk) {
+        Object[] args = new Object[chunk.size() * 2];
+        int i = 0;
+        for (PendingDelta pending : chunk) {
+            args[i++] = pending.recipeId().toString();
+            args[i++] = (int) pending.delta();
+        }
+        return args;
+    }
+
+    private record PendingDelta(UUID recipeId, ViewCounter counter, long delta) {
+    }
+
+    /**
+     * views chỉ tăng; flushed chỉ được sửa khi giữ flushLock
+     */
+    private static final class ViewCounter {
+        final LongAdder views = new LongAdder();
+        volatile long flushed;
+
+        long pending() {
+            return views.sum() - flushed;
+        }
+    }
+}
@@ -15,9 +15,12 @@ import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.common.mapper.PageMapper;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
+import com.backend.cookshare.recipe_management.service.cache.RecipeDetailsCache;
+import com.backend.cookshare.recipe_management.service.counter.ViewCountAggregator;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import com.backend.cookshare.user.service.NotificationService;
 import com.backend.cookshare.user.service.ActivityLogService;
-import com.backend.cookshare.user.repository.FollowRepository;
+import com.backend.cookshare.user.service.timeline.HomeTimelineService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -45,7 +48,10 @@ public class AdminRecipeServiceImpl implements AdminRecipeService {
     private final FirebaseStorageService firebaseStorageService;
     private final NotificationService notificationService;
     private final ActivityLogService activityLogService;
-    private final FollowRepository followRepository;
+    private final RecipeFeedSynchronizer recipeFeedSynchronizer;
+    private final RecipeDetailsCache recipeDetailsCache;
+    private final ViewCountAggregator viewCountAggregator;
+    private final HomeTimelineService homeTimelineService;
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
@@ -141,6 +147,8 @@ public class AdminRecipeServiceImpl implements AdminRecipeService {
 
         recipe.setUpdatedAt(LocalDateTime.now());
         recipeRepository.save(recipe);
+        recipeFeedSynchronizer.recipeChanged(recipe);
+        recipeDetailsCache.invalidate(recipeId);
 
         // LOG ACTIVITY: Admin cập nhật recipe
         activityLogService.logRecipeActivity(recipe.getUserId(), recipeId, "UPDATE");
@@ -165,6 +173,7 @@ public class AdminRecipeServiceImpl implements AdminRecipeService {
             recipe.setStatus(RecipeStatus.APPROVED);
             recipe.setIsPublished(true);
             log.info("Công thức {} đã được phê duyệt", recipeId);
+            homeTimelineService.publish(recipe.getUserId(), recipeId, recipe.getCreatedAt());
 
             activityLogService.logRecipeActivity(recipe.getUserId(), recipeId, "APPROVE");
 
@@ -174,22 +183,17 @@ public class AdminRecipeServiceImpl implements AdminRecipeService {
                     recipe.getTitle()
             );
 
-            List<UUID> followerIds = followRepository.findAllFollowerIdsByUser(recipe.getUserId());
-
-            if (!followerIds.isEmpty()) {
-                User recipeOwner = userService.getUserById(recipe.getUserId())
-                        .orElse(null);
-
-                if (recipeOwner != null) {
-                    notificationService.createNewRecipeNotificationForFollowers(
-                            followerIds,
-                            recipe.getUserId(),
-                            recipeOwner.getFullName(),
-                            recipeId,
-                            recipe.getTitle()
-                    );
-                    log.info("Đã gửi thông báo công thức mới đến {} followers", followerIds.size());
-                }
+            User recipeOwner = userService.getUserById(recipe.getUserId())
+                    .orElse(null);
+
+            if (recipeOwner != null) {
+                // Ghi và đẩy thông báo cho follower chạy nền sau khi commit
+                notificationService.createNewRecipeNotificationForFollowers(
+                        recipe.getUserId(),
+                        recipeOwner.getFullName(),
+                        recipeId,
+                        recipe.getTitle()
+                );
             }
 
         } else {
@@ -203,6 +207,8 @@ public class AdminRecipeServiceImpl implements AdminRecipeService {
 
         recipe.setUpdatedAt(LocalDateTime.now());
         recipeRepository.save(recipe);
+        recipeFeedSynchronizer.recipeChanged(recipe);
+        recipeDetailsCache.invalidate(recipeId);
     }
 
     @Override
@@ -217,6 +223,9 @@ public class AdminRecipeServiceImpl implements AdminRecipeService {
         activityLogService.logRecipeActivity(recipe.getUserId(), recipeId, "DELETE");
 
         recipeRepository.delete(recipe);
+        recipeFeedSynchronizer.recipeDeleted(recipeId);
+        viewCountAggregator.forget(recipeId);
+        recipeDetailsCache.invalidate(recipeId);
         log.info("Công thức {} đã được xóa thành công", recipeId);
     }
 
@@ -268,6 +277,8 @@ public class AdminRecipeServiceImpl implements AdminRecipeService {
         recipe.setIsPublished(isPublished);
         recipe.setUpdatedAt(LocalDateTime.now());
         recipeRepository.save(recipe);
+        recipeFeedSynchronizer.recipeChanged(recipe);
+        recipeDetailsCache.invalidate(recipeId);
 
         log.info("Công thức {} đã được xuất bản: {}", recipeId, isPublished);
     }
@@ -8,6 +8,7 @@ import com.backend.cookshare.recipe_management.dto.request.TagRequest;
 import com.backend.cookshare.recipe_management.dto.request.IngredientRequest;
 import com.backend.cookshare.recipe_management.dto.response.RecipeDetailsResult;
 import com.backend.cookshare.recipe_management.dto.response.RecipeResponse;
+import com.backend.cookshare.recipe_management.dto.response.RecipeStepResponse;
 import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.entity.Category;
 import com.backend.cookshare.recipe_management.entity.Tag;
@@ -20,6 +21,9 @@ import com.backend.cookshare.recipe_management.mapper.IngredientMapper;
 import com.backend.cookshare.recipe_management.repository.*;
 import com.backend.cookshare.authentication.service.FirebaseStorageService;
 import com.backend.cookshare.recipe_management.service.RecipeService;
+import com.backend.cookshare.recipe_management.service.cache.RecipeDetailsCache;
+import com.backend.cookshare.recipe_management.service.counter.ViewCountAggregator;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import com.backend.cookshare.user.service.ActivityLogService;
 import com.backend.cookshare.user.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -58,9 +62,11 @@ public class RecipeServiceImpl implements RecipeService {
     private final FirebaseStorageService fileStorageService;
     private final ActivityLogService activityLogService;
     private final NotificationService notificationService;
-    private final com.backend.cookshare.authentication.util.SecurityUtil securityUtil;
-    private final com.backend.cookshare.system.repository.ReportQueryRepository reportQueryRepository;
+    private final com.backend.cookshare.authentication.util.CurrentUserResolver currentUserResolver;
     private final com.backend.cookshare.authentication.repository.UserRepository userRepository;
+    private final RecipeFeedSynchronizer recipeFeedSynchronizer;
+    private final ViewCountAggregator viewCountAggregator;
+    private final RecipeDetailsCache recipeDetailsCache;
 
     // ================= CREATE WITH BATCH SUPPORT =================
 
@@ -461,6 +467,8 @@ public class RecipeServiceImpl implements RecipeService {
         }
 
         Recipe updatedRecipe = recipeRepository.save(recipe);
+        recipeFeedSynchronizer.recipeChanged(updatedRecipe);
+        recipeDetailsCache.invalidate(updatedRecipe.getRecipeId());
 
         // ========== XÓA QUAN HỆ CŨ VÀ LƯU LẠI ==========
 
@@ -509,7 +517,9 @@ public class RecipeServiceImpl implements RecipeService {
     @Async
     public void incrementViewCountAsync(UUID recipeId) {
         try {
-            recipeRepository.incrementViewCount(recipeId);
+            // Lượt xem được gộp trong bộ nhớ và ghi xuống DB theo lô
+            viewCountAggregator.record(recipeId);
+            recipeFeedSynchronizer.viewed(recipeId);
             log.debug("Incremented view count for recipe {}", recipeId);
         } catch (Exception e) {
             log.warn("Không thể tăng view count cho recipe {}: {}", recipeId, e.getMessage());
@@ -533,6 +543,9 @@ public class RecipeServiceImpl implements RecipeService {
         recipeCategoryRepository.deleteAllByRecipeId(id);
 
         recipeRepository.deleteById(id);
+        recipeFeedSynchronizer.recipeDeleted(id);
+        viewCountAggregator.forget(id);
+        recipeDetailsCache.invalidate(id);
         
         postRecipeDeletionAsync(recipe.getUserId(), id);
     }
@@ -609,6 +622,8 @@ public class RecipeServiceImpl implements RecipeService {
         }
         recipe.setIsPublished(!currentPublished);
         recipeRepository.save(recipe);
+        recipeFeedSynchronizer.recipeChanged(recipe);
+        recipeDetailsCache.invalidate(id);
 
         RecipeResponse response = recipeMapper.toResponse(recipe);
         convertImageUrlsToFirebase(response);
@@ -618,20 +633,44 @@ public class RecipeServiceImpl implements RecipeService {
     // ================= HELPERS =================
 
     private RecipeResponse loadRecipeResponse(Recipe recipe) {
-        RecipeDetailsResult details = recipeLoaderHelper.loadRecipeDetailsForPublic(
-                recipe.getRecipeId(), recipe.getUserId());
+        // Chi tiết lấy qua cache; bộ đếm view/like/rating luôn lấy từ entity qua mapper
+        RecipeDetailsResult details = recipeDetailsCache.get(recipe.getRecipeId(),
+                () -> recipeLoaderHelper.loadRecipeDetailsForPublic(recipe.getRecipeId(), recipe.getUserId()));
 
         RecipeResponse response = recipeMapper.toResponse(recipe);
-        response.setSteps(details.steps);
-        response.setIngredients(details.ingredients);
-        response.setTags(details.tags);
-        response.setCategories(details.categories);
+        // Sao chép steps vì convertImageUrlsToFirebase sửa imageUrl, không được làm bẩn bản trong cache
+        response.setSteps(copySteps(details.steps));
+        response.setIngredients(copyOf(details.ingredients));
+        response.setTags(copyOf(details.tags));
+        response.setCategories(copyOf(details.categories));
         response.setFullName(details.fullName);
 
         convertImageUrlsToFirebase(response);
         return response;
     }
 
+    private static List<RecipeStepResponse> copySteps(List<RecipeStepResponse> steps) {
+        if (steps == null) {
+            return null;
+        }
+        List<RecipeStepResponse> copies = new ArrayList<>(steps.size());
+        for (RecipeStepResponse step : steps) {
+            copies.add(RecipeStepResponse.builder()
+                    .stepNumber(step.getStepNumber())
+                    .instruction(step.getInstruction())
+                    .imageUrl(step.getImageUrl())
+                    .videoUrl(step.getVideoUrl())
+                    .estimatedTime(step.getEstimatedTime())
+                    .tips(step.getTips())
+                    .build());
+        }
+        return copies;
+    }
+
+    private static <T> List<T> copyOf(List<T> items) {
+        return items != null ? new ArrayList<>(items) : null;
+    }
+
     private void convertImageUrlsToFirebase(RecipeResponse response) {
         if (response.getFeaturedImage() != null) {
             response.setFeaturedImage(fileStorageService.convertPathToFirebaseUrl(response.getFeaturedImage()));
@@ -730,11 +769,7 @@ public class RecipeServiceImpl implements RecipeService {
 
     private UUID getCurrentUserIdOrNull() {
         try {
-            String username = securityUtil.getCurrentUserLogin().orElse(null);
-            if (username == null) {
-                return null;
-            }
-            return reportQueryRepository.findUserIdByUsername(username).orElse(null);
+            return currentUserResolver.getCurrentUserId().orElse(null);
         } catch (Exception e) {
             log.debug("Không thể lấy userId: {}", e.getMessage());
             return null;
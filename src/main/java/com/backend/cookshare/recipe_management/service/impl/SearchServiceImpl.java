@@ -3,13 +3,14 @@ package com.backend.cookshare.recipe_management.service.impl;
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
 import com.backend.cookshare.authentication.service.FirebaseStorageService;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
-import com.backend.cookshare.interaction.entity.SearchHistory;
 import com.backend.cookshare.interaction.dto.response.SearchHistoryResponse;
 import com.backend.cookshare.interaction.mapper.SearchHistoryMapper;
 import com.backend.cookshare.interaction.repository.SearchHistoryRepository;
+import com.backend.cookshare.interaction.sevice.pipeline.SearchHistoryPipeline;
 import com.backend.cookshare.recipe_management.dto.response.IngredientResponse;
 import com.backend.cookshare.recipe_management.dto.response.SearchReponse;
 import com.backend.cookshare.recipe_management.entity.Recipe;
@@ -18,21 +19,25 @@ import com.backend.cookshare.recipe_management.mapper.SearchMapper;
 import com.backend.cookshare.recipe_management.repository.IngredientRepository;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
 import com.backend.cookshare.recipe_management.service.SearchService;
-import com.backend.cookshare.recipe_management.specification.RecipeSpecification;
+import com.backend.cookshare.recipe_management.service.search.IngredientRecipeIndex;
+import com.backend.cookshare.recipe_management.service.search.RecipeSearchIndex;
+import com.backend.cookshare.recipe_management.service.search.TypeaheadService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -46,8 +51,13 @@ public class SearchServiceImpl implements SearchService {
     IngredientRepository ingredientRepository;
     SearchHistoryRepository searchHistoryRepository;
     UserRepository userRepository;
+    CurrentUserResolver currentUserResolver;
     SearchHistoryMapper searchHistoryMapper;
     FirebaseStorageService firebaseStorageService;
+    RecipeSearchIndex recipeSearchIndex;
+    IngredientRecipeIndex ingredientRecipeIndex;
+    TypeaheadService typeaheadService;
+    SearchHistoryPipeline searchHistoryPipeline;
     @Override
     public PageResponse<SearchReponse> searchRecipesByName(String keyword, Pageable pageable) {
         if (keyword== null || keyword.trim().isEmpty()) {
@@ -63,8 +73,10 @@ public class SearchServiceImpl implements SearchService {
             throw new CustomException(ErrorCode.INVALID_CHARACTERS);
         }
 
-        Specification<Recipe> spec = RecipeSpecification.hasNameLike(keyword);
-        Page<Recipe> recipePage = recipeRepository.findAll(spec, pageable);
+        // Xếp hạng trên index bỏ dấu trong bộ nhớ, DB chỉ load các công thức của trang hiện tại
+        RecipeSearchIndex.SearchHits hits = recipeSearchIndex.search(
+                keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        Page<Recipe> recipePage = new PageImpl<>(loadInOrder(hits.recipeIds()), pageable, hits.total());
 
         List<SearchReponse> content = recipePage.getContent().stream()
                 .map(searchMapper::toSearchRecipeResponse)
@@ -100,23 +112,25 @@ public class SearchServiceImpl implements SearchService {
        }
 
        Page<Recipe> recipePage;
+       int offset = (int) pageable.getOffset();
 
-       // Bước 1: Tìm kiếm với logic AND (phải có TẤT CẢ nguyên liệu)
        if (hasIngredients) {
-           Specification<Recipe> specAll = RecipeSpecification.hasRecipesByIngredients(title, ingredientNames);
-           recipePage = recipeRepository.findAll(specAll, pageable);
-
-           // Bước 2: Nếu không tìm thấy kết quả, tìm theo logic OR và sắp xếp theo số lượng khớp
-           if (recipePage.isEmpty()) {
-               log.info("Không tìm thấy recipe có tất cả nguyên liệu, chuyển sang tìm theo bất kỳ nguyên liệu nào");
-               recipePage = searchByAnyIngredientsWithMatchCount(title, ingredientNames, pageable);
+           // Đếm số nguyên liệu khớp trên index trong bộ nhớ: ưu tiên công thức có TẤT CẢ nguyên liệu,
+           // nếu không có thì lấy công thức có bất kỳ nguyên liệu nào, nhiều nguyên liệu khớp hơn xếp trước
+           Set<UUID> titleMatches = hasTitle ? recipeSearchIndex.matchAll(title) : null;
+           IngredientRecipeIndex.IngredientHits hits = ingredientRecipeIndex.search(
+                   ingredientNames, titleMatches, offset, pageable.getPageSize());
+           if (hits.matchedAll()) {
+               log.info("Tìm thấy {} recipe có tất cả nguyên liệu", hits.total());
            } else {
-               log.info("Tìm thấy {} recipe có tất cả nguyên liệu", recipePage.getTotalElements());
+               log.info("Không tìm thấy recipe có tất cả nguyên liệu, trả về {} recipe có bất kỳ nguyên liệu nào",
+                       hits.total());
            }
+           recipePage = new PageImpl<>(loadInOrder(hits.recipeIds()), pageable, hits.total());
        } else {
            // Nếu chỉ có title, tìm theo title thôi
-           Specification<Recipe> spec = RecipeSpecification.hasRecipesByIngredients(title, null);
-           recipePage = recipeRepository.findAll(spec, pageable);
+           RecipeSearchIndex.SearchHits hits = recipeSearchIndex.search(title, offset, pageable.getPageSize());
+           recipePage = new PageImpl<>(loadInOrder(hits.recipeIds()), pageable, hits.total());
        }
 
        List<SearchReponse> content = recipePage.getContent().stream()
@@ -136,55 +150,20 @@ public class SearchServiceImpl implements SearchService {
     }
 
     /**
-     * Tìm kiếm recipe theo bất kỳ nguyên liệu nào và đếm số lượng nguyên liệu khớp để sắp xếp
+     * Load các công thức theo ID và giữ nguyên thứ tự xếp hạng của index
      */
-    private Page<Recipe> searchByAnyIngredientsWithMatchCount(String title, List<String> ingredientNames, Pageable pageable) {
-        // Lọc các ingredient hợp lệ
-        List<String> validIngredients = ingredientNames.stream()
-                .filter(name -> name != null && !name.trim().isEmpty())
-                .map(String::trim)
-                .toList();
-
-        if (validIngredients.isEmpty()) {
-            return Page.empty(pageable);
+    private List<Recipe> loadInOrder(List<UUID> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return List.of();
         }
-
-        // Tìm tất cả recipe có ít nhất 1 nguyên liệu
-        Specification<Recipe> specAny = RecipeSpecification.hasRecipesByAnyIngredients(title, validIngredients);
-        List<Recipe> allRecipes = recipeRepository.findAll(specAny);
-
-        // Đếm số lượng ingredient khớp cho mỗi recipe
-        List<Recipe> sortedRecipes = allRecipes.stream()
-                .sorted((r1, r2) -> {
-                    int count1 = countMatchingIngredients(r1, validIngredients);
-                    int count2 = countMatchingIngredients(r2, validIngredients);
-                    return Integer.compare(count2, count1); // Giảm dần (nhiều nhất trước)
-                })
+        Map<UUID, Recipe> recipeMap = recipeRepository.findAllById(recipeIds).stream()
+                .collect(Collectors.toMap(Recipe::getRecipeId, recipe -> recipe, (a, b) -> a));
+        return recipeIds.stream()
+                .map(recipeMap::get)
+                .filter(Objects::nonNull)
                 .toList();
-
-        // Phân trang thủ công
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), sortedRecipes.size());
-        List<Recipe> pageContent = sortedRecipes.subList(start, end);
-
-        return new org.springframework.data.domain.PageImpl<>(pageContent, pageable, sortedRecipes.size());
     }
 
-    /**
-     * Đếm số lượng nguyên liệu khớp trong recipe
-     */
-    private int countMatchingIngredients(Recipe recipe, List<String> ingredientNames) {
-        int count = 0;
-        for (String searchIngredient : ingredientNames) {
-            String searchLower = searchIngredient.toLowerCase();
-            boolean found = recipe.getRecipeIngredients().stream()
-                    .anyMatch(ri -> ri.getIngredient().getName().toLowerCase().contains(searchLower));
-            if (found) {
-                count++;
-            }
-        }
-        return count;
-    }
     private <T> PageResponse<T> buildPageResponse(Page<?> page, List<T> content) {
         return PageResponse.<T>builder()
                 .content(content)
@@ -208,27 +187,14 @@ public class SearchServiceImpl implements SearchService {
         return ingredients;
     }
     private void saveSearchHistoryAsync(String query, String type, long resultCount) {
-        var context = SecurityContextHolder.getContext();
-        String name= context.getAuthentication().getName();
-        Optional<User> user= userRepository.findByUsername(name);
-        UUID userId=user.get().getUserId();
-        if (userId != null) {
-            SearchHistory history = SearchHistory.builder()
-                    .userId(userId)
-                    .searchQuery(query)
-                    .searchType(type)
-                    .resultCount((int) resultCount)
-                    .build();
-            searchHistoryRepository.save(history);
-
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null) {
+            searchHistoryPipeline.record(authentication.getName(), query, type, resultCount);
         }
     }
     @Override
     public List<SearchHistoryResponse> getSearchHistory() {
-        var context = SecurityContextHolder.getContext();
-        String name= context.getAuthentication().getName();
-        Optional<User> user= userRepository.findByUsername(name);
-        UUID userId=user.get().getUserId();
+        UUID userId = currentUserResolver.requireCurrentUserId();
         List<SearchHistoryResponse> historyResponses=searchHistoryRepository.findTop5ByUserIdOrderByCreatedAtDesc(userId)
                 .stream()
                 .map(searchHistoryMapper::toSearchHistoryResponse)
@@ -250,8 +216,10 @@ public class SearchServiceImpl implements SearchService {
             throw new CustomException(ErrorCode.INVALID_CHARACTERS);
         }
 
-        Specification<Recipe> spec = RecipeSpecification.hasRecipeByName(keyword);
-        Page<Recipe> recipePage = recipeRepository.findAll(spec, pageable);
+        // Khớp họ tên người tạo trên index bỏ dấu trong bộ nhớ thay vì LIKE trên users JOIN recipes
+        RecipeSearchIndex.SearchHits hits = recipeSearchIndex.searchByAuthor(
+                keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        Page<Recipe> recipePage = new PageImpl<>(loadInOrder(hits.recipeIds()), pageable, hits.total());
         if (recipePage.isEmpty()) {
             Page<User> userPage = userRepository.findByFullNameContainingIgnoreCase(
                     keyword,
@@ -276,34 +244,13 @@ public class SearchServiceImpl implements SearchService {
     }
     @Override
     public List<String> getUsernameSuggestions(String query, int limit) {
-        String trimmedQuery = query.trim().toLowerCase();
-
-        // Tìm kiếm người dùng có tên chứa từ khóa
-        List<User> users = userRepository.findByFullNameContainingIgnoreCase(trimmedQuery)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
-
-        // Trả về danh sách tên đầy đủ
-        return users.stream()
-                .map(User::getFullName)
-                .distinct()
-                .collect(Collectors.toList());
+        // Gợi ý theo tiền tố từ bộ nhớ, người có nhiều follower hơn xếp trước
+        return typeaheadService.suggestUserNames(query, limit);
     }
 
     @Override
     public List<String> getRecipeSuggestions(String query, int limit) {
-        String trimmedQuery = query.trim().toLowerCase();
-        List<Recipe> recipes = recipeRepository.findByTitleContainingIgnoreCaseAndStatus(
-                        trimmedQuery,
-                        RecipeStatus.APPROVED
-                )
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
-        return recipes.stream()
-                .map(Recipe::getTitle)
-                .distinct()
-                .collect(Collectors.toList());
+        // Gợi ý theo tiền tố từ bộ nhớ, công thức phổ biến hơn xếp trước
+        return typeaheadService.suggestRecipeTitles(query, limit);
     }
 }
@@ -0,0 +1,309 @@
+package com.backend.cookshare.recipe_management.service.search;
+
+import com.backend.cookshare.common.transaction.AfterCommit;
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
+import com.backend.cookshare.recipe_management.repository.RecipeIngredientRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeIngredientRepository.RecipeIngredientNameProjection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index nguyên liệu → công thức trong bộ nhớ cho tìm kiếm "nấu được gì với những nguyên liệu này".
+ * Mỗi công thức đã publish được gán một số thứ tự (ordinal); mỗi nguyên liệu giữ một BitSet các ordinal
+ * của công thức dùng nó. Một lần tìm kiếm chỉ OR / đếm bit trong bộ nhớ, DB chỉ load các công thức của trang kết quả.
+ *
+ * Từ khóa nguyên liệu khớp theo chuỗi con trên tên đã bỏ dấu (giống LIKE '%kw%' cũ nhưng không phân biệt dấu).
+ * Nếu có công thức chứa TẤT CẢ nguyên liệu thì chỉ trả về các công thức đó, ngược lại trả về công thức có
+ * ít nhất một nguyên liệu. Xếp hạng: khớp nhiều nguyên liệu hơn trước, rồi thiếu ít nguyên liệu hơn trước.
+ *
+ * BitSet không an toàn khi đọc song song nên mỗi lần ghi tạo BitSet mới rồi thay vào map (copy-on-write);
+ * ordinal của công thức đã xóa được bỏ trống và thu gọn ở lần nạp lại định kỳ.
+ */
+@Component
+@Slf4j
+public class IngredientRecipeIndex {
+
+    private static final UUID[] NO_INGREDIENTS = new UUID[0];
+
+    private static final Comparator<Hit> HIT_ORDER = Comparator
+            .comparingInt(Hit::matched).reversed()
+            .thenComparingInt(Hit::missing)
+            .thenComparing(Hit::recipeId);
+
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final Object writeLock = new Object();
+
+    private volatile State state = new State();
+    private volatile boolean loaded = false;
+
+    public IngredientRecipeIndex(RecipeIngredientRepository recipeIngredientRepository) {
+        this.recipeIngredientRepository = recipeIngredientRepository;
+    }
+
+    /**
+     * Tìm công thức theo danh sách nguyên liệu, có thể giới hạn trong tập {@code allowedRecipeIds} (lọc theo tên).
+     * Trả về ID đã xếp hạng của trang [offset, offset + limit), tổng số kết quả và việc có khớp đủ tất cả nguyên liệu hay không.
+     */
+    public IngredientHits search(List<String> ingredientNames, Set<UUID> allowedRecipeIds, int offset, int limit) {
+        ensureLoaded();
+        State current = state;
+        List<String> terms = ingredientNames == null ? List.of() : ingredientNames.stream()
+                .map(SearchTextNormalizer::fold)
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .toList();
+        if (terms.isEmpty() || limit <= 0) {
+            return IngredientHits.EMPTY;
+        }
+
+        // Đọc nextOrdinal trước mảng recipes: mảng luôn được thay trước khi nextOrdinal tăng
+        int[] counts = new int[current.nextOrdinal];
+        UUID[] recipes = current.recipes;
+        for (String term : terms) {
+            BitSet termRecipes = current.recipesMatching(term);
+            for (int ordinal = termRecipes.nextSetBit(0); ordinal >= 0 && ordinal < counts.length;
+                 ordinal = termRecipes.nextSetBit(ordinal + 1)) {
+                counts[ordinal]++;
+            }
+        }
+
+        BitSet allowed = null;
+        if (allowedRecipeIds != null) {
+            allowed = new BitSet(counts.length);
+            for (UUID recipeId : allowedRecipeIds) {
+                Integer ordinal = current.ordinals.get(recipeId);
+                if (ordinal != null) {
+                    allowed.set(ordinal);
+                }
+            }
+        }
+
+        boolean matchedAll = false;
+        for (int ordinal = 0; ordinal < counts.length && !matchedAll; ordinal++) {
+            matchedAll = counts[ordinal] == terms.size() && recipes[ordinal] != null
+                    && (allowed == null || allowed.get(ordinal));
+        }
+        int minMatch = matchedAll ? terms.size() : 1;
+
+        int wanted = offset + limit;
+        PriorityQueue<Hit> top = new PriorityQueue<>(HIT_ORDER.reversed());
+        long total = 0;
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            UUID recipeId = recipes[ordinal];
+            if (counts[ordinal] < minMatch || recipeId == null || (allowed != null && !allowed.get(ordinal))) {
+                continue;
+            }
+            total++;
+            int ingredientCount = current.recipeIngredients.getOrDefault(recipeId, NO_INGREDIENTS).length;
+            top.offer(new Hit(recipeId, counts[ordinal], Math.max(0, ingredientCount - counts[ordinal])));
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(HIT_ORDER);
+        List<UUID> page = ranked.stream()
+                .skip(offset)
+                .map(Hit::recipeId)
+                .toList();
+        return new IngredientHits(page, total, matchedAll);
+    }
+
+    /**
+     * Đồng bộ nguyên liệu của một công thức sau khi transaction ghi commit
+     */
+    public void sync(Recipe recipe) {
+        if (!loaded || recipe == null || recipe.getRecipeId() == null) {
+            return;
+        }
+        UUID recipeId = recipe.getRecipeId();
+        if (!Boolean.TRUE.equals(recipe.getIsPublished()) || recipe.getStatus() != RecipeStatus.APPROVED) {
+            AfterCommit.run("cập nhật index nguyên liệu", () -> remove(recipeId));
+            return;
+        }
+        AfterCommit.run("cập nhật index nguyên liệu",
+                () -> put(recipeId, recipeIngredientRepository.findIngredientRefsByRecipeId(recipeId)));
+    }
+
+    public void put(UUID recipeId, List<RecipeIngredientNameProjection> ingredients) {
+        if (!loaded || recipeId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            state.put(recipeId, ingredients);
+        }
+    }
+
+    public void remove(UUID recipeId) {
+        if (!loaded || recipeId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            state.remove(recipeId);
+        }
+    }
+
+    /**
+     * Nạp lại toàn bộ index từ DB, đồng thời thu gọn các ordinal đã bỏ trống
+     */
+    @Scheduled(fixedDelayString = "${cookshare.search.ingredient-index.refresh-interval-ms:3600000}",
+            initialDelayString = "${cookshare.search.ingredient-index.refresh-interval-ms:3600000}")
+    public void refresh() {
+        synchronized (writeLock) {
+            Map<UUID, List<RecipeIngredientNameProjection>> byRecipe = new LinkedHashMap<>();
+            for (RecipeIngredientNameProjection row : recipeIngredientRepository.findPublishedIngredientNames()) {
+                byRecipe.computeIfAbsent(row.getRecipeId(), id -> new ArrayList<>()).add(row);
+            }
+
+            State fresh = new State();
+            byRecipe.forEach(fresh::load);
+            state = fresh;
+            loaded = true;
+            log.info("Đã nạp index nguyên liệu: {} công thức, {} nguyên liệu",
+                    fresh.ordinals.size(), fresh.ingredientNames.size());
+        }
+    }
+
+    public int size() {
+        return state.ordinals.size();
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (writeLock) {
+                if (!loaded) {
+                    refresh();
+                }
+            }
+        }
+    }
+
+    public record IngredientHits(List<UUID> recipeIds, long total, boolean matchedAll) {
+        static final IngredientHits EMPTY = new IngredientHits(List.of(), 0, false);
+    }
+
+    private record Hit(UUID recipeId, int matched, int missing) {
+    }
+
+    /**
+     * Dữ liệu index. Đọc không cần khóa; ghi được tuần tự hóa bởi writeLock.
+     * Mảng recipes được ghi phần tử mới trước khi BitSet tương ứng được thay vào postings,
+     * nên luồng đọc thấy bit mới thì cũng thấy ID công thức của bit đó.
+     */
+    private static final class State {
+        final Map<UUID, String> ingredientNames = new ConcurrentHashMap<>();
+        final Map<UUID, BitSet> postings = new ConcurrentHashMap<>();
+        final Map<UUID, Integer> ordinals = new ConcurrentHashMap<>();
+        final Map<UUID, UUID[]> recipeIngredients = new ConcurrentHashMap<>();
+        volatile UUID[] recipes = new UUID[64];
+        volatile int nextOrdinal = 0;
+
+        void put(UUID recipeId, List<RecipeIngredientNameProjection> ingredients) {
+            Integer existing = ordinals.get(recipeId);
+            int ordinal = existing != null ? existing : allocate(recipeId);
+            UUID[] previous = recipeIngredients.getOrDefault(recipeId, NO_INGREDIENTS);
+
+            Set<UUID> ingredientIds = new LinkedHashSet<>();
+            for (RecipeIngredientNameProjection ingredient : ingredients) {
+                if (ingredient.getIngredientId() == null) {
+                    continue;
+                }
+                ingredientIds.add(ingredient.getIngredientId());
+                ingredientNames.put(ingredient.getIngredientId(), SearchTextNormalizer.fold(ingredient.getName()));
+            }
+
+            for (UUID ingredientId : previous) {
+                if (!ingredientIds.contains(ingredientId)) {
+                    clearBit(ingredientId, ordinal);
+                }
+            }
+            for (UUID ingredientId : ingredientIds) {
+                BitSet current = postings.get(ingredientId);
+                if (current == null || !current.get(ordinal)) {
+                    BitSet updated = current == null ? new BitSet() : (BitSet) current.clone();
+                    updated.set(ordinal);
+                    postings.put(ingredientId, updated);
+                }
+            }
+            recipeIngredients.put(recipeId, ingredientIds.toArray(UUID[]::new));
+        }
+
+        /**
+         * Nạp công thức khi State chưa được công bố cho luồng đọc: ghi thẳng vào BitSet, không cần copy
+         */
+        void load(UUID recipeId, List<RecipeIngredientNameProjection> ingredients) {
+            int ordinal = allocate(recipeId);
+            Set<UUID> ingredientIds = new LinkedHashSet<>();
+            for (RecipeIngredientNameProjection ingredient : ingredients) {
+                if (ingredient.getIngredientId() == null) {
+                    continue;
+                }
+                ingredientIds.add(ingredient.getIngredientId());
+                ingredientNames.put(ingredient.getIngredientId(), SearchTextNormalizer.fold(ingredient.getName()));
+                postings.computeIfAbsent(ingredient.getIngredientId(), id -> new BitSet()).set(ordinal);
+            }
+            recipeIngredients.put(recipeId, ingredientIds.toArray(UUID[]::new));
+        }
+
+        void remove(UUID recipeId) {
+            Integer ordinal = ordinals.remove(recipeId);
+            if (ordinal == null) {
+                return;
+            }
+            recipes[ordinal] = null;
+            for (UUID ingredientId : recipeIngredients.getOrDefault(recipeId, NO_INGREDIENTS)) {
+                clearBit(ingredientId, ordinal);
+            }
+            recipeIngredients.remove(recipeId);
+        }
+
+        /**
+         * Hợp các công thức của mọi nguyên liệu có tên (đã bỏ dấu) chứa từ khóa
+         */
+        BitSet recipesMatching(String term) {
+            BitSet result = new BitSet();
+            ingredientNames.forEach((ingredientId, name) -> {
+                if (name.contains(term)) {
+                    BitSet recipeBits = postings.get(ingredientId);
+                    if (recipeBits != null) {
+                        result.or(recipeBits);
+                    }
+                }
+            });
+            return result;
+        }
+
+        private int allocate(UUID recipeId) {
+            int ordinal = nextOrdinal;
+            UUID[] current = recipes;
+            if (ordinal >= current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[ordinal] = recipeId;
+            recipes = current;
+            ordinals.put(recipeId, ordinal);
+            nextOrdinal = ordinal + 1;
+            return ordinal;
+        }
+
+        private void clearBit(UUID ingredientId, int ordinal) {
+            BitSet current = postings.get(ingredientId);
+            if (current == null || !current.get(ordinal)) {
+                return;
+            }
+            BitSet updated = (BitSet) current.clone();
+            updated.clear(ordinal);
+            if (updated.isEmpty()) {
+                postings.remove(ingredientId);
+            } else {
+                postings.put(ingredientId, updated);
+            }
+        }
+    }
+}
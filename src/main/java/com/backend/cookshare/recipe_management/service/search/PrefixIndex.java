@@ -0,0 +1,88 @@
+package com.backend.cookshare.recipe_management.service.search;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Từ điển tiền tố đã bỏ dấu cho typeahead. Mỗi từ trong chuỗi sinh một khóa "phần còn lại từ từ đó" + ID,
+ * nên "bo" gợi ý được cả "Bò kho" lẫn "Phở bò". Khóa nằm trong skip list đã sắp xếp:
+ * một lần gợi ý là một lần tìm nhị phân tới tiền tố rồi duyệt đoạn khóa liền kề, giữ top-N theo độ phổ biến.
+ * Đọc không cần khóa; ghi cho cùng một ID được tuần tự hóa bởi synchronized.
+ */
+final class PrefixIndex {
+
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private static final Comparator<Entry> POPULARITY_ORDER = Comparator
+            .comparingDouble(Entry::popularity).reversed()
+            .thenComparing(Entry::text);
+
+    private final ConcurrentSkipListMap<String, Entry> keys = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    synchronized void put(UUID id, String text, double popularity) {
+        remove(id);
+        String folded = SearchTextNormalizer.fold(text);
+        if (folded.isEmpty()) {
+            return;
+        }
+        Entry entry = new Entry(id, text, popularity, wordSuffixes(folded, id));
+        entries.put(id, entry);
+        for (String key : entry.keys()) {
+            keys.put(key, entry);
+        }
+    }
+
+    synchronized void remove(UUID id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            for (String key : previous.keys()) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Top {@code limit} chuỗi (không trùng) có một từ bắt đầu bằng {@code prefix}, phổ biến hơn xếp trước
+     */
+    List<String> top(String prefix, int limit) {
+        String folded = SearchTextNormalizer.fold(prefix);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<String, Entry> bestByText = new HashMap<>();
+        for (Entry entry : keys.subMap(folded, true, folded + Character.MAX_VALUE, true).values()) {
+            bestByText.merge(entry.text(), entry, (a, b) -> POPULARITY_ORDER.compare(a, b) <= 0 ? a : b);
+        }
+
+        PriorityQueue<Entry> top = new PriorityQueue<>(POPULARITY_ORDER.reversed());
+        for (Entry entry : bestByText.values()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Entry> ranked = new ArrayList<>(top);
+        ranked.sort(POPULARITY_ORDER);
+        return ranked.stream().map(Entry::text).toList();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static String[] wordSuffixes(String folded, UUID id) {
+        List<String> suffixes = new ArrayList<>();
+        for (int i = 0; i < folded.length(); i++) {
+            if (i == 0 || folded.charAt(i - 1) == ' ') {
+                suffixes.add(folded.substring(i) + ID_SEPARATOR + id);
+            }
+        }
+        return suffixes.toArray(String[]::new);
+    }
+
+    private record Entry(UUID id, String text, double popularity, String[] keys) {
+    }
+}
@@ -0,0 +1,375 @@
+package com.backend.cookshare.recipe_management.service.search;
+
+import com.backend.cookshare.common.transaction.AfterCommit;
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
+import com.backend.cookshare.recipe_management.repository.RecipeIngredientRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeIngredientRepository.RecipeIngredientNameProjection;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository.RecipeSearchProjection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index full-text trong bộ nhớ cho tìm kiếm công thức theo tên, thay cho các chuỗi LIKE '%kw%' trên bảng recipes.
+ * Title, description và tên nguyên liệu của công thức đã publish được bỏ dấu (xem {@link SearchTextNormalizer})
+ * rồi đưa vào inverted index: từ khóa → tập ID công thức. Từ điển được sắp xếp nên từ khóa từ 3 ký tự trở lên
+ * còn khớp theo tiền tố ("pas" → "pasta").
+ *
+ * Điểm của một công thức = tổng theo từng từ khóa của trọng số trường (title 3, nguyên liệu 2, mô tả 1) × idf,
+ * khớp tiền tố được nửa điểm, cả cụm khớp liên tiếp trong title được cộng thêm.
+ * Truy vấn 1-2 từ yêu cầu khớp tất cả, từ 3 từ trở lên yêu cầu khớp ít nhất 60% (giống hasNameLike cũ).
+ *
+ * Họ tên người tạo được index riêng (không trộn vào điểm tìm theo tên) cho tìm kiếm công thức theo người tạo,
+ * thay cho LIKE '%name%' trên users.full_name: mọi từ khóa phải khớp (nguyên từ hoặc tiền tố).
+ *
+ * Index được cập nhật sau khi transaction ghi commit (duyệt / sửa / ẩn / xóa) và nạp lại định kỳ từ DB;
+ * người dùng đổi họ tên được cập nhật ở lần nạp lại kế tiếp.
+ *
+ * Index chỉ nằm trong bộ nhớ của từng instance, không phải tsvector / pg_trgm trong DB. Khi chạy nhiều instance,
+ * mỗi instance chỉ thấy ngay các thay đổi đi qua chính nó; công thức được duyệt / sửa / ẩn / xóa trên instance khác
+ * và người dùng đổi họ tên chỉ xuất hiện ở đây sau lần nạp lại kế tiếp
+ * (cookshare.search.recipe-index.refresh-interval-ms, mặc định mỗi giờ). Giảm chu kỳ này nếu cần độ trễ nhỏ hơn.
+ */
+@Component
+@Slf4j
+public class RecipeSearchIndex {
+
+    static final float TITLE_WEIGHT = 3f;
+    static final float INGREDIENT_WEIGHT = 2f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+    static final float PREFIX_FACTOR = 0.5f;
+    static final float PHRASE_BONUS = 3f;
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    private static final Comparator<Hit> HIT_ORDER = Comparator
+            .comparingDouble(Hit::score).reversed()
+            .thenComparing(Hit::recipeId);
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final Object writeLock = new Object();
+
+    private volatile State state = new State();
+    private volatile boolean loaded = false;
+
+    public RecipeSearchIndex(RecipeRepository recipeRepository, RecipeIngredientRepository recipeIngredientRepository) {
+        this.recipeRepository = recipeRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+    }
+
+    /**
+     * Tìm công thức theo từ khóa, trả về ID đã xếp hạng của trang [offset, offset + limit) và tổng số kết quả
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        if (limit <= 0) {
+            return SearchHits.EMPTY;
+        }
+        return rank(score(query), offset, limit);
+    }
+
+    /**
+     * Tìm công thức theo họ tên người tạo, trả về ID đã xếp hạng của trang [offset, offset + limit) và tổng số kết quả
+     */
+    public SearchHits searchByAuthor(String fullName, int offset, int limit) {
+        if (limit <= 0) {
+            return SearchHits.EMPTY;
+        }
+        return rank(scoreAuthor(fullName), offset, limit);
+    }
+
+    private static SearchHits rank(Map<UUID, Float> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        PriorityQueue<Hit> top = new PriorityQueue<>(HIT_ORDER.reversed());
+        scores.forEach((recipeId, score) -> {
+            top.offer(new Hit(recipeId, score));
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        });
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(HIT_ORDER);
+        List<UUID> page = ranked.stream()
+                .skip(offset)
+                .map(Hit::recipeId)
+                .toList();
+        return new SearchHits(page, scores.size());
+    }
+
+    /**
+     * Tập ID của tất cả công thức khớp từ khóa, không xếp hạng (dùng để lọc theo tên ở các tìm kiếm khác)
+     */
+    public Set<UUID> matchAll(String query) {
+        return score(query).keySet();
+    }
+
+    /**
+     * Tính điểm cho các công thức thỏa điều kiện số từ khóa tối thiểu
+     */
+    private Map<UUID, Float> score(String query) {
+        ensureLoaded();
+        State current = state;
+        List<String> tokens = SearchTextNormalizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return Map.of();
+        }
+
+        int minMatch = tokens.size() <= 2 ? tokens.size() : (int) Math.ceil(tokens.size() * 0.6);
+        int documentCount = Math.max(1, current.documents.size());
+        Map<UUID, Candidate> candidates = new HashMap<>();
+
+        for (String token : tokens) {
+            Map<UUID, Float> tokenScores = new HashMap<>();
+            for (Map.Entry<String, Set<UUID>> posting : current.postingsFor(token).entrySet()) {
+                String term = posting.getKey();
+                Set<UUID> recipeIds = posting.getValue();
+                float idf = (float) Math.log(1 + (double) documentCount / Math.max(1, recipeIds.size()));
+                float factor = term.length() == token.length() ? 1f : PREFIX_FACTOR;
+                for (UUID recipeId : recipeIds) {
+                    Document document = current.documents.get(recipeId);
+                    if (document != null) {
+                        tokenScores.merge(recipeId, document.weightOf(term) * idf * factor, Math::max);
+                    }
+                }
+            }
+            tokenScores.forEach((recipeId, score) ->
+                    candidates.computeIfAbsent(recipeId, id -> new Candidate()).add(score));
+        }
+
+        String phrase = tokens.size() > 1 ? String.join(" ", tokens) : null;
+        Map<UUID, Float> scores = new HashMap<>();
+        candidates.forEach((recipeId, candidate) -> {
+            if (candidate.matched < minMatch) {
+                return;
+            }
+            float score = candidate.score;
+            if (phrase != null) {
+                Document document = current.documents.get(recipeId);
+                if (document != null && document.foldedTitle().contains(phrase)) {
+                    score += PHRASE_BONUS;
+                }
+            }
+            scores.put(recipeId, score);
+        });
+        return scores;
+    }
+
+    /**
+     * Điểm theo họ tên người tạo: công thức phải khớp tất cả từ khóa, khớp tiền tố được nửa điểm
+     */
+    private Map<UUID, Float> scoreAuthor(String fullName) {
+        ensureLoaded();
+        State current = state;
+        List<String> tokens = SearchTextNormalizer.tokenize(fullName);
+        if (tokens.isEmpty()) {
+            return Map.of();
+        }
+
+        int documentCount = Math.max(1, current.documents.size());
+        Map<UUID, Candidate> candidates = new HashMap<>();
+        for (String token : tokens) {
+            Map<UUID, Float> tokenScores = new HashMap<>();
+            for (Map.Entry<String, Set<UUID>> posting : current.authorPostingsFor(token).entrySet()) {
+                Set<UUID> recipeIds = posting.getValue();
+                float idf = (float) Math.log(1 + (double) documentCount / Math.max(1, recipeIds.size()));
+                float factor = posting.getKey().length() == token.length() ? 1f : PREFIX_FACTOR;
+                for (UUID recipeId : recipeIds) {
+                    tokenScores.merge(recipeId, idf * factor, Math::max);
+                }
+            }
+            tokenScores.forEach((recipeId, score) ->
+                    candidates.computeIfAbsent(recipeId, id -> new Candidate()).add(score));
+        }
+
+        Map<UUID, Float> scores = new HashMap<>();
+        candidates.forEach((recipeId, candidate) -> {
+            if (candidate.matched == tokens.size()) {
+                scores.put(recipeId, candidate.score);
+            }
+        });
+        return scores;
+    }
+
+    /**
+     * Đồng bộ một công thức vào index theo trạng thái hiện tại của nó.
+     * Nếu đang trong transaction thì chờ commit, để nguyên liệu mới đã được ghi và không index dữ liệu bị rollback.
+     */
+    public void sync(Recipe recipe) {
+        if (!loaded || recipe == null || recipe.getRecipeId() == null) {
+            return;
+        }
+        UUID recipeId = recipe.getRecipeId();
+        if (!Boolean.TRUE.equals(recipe.getIsPublished()) || recipe.getStatus() != RecipeStatus.APPROVED) {
+            AfterCommit.run("cập nhật index tìm kiếm công thức", () -> remove(recipeId));
+            return;
+        }
+        String title = recipe.getTitle();
+        String description = recipe.getDescription();
+        AfterCommit.run("cập nhật index tìm kiếm công thức", () -> put(recipeId, title, description,
+                recipeRepository.findAuthorFullNameByRecipeId(recipeId),
+                recipeIngredientRepository.findIngredientNamesByRecipeId(recipeId)));
+    }
+
+    public void put(UUID recipeId, String title, String description, String authorName, List<String> ingredientNames) {
+        if (!loaded || recipeId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            state.put(Document.of(recipeId, title, description, authorName, ingredientNames));
+        }
+    }
+
+    public void remove(UUID recipeId) {
+        if (!loaded || recipeId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            state.remove(recipeId);
+        }
+    }
+
+    /**
+     * Nạp lại toàn bộ index từ DB để sửa các sai lệch do cập nhật tăng dần bị bỏ lỡ
+     */
+    @Scheduled(fixedDelayString = "${cookshare.search.recipe-index.refresh-interval-ms:3600000}",
+            initialDelayString = "${cookshare.search.recipe-index.refresh-interval-ms:3600000}")
+    public void refresh() {
+        synchronized (writeLock) {
+            Map<UUID, List<String>> ingredientNames = new HashMap<>();
+            for (RecipeIngredientNameProjection row : recipeIngredientRepository.findPublishedIngredientNames()) {
+                ingredientNames.computeIfAbsent(row.getRecipeId(), id -> new ArrayList<>()).add(row.getName());
+            }
+
+            State fresh = new State();
+            for (RecipeSearchProjection recipe : recipeRepository.findPublishedSearchDocuments()) {
+                fresh.put(Document.of(recipe.getRecipeId(), recipe.getTitle(), recipe.getDescription(),
+                        recipe.getAuthorName(), ingredientNames.getOrDefault(recipe.getRecipeId(), List.of())));
+            }
+            state = fresh;
+            loaded = true;
+            log.info("Đã nạp index tìm kiếm công thức: {} công thức, {} từ khóa",
+                    fresh.documents.size(), fresh.postings.size());
+        }
+    }
+
+    public int size() {
+        return state.documents.size();
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (writeLock) {
+                if (!loaded) {
+                    refresh();
+                }
+            }
+        }
+    }
+
+    public record SearchHits(List<UUID> recipeIds, long total) {
+        static final SearchHits EMPTY = new SearchHits(List.of(), 0);
+    }
+
+    private record Hit(UUID recipeId, double score) {
+    }
+
+    private static final class Candidate {
+        float score;
+        int matched;
+
+        void add(float tokenScore) {
+            score += tokenScore;
+            matched++;
+        }
+    }
+
+    /**
+     * Một công thức đã được chuẩn hóa: title bỏ dấu (để khớp cụm từ), trọng số cao nhất của từng từ khóa
+     * và các từ trong họ tên người tạo
+     */
+    private record Document(UUID recipeId, String foldedTitle, Map<String, Float> weights, Set<String> authorTerms) {
+
+        static Document of(UUID recipeId, String title, String description, String authorName,
+                           List<String> ingredientNames) {
+            Map<String, Float> weights = new HashMap<>();
+            addTerms(weights, description, DESCRIPTION_WEIGHT);
+            if (ingredientNames != null) {
+                ingredientNames.forEach(name -> addTerms(weights, name, INGREDIENT_WEIGHT));
+            }
+            addTerms(weights, title, TITLE_WEIGHT);
+            return new Document(recipeId, SearchTextNormalizer.fold(title), weights,
+                    new HashSet<>(SearchTextNormalizer.tokenize(authorName)));
+        }
+
+        private static void addTerms(Map<String, Float> weights, String text, float weight) {
+            for (String term : SearchTextNormalizer.tokenize(text)) {
+                weights.merge(term, weight, Math::max);
+            }
+        }
+
+        float weightOf(String term) {
+            return weights.getOrDefault(term, 0f);
+        }
+    }
+
+    /**
+     * Dữ liệu index: tài liệu theo ID, từ điển đã sắp xếp từ khóa → ID công thức và từ điển riêng cho họ tên người tạo.
+     * Đọc không cần khóa; ghi được tuần tự hóa bởi writeLock.
+     */
+    private static final class State {
+        final Map<UUID, Document> documents = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<String, Set<UUID>> postings = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<String, Set<UUID>> authorPostings = new ConcurrentSkipListMap<>();
+
+        void put(Document document) {
+            remove(document.recipeId());
+            documents.put(document.recipeId(), document);
+            for (String term : document.weights().keySet()) {
+                postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(document.recipeId());
+            }
+            for (String term : document.authorTerms()) {
+                authorPostings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(document.recipeId());
+            }
+        }
+
+        void remove(UUID recipeId) {
+            Document previous = documents.remove(recipeId);
+            if (previous == null) {
+                return;
+            }
+            removePostings(postings, previous.weights().keySet(), recipeId);
+            removePostings(authorPostings, previous.authorTerms(), recipeId);
+        }
+
+        private static void removePostings(Map<String, Set<UUID>> index, Set<String> terms, UUID recipeId) {
+            for (String term : terms) {
+                index.computeIfPresent(term, (t, recipeIds) -> {
+                    recipeIds.remove(recipeId);
+                    return recipeIds.isEmpty() ? null : recipeIds;
+                });
+            }
+        }
+
+        Map<String, Set<UUID>> postingsFor(String token) {
+            return lookup(postings, token);
+        }
+
+        Map<String, Set<UUID>> authorPostingsFor(String token) {
+            return lookup(authorPostings, token);
+        }
+
+        private static Map<String, Set<UUID>> lookup(ConcurrentSkipListMap<String, Set<UUID>> index, String token) {
+            if (token.length() < MIN_PREFIX_LENGTH) {
+                Set<UUID> exact = index.get(token);
+                return exact == null ? Map.of() : Map.of(token, exact);
+            }
+            return index.subMap(token, true, token + Character.MAX_VALUE, true);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.backend.cookshare.recipe_management.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hóa văn bản cho tìm kiếm: bỏ dấu tiếng Việt (kể cả đ → d), chuyển chữ thường
+ * và thay mọi ký tự không phải chữ / số bằng khoảng trắng.
+ * Example: "Phở Bò Hà-Nội" -> "pho bo ha noi"
+ */
+public final class SearchTextNormalizer {
+
+    public static final int MIN_TOKEN_LENGTH = 2;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    private SearchTextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD);
+        String lower = COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return NON_ALPHANUMERIC.matcher(lower).replaceAll(" ").trim();
+    }
+
+    /**
+     * Tách văn bản đã chuẩn hóa thành các từ khóa không trùng, bỏ qua từ ngắn hơn {@link #MIN_TOKEN_LENGTH}
+     */
+    public static List<String> tokenize(String text) {
+        String folded = fold(text);
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : folded.split(" ")) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+}
@@ -0,0 +1,165 @@
+package com.backend.cookshare.recipe_management.service.search;
+
+import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.repository.UserRepository.UserNameProjection;
+import com.backend.cookshare.common.transaction.AfterCommit;
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository.RecipeTitleProjection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Gợi ý typeahead cho tiêu đề công thức và tên người dùng, trả lời hoàn toàn từ bộ nhớ (xem {@link PrefixIndex}).
+ *
+ * - Công thức: chỉ công thức đã duyệt và publish, độ phổ biến tính như feed POPULAR
+ *   (likeCount * 2 + viewCount * 0.5 + saveCount * 1.5); cập nhật qua RecipeFeedSynchronizer.
+ * - Người dùng: độ phổ biến là số follower; mọi luồng ghi User đều cập nhật updated_at (@PreUpdate của entity,
+ *   câu UPDATE follower_count của CounterDeltaBuffer và CounterReconciliationJob)
+ *   nên chỉ cần định kỳ đọc các user thay đổi sau lần đọc trước.
+ * Cả hai được dựng lại toàn bộ định kỳ để dọn các bản ghi đã xóa mà không đi qua luồng đồng bộ.
+ * Thay đổi từ luồng ghi chỉ được áp dụng sau khi transaction commit, giống RecipeSearchIndex.
+ */
+@Component
+@Slf4j
+public class TypeaheadService {
+
+    // Đọc lùi một chút so với lần trước để không bỏ sót bản ghi commit trễ
+    private static final long POLL_OVERLAP_SECONDS = 5;
+
+    private final RecipeRepository recipeRepository;
+    private final UserRepository userRepository;
+    private final Object writeLock = new Object();
+
+    private volatile PrefixIndex recipeTitles = new PrefixIndex();
+    private volatile PrefixIndex userNames = new PrefixIndex();
+    private volatile LocalDateTime lastUserPoll;
+    private volatile boolean loaded = false;
+
+    public TypeaheadService(RecipeRepository recipeRepository, UserRepository userRepository) {
+        this.recipeRepository = recipeRepository;
+        this.userRepository = userRepository;
+    }
+
+    public List<String> suggestRecipeTitles(String query, int limit) {
+        ensureLoaded();
+        return recipeTitles.top(query, limit);
+    }
+
+    public List<String> suggestUserNames(String query, int limit) {
+        ensureLoaded();
+        return userNames.top(query, limit);
+    }
+
+    /**
+     * Đồng bộ một công thức theo trạng thái và chỉ số hiện tại của entity
+     */
+    public void syncRecipe(Recipe recipe) {
+        if (!loaded || recipe == null || recipe.getRecipeId() == null) {
+            return;
+        }
+        UUID recipeId = recipe.getRecipeId();
+        if (Boolean.TRUE.equals(recipe.getIsPublished()) && recipe.getStatus() == RecipeStatus.APPROVED) {
+            String title = recipe.getTitle();
+            double popularity = popularity(recipe.getLikeCount(), recipe.getViewCount(), recipe.getSaveCount());
+            AfterCommit.run("cập nhật index typeahead", () -> recipeTitles.put(recipeId, title, popularity));
+        } else {
+            AfterCommit.run("cập nhật index typeahead", () -> recipeTitles.remove(recipeId));
+        }
+    }
+
+    public void removeRecipe(UUID recipeId) {
+        if (loaded && recipeId != null) {
+            AfterCommit.run("cập nhật index typeahead", () -> recipeTitles.remove(recipeId));
+        }
+    }
+
+    public void removeUser(UUID userId) {
+        if (loaded && userId != null) {
+            AfterCommit.run("cập nhật index typeahead", () -> userNames.remove(userId));
+        }
+    }
+
+    /**
+     * Cập nhật tên / số follower của các user vừa thay đổi
+     */
+    @Scheduled(fixedDelayString = "${cookshare.search.typeahead.user-poll-interval-ms:30000}",
+            initialDelayString = "${cookshare.search.typeahead.user-poll-interval-ms:30000}")
+    public void pollUserChanges() {
+        if (!loaded) {
+            return;
+        }
+        LocalDateTime pollStartedAt = LocalDateTime.now();
+        List<UserNameProjection> changed = userRepository.findNamesUpdatedAfter(
+                lastUserPoll.minusSeconds(POLL_OVERLAP_SECONDS));
+        PrefixIndex current = userNames;
+        for (UserNameProjection user : changed) {
+            putUser(current, user);
+        }
+        lastUserPoll = pollStartedAt;
+        if (!changed.isEmpty()) {
+            log.debug("Đã cập nhật {} user vào index typeahead", changed.size());
+        }
+    }
+
+    /**
+     * Dựng lại toàn bộ index typeahead từ DB
+     */
+    @Scheduled(fixedDelayString = "${cookshare.search.typeahead.refresh-interval-ms:3600000}",
+            initialDelayString = "${cookshare.search.typeahead.refresh-interval-ms:3600000}")
+    public void refresh() {
+        synchronized (writeLock) {
+            LocalDateTime refreshStartedAt = LocalDateTime.now();
+
+            PrefixIndex freshTitles = new PrefixIndex();
+            for (RecipeTitleProjection recipe : recipeRepository.findPublishedTitles()) {
+                freshTitles.put(recipe.getRecipeId(), recipe.getTitle(),
+                        popularity(recipe.getLikeCount(), recipe.getViewCount(), recipe.getSaveCount()));
+            }
+            PrefixIndex freshNames = new PrefixIndex();
+            for (UserNameProjection user : userRepository.findAllNames()) {
+                putUser(freshNames, user);
+            }
+
+            recipeTitles = freshTitles;
+            userNames = freshNames;
+            lastUserPoll = refreshStartedAt;
+            loaded = true;
+            log.info("Đã nạp index typeahead: {} tiêu đề công thức, {} tên người dùng",
+                    freshTitles.size(), freshNames.size());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (writeLock) {
+                if (!loaded) {
+                    refresh();
+                }
+            }
+        }
+    }
+
+    private static void putUser(PrefixIndex index, UserNameProjection user) {
+        if (user.getFullName() == null) {
+            index.remove(user.getUserId());
+            return;
+        }
+        index.put(user.getUserId(), user.getFullName(),
+                user.getFollowerCount() != null ? user.getFollowerCount() : 0);
+    }
+
+    private static double popularity(Integer likeCount, Integer viewCount, Integer saveCount) {
+        return valueOf(likeCount) * 2 + valueOf(viewCount) * 0.5 + valueOf(saveCount) * 1.5;
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+}
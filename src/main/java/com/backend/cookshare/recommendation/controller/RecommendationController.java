@@ -4,6 +4,7 @@ import com.backend.cookshare.common.dto.ApiResponse;
 import com.backend.cookshare.recommendation.dto.response.HomeRecommendationResponse;
 import com.backend.cookshare.recommendation.dto.response.RecipeRecommendationPageResponse;
 import com.backend.cookshare.recommendation.dto.response.RecipeRecommendationResponse;
+import com.backend.cookshare.recommendation.enums.TimePeriod;
 import com.backend.cookshare.recommendation.service.RecommendationService;
 
 import lombok.RequiredArgsConstructor;
@@ -117,11 +118,12 @@ public class RecommendationController {
 
     @GetMapping("/trending")
     public ResponseEntity<ApiResponse<List<RecipeRecommendationResponse>>> getTrendingRecipes(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "ALL_TIME") TimePeriod period) {
         
-        log.info("API: Nhận yêu cầu lấy {} công thức trending", limit);
+        log.info("API: Nhận yêu cầu lấy {} công thức trending ({})", limit, period);
         
-        List<RecipeRecommendationResponse> recipes = recommendationService.getTrendingRecipes(limit);
+        List<RecipeRecommendationResponse> recipes = recommendationService.getTrendingRecipes(limit, period);
         
         return ResponseEntity.ok(ApiResponse.<List<RecipeRecommendationResponse>>builder()
                 .success(true)
@@ -205,11 +207,12 @@ public class RecommendationController {
     @GetMapping("/trending/page")
     public ResponseEntity<ApiResponse<RecipeRecommendationPageResponse>> getTrendingRecipesWithPagination(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "ALL_TIME") TimePeriod period) {
         
-        log.info("API: Nhận yêu cầu lấy công thức trending với phân trang - Page: {}, Size: {}", page, size);
+        log.info("API: Nhận yêu cầu lấy công thức trending ({}) với phân trang - Page: {}, Size: {}", period, page, size);
         
-        RecipeRecommendationPageResponse response = recommendationService.getTrendingRecipesWithPagination(page, size);
+        RecipeRecommendationPageResponse response = recommendationService.getTrendingRecipesWithPagination(page, size, period);
         
         return ResponseEntity.ok(ApiResponse.<RecipeRecommendationPageResponse>builder()
                 .success(true)
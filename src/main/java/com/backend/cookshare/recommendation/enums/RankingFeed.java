@@ -0,0 +1,7 @@
+package com.backend.cookshare.recommendation.enums;
+
+public enum RankingFeed {
+    POPULAR,
+    TRENDING,
+    TOP_RATED
+}
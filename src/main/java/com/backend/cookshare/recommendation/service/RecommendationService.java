@@ -3,6 +3,7 @@ package com.backend.cookshare.recommendation.service;
 import com.backend.cookshare.recommendation.dto.response.HomeRecommendationResponse;
 import com.backend.cookshare.recommendation.dto.response.RecipeRecommendationPageResponse;
 import com.backend.cookshare.recommendation.dto.response.RecipeRecommendationResponse;
+import com.backend.cookshare.recommendation.enums.TimePeriod;
 
 import java.util.List;
 import java.util.UUID;
@@ -50,6 +51,12 @@ public interface RecommendationService {
      * Tính điểm trending dựa trên tốc độ tăng trưởng lượt xem trong 7 ngày gần đây
      */
     List<RecipeRecommendationResponse> getTrendingRecipes(int limit);
+
+    /**
+     * Lấy danh sách công thức trending trong một khoảng thời gian (hôm nay, tuần này, ...)
+     * Điểm = view + (like * 3) + (rating * 2) phát sinh trong cửa sổ, ALL_TIME dùng điểm tích lũy
+     */
+    List<RecipeRecommendationResponse> getTrendingRecipes(int limit, TimePeriod period);
     
     /**
      * Lấy danh sách công thức nổi bật với phân trang
@@ -79,5 +86,10 @@ public interface RecommendationService {
      * Tính điểm trending dựa trên: viewCount + (likeCount * 3) + (ratingCount * 2)
      */
     RecipeRecommendationPageResponse getTrendingRecipesWithPagination(int page, int size);
+
+    /**
+     * Lấy danh sách công thức trending trong một khoảng thời gian với phân trang
+     */
+    RecipeRecommendationPageResponse getTrendingRecipesWithPagination(int page, int size, TimePeriod period);
 }
 
@@ -2,6 +2,7 @@ package com.backend.cookshare.recommendation.service.impl;
 
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.authentication.service.FirebaseStorageService;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
@@ -10,15 +11,20 @@ import com.backend.cookshare.recipe_management.repository.RecipeRepository;
 import com.backend.cookshare.recommendation.dto.response.HomeRecommendationResponse;
 import com.backend.cookshare.recommendation.dto.response.RecipeRecommendationPageResponse;
 import com.backend.cookshare.recommendation.dto.response.RecipeRecommendationResponse;
+import com.backend.cookshare.recommendation.enums.RankingFeed;
+import com.backend.cookshare.recommendation.enums.TimePeriod;
 import com.backend.cookshare.recommendation.service.RecommendationService;
+import com.backend.cookshare.recommendation.service.ranking.RecipeRankingEngine;
+import com.backend.cookshare.recommendation.service.ranking.TrendingWindowTracker;
+import com.backend.cookshare.recommendation.service.sampler.DailyRecipeSampler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,32 +44,41 @@ public class RecommendationServiceImpl implements RecommendationService {
     
     private final RecipeRepository recipeRepository;
     private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final FirebaseStorageService firebaseStorageService;
+    private final DailyRecipeSampler dailyRecipeSampler;
+    private final RecipeRankingEngine recipeRankingEngine;
+    private final TrendingWindowTracker trendingWindowTracker;
     private final Executor executor;
 
     private static final int DEFAULT_LIMIT = 10;
+    private static final int DAILY_RECOMMENDATION_COUNT = 3;
     private static final int MIN_LIMIT = 1;
     private static final int MAX_LIMIT = 50;
-    private static final int MIN_RATING_COUNT = 5;
 
     public RecommendationServiceImpl(
             RecipeRepository recipeRepository,
             UserRepository userRepository,
+            CurrentUserResolver currentUserResolver,
             FirebaseStorageService firebaseStorageService,
+            DailyRecipeSampler dailyRecipeSampler,
+            RecipeRankingEngine recipeRankingEngine,
+            TrendingWindowTracker trendingWindowTracker,
             @Qualifier("taskExecutor") Executor executor) {
         this.recipeRepository = recipeRepository;
         this.userRepository = userRepository;
+        this.currentUserResolver = currentUserResolver;
         this.firebaseStorageService = firebaseStorageService;
+        this.dailyRecipeSampler = dailyRecipeSampler;
+        this.recipeRankingEngine = recipeRankingEngine;
+        this.trendingWindowTracker = trendingWindowTracker;
         this.executor = executor;
     }
     
     @Override
     public HomeRecommendationResponse getHomeRecommendations() {
         log.info("Bắt đầu lấy tất cả gợi ý công thức cho trang chủ");
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user= userRepository.findByUsername(username)
-                .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
-        UUID userId= user.getUserId();
+        UUID userId = currentUserResolver.requireCurrentUserId();
         try {
             // Sử dụng đa luồng để lấy tất cả recommendations song song
             CompletableFuture<List<RecipeRecommendationResponse>> featuredFuture =
@@ -84,7 +99,7 @@ public class RecommendationServiceImpl implements RecommendationService {
                     CompletableFuture.supplyAsync(() -> getDailyRecommendations(userId), executor);
 
             CompletableFuture<Void> allFutures = CompletableFuture.allOf(
-                featuredFuture, popularFuture, newestFuture, topRatedFuture, trendingFuture);
+                featuredFuture, popularFuture, newestFuture, topRatedFuture, trendingFuture, dailyFuture);
 
             allFutures.join();
 
@@ -115,38 +130,7 @@ public class RecommendationServiceImpl implements RecommendationService {
     public List<RecipeRecommendationResponse> getDailyRecommendations(String userName) {
         User user= userRepository.findByUsername(userName)
                 .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
-        try {
-            // Lấy ngày hiện tại (chỉ lấy ngày, không tính giờ)
-            LocalDate today = LocalDate.now();
-
-            // Tạo seed dựa trên ngày và userId để đảm bảo tính đa dạng
-            long seed = generateDailySeed(today, user.getUserId());
-
-            // Lấy tất cả công thức đã publish
-            List<Recipe> allPublishedRecipes = recipeRepository.findAllPublishedRecipes();
-
-            if (allPublishedRecipes.isEmpty()) {
-                log.warn("Không có công thức nào được publish");
-                return List.of();
-            }
-
-            // Shuffle danh sách với seed để đảm bảo mỗi ngày có thứ tự khác nhau
-            List<Recipe> shuffledRecipes = shuffleWithSeed(allPublishedRecipes, seed);
-
-            // Lấy 3 công thức đầu tiên sau khi shuffle
-            List<Recipe> selectedRecipes = shuffledRecipes.stream()
-                    .limit(3)
-                    .collect(Collectors.toList());
-
-            log.info("Đã chọn {} công thức cho gợi ý hàng ngày", selectedRecipes.size());
-
-            return convertToRecommendationResponses(selectedRecipes);
-
-        } catch (Exception e) {
-            log.error("Lỗi khi lấy gợi ý công thức theo ngày: {}", e.getMessage(), e);
-            throw new CustomException(ErrorCode.INTERNAL_SERVER_ERROR,
-                    "Không thể lấy danh sách gợi ý công thức theo ngày");
-        }
+        return getDailyRecommendations(user.getUserId());
     }
 
     @Override
@@ -160,21 +144,16 @@ public class RecommendationServiceImpl implements RecommendationService {
             // Tạo seed dựa trên ngày và userId để đảm bảo tính đa dạng
             long seed = generateDailySeed(today, userId);
 
-            // Lấy tất cả công thức đã publish
-            List<Recipe> allPublishedRecipes = recipeRepository.findAllPublishedRecipes();
+            // Chọn ID từ index trong bộ nhớ, không load toàn bộ công thức đã publish
+            List<UUID> selectedIds = dailyRecipeSampler.sample(seed, DAILY_RECOMMENDATION_COUNT);
 
-            if (allPublishedRecipes.isEmpty()) {
+            if (selectedIds.isEmpty()) {
                 log.warn("Không có công thức nào được publish");
                 return List.of();
             }
 
-            // Shuffle danh sách với seed để đảm bảo mỗi ngày có thứ tự khác nhau
-            List<Recipe> shuffledRecipes = shuffleWithSeed(allPublishedRecipes, seed);
-
-            // Lấy 3 công thức đầu tiên sau khi shuffle
-            List<Recipe> selectedRecipes = shuffledRecipes.stream()
-                    .limit(3)
-                    .collect(Collectors.toList());
+            // Chỉ hydrate các công thức được chọn
+            List<Recipe> selectedRecipes = loadRecipesInOrder(selectedIds);
 
             log.info("Đã chọn {} công thức cho gợi ý hàng ngày", selectedRecipes.size());
 
@@ -207,22 +186,24 @@ public class RecommendationServiceImpl implements RecommendationService {
     }
 
     /**
-     * Shuffle danh sách với seed cố định
-     * Sử dụng Random với seed để đảm bảo kết quả shuffle giống nhau với cùng seed
+     * Load các công thức theo đúng thứ tự ID đã chọn.
+     * Công thức không còn tồn tại hoặc đã bị ẩn sẽ bị loại khỏi index.
      */
-    private List<Recipe> shuffleWithSeed(List<Recipe> recipes, long seed) {
-        List<Recipe> shuffled = new ArrayList<>(recipes);
-        Random random = new Random(seed);
-
-        // Fisher-Yates shuffle algorithm
-        for (int i = shuffled.size() - 1; i > 0; i--) {
-            int j = random.nextInt(i + 1);
-            Recipe temp = shuffled.get(i);
-            shuffled.set(i, shuffled.get(j));
-            shuffled.set(j, temp);
+    private List<Recipe> loadRecipesInOrder(List<UUID> recipeIds) {
+        Map<UUID, Recipe> recipeMap = recipeRepository.findAllById(recipeIds)
+                .stream()
+                .collect(Collectors.toMap(Recipe::getRecipeId, recipe -> recipe, (a, b) -> a));
+
+        List<Recipe> recipes = new ArrayList<>(recipeIds.size());
+        for (UUID recipeId : recipeIds) {
+            Recipe recipe = recipeMap.get(recipeId);
+            if (recipe != null && DailyRecipeSampler.isPublished(recipe)) {
+                recipes.add(recipe);
+            } else {
+                dailyRecipeSampler.remove(recipeId);
+            }
         }
-
-        return shuffled;
+        return recipes;
     }
     
     @Override
@@ -252,8 +233,7 @@ public class RecommendationServiceImpl implements RecommendationService {
         validateLimit(limit);
         
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Recipe> recipes = recipeRepository.findPopularRecipes(pageable).getContent();
+            List<Recipe> recipes = loadRankedRecipes(RankingFeed.POPULAR, 0, limit);
             
             log.info("Tìm thấy {} công thức phổ biến", recipes.size());
             
@@ -292,8 +272,7 @@ public class RecommendationServiceImpl implements RecommendationService {
         validateLimit(limit);
         
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Recipe> recipes = recipeRepository.findTopRatedRecipes(MIN_RATING_COUNT, pageable).getContent();
+            List<Recipe> recipes = loadRankedRecipes(RankingFeed.TOP_RATED, 0, limit);
             
             log.info("Tìm thấy {} công thức đánh giá cao", recipes.size());
             
@@ -312,8 +291,7 @@ public class RecommendationServiceImpl implements RecommendationService {
         validateLimit(limit);
         
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Recipe> recipes = recipeRepository.findTrendingRecipes(pageable).getContent();
+            List<Recipe> recipes = loadRankedRecipes(RankingFeed.TRENDING, 0, limit);
             
             log.info("Tìm thấy {} công thức trending", recipes.size());
             
@@ -325,6 +303,71 @@ public class RecommendationServiceImpl implements RecommendationService {
         }
     }
     
+    @Override
+    public List<RecipeRecommendationResponse> getTrendingRecipes(int limit, TimePeriod period) {
+        if (!TrendingWindowTracker.supports(period)) {
+            return getTrendingRecipes(limit);
+        }
+        log.info("Lấy {} công thức trending theo khoảng thời gian {}", limit, period);
+
+        validateLimit(limit);
+
+        try {
+            List<Recipe> recipes = loadWindowedTrendingRecipes(period, 0, limit);
+
+            log.info("Tìm thấy {} công thức trending ({})", recipes.size(), period);
+
+            return convertToRecommendationResponses(recipes);
+
+        } catch (Exception e) {
+            log.error("Lỗi khi lấy công thức trending theo {}: {}", period, e.getMessage(), e);
+            throw new CustomException(ErrorCode.INTERNAL_SERVER_ERROR, "Không thể lấy danh sách công thức trending");
+        }
+    }
+
+    /**
+     * Lấy công thức trending trong cửa sổ thời gian; công thức đã bị ẩn được bỏ khỏi bộ đếm
+     */
+    private List<Recipe> loadWindowedTrendingRecipes(TimePeriod period, int offset, int limit) {
+        List<UUID> rankedIds = trendingWindowTracker.getRankedIds(period, offset, limit);
+        List<Recipe> recipes = new ArrayList<>(rankedIds.size());
+        for (Recipe recipe : hydrateInOrder(rankedIds)) {
+            if (DailyRecipeSampler.isPublished(recipe)) {
+                recipes.add(recipe);
+            } else {
+                trendingWindowTracker.remove(recipe.getRecipeId());
+            }
+        }
+        return recipes;
+    }
+
+    /**
+     * Lấy công thức theo thứ hạng từ bảng xếp hạng trong bộ nhớ, chỉ hydrate các ID cần thiết
+     */
+    private List<Recipe> loadRankedRecipes(RankingFeed feed, int offset, int limit) {
+        return hydrateInOrder(recipeRankingEngine.getRankedIds(feed, offset, limit));
+    }
+
+    private List<Recipe> hydrateInOrder(List<UUID> rankedIds) {
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Recipe> recipeMap = recipeRepository.findAllById(rankedIds)
+                .stream()
+                .collect(Collectors.toMap(Recipe::getRecipeId, recipe -> recipe, (a, b) -> a));
+
+        return rankedIds.stream()
+                .map(recipeMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Page<Recipe> loadRankedPage(RankingFeed feed, int page, int size) {
+        List<Recipe> recipes = loadRankedRecipes(feed, page * size, size);
+        return new PageImpl<>(recipes, PageRequest.of(page, size), recipeRankingEngine.count(feed));
+    }
+
     /**
      * Validate giá trị limit đầu vào
      */
@@ -406,8 +449,7 @@ public class RecommendationServiceImpl implements RecommendationService {
         validatePaginationParams(page, size);
         
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Recipe> recipePage = recipeRepository.findPopularRecipes(pageable);
+            Page<Recipe> recipePage = loadRankedPage(RankingFeed.POPULAR, page, size);
             
             return createPageResponseFromPage(recipePage);
             
@@ -442,8 +484,7 @@ public class RecommendationServiceImpl implements RecommendationService {
         validatePaginationParams(page, size);
         
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Recipe> recipePage = recipeRepository.findTopRatedRecipes(MIN_RATING_COUNT, pageable);
+            Page<Recipe> recipePage = loadRankedPage(RankingFeed.TOP_RATED, page, size);
             
             return createPageResponseFromPage(recipePage);
             
@@ -460,8 +501,7 @@ public class RecommendationServiceImpl implements RecommendationService {
         validatePaginationParams(page, size);
         
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Recipe> recipePage = recipeRepository.findTrendingRecipes(pageable);
+            Page<Recipe> recipePage = loadRankedPage(RankingFeed.TRENDING, page, size);
             
             return createPageResponseFromPage(recipePage);
             
@@ -471,6 +511,28 @@ public class RecommendationServiceImpl implements RecommendationService {
         }
     }
 
+    @Override
+    public RecipeRecommendationPageResponse getTrendingRecipesWithPagination(int page, int size, TimePeriod period) {
+        if (!TrendingWindowTracker.supports(period)) {
+            return getTrendingRecipesWithPagination(page, size);
+        }
+        log.info("Lấy công thức trending theo {} với phân trang - Trang: {}, Size: {}", period, page, size);
+
+        validatePaginationParams(page, size);
+
+        try {
+            List<Recipe> recipes = loadWindowedTrendingRecipes(period, page * size, size);
+            Page<Recipe> recipePage = new PageImpl<>(recipes, PageRequest.of(page, size),
+                    trendingWindowTracker.count(period));
+
+            return createPageResponseFromPage(recipePage);
+
+        } catch (Exception e) {
+            log.error("Lỗi khi lấy công thức trending theo {} với phân trang: {}", period, e.getMessage(), e);
+            throw new CustomException(ErrorCode.INTERNAL_SERVER_ERROR, "Không thể lấy danh sách công thức trending");
+        }
+    }
+
     private void validatePaginationParams(int page, int size) {
         if (page < 0) {
             log.warn("Số trang không hợp lệ: {}. Phải >= 0", page);
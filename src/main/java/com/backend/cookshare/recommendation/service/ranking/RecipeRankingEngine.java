@@ -0,0 +1,292 @@
+package com.backend.cookshare.recommendation.service.ranking;
+
+import com.backend.cookshare.common.transaction.AfterCommit;
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository.RecipeRankingProjection;
+import com.backend.cookshare.recommendation.enums.RankingFeed;
+import com.backend.cookshare.recommendation.service.sampler.DailyRecipeSampler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Bảng xếp hạng popular / trending / top-rated được duy trì trong bộ nhớ.
+ * Mỗi feed là một skip list đã sắp xếp theo điểm, cập nhật tăng dần khi có like / view / save / rating,
+ * nên việc đọc một trang chỉ cần duyệt đến offset thay vì ORDER BY trên toàn bảng recipes.
+ *
+ * Công thức tính điểm giữ nguyên như các query cũ trong RecipeRepository:
+ * - POPULAR:   likeCount * 2 + viewCount * 0.5 + saveCount * 1.5
+ * - TRENDING:  viewCount + likeCount * 3 + ratingCount * 2 (hòa điểm: mới hơn xếp trước)
+ * - TOP_RATED: averageRating (hòa điểm: nhiều lượt đánh giá hơn xếp trước), cần ít nhất 5 lượt đánh giá
+ *
+ * Mọi thay đổi từ luồng ghi được áp dụng sau khi transaction commit, để like / duyệt bị rollback
+ * không làm lệch bảng xếp hạng cho đến lần dựng lại kế tiếp.
+ */
+@Component
+@Slf4j
+public class RecipeRankingEngine {
+
+    public static final int TOP_RATED_MIN_RATING_COUNT = 5;
+
+    private static final Comparator<RankingEntry> ENTRY_ORDER = Comparator
+            .comparingDouble(RankingEntry::score).reversed()
+            .thenComparing(Comparator.comparingLong(RankingEntry::tieBreaker).reversed())
+            .thenComparing(RankingEntry::recipeId);
+
+    private final RecipeRepository recipeRepository;
+    private final Object writeLock = new Object();
+
+    private volatile State state;
+
+    public RecipeRankingEngine(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    /**
+     * Lấy danh sách ID theo thứ hạng, bắt đầu từ offset.
+     * Một công thức vừa đổi điểm có thể được duyệt qua cả vị trí cũ lẫn mới nên chỉ lấy lần gặp đầu tiên.
+     */
+    public List<UUID> getRankedIds(RankingFeed feed, int offset, int limit) {
+        State current = ensureLoaded();
+        List<UUID> result = new ArrayList<>(limit);
+        Set<UUID> seen = new HashSet<>();
+        int index = 0;
+        for (RankingEntry entry : current.rankings.get(feed)) {
+            if (!seen.add(entry.recipeId())) {
+                continue;
+            }
+            if (index++ < offset) {
+                continue;
+            }
+            result.add(entry.recipeId());
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public long count(RankingFeed feed) {
+        return ensureLoaded().sizes.get(feed).get();
+    }
+
+    /**
+     * Đồng bộ công thức theo trạng thái publish và các chỉ số hiện tại của entity
+     */
+    public void sync(Recipe recipe) {
+        if (recipe == null || recipe.getRecipeId() == null || state == null) {
+            return;
+        }
+        if (!DailyRecipeSampler.isPublished(recipe)) {
+            remove(recipe.getRecipeId());
+            return;
+        }
+        // Chụp chỉ số ngay bây giờ, entity có thể còn bị sửa trước khi transaction commit
+        UUID recipeId = recipe.getRecipeId();
+        long likes = valueOf(recipe.getLikeCount());
+        long views = valueOf(recipe.getViewCount());
+        long saves = valueOf(recipe.getSaveCount());
+        long ratingCount = valueOf(recipe.getRatingCount());
+        double averageRating = valueOf(recipe.getAverageRating());
+        long createdAt = epochSecond(recipe.getCreatedAt());
+        AfterCommit.run("cập nhật bảng xếp hạng công thức", () -> {
+            synchronized (writeLock) {
+                State current = state;
+                RecipeCounters counters = current.counters.computeIfAbsent(recipeId, RecipeCounters::new);
+                counters.likes = likes;
+                counters.views = views;
+                counters.saves = saves;
+                counters.ratingCount = ratingCount;
+                counters.averageRating = averageRating;
+                counters.createdAt = createdAt;
+                current.reindex(counters);
+            }
+        });
+    }
+
+    public void remove(UUID recipeId) {
+        if (recipeId == null || state == null) {
+            return;
+        }
+        AfterCommit.run("cập nhật bảng xếp hạng công thức", () -> {
+            synchronized (writeLock) {
+                State current = state;
+                RecipeCounters counters = current.counters.remove(recipeId);
+                if (counters != null) {
+                    current.unindex(counters);
+                }
+            }
+        });
+    }
+
+    public void addLikes(UUID recipeId, long delta) {
+        update(recipeId, counters -> counters.likes = Math.max(0, counters.likes + delta));
+    }
+
+    public void addViews(UUID recipeId, long delta) {
+        update(recipeId, counters -> counters.views = Math.max(0, counters.views + delta));
+    }
+
+    public void addSaves(UUID recipeId, long delta) {
+        update(recipeId, counters -> counters.saves = Math.max(0, counters.saves + delta));
+    }
+
+    public void updateRating(UUID recipeId, int ratingCount, BigDecimal averageRating) {
+        update(recipeId, counters -> {
+            counters.ratingCount = ratingCount;
+            counters.averageRating = valueOf(averageRating);
+        });
+    }
+
+    /**
+     * Dựng lại toàn bộ bảng xếp hạng từ DB để sửa sai lệch (VD: thay đổi từ instance khác)
+     */
+    @Scheduled(fixedDelayString = "${cookshare.recommendation.ranking.refresh-interval-ms:600000}",
+            initialDelayString = "${cookshare.recommendation.ranking.refresh-interval-ms:600000}")
+    public void refresh() {
+        synchronized (writeLock) {
+            State rebuilt = new State();
+            for (RecipeRankingProjection row : recipeRepository.findPublishedRankingStats()) {
+                RecipeCounters counters = new RecipeCounters(row.getRecipeId());
+                counters.likes = valueOf(row.getLikeCount());
+                counters.views = valueOf(row.getViewCount());
+                counters.saves = valueOf(row.getSaveCount());
+                counters.ratingCount = valueOf(row.getRatingCount());
+                counters.averageRating = valueOf(row.getAverageRating());
+                counters.createdAt = epochSecond(row.getCreatedAt());
+                rebuilt.counters.put(counters.recipeId, counters);
+                rebuilt.reindex(counters);
+            }
+            state = rebuilt;
+            log.info("Đã dựng bảng xếp hạng công thức: {} công thức", rebuilt.counters.size());
+        }
+    }
+
+    private void update(UUID recipeId, Consumer<RecipeCounters> mutation) {
+        if (recipeId == null || state == null) {
+            return;
+        }
+        AfterCommit.run("cập nhật bảng xếp hạng công thức", () -> {
+            synchronized (writeLock) {
+                State current = state;
+                RecipeCounters counters = current.counters.get(recipeId);
+                if (counters == null) {
+                    return; // Công thức chưa publish, không tham gia xếp hạng
+                }
+                mutation.accept(counters);
+                current.reindex(counters);
+            }
+        });
+    }
+
+    private State ensureLoaded() {
+        State current = state;
+        if (current == null) {
+            synchronized (writeLock) {
+                if (state == null) {
+                    refresh();
+                }
+                current = state;
+            }
+        }
+        return current;
+    }
+
+    private static long valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static double valueOf(BigDecimal value) {
+        return value != null ? value.doubleValue() : 0.0;
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) : 0L;
+    }
+
+    private record RankingEntry(UUID recipeId, double score, long tieBreaker) {
+    }
+
+    private static final class RecipeCounters {
+        final UUID recipeId;
+        long likes;
+        long views;
+        long saves;
+        long ratingCount;
+        double averageRating;
+        long createdAt;
+        final Map<RankingFeed, RankingEntry> entries = new EnumMap<>(RankingFeed.class);
+
+        RecipeCounters(UUID recipeId) {
+            this.recipeId = recipeId;
+        }
+
+        RankingEntry entryFor(RankingFeed feed) {
+            return switch (feed) {
+                case POPULAR -> new RankingEntry(recipeId, likes * 2.0 + views * 0.5 + saves * 1.5, 0L);
+                case TRENDING -> new RankingEntry(recipeId, views + likes * 3.0 + ratingCount * 2.0, createdAt);
+                case TOP_RATED -> ratingCount >= TOP_RATED_MIN_RATING_COUNT
+                        ? new RankingEntry(recipeId, averageRating, ratingCount)
+                        : null;
+            };
+        }
+    }
+
+    /**
+     * Trạng thái bảng xếp hạng; chỉ bị thay đổi khi giữ writeLock, đọc không cần khóa
+     */
+    private static final class State {
+        final Map<UUID, RecipeCounters> counters = new HashMap<>();
+        final Map<RankingFeed, NavigableSet<RankingEntry>> rankings = new EnumMap<>(RankingFeed.class);
+        final Map<RankingFeed, AtomicInteger> sizes = new EnumMap<>(RankingFeed.class);
+
+        State() {
+            for (RankingFeed feed : RankingFeed.values()) {
+                rankings.put(feed, new ConcurrentSkipListSet<>(ENTRY_ORDER));
+                sizes.put(feed, new AtomicInteger());
+            }
+        }
+
+        void reindex(RecipeCounters counters) {
+            for (RankingFeed feed : RankingFeed.values()) {
+                RankingEntry previous = counters.entries.get(feed);
+                RankingEntry next = counters.entryFor(feed);
+                if (Objects.equals(previous, next)) {
+                    continue;
+                }
+                // Xóa entry cũ trước khi thêm entry mới để feed không bao giờ chứa một công thức hai lần
+                if (previous != null) {
+                    rankings.get(feed).remove(previous);
+                }
+                if (next != null) {
+                    rankings.get(feed).add(next);
+                    counters.entries.put(feed, next);
+                } else {
+                    counters.entries.remove(feed);
+                }
+                if (previous == null && next != null) {
+                    sizes.get(feed).incrementAndGet();
+                } else if (previous != null && next == null) {
+                    sizes.get(feed).decrementAndGet();
+                }
+            }
+        }
+
+        void unindex(RecipeCounters counters) {
+            counters.entries.forEach((feed, entry) -> {
+                rankings.get(feed).remove(entry);
+                sizes.get(feed).decrementAndGet();
+            });
+            counters.entries.clear();
+        }
+    }
+}
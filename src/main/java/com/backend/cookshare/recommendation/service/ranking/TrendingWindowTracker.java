@@ -0,0 +1,302 @@
+package com.backend.cookshare.recommendation.service.ranking;
+
+import com.backend.cookshare.common.transaction.AfterCommit;
+import com.backend.cookshare.recommendation.enums.TimePeriod;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Đếm sự kiện (view / like / rating) theo cửa sổ trượt cho từng công thức để trả lời
+ * "trending hôm nay / tuần này / tháng này / năm nay" mà không quét activity_logs hay recipes.
+ *
+ * Mỗi công thức giữ 3 vòng bucket: 24 bucket giờ (DAILY), 30 bucket ngày (WEEKLY, MONTHLY)
+ * và 52 bucket tuần (YEARLY). Bucket cũ được tái sử dụng khi vòng quay lại nên bộ nhớ cố định.
+ * Top-K của mỗi khoảng thời gian được dựng lại định kỳ, việc đọc chỉ cắt một đoạn của danh sách có sẵn.
+ *
+ * Trọng số giữ như điểm trending toàn thời gian: view = 1, like = 3, rating = 2.
+ * ALL_TIME không được xử lý ở đây mà dùng RecipeRankingEngine.
+ *
+ * Bộ đếm chỉ nằm trong bộ nhớ nên khi khởi động được nạp lại từ activity_logs (VIEW), recipe_likes và recipe_ratings
+ * của 52 tuần gần nhất: theo giờ trong 30 ngày gần nhất, theo ngày cho phần cũ hơn (chỉ dùng cho cửa sổ năm).
+ * Sự kiện xảy ra đúng lúc đang nạp có thể bị đếm hai lần. Like đã bị bỏ không còn trong recipe_likes nên không được nạp.
+ */
+@Component
+@Slf4j
+public class TrendingWindowTracker {
+
+    public static final int VIEW_WEIGHT = 1;
+    public static final int LIKE_WEIGHT = 3;
+    public static final int RATING_WEIGHT = 2;
+
+    static final long HOUR_MILLIS = 3_600_000L;
+    static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+    static final long WEEK_MILLIS = 7 * DAY_MILLIS;
+
+    private static final int HOURLY_BUCKETS = 24;
+    private static final int DAILY_BUCKETS = 30;
+    private static final int WEEKLY_BUCKETS = 52;
+
+    /**
+     * Tổng trọng số theo (công thức, giờ) trong 30 ngày gần nhất và theo (công thức, ngày) cho phần cũ hơn,
+     * sắp theo thời gian tăng dần để bucket mới luôn ghi đè bucket cũ cùng vị trí trong vòng
+     */
+    static final String SEED_SQL = "SELECT ev.recipe_id, "
+            + "DATE_TRUNC(CASE WHEN ev.created_at >= ? THEN 'hour' ELSE 'day' END, ev.created_at) AS bucket, "
+            + "SUM(ev.weight) AS weight FROM ("
+            + "SELECT e.target_id AS recipe_id, e.created_at, " + VIEW_WEIGHT + " AS weight FROM activity_logs e "
+            + "WHERE e.activity_type = 'VIEW' AND e.target_id IS NOT NULL AND e.created_at >= ? "
+            + "UNION ALL SELECT e.recipe_id, e.created_at, " + LIKE_WEIGHT + " FROM recipe_likes e WHERE e.created_at >= ? "
+            + "UNION ALL SELECT e.recipe_id, e.created_at, " + RATING_WEIGHT + " FROM recipe_ratings e WHERE e.created_at >= ?"
+            + ") ev GROUP BY 1, 2 ORDER BY 2";
+
+    private static final List<TimePeriod> WINDOWED_PERIODS =
+            List.of(TimePeriod.DAILY, TimePeriod.WEEKLY, TimePeriod.MONTHLY, TimePeriod.YEARLY);
+
+    private final ConcurrentHashMap<UUID, WindowCounters> counters = new ConcurrentHashMap<>();
+    private final Object rebuildLock = new Object();
+    private final JdbcTemplate jdbcTemplate;
+    private final int capacity;
+    private final long snapshotTtlMillis;
+    private final boolean seedEnabled;
+
+    private volatile Map<TimePeriod, List<UUID>> snapshots;
+    private volatile long snapshotBuiltAt;
+
+    public TrendingWindowTracker(
+            JdbcTemplate jdbcTemplate,
+            @Value("${cookshare.recommendation.trending-window.capacity:500}") int capacity,
+            @Value("${cookshare.recommendation.trending-window.refresh-interval-ms:60000}") long refreshIntervalMillis,
+            @Value("${cookshare.recommendation.trending-window.snapshot-ttl-ms:180000}") long snapshotTtlMillis,
+            @Value("${cookshare.recommendation.trending-window.seed-on-startup:true}") boolean seedOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = capacity;
+        // TTL dài hơn chu kỳ dựng lại để lúc bình thường lịch chạy nền dựng trước, request không phải tự dựng
+        this.snapshotTtlMillis = Math.max(snapshotTtlMillis, 2 * refreshIntervalMillis);
+        this.seedEnabled = seedOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        if (seedEnabled) {
+            seed(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Nạp bộ đếm từ các bảng sự kiện gốc rồi dựng lại top-K
+     *
+     * @return số dòng (công thức, bucket) đã nạp
+     */
+    int seed(long nowMillis) {
+        Timestamp hourlyFrom = new Timestamp(nowMillis - DAILY_BUCKETS * DAY_MILLIS);
+        Timestamp from = new Timestamp(nowMillis - WEEKLY_BUCKETS * WEEK_MILLIS);
+        int[] rows = {0};
+        try {
+            jdbcTemplate.query(SEED_SQL, rs -> {
+                record(rs.getObject(1, UUID.class), rs.getInt(3), rs.getTimestamp(2).getTime());
+                rows[0]++;
+            }, hourlyFrom, from, from, from);
+            rebuild(nowMillis);
+            log.info("Đã nạp {} bucket trending theo cửa sổ thời gian cho {} công thức", rows[0], counters.size());
+        } catch (Exception e) {
+            log.warn("Không thể nạp trending theo cửa sổ thời gian từ bảng sự kiện: {}", e.getMessage());
+        }
+        return rows[0];
+    }
+
+    public static boolean supports(TimePeriod period) {
+        return period != null && period != TimePeriod.ALL_TIME;
+    }
+
+    public void recordView(UUID recipeId) {
+        record(recipeId, VIEW_WEIGHT, System.currentTimeMillis());
+    }
+
+    /**
+     * Ghi nhận like / bỏ like; trong transaction thì chỉ ghi sau khi commit
+     */
+    public void recordLike(UUID recipeId, int delta) {
+        AfterCommit.run("cập nhật trending theo cửa sổ thời gian",
+                () -> record(recipeId, LIKE_WEIGHT * delta, System.currentTimeMillis()));
+    }
+
+    /**
+     * Ghi nhận một đánh giá mới; sửa đánh giá cũ không phải sự kiện mới nên bên gọi không ghi lại.
+     * Trong transaction thì chỉ ghi sau khi commit.
+     */
+    public void recordRating(UUID recipeId) {
+        AfterCommit.run("cập nhật trending theo cửa sổ thời gian",
+                () -> record(recipeId, RATING_WEIGHT, System.currentTimeMillis()));
+    }
+
+    void record(UUID recipeId, int weight, long nowMillis) {
+        if (recipeId == null || weight == 0) {
+            return;
+        }
+        counters.computeIfAbsent(recipeId, id -> new WindowCounters()).add(nowMillis, weight);
+    }
+
+    public void remove(UUID recipeId) {
+        if (recipeId != null) {
+            AfterCommit.run("cập nhật trending theo cửa sổ thời gian", () -> counters.remove(recipeId));
+        }
+    }
+
+    /**
+     * Lấy danh sách ID trending trong khoảng thời gian, bắt đầu từ offset
+     */
+    public List<UUID> getRankedIds(TimePeriod period, int offset, int limit) {
+        return getRankedIds(period, offset, limit, System.currentTimeMillis());
+    }
+
+    List<UUID> getRankedIds(TimePeriod period, int offset, int limit, long nowMillis) {
+        List<UUID> ranked = snapshot(period, nowMillis);
+        if (offset >= ranked.size()) {
+            return List.of();
+        }
+        return ranked.subList(offset, Math.min(ranked.size(), offset + limit));
+    }
+
+    public long count(TimePeriod period) {
+        return snapshot(period, System.currentTimeMillis()).size();
+    }
+
+    /**
+     * Dựng lại top-K cho mọi khoảng thời gian và dọn các công thức không còn sự kiện nào trong cửa sổ năm
+     */
+    @Scheduled(fixedDelayString = "${cookshare.recommendation.trending-window.refresh-interval-ms:60000}",
+            initialDelayString = "${cookshare.recommendation.trending-window.refresh-interval-ms:60000}")
+    public void refresh() {
+        rebuild(System.currentTimeMillis());
+    }
+
+    void rebuild(long nowMillis) {
+        synchronized (rebuildLock) {
+            Map<TimePeriod, PriorityQueue<ScoredRecipe>> heaps = new EnumMap<>(TimePeriod.class);
+            for (TimePeriod period : WINDOWED_PERIODS) {
+                heaps.put(period, new PriorityQueue<>(capacity + 1, ScoredRecipe.WORST_FIRST));
+            }
+
+            Iterator<Map.Entry<UUID, WindowCounters>> iterator = counters.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<UUID, WindowCounters> entry = iterator.next();
+                long[] totals = entry.getValue().totals(nowMillis);
+                if (totals[TimePeriod.YEARLY.ordinal()] <= 0) {
+                    iterator.remove();
+                    continue;
+                }
+                for (TimePeriod period : WINDOWED_PERIODS) {
+                    long score = totals[period.ordinal()];
+                    if (score <= 0) {
+                        continue;
+                    }
+                    PriorityQueue<ScoredRecipe> heap = heaps.get(period);
+                    heap.offer(new ScoredRecipe(entry.getKey(), score));
+                    if (heap.size() > capacity) {
+                        heap.poll();
+                    }
+                }
+            }
+
+            Map<TimePeriod, List<UUID>> rebuilt = new EnumMap<>(TimePeriod.class);
+            heaps.forEach((period, heap) -> {
+                List<ScoredRecipe> sorted = new ArrayList<>(heap);
+                sorted.sort(ScoredRecipe.WORST_FIRST.reversed());
+                rebuilt.put(period, sorted.stream().map(ScoredRecipe::recipeId).toList());
+            });
+            snapshots = rebuilt;
+            snapshotBuiltAt = nowMillis;
+            log.debug("Đã dựng trending theo cửa sổ thời gian: {} công thức đang theo dõi", counters.size());
+        }
+    }
+
+    private List<UUID> snapshot(TimePeriod period, long nowMillis) {
+        if (!supports(period)) {
+            throw new IllegalArgumentException("Khoảng thời gian không hỗ trợ trending theo cửa sổ: " + period);
+        }
+        if (snapshots == null || nowMillis - snapshotBuiltAt > snapshotTtlMillis) {
+            synchronized (rebuildLock) {
+                if (snapshots == null || nowMillis - snapshotBuiltAt > snapshotTtlMillis) {
+                    rebuild(nowMillis);
+                }
+            }
+        }
+        return snapshots.get(period);
+    }
+
+    private record ScoredRecipe(UUID recipeId, long score) {
+        static final Comparator<ScoredRecipe> WORST_FIRST = Comparator
+                .comparingLong(ScoredRecipe::score)
+                .thenComparing(ScoredRecipe::recipeId, Comparator.reverseOrder());
+    }
+
+    /**
+     * Các vòng bucket của một công thức. Mỗi bucket lưu kèm chỉ số giờ / ngày / tuần mà nó đang đại diện,
+     * bucket có chỉ số cũ được coi là rỗng và bị ghi đè ở lần ghi kế tiếp.
+     */
+    static final class WindowCounters {
+        private final int[] hourly = new int[HOURLY_BUCKETS];
+        private final long[] hourStamps = new long[HOURLY_BUCKETS];
+        private final int[] daily = new int[DAILY_BUCKETS];
+        private final long[] dayStamps = new long[DAILY_BUCKETS];
+        private final int[] weekly = new int[WEEKLY_BUCKETS];
+        private final long[] weekStamps = new long[WEEKLY_BUCKETS];
+
+        WindowCounters() {
+            Arrays.fill(hourStamps, -1);
+            Arrays.fill(dayStamps, -1);
+            Arrays.fill(weekStamps, -1);
+        }
+
+        synchronized void add(long nowMillis, int weight) {
+            addTo(hourly, hourStamps, nowMillis / HOUR_MILLIS, weight);
+            addTo(daily, dayStamps, nowMillis / DAY_MILLIS, weight);
+            addTo(weekly, weekStamps, nowMillis / WEEK_MILLIS, weight);
+        }
+
+        /**
+         * Tổng điểm theo từng TimePeriod, đánh chỉ số bằng ordinal
+         */
+        synchronized long[] totals(long nowMillis) {
+            long[] totals = new long[TimePeriod.values().length];
+            long hour = nowMillis / HOUR_MILLIS;
+            long day = nowMillis / DAY_MILLIS;
+            long week = nowMillis / WEEK_MILLIS;
+            totals[TimePeriod.DAILY.ordinal()] = sum(hourly, hourStamps, hour, HOURLY_BUCKETS);
+            totals[TimePeriod.WEEKLY.ordinal()] = sum(daily, dayStamps, day, 7);
+            totals[TimePeriod.MONTHLY.ordinal()] = sum(daily, dayStamps, day, DAILY_BUCKETS);
+            totals[TimePeriod.YEARLY.ordinal()] = sum(weekly, weekStamps, week, WEEKLY_BUCKETS);
+            return totals;
+        }
+
+        private static void addTo(int[] buckets, long[] stamps, long index, int weight) {
+            int slot = (int) Math.floorMod(index, (long) buckets.length);
+            if (stamps[slot] != index) {
+                stamps[slot] = index;
+                buckets[slot] = 0;
+            }
+            buckets[slot] += weight;
+        }
+
+        private static long sum(int[] buckets, long[] stamps, long current, int span) {
+            long total = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                long age = current - stamps[i];
+                if (stamps[i] >= 0 && age >= 0 && age < span) {
+                    total += buckets[i];
+                }
+            }
+            return Math.max(0, total);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.backend.cookshare.recommendation.service.sampler;
+
+import com.backend.cookshare.common.transaction.AfterCommit;
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Index gọn trong bộ nhớ chứa ID của các công thức đã publish để chọn gợi ý hàng ngày.
+ * ID được lưu dưới dạng 2 mảng long đã sắp xếp (16 byte/công thức), không giữ entity.
+ * Index được cập nhật tăng dần sau khi transaction ghi commit (duyệt / ẩn / xóa) và làm mới định kỳ từ DB,
+ * nên một transaction bị rollback không để lại công thức chưa duyệt trong gợi ý hàng ngày.
+ */
+@Component
+@Slf4j
+public class DailyRecipeSampler {
+
+    private final RecipeRepository recipeRepository;
+    private final Object writeLock = new Object();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded = false;
+
+    public DailyRecipeSampler(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    /**
+     * Chọn tối đa {@code count} ID công thức một cách tất định theo seed.
+     * Tương đương {@code count} bước đầu của Fisher-Yates (duyệt từ cuối mảng),
+     * nhưng chỉ ghi nhớ các vị trí đã hoán đổi nên chi phí là O(count) thay vì O(n).
+     */
+    public List<UUID> sample(long seed, int count) {
+        ensureLoaded();
+        Snapshot current = snapshot;
+        int n = current.size();
+        if (n == 0 || count <= 0) {
+            return List.of();
+        }
+
+        int picks = Math.min(count, n);
+        Random random = new Random(seed);
+        Map<Integer, Integer> swapped = new HashMap<>();
+        List<UUID> result = new ArrayList<>(picks);
+
+        for (int i = n - 1; i >= n - picks; i--) {
+            int j = random.nextInt(i + 1);
+            int valueAtJ = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+            result.add(current.idAt(valueAtJ));
+        }
+
+        return result;
+    }
+
+    /**
+     * Đồng bộ một công thức vào index dựa trên trạng thái hiện tại của nó
+     */
+    public void sync(Recipe recipe) {
+        if (recipe == null || recipe.getRecipeId() == null) {
+            return;
+        }
+        if (isPublished(recipe)) {
+            add(recipe.getRecipeId());
+        } else {
+            remove(recipe.getRecipeId());
+        }
+    }
+
+    public void add(UUID recipeId) {
+        if (!loaded || recipeId == null) {
+            return; // Sẽ được nạp đầy đủ ở lần đọc đầu tiên
+        }
+        AfterCommit.run("cập nhật index gợi ý hàng ngày", () -> insert(recipeId));
+    }
+
+    public void remove(UUID recipeId) {
+        if (!loaded || recipeId == null) {
+            return;
+        }
+        AfterCommit.run("cập nhật index gợi ý hàng ngày", () -> delete(recipeId));
+    }
+
+    private void insert(UUID recipeId) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            int index = current.indexOf(recipeId);
+            if (index >= 0) {
+                return;
+            }
+            snapshot = current.insertAt(-index - 1, recipeId);
+        }
+    }
+
+    private void delete(UUID recipeId) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            int index = current.indexOf(recipeId);
+            if (index < 0) {
+                return;
+            }
+            snapshot = current.removeAt(index);
+        }
+    }
+
+    /**
+     * Nạp lại toàn bộ index từ DB để sửa các sai lệch do cập nhật tăng dần bị bỏ lỡ
+     */
+    @Scheduled(fixedDelayString = "${cookshare.recommendation.daily-index.refresh-interval-ms:3600000}",
+            initialDelayString = "${cookshare.recommendation.daily-index.refresh-interval-ms:3600000}")
+    public void refresh() {
+        synchronized (writeLock) {
+            List<UUID> ids = recipeRepository.findPublishedRecipeIds();
+            snapshot = Snapshot.of(ids);
+            loaded = true;
+            log.info("Đã nạp index gợi ý hàng ngày: {} công thức", snapshot.size());
+        }
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    public static boolean isPublished(Recipe recipe) {
+        return Boolean.TRUE.equals(recipe.getIsPublished()) && recipe.getStatus() == RecipeStatus.APPROVED;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (writeLock) {
+                if (!loaded) {
+                    refresh();
+                }
+            }
+        }
+    }
+
+    /**
+     * Mảng UUID bất biến, sắp xếp theo thứ tự không dấu (giống thứ tự uuid của PostgreSQL)
+     */
+    private record Snapshot(long[] mostSigBits, long[] leastSigBits) {
+
+        static final Snapshot EMPTY = new Snapshot(new long[0], new long[0]);
+
+        static Snapshot of(Collection<UUID> ids) {
+            UUID[] sorted = ids.stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted(Snapshot::compare)
+                    .toArray(UUID[]::new);
+
+            long[] msb = new long[sorted.length];
+            long[] lsb = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                msb[i] = sorted[i].getMostSignificantBits();
+                lsb[i] = sorted[i].getLeastSignificantBits();
+            }
+            return new Snapshot(msb, lsb);
+        }
+
+        int size() {
+            return mostSigBits.length;
+        }
+
+        UUID idAt(int index) {
+            return new UUID(mostSigBits[index], leastSigBits[index]);
+        }
+
+        int indexOf(UUID id) {
+            long msb = id.getMostSignificantBits();
+            long lsb = id.getLeastSignificantBits();
+            int low = 0;
+            int high = size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = Long.compareUnsigned(mostSigBits[mid], msb);
+                if (cmp == 0) {
+                    cmp = Long.compareUnsigned(leastSigBits[mid], lsb);
+                }
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        Snapshot insertAt(int position, UUID id) {
+            int n = size();
+            long[] msb = new long[n + 1];
+            long[] lsb = new long[n + 1];
+            System.arraycopy(mostSigBits, 0, msb, 0, position);
+            System.arraycopy(leastSigBits, 0, lsb, 0, position);
+            msb[position] = id.getMostSignificantBits();
+            lsb[position] = id.getLeastSignificantBits();
+            System.arraycopy(mostSigBits, position, msb, position + 1, n - position);
+            System.arraycopy(leastSigBits, position, lsb, position + 1, n - position);
+            return new Snapshot(msb, lsb);
+        }
+
+        Snapshot removeAt(int position) {
+            int n = size();
+            long[] msb = new long[n - 1];
+            long[] lsb = new long[n - 1];
+            System.arraycopy(mostSigBits, 0, msb, 0, position);
+            System.arraycopy(leastSigBits, 0, lsb, 0, position);
+            System.arraycopy(mostSigBits, position + 1, msb, position, n - position - 1);
+            System.arraycopy(leastSigBits, position + 1, lsb, position, n - position - 1);
+            return new Snapshot(msb, lsb);
+        }
+
+        private static int compare(UUID a, UUID b) {
+            int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+            return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+        }
+    }
+}
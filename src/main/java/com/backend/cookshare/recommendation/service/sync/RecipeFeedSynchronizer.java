@@ -0,0 +1,121 @@
+package com.backend.cookshare.recommendation.service.sync;
+
+import com.backend.cookshare.admin_report.service.rollup.RollupMetric;
+import com.backend.cookshare.admin_report.service.sketch.InteractionSketchService;
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.service.search.IngredientRecipeIndex;
+import com.backend.cookshare.recipe_management.service.search.RecipeSearchIndex;
+import com.backend.cookshare.recipe_management.service.search.TypeaheadService;
+import com.backend.cookshare.recommendation.service.ranking.RecipeRankingEngine;
+import com.backend.cookshare.recommendation.service.ranking.TrendingWindowTracker;
+import com.backend.cookshare.recommendation.service.sampler.DailyRecipeSampler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Điểm duy nhất để các luồng ghi (duyệt, ẩn, xóa, like, view, save, rating, bình luận)
+ * thông báo thay đổi cho các cấu trúc gợi ý, index tìm kiếm và sketch thống kê trong bộ nhớ.
+ * Các index (gợi ý hàng ngày, xếp hạng, trending theo cửa sổ, tìm kiếm, typeahead, sketch) tự chờ transaction của luồng gọi commit
+ * rồi mới thay đổi, nên gọi ở đây ngay trong transaction là an toàn.
+ * Lỗi đồng bộ chỉ được log, không làm hỏng luồng ghi chính.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecipeFeedSynchronizer {
+
+    private final DailyRecipeSampler dailyRecipeSampler;
+    private final RecipeRankingEngine recipeRankingEngine;
+    private final TrendingWindowTracker trendingWindowTracker;
+    private final RecipeSearchIndex recipeSearchIndex;
+    private final IngredientRecipeIndex ingredientRecipeIndex;
+    private final TypeaheadService typeaheadService;
+    private final InteractionSketchService interactionSketchService;
+
+    public void recipeChanged(Recipe recipe) {
+        try {
+            dailyRecipeSampler.sync(recipe);
+            recipeRankingEngine.sync(recipe);
+            recipeSearchIndex.sync(recipe);
+            ingredientRecipeIndex.sync(recipe);
+            typeaheadService.syncRecipe(recipe);
+            if (!DailyRecipeSampler.isPublished(recipe)) {
+                trendingWindowTracker.remove(recipe.getRecipeId());
+            }
+        } catch (Exception e) {
+            log.warn("Không thể đồng bộ feed cho recipe {}: {}",
+                    recipe != null ? recipe.getRecipeId() : null, e.getMessage());
+        }
+    }
+
+    public void recipeDeleted(UUID recipeId) {
+        try {
+            dailyRecipeSampler.remove(recipeId);
+            recipeRankingEngine.remove(recipeId);
+            trendingWindowTracker.remove(recipeId);
+            recipeSearchIndex.remove(recipeId);
+            ingredientRecipeIndex.remove(recipeId);
+            typeaheadService.removeRecipe(recipeId);
+        } catch (Exception e) {
+            log.warn("Không thể xóa recipe {} khỏi feed: {}", recipeId, e.getMessage());
+        }
+    }
+
+    public void likeChanged(UUID recipeId, int delta) {
+        try {
+            recipeRankingEngine.addLikes(recipeId, delta);
+            trendingWindowTracker.recordLike(recipeId, delta);
+            if (delta > 0) {
+                interactionSketchService.record(RollupMetric.LIKE, recipeId);
+            }
+        } catch (Exception e) {
+            log.warn("Không thể cập nhật like cho recipe {}: {}", recipeId, e.getMessage());
+        }
+    }
+
+    public void viewed(UUID recipeId) {
+        try {
+            recipeRankingEngine.addViews(recipeId, 1);
+            trendingWindowTracker.recordView(recipeId);
+        } catch (Exception e) {
+            log.warn("Không thể cập nhật view cho recipe {}: {}", recipeId, e.getMessage());
+        }
+    }
+
+    public void saveChanged(UUID recipeId, int delta) {
+        try {
+            recipeRankingEngine.addSaves(recipeId, delta);
+            if (delta > 0) {
+                interactionSketchService.record(RollupMetric.SAVE, recipeId);
+            }
+        } catch (Exception e) {
+            log.warn("Không thể cập nhật save cho recipe {}: {}", recipeId, e.getMessage());
+        }
+    }
+
+    public void commentAdded(UUID recipeId) {
+        try {
+            interactionSketchService.record(RollupMetric.COMMENT, recipeId);
+        } catch (Exception e) {
+            log.warn("Không thể cập nhật bình luận cho recipe {}: {}", recipeId, e.getMessage());
+        }
+    }
+
+    /**
+     * @param newRating true nếu là đánh giá mới; sửa đánh giá cũ chỉ cập nhật điểm trung bình, không tính thêm trending
+     */
+    public void ratingChanged(UUID recipeId, int ratingCount, BigDecimal averageRating, boolean newRating) {
+        try {
+            recipeRankingEngine.updateRating(recipeId, ratingCount, averageRating);
+            if (newRating) {
+                trendingWindowTracker.recordRating(recipeId);
+            }
+        } catch (Exception e) {
+            log.warn("Không thể cập nhật rating cho recipe {}: {}", recipeId, e.getMessage());
+        }
+    }
+}
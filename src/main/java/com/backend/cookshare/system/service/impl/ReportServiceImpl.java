@@ -1,5 +1,6 @@
 package com.backend.cookshare.system.service.impl;
 
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.authentication.util.SecurityUtil;
 import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.common.exception.CustomException;
@@ -49,6 +50,7 @@ public class ReportServiceImpl implements ReportService {
     ReportQueryRepository reportQueryRepository;
     ReportGroupRepository groupRepository;
     SecurityUtil securityUtil;
+    CurrentUserResolver currentUserResolver;
 
     ReportValidator validator;
     ReportMapper mapper;
@@ -335,9 +337,7 @@ public class ReportServiceImpl implements ReportService {
     }
 
     private UUID getCurrentUserId() {
-        String username = getCurrentUsername();
-        return reportQueryRepository.findUserIdByUsername(username)
-                .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
+        return currentUserResolver.requireCurrentUserId();
     }
 
     private String getCurrentUsername() {
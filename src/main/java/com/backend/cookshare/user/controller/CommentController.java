@@ -2,6 +2,7 @@ package com.backend.cookshare.user.controller;
 
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.common.dto.CursorPageResponse;
 import com.backend.cookshare.user.dto.CommentRequest;
 import com.backend.cookshare.user.dto.CommentResponse;
 import com.backend.cookshare.user.service.CommentService;
@@ -41,6 +42,19 @@ public class CommentController {
         return ResponseEntity.ok(comments);
     }
 
+    /**
+     * Lấy comment gốc của một recipe theo cursor, không đếm tổng số
+     * GET /api/comments/recipe/{recipeId}/cursor?cursor=...&size=10
+     */
+    @GetMapping("/recipe/{recipeId}/cursor")
+    public ResponseEntity<CursorPageResponse<CommentResponse>> getRecipeCommentSlice(
+            @PathVariable UUID recipeId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return ResponseEntity.ok(commentService.getRecipeCommentSlice(recipeId, cursor, size));
+    }
+
     /**
      * Lấy danh sách reply của một comment
      * GET /api/comments/{commentId}/replies
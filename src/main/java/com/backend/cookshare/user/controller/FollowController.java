@@ -1,6 +1,7 @@
 package com.backend.cookshare.user.controller;
 
 import com.backend.cookshare.common.dto.ApiResponse;
+import com.backend.cookshare.common.dto.CursorPageResponse;
 import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.user.dto.FollowRequest;
 import com.backend.cookshare.user.dto.FollowResponse;
@@ -94,6 +95,38 @@ public class FollowController {
                 .build());
     }
 
+    //Lấy danh sách follower theo cursor, không đếm tổng số.
+    @GetMapping("/{userId}/followers/cursor")
+    public ResponseEntity<ApiResponse<CursorPageResponse<UserFollowDto>>> getFollowerSlice(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        log.info("GET /users/{}/followers/cursor?size={}", userId, size);
+
+        return ResponseEntity.ok(ApiResponse.<CursorPageResponse<UserFollowDto>>builder()
+                .code(HttpStatus.OK.value())
+                .message("Lấy danh sách followers thành công")
+                .data(followService.getFollowerSlice(userId, cursor, size))
+                .build());
+    }
+
+    //Lấy danh sách following theo cursor, không đếm tổng số.
+    @GetMapping("/{userId}/following/cursor")
+    public ResponseEntity<ApiResponse<CursorPageResponse<UserFollowDto>>> getFollowingSlice(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        log.info("GET /users/{}/following/cursor?size={}", userId, size);
+
+        return ResponseEntity.ok(ApiResponse.<CursorPageResponse<UserFollowDto>>builder()
+                .code(HttpStatus.OK.value())
+                .message("Lấy danh sách following thành công")
+                .data(followService.getFollowingSlice(userId, cursor, size))
+                .build());
+    }
+
     //Kiểm tra trạng thái follow giữa hai người dùng.
     @GetMapping("/{userId}/follow/check/{targetUserId}")
     public ResponseEntity<ApiResponse<Boolean>> checkFollowStatus(
@@ -123,4 +156,16 @@ public class FollowController {
                 .build();
     }
 
+    @GetMapping("/following/recipes/cursor")
+    public ApiResponse<CursorPageResponse<RecipeByFollowingResponse>> getRecipesByFollowingSlice(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ApiResponse.<CursorPageResponse<RecipeByFollowingResponse>>builder()
+                .code(HttpStatus.OK.value())
+                .message("Lấy thành công")
+                .data(followService.getRecipesByFollowingSlice(cursor, size))
+                .build();
+    }
+
 }
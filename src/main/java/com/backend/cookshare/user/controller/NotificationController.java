@@ -2,6 +2,8 @@ package com.backend.cookshare.user.controller;
 
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
+import com.backend.cookshare.common.dto.CursorPageResponse;
 import com.backend.cookshare.user.dto.NotificationResponse;
 import com.backend.cookshare.user.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +22,7 @@ public class NotificationController {
 
     private final NotificationService notificationService;
     private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
 
     /**
      * Lấy danh sách notification của user
@@ -38,6 +41,19 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    /**
+     * Lấy notification của user theo cursor, không đếm tổng số
+     * GET /api/notifications/cursor?cursor=...&size=20
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<NotificationResponse>> getNotificationSlice(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        UUID userId = currentUserResolver.requireCurrentUserId();
+        return ResponseEntity.ok(notificationService.getUserNotificationSlice(userId, cursor, size));
+    }
+
     /**
      * Đếm số notification chưa đọc
      * GET /api/notifications/unread-count
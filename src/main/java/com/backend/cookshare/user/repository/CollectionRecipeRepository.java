@@ -9,6 +9,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,6 +21,13 @@ public interface CollectionRecipeRepository extends JpaRepository<CollectionReci
 
     Optional<CollectionRecipe> findByCollectionIdAndRecipeId(UUID collectionId, UUID recipeId);
 
+    // Các bộ sưu tập của user có chứa từng công thức trong danh sách
+    @Query("SELECT cr.recipeId AS recipeId, cr.collectionId AS collectionId FROM CollectionRecipe cr " +
+            "JOIN Collection c ON c.collectionId = cr.collectionId " +
+            "WHERE c.userId = :userId AND cr.recipeId IN :recipeIds")
+    List<SavedRecipeProjection> findSavedRecipes(@Param("userId") UUID userId,
+                                                 @Param("recipeIds") Collection<UUID> recipeIds);
+
     @Query("SELECT COUNT(cr) FROM CollectionRecipe cr WHERE cr.collectionId = :collectionId")
     long countByCollectionId(@Param("collectionId") UUID collectionId);
 
@@ -48,4 +57,8 @@ public interface CollectionRecipeRepository extends JpaRepository<CollectionReci
             Pageable pageable
     );
 
-}
\ No newline at end of file
+    interface SavedRecipeProjection {
+        UUID getRecipeId();
+        UUID getCollectionId();
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,6 +20,15 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
     @Query("SELECT c FROM Comment c WHERE c.recipeId = :recipeId AND c.parentCommentId IS NULL ORDER BY c.createdAt DESC")
     Page<Comment> findRootCommentsByRecipeId(@Param("recipeId") UUID recipeId, Pageable pageable);
 
+    // Lấy comment gốc của recipe theo cursor (created_at, comment_id), không đếm tổng
+    @Query(value = "SELECT * FROM comments WHERE recipe_id = :recipeId AND parent_comment_id IS NULL "
+            + "AND (created_at, comment_id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, comment_id DESC LIMIT :limit", nativeQuery = true)
+    List<Comment> findRootCommentSlice(@Param("recipeId") UUID recipeId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") UUID id,
+                                       @Param("limit") int limit);
+
     // Lấy tất cả reply của một comment
     @Query("SELECT c FROM Comment c WHERE c.parentCommentId = :parentCommentId ORDER BY c.createdAt ASC")
     List<Comment> findRepliesByParentCommentId(@Param("parentCommentId") UUID parentCommentId);
@@ -29,4 +40,15 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
     // Lấy comment theo ID với user info
     @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.user WHERE c.commentId = :commentId")
     Comment findByIdWithUser(@Param("commentId") UUID commentId);
+
+    // Lấy recipeId và người viết của nhiều comment trong một câu truy vấn
+    @Query("SELECT c.commentId AS commentId, c.recipeId AS recipeId, c.userId AS userId " +
+            "FROM Comment c WHERE c.commentId IN :commentIds")
+    List<CommentSummaryProjection> findSummariesByCommentIdIn(@Param("commentIds") Collection<UUID> commentIds);
+
+    interface CommentSummaryProjection {
+        UUID getCommentId();
+        UUID getRecipeId();
+        UUID getUserId();
+    }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,6 +40,24 @@ public interface FollowRepository extends JpaRepository<Follow,FollowId> {
     @Query("SELECT f.followerId FROM Follow f WHERE f.followingId = :userId")
     Page<UUID> findFollowerIds(@Param("userId") UUID userId, Pageable pageable);
 
+    //Lấy quan hệ follow tới một người dùng theo cursor (created_at, follower_id), không đếm tổng.
+    @Query(value = "SELECT * FROM follows WHERE following_id = :userId "
+            + "AND (created_at, follower_id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, follower_id DESC LIMIT :limit", nativeQuery = true)
+    List<Follow> findFollowerSlice(@Param("userId") UUID userId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") UUID id,
+                                   @Param("limit") int limit);
+
+    //Lấy quan hệ follow của một người dùng theo cursor (created_at, following_id), không đếm tổng.
+    @Query(value = "SELECT * FROM follows WHERE follower_id = :userId "
+            + "AND (created_at, following_id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, following_id DESC LIMIT :limit", nativeQuery = true)
+    List<Follow> findFollowingSlice(@Param("userId") UUID userId,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") UUID id,
+                                    @Param("limit") int limit);
+
     // Lấy tất cả follower IDs (không phân trang) - DÙNG ĐỂ GỬI NOTIFICATION
     @Query("SELECT f.followerId FROM Follow f WHERE f.followingId = :userId")
     List<UUID> findAllFollowerIdsByUser(@Param("userId") UUID userId);
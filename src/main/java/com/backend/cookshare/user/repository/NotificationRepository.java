@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,6 +17,17 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
     // Lấy danh sách notification của user
     Page<Notification> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
 
+    // Lấy notification của user theo cursor (created_at, notification_id), không đếm tổng
+    @Query(value = "SELECT * FROM notifications WHERE user_id = :userId "
+            + "AND (created_at, notification_id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, notification_id DESC LIMIT :limit", nativeQuery = true)
+    List<Notification> findSliceByUserId(
+            @Param("userId") UUID userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            @Param("limit") int limit
+    );
+
     // Đếm số notification chưa đọc
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.userId = :userId AND n.isRead = false")
     Long countUnreadByUserId(@Param("userId") UUID userId);
@@ -2,26 +2,29 @@ package com.backend.cookshare.user.service;
 
 import com.backend.cookshare.user.entity.ActivityLog;
 import com.backend.cookshare.user.enums.ActivityType;
-import com.backend.cookshare.user.repository.ActivityLogRepository;
+import com.backend.cookshare.user.service.pipeline.ActivityLogPipeline;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ActivityLogService {
 
-    private final ActivityLogRepository activityLogRepository;
+    private static final int MAX_HEADER_LENGTH = 255;
+
+    private final ActivityLogPipeline activityLogPipeline;
 
     /**
      * Log hoạt động comment
      */
-    @Transactional
     public void logCommentActivity(UUID userId, UUID commentId, UUID recipeId, String action) {
         ActivityType activityType = switch (action) {
             case "CREATE" -> ActivityType.CREATE;
@@ -36,7 +39,6 @@ public class ActivityLogService {
     /**
      * Log hoạt động like
      */
-    @Transactional
     public void logLikeActivity(UUID userId, UUID recipeId, String action) {
         ActivityType activityType = action.equals("CREATE") ? ActivityType.CREATE : ActivityType.DELETE;
         logActivity(userId, activityType, recipeId);
@@ -45,7 +47,6 @@ public class ActivityLogService {
     /**
      * Log hoạt động follow
      */
-    @Transactional
     public void logFollowActivity(UUID userId, UUID targetUserId, String action) {
         ActivityType activityType = action.equals("CREATE") ? ActivityType.CREATE : ActivityType.DELETE;
         logActivity(userId, activityType, targetUserId);
@@ -54,16 +55,13 @@ public class ActivityLogService {
     /**
      * Log hoạt động xem recipe (đồng bộ)
      */
-    @Transactional
     public void logViewActivity(UUID userId, UUID recipeId) {
         logActivity(userId, ActivityType.VIEW, recipeId);
     }
 
     /**
-     * Log hoạt động xem recipe (bất đồng bộ - không block API response)
+     * Log hoạt động xem recipe (không block API response - việc ghi DB do ActivityLogPipeline đảm nhận)
      */
-    @org.springframework.scheduling.annotation.Async
-    @Transactional
     public void logViewActivityAsync(UUID userId, UUID recipeId) {
         logActivity(userId, ActivityType.VIEW, recipeId);
     }
@@ -71,7 +69,6 @@ public class ActivityLogService {
     /**
      * Log hoạt động tìm kiếm
      */
-    @Transactional
     public void logSearchActivity(UUID userId, String searchQuery) {
         logActivity(userId, ActivityType.SEARCH, null);
     }
@@ -79,7 +76,6 @@ public class ActivityLogService {
     /**
      * Log hoạt động login/logout
      */
-    @Transactional
     public void logAuthActivity(UUID userId, ActivityType activityType) {
         if (activityType == ActivityType.LOGIN || activityType == ActivityType.LOGOUT) {
             logActivity(userId, activityType, null);
@@ -89,7 +85,6 @@ public class ActivityLogService {
     /**
      * Log hoạt động share
      */
-    @Transactional
     public void logShareActivity(UUID userId, UUID recipeId) {
         logActivity(userId, ActivityType.SHARE, recipeId);
     }
@@ -97,7 +92,6 @@ public class ActivityLogService {
     /**
      * Log hoạt động download
      */
-    @Transactional
     public void logDownloadActivity(UUID userId, UUID recipeId) {
         logActivity(userId, ActivityType.DOWNLOAD, recipeId);
     }
@@ -105,7 +99,6 @@ public class ActivityLogService {
     /**
      * Log hoạt động print
      */
-    @Transactional
     public void logPrintActivity(UUID userId, UUID recipeId) {
         logActivity(userId, ActivityType.PRINT, recipeId);
     }
@@ -113,7 +106,6 @@ public class ActivityLogService {
     /**
      * Log hoạt động collection (tạo, xóa, thêm recipe, xóa recipe)
      */
-    @Transactional
     public void logCollectionActivity(UUID userId, UUID collectionId, String action) {
         ActivityType activityType = switch (action) {
             case "CREATE" -> ActivityType.CREATE;
@@ -130,7 +122,6 @@ public class ActivityLogService {
     /**
      * Log hoạt động recipe (tạo, sửa, xóa, duyệt) - đồng bộ
      */
-    @Transactional
     public void logRecipeActivity(UUID userId, UUID recipeId, String action) {
         ActivityType activityType = switch (action) {
             case "CREATE" -> ActivityType.CREATE;
@@ -145,10 +136,8 @@ public class ActivityLogService {
     }
 
     /**
-     * Log hoạt động recipe (tạo, sửa, xóa, duyệt) - bất đồng bộ
+     * Log hoạt động recipe (tạo, sửa, xóa, duyệt) - không block, việc ghi DB do ActivityLogPipeline đảm nhận
      */
-    @org.springframework.scheduling.annotation.Async
-    @Transactional
     public void logRecipeActivityAsync(UUID userId, UUID recipeId, String action) {
         ActivityType activityType = switch (action) {
             case "CREATE" -> ActivityType.CREATE;
@@ -163,7 +152,9 @@ public class ActivityLogService {
     }
 
     /**
-     * Core method để log activity với thông tin request
+     * Core method để log activity với thông tin request.
+     * Thông tin request được lấy ngay trên luồng gọi (luồng @Async không có RequestContextHolder),
+     * còn việc ghi xuống DB được gom theo lô trong ActivityLogPipeline.
      */
     private void logActivity(UUID userId, ActivityType activityType, UUID targetId) {
         try {
@@ -178,26 +169,34 @@ public class ActivityLogService {
             if (attributes != null) {
                 HttpServletRequest request = attributes.getRequest();
                 ipAddress = getClientIpAddress(request);
-                userAgent = request.getHeader("User-Agent");
-                referrer = request.getHeader("Referer");
+                userAgent = truncate(request.getHeader("User-Agent"));
+                referrer = truncate(request.getHeader("Referer"));
             }
 
-            ActivityLog log = ActivityLog.builder()
+            ActivityLog activityLog = ActivityLog.builder()
                     .userId(userId)
                     .activityType(activityType)
                     .targetId(targetId)
                     .ipAddress(ipAddress)
                     .userAgent(userAgent)
                     .referrer(referrer)
+                    .createdAt(LocalDateTime.now())
                     .build();
 
-            activityLogRepository.save(log);
+            activityLogPipeline.submit(activityLog);
         } catch (Exception e) {
             // Log error nhưng không throw exception để không ảnh hưởng business logic
-            System.err.println("Error logging activity: " + e.getMessage());
+            log.warn("Không thể ghi nhận activity {} của user {}: {}", activityType, userId, e.getMessage());
         }
     }
 
+    /**
+     * Cắt header về độ dài cột, tránh một bản ghi lỗi làm hỏng cả batch insert
+     */
+    private String truncate(String value) {
+        return value != null && value.length() > MAX_HEADER_LENGTH ? value.substring(0, MAX_HEADER_LENGTH) : value;
+    }
+
     /**
      * Lấy IP address thực của client
      */
@@ -9,6 +9,7 @@ import com.backend.cookshare.common.exception.ErrorCode;
 import com.backend.cookshare.common.mapper.PageMapper;
 import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import com.backend.cookshare.user.dto.*;
 import com.backend.cookshare.user.entity.Collection;
 import com.backend.cookshare.user.entity.CollectionRecipe;
@@ -39,6 +40,7 @@ public class CollectionService {
     private final UserRepository userRepository;
     private final FirebaseStorageService fileStorageService;
     private final ActivityLogService activityLogService;
+    private final RecipeFeedSynchronizer recipeFeedSynchronizer;
 
     @Transactional
     public CollectionResponse createCollectionWithImage(UUID userId, CreateCollectionRequest request, MultipartFile coverImage) {
@@ -282,6 +284,7 @@ public class CollectionService {
         recipe.setSaveCount(recipe.getSaveCount() + 1);
         log.info("SaveCount {}", recipe.getSaveCount());
         collectionRepository.save(collection);
+        recipeFeedSynchronizer.saveChanged(recipeId, 1);
 
         // LOG ACTIVITY: Thêm recipe vào collection
         // targetId = collectionId (có thể thay bằng recipeId tùy nhu cầu phân tích)
@@ -315,6 +318,7 @@ public class CollectionService {
         collection.setRecipeCount(Math.max(0, collection.getRecipeCount() - 1));
         recipe.setSaveCount(Math.max(0, recipe.getSaveCount() - 1));
         collectionRepository.save(collection);
+        recipeFeedSynchronizer.saveChanged(recipeId, -1);
 
         // LOG ACTIVITY: Xóa recipe khỏi collection
         activityLogService.logCollectionActivity(userId, collectionId, "REMOVE_RECIPE");
@@ -2,8 +2,12 @@ package com.backend.cookshare.user.service;
 
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.common.dto.CursorPageResponse;
+import com.backend.cookshare.common.dto.PageCursor;
+import com.backend.cookshare.common.mapper.PageMapper;
 import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import com.backend.cookshare.user.dto.*;
 import com.backend.cookshare.user.entity.Comment;
 import com.backend.cookshare.user.repository.CommentRepository;
@@ -29,6 +33,7 @@ public class CommentService {
     private final RecipeRepository recipeRepository;
     private final NotificationService notificationService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final RecipeFeedSynchronizer recipeFeedSynchronizer;
 
     public Page<CommentResponse> getRecipeComments(UUID recipeId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
@@ -36,6 +41,16 @@ public class CommentService {
         return comments.map(this::convertToResponse);
     }
 
+    public CursorPageResponse<CommentResponse> getRecipeCommentSlice(UUID recipeId, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Comment> rows = commentRepository.findRootCommentSlice(
+                recipeId, after.createdAt(), after.id(), pageSize + 1);
+        return PageMapper.toCursorPageResponse(rows, pageSize,
+                c -> new PageCursor(c.getCreatedAt(), c.getCommentId()),
+                slice -> slice.stream().map(this::convertToResponse).collect(Collectors.toList()));
+    }
+
     public List<CommentResponse> getCommentReplies(UUID commentId) {
         List<Comment> replies = commentRepository.findRepliesByParentCommentId(commentId);
         return replies.stream()
@@ -62,6 +77,7 @@ public class CommentService {
                 .build();
 
         comment = commentRepository.save(comment);
+        recipeFeedSynchronizer.commentAdded(request.getRecipeId());
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -2,30 +2,40 @@ package com.backend.cookshare.user.service;
 
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.authentication.service.FirebaseStorageService;
+import com.backend.cookshare.common.dto.CursorPageResponse;
+import com.backend.cookshare.common.dto.PageCursor;
 import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
 import com.backend.cookshare.common.mapper.PageMapper;
+import com.backend.cookshare.common.service.counter.CounterDeltaBuffer;
+import com.backend.cookshare.common.service.counter.CounterType;
 import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
 import com.backend.cookshare.recipe_management.mapper.RecipeMapper;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
 import com.backend.cookshare.user.dto.*;
 import com.backend.cookshare.user.entity.Follow;
 import com.backend.cookshare.user.repository.FollowRepository;
+import com.backend.cookshare.user.service.timeline.HomeTimelineService;
+import com.backend.cookshare.user.service.timeline.HomeTimelineService.TimelineEntry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,6 +50,9 @@ public class FollowService {
     private final RecipeMapper recipeMapper;
     private final FirebaseStorageService firebaseStorageService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final CounterDeltaBuffer counterDeltaBuffer;
+    private final CurrentUserResolver currentUserResolver;
+    private final HomeTimelineService homeTimelineService;
 
     @Transactional
     public FollowResponse followUser(UUID followerId, UUID followingId) {
@@ -79,16 +92,15 @@ public class FollowService {
 
         followRepository.save(follow);
 
-        // Cập nhật follower count
-        following.setFollowerCount(following.getFollowerCount() + 1);
-        follower.setFollowingCount(follower.getFollowingCount() + 1);
-
-        userRepository.save(following);
-        userRepository.save(follower);
+        // Cập nhật follower count bằng UPDATE cộng dồn sau commit, không sửa và save lại entity User
+        counterDeltaBuffer.add(CounterType.USER_FOLLOWERS, followingId, 1);
+        counterDeltaBuffer.add(CounterType.USER_FOLLOWING, followerId, 1);
+        homeTimelineService.followed(followerId, followingId);
 
         notificationService.createFollowNotification(followingId, followerId);
 
-        sendFollowWebSocketMessage("FOLLOW", follower, following);
+        sendFollowWebSocketMessage("FOLLOW", follower, following,
+                follower.getFollowingCount() + 1, following.getFollowerCount() + 1);
 
         log.info("User {} successfully followed user {}", followerId, followingId);
 
@@ -114,6 +126,7 @@ public class FollowService {
 
         // Xóa quan hệ follow
         followRepository.delete(follow);
+        homeTimelineService.unfollowed(followerId, followingId);
 
         // Cập nhật follower count
         User follower = userRepository.findById(followerId)
@@ -121,13 +134,11 @@ public class FollowService {
         User following = userRepository.findById(followingId)
                 .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
 
-        following.setFollowerCount(Math.max(0, following.getFollowerCount() - 1));
-        follower.setFollowingCount(Math.max(0, follower.getFollowingCount() - 1));
-
-        userRepository.save(following);
-        userRepository.save(follower);
+        counterDeltaBuffer.add(CounterType.USER_FOLLOWERS, followingId, -1);
+        counterDeltaBuffer.add(CounterType.USER_FOLLOWING, followerId, -1);
 
-        sendFollowWebSocketMessage("UNFOLLOW", follower, following);
+        sendFollowWebSocketMessage("UNFOLLOW", follower, following,
+                Math.max(0, follower.getFollowingCount() - 1), Math.max(0, following.getFollowerCount() - 1));
 
         log.info("User {} successfully unfollowed user {}", followerId, followingId);
     }
@@ -135,7 +146,9 @@ public class FollowService {
     private void sendFollowWebSocketMessage(
             String action,
             User follower,
-            User following
+            User following,
+            int followingCount,
+            int followerCount
     ) {
         try {
             FollowWebSocketMessage message = FollowWebSocketMessage.builder()
@@ -145,8 +158,8 @@ public class FollowService {
                     .followerUsername(follower.getUsername())
                     .followerFullName(follower.getFullName())
                     .followerAvatarUrl(follower.getAvatarUrl())
-                    .followingCount(follower.getFollowingCount())
-                    .followerCount(following.getFollowerCount())
+                    .followingCount(followingCount)
+                    .followerCount(followerCount)
                     .timestamp(LocalDateTime.now())
                     .build();
 
@@ -207,6 +220,37 @@ public class FollowService {
         return pageMapper.toPageResponse(following, followingIds);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserFollowDto> getFollowerSlice(UUID userId, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Follow> rows = followRepository.findFollowerSlice(userId, after.createdAt(), after.id(), pageSize + 1);
+        return PageMapper.toCursorPageResponse(rows, pageSize,
+                f -> new PageCursor(f.getCreatedAt(), f.getFollowerId()),
+                slice -> mapToUserFollowDtos(slice.stream().map(Follow::getFollowerId).toList(), userId));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserFollowDto> getFollowingSlice(UUID userId, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Follow> rows = followRepository.findFollowingSlice(userId, after.createdAt(), after.id(), pageSize + 1);
+        return PageMapper.toCursorPageResponse(rows, pageSize,
+                f -> new PageCursor(f.getCreatedAt(), f.getFollowingId()),
+                slice -> mapToUserFollowDtos(slice.stream().map(Follow::getFollowingId).toList(), userId));
+    }
+
+    // Nạp user của cả trang bằng một truy vấn, giữ nguyên thứ tự của cursor
+    private List<UserFollowDto> mapToUserFollowDtos(List<UUID> userIds, UUID currentUserId) {
+        Map<UUID, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+        return userIds.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(user -> mapToUserFollowDto(user, currentUserId))
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public boolean isFollowing(UUID followerId, UUID followingId) {
         return followRepository.existsByFollowerIdAndFollowingId(followerId, followingId);
@@ -228,19 +272,12 @@ public class FollowService {
 
     @Transactional
     public PageResponse<RecipeByFollowingResponse> getRecipesByFollowing(int page, int size) {
-        User currentUser = getCurrentUser();
+        UUID currentUserId = currentUserResolver.requireCurrentUserId();
         Pageable pageable = PageRequest.of(page, size);
-        List<UUID> followingIds = followRepository.findAllFollowingIdsByUser(currentUser.getUserId());
+        List<UUID> followingIds = followRepository.findAllFollowingIdsByUser(currentUserId);
         Page<Recipe> recipes = recipeRepository.findRecipesByFollowingIds(followingIds, pageable);
-        Page<RecipeByFollowingResponse> responsePage = recipes.map(recipe -> {
-            var summary = recipeMapper.toRecipeSummary(recipe);
-            if (summary != null && summary.getFeaturedImage() != null) {
-                summary.setFeaturedImage(firebaseStorageService.convertPathToFirebaseUrl(summary.getFeaturedImage()));
-            }
-            var response = recipeMapper.toRecipeByFollowingResponse(recipe, summary);
-            response.setFollowerId(currentUser.getUserId());
-            return response;
-        });
+        Page<RecipeByFollowingResponse> responsePage = recipes.map(
+                recipe -> toRecipeByFollowingResponse(recipe, currentUserId));
         return PageResponse.<RecipeByFollowingResponse>builder()
                 .page(page)
                 .size(size)
@@ -250,9 +287,45 @@ public class FollowService {
                 .build();
     }
 
-    private User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
+    @Transactional(readOnly = true)
+    public CursorPageResponse<RecipeByFollowingResponse> getRecipesByFollowingSlice(String cursor, int size) {
+        UUID currentUserId = currentUserResolver.requireCurrentUserId();
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        if (homeTimelineService.isEnabled() && homeTimelineService.ensureMaterialized(currentUserId)) {
+            List<TimelineEntry> entries = homeTimelineService.readSlice(currentUserId, after, pageSize + 1);
+            return PageMapper.toCursorPageResponse(entries, pageSize,
+                    entry -> new PageCursor(entry.createdAt(), entry.recipeId()),
+                    slice -> loadTimelineRecipes(slice, currentUserId));
+        }
+        List<Recipe> rows = recipeRepository.findFollowingFeedSlice(
+                currentUserId, after.createdAt(), after.id(), pageSize + 1);
+        return PageMapper.toCursorPageResponse(rows, pageSize,
+                recipe -> new PageCursor(recipe.getCreatedAt(), recipe.getRecipeId()),
+                slice -> slice.stream().map(recipe -> toRecipeByFollowingResponse(recipe, currentUserId)).toList());
+    }
+
+    // Nạp công thức của cả trang timeline bằng một truy vấn; công thức đã bị gỡ hoặc xóa thì bỏ qua
+    private List<RecipeByFollowingResponse> loadTimelineRecipes(List<TimelineEntry> entries, UUID currentUserId) {
+        List<UUID> recipeIds = entries.stream().map(TimelineEntry::recipeId).toList();
+        Map<UUID, Recipe> recipes = recipeRepository.findAllById(recipeIds).stream()
+                .collect(Collectors.toMap(Recipe::getRecipeId, Function.identity()));
+        return recipeIds.stream()
+                .map(recipes::get)
+                .filter(recipe -> recipe != null
+                        && recipe.getStatus() == RecipeStatus.APPROVED
+                        && Boolean.TRUE.equals(recipe.getIsPublished()))
+                .map(recipe -> toRecipeByFollowingResponse(recipe, currentUserId))
+                .toList();
+    }
+
+    private RecipeByFollowingResponse toRecipeByFollowingResponse(Recipe recipe, UUID currentUserId) {
+        var summary = recipeMapper.toRecipeSummary(recipe);
+        if (summary != null && summary.getFeaturedImage() != null) {
+            summary.setFeaturedImage(firebaseStorageService.convertPathToFirebaseUrl(summary.getFeaturedImage()));
+        }
+        var response = recipeMapper.toRecipeByFollowingResponse(recipe, summary);
+        response.setFollowerId(currentUserId);
+        return response;
     }
 }
\ No newline at end of file
@@ -2,19 +2,22 @@ package com.backend.cookshare.user.service;
 
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
-import com.backend.cookshare.authentication.service.FirebaseStorageService;
-import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.common.dto.CursorPageResponse;
+import com.backend.cookshare.common.dto.PageCursor;
+import com.backend.cookshare.common.mapper.PageMapper;
 import com.backend.cookshare.user.dto.NotificationDto;
 import com.backend.cookshare.user.dto.NotificationResponse;
 import com.backend.cookshare.user.dto.NotificationWebSocketMessage;
 import com.backend.cookshare.user.entity.Notification;
 import com.backend.cookshare.user.enums.NotificationType;
 import com.backend.cookshare.user.enums.RelatedType;
-import com.backend.cookshare.user.repository.CommentRepository;
 import com.backend.cookshare.user.repository.NotificationRepository;
+import com.backend.cookshare.user.service.fanout.NotificationFanoutService;
+import com.backend.cookshare.user.service.hydrator.NotificationHydrator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -32,19 +35,33 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
-    private final RecipeRepository recipeRepository;
-    private final CommentRepository commentRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final ActivityLogService activityLogService;
-    private final FirebaseStorageService fileStorageService;
+    private final NotificationHydrator notificationHydrator;
+    private final NotificationFanoutService notificationFanoutService;
 
     public Page<NotificationResponse> getUserNotifications(UUID userId, int page, int size) {
+        notificationFanoutService.materializeFor(userId);
         Pageable pageable = PageRequest.of(page, size);
         Page<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
-        return notifications.map(this::convertToResponse);
+        // Hydrate cả trang một lần: số câu truy vấn không phụ thuộc số thông báo
+        List<NotificationResponse> content = notificationHydrator.hydrate(notifications.getContent());
+        return new PageImpl<>(content, notifications.getPageable(), notifications.getTotalElements());
+    }
+
+    public CursorPageResponse<NotificationResponse> getUserNotificationSlice(UUID userId, String cursor, int size) {
+        notificationFanoutService.materializeFor(userId);
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Notification> rows = notificationRepository.findSliceByUserId(
+                userId, after.createdAt(), after.id(), pageSize + 1);
+        return PageMapper.toCursorPageResponse(rows, pageSize,
+                n -> new PageCursor(n.getCreatedAt(), n.getNotificationId()),
+                notificationHydrator::hydrate);
     }
 
     public Long getUnreadCount(UUID userId) {
+        notificationFanoutService.materializeFor(userId);
         return notificationRepository.countUnreadByUserId(userId);
     }
 
@@ -312,42 +329,21 @@ public class NotificationService {
         sendNotificationWebSocketMessage("NEW", notification, recipeOwnerId);
     }
 
-    @Transactional
+    /**
+     * Thông báo công thức mới cho follower của tác giả.
+     * Việc ghi và đẩy WebSocket chạy nền sau khi transaction hiện tại commit.
+     */
     public void createNewRecipeNotificationForFollowers(
-            List<UUID> followerIds,
             UUID recipeOwnerId,
             String ownerName,
             UUID recipeId,
             String recipeTitle) {
-
-        for (UUID followerId : followerIds) {
-            if (followerId.equals(recipeOwnerId)) {
-                continue;
-            }
-
-            String title = "Công thức mới";
-            String message = ownerName + " vừa đăng công thức mới: \"" + recipeTitle + "\"";
-
-            Notification notification = Notification.builder()
-                    .userId(followerId)
-                    .type(NotificationType.RECIPE_PUBLISHED)
-                    .title(title)
-                    .message(message)
-                    .relatedId(recipeId)
-                    .relatedType(RelatedType.user)
-                    .isRead(false)
-                    .isSent(false)
-                    .build();
-
-            notification = notificationRepository.save(notification);
-
-            // ✅ Gửi đầy đủ thông tin cho NEW
-            sendNotificationWebSocketMessage("NEW", notification, followerId);
-        }
+        notificationFanoutService.publishNewRecipe(recipeOwnerId, ownerName, recipeId, recipeTitle);
     }
 
     @Transactional
     public void deleteRecipeNotifications(UUID recipeId) {
+        notificationFanoutService.cancel(recipeId);
         List<Notification> notifications = notificationRepository.findByRelatedIdAndTypes(
                 recipeId,
                 List.of(
@@ -372,143 +368,10 @@ public class NotificationService {
     }
 
     /**
-     * Convert Notification entity sang NotificationResponse với đầy đủ thông tin
-     * Lấy thông tin actor và recipe dựa vào type và relatedId
+     * Convert Notification entity sang NotificationResponse với đầy đủ thông tin actor và recipe
      */
     private NotificationResponse convertToResponse(Notification notification) {
-        NotificationResponse.NotificationResponseBuilder builder = NotificationResponse.builder()
-                .notificationId(notification.getNotificationId())
-                .type(notification.getType())
-                .title(notification.getTitle())
-                .message(notification.getMessage())
-                .relatedId(notification.getRelatedId())
-                .relatedType(notification.getRelatedType())
-                .isRead(notification.getIsRead())
-                .createdAt(notification.getCreatedAt())
-                .readAt(notification.getReadAt());
-
-        // Xử lý dựa vào loại notification
-        switch (notification.getType()) {
-            case MENTION:
-            case COMMENT:
-                enrichCommentNotification(notification, builder);
-                break;
-            case LIKE:
-                enrichLikeNotification(notification, builder);
-                break;
-            case FOLLOW:
-                enrichFollowNotification(notification, builder);
-                break;
-            case RECIPE_PUBLISHED:
-            case SYSTEM:
-                enrichRecipeNotification(notification, builder);
-                break;
-        }
-
-        return builder.build();
-    }
-
-    /**
-     * Bổ sung thông tin cho notification COMMENT
-     * relatedId = commentId
-     */
-    private void enrichCommentNotification(Notification notification, NotificationResponse.NotificationResponseBuilder builder) {
-        if (notification.getRelatedId() == null) return;
-
-        commentRepository.findById(notification.getRelatedId()).ifPresent(comment -> {
-            // Lấy thông tin recipe từ comment
-            builder.recipeId(comment.getRecipeId());
-            recipeRepository.findById(comment.getRecipeId()).ifPresent(recipe -> {
-                builder.recipeTitle(recipe.getTitle())
-                        .recipeImage(fileStorageService.convertPathToFirebaseUrl(recipe.getFeaturedImage()));
-            });
-
-            // Lấy thông tin người comment
-            userRepository.findById(comment.getUserId()).ifPresent(actor -> {
-                builder.actorId(actor.getUserId())
-                        .actorName(actor.getFullName())
-                        .actorAvatar(fileStorageService.convertPathToFirebaseUrl(actor.getAvatarUrl()));
-            });
-        });
-    }
-
-    /**
-     * Bổ sung thông tin cho notification LIKE
-     * relatedId = recipeId
-     */
-    private void enrichLikeNotification(Notification notification, NotificationResponse.NotificationResponseBuilder builder) {
-        if (notification.getRelatedId() == null) return;
-
-        builder.recipeId(notification.getRelatedId());
-
-        recipeRepository.findById(notification.getRelatedId()).ifPresent(recipe -> {
-            builder.recipeTitle(recipe.getTitle())
-                    .recipeImage(fileStorageService.convertPathToFirebaseUrl(recipe.getFeaturedImage()));
-        });
-
-        try {
-            String[] parts = notification.getMessage().split("::", 2);
-
-            if (parts.length == 2) {
-                UUID actorId = UUID.fromString(parts[0]);
-                String realText = parts[1];
-
-                // Set lại message đẹp
-                builder.message(realText);
-
-                // Load actor
-                userRepository.findById(actorId).ifPresent(actor -> {
-                    builder.actorId(actor.getUserId())
-                            .actorName(actor.getFullName())
-                            .actorAvatar(
-                                    actor.getAvatarUrl() != null
-                                            ? fileStorageService.convertPathToFirebaseUrl(actor.getAvatarUrl())
-                                            : null
-                            );
-                });
-            } else {
-                builder.message(notification.getMessage()); // fallback
-            }
-
-        } catch (Exception e) {
-            builder.message(notification.getMessage()); // fallback
-        }
-    }
-
-    /**
-     * Bổ sung thông tin cho notification FOLLOW
-     * relatedId = actorId (người theo dõi)
-     */
-    private void enrichFollowNotification(Notification notification, NotificationResponse.NotificationResponseBuilder builder) {
-        if (notification.getRelatedId() == null) return;
-
-        userRepository.findById(notification.getRelatedId()).ifPresent(actor -> {
-            builder.actorId(actor.getUserId())
-                    .actorName(actor.getFullName())
-                    .actorAvatar(fileStorageService.convertPathToFirebaseUrl(actor.getAvatarUrl()));
-        });
-    }
-
-    /**
-     * Bổ sung thông tin cho notification RECIPE_PUBLISHED và SYSTEM
-     * relatedId = recipeId
-     */
-    private void enrichRecipeNotification(Notification notification, NotificationResponse.NotificationResponseBuilder builder) {
-        if (notification.getRelatedId() == null) return;
-
-        builder.recipeId(notification.getRelatedId());
-
-        recipeRepository.findById(notification.getRelatedId()).ifPresent(recipe -> {
-            builder.recipeTitle(recipe.getTitle())
-                    .recipeImage(fileStorageService.convertPathToFirebaseUrl(recipe.getFeaturedImage()));
-
-            // Lấy thông tin tác giả recipe
-            userRepository.findById(recipe.getUserId()).ifPresent(actor -> {
-                builder.actorId(actor.getUserId())
-                        .actorName(actor.getFullName())
-                        .actorAvatar(fileStorageService.convertPathToFirebaseUrl(actor.getAvatarUrl()));
-            });
-        });
+        return notificationHydrator.hydrate(notification);
     }
 
     // ✅ Method cho NEW/READ - gửi đầy đủ thông tin
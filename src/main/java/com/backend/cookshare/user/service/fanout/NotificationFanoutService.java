@@ -0,0 +1,446 @@
+package com.backend.cookshare.user.service.fanout;
+
+import com.backend.cookshare.common.transaction.AfterCommit;
+import com.backend.cookshare.user.dto.NotificationResponse;
+import com.backend.cookshare.user.dto.NotificationWebSocketMessage;
+import com.backend.cookshare.user.entity.Notification;
+import com.backend.cookshare.user.enums.NotificationType;
+import com.backend.cookshare.user.enums.RelatedType;
+import com.backend.cookshare.user.repository.FollowRepository;
+import com.backend.cookshare.user.service.hydrator.NotificationHydrator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Phát thông báo "công thức mới" đến follower của tác giả.
+ *
+ * Việc phát chạy trên taskExecutor sau khi transaction duyệt công thức commit, nên request của admin
+ * không phải chờ. Có hai chế độ tùy số follower:
+ * - Fan-out-on-write (mặc định): duyệt follower theo keyset, mỗi trang ghi bằng một JDBC batch insert
+ *   và chỉ đẩy WebSocket cho follower đang kết nối STOMP.
+ * - Fan-out-on-read (bật read-enabled và số follower vượt read-threshold): chỉ lưu một dòng recipe_broadcasts và ghi ngay
+ *   cho follower đang online; follower còn lại được tạo thông báo khi họ mở danh sách thông báo.
+ *   Dòng phát sóng được giữ trong broadcast-retention-hours. Việc "đã giao cho user nào" nằm ở recipe_broadcast_deliveries
+ *   nên mọi instance dùng chung, không mất khi khởi động lại, và chỉ được ghi cùng câu lệnh tạo thông báo.
+ *   Tắt read-enabled thì mọi công thức đều dùng fan-out-on-write.
+ *
+ * Cần tạo bảng trước khi bật read-enabled:
+ * <pre>
+ * CREATE TABLE recipe_broadcasts (
+ *     recipe_id  UUID PRIMARY KEY,
+ *     owner_id   UUID NOT NULL,
+ *     message    TEXT NOT NULL,
+ *     created_at TIMESTAMP NOT NULL
+ * );
+ * CREATE INDEX idx_recipe_broadcasts_created_at ON recipe_broadcasts (created_at);
+ * CREATE TABLE recipe_broadcast_deliveries (
+ *     recipe_id UUID NOT NULL REFERENCES recipe_broadcasts (recipe_id) ON DELETE CASCADE,
+ *     user_id   UUID NOT NULL,
+ *     PRIMARY KEY (recipe_id, user_id)
+ * );
+ * </pre>
+ */
+@Service
+@Slf4j
+public class NotificationFanoutService {
+
+    static final String TITLE = "Công thức mới";
+    static final String DESTINATION = "/queue/notifications";
+
+    static final String INSERT_SQL = "INSERT INTO notifications "
+            + "(notification_id, user_id, type, title, message, related_id, related_type, is_read, is_sent, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String FOLLOWER_PAGE_SQL = "SELECT f.follower_id, u.username FROM follows f "
+            + "JOIN users u ON u.user_id = f.follower_id "
+            + "WHERE f.following_id = ? AND f.follower_id > ? "
+            + "ORDER BY f.follower_id LIMIT ?";
+
+    static final String INSERT_BROADCAST_SQL = "INSERT INTO recipe_broadcasts (recipe_id, owner_id, message, created_at) "
+            + "VALUES (?, ?, ?, ?) ON CONFLICT (recipe_id) DO NOTHING";
+
+    /**
+     * Đánh dấu đã giao và tạo thông báo trong cùng một câu lệnh: ghi lỗi thì cũng không có dòng delivery nào,
+     * hai instance cùng xử lý một user thì ON CONFLICT chỉ để một bên tạo thông báo.
+     * Trạng thái follow của mọi công thức đang phát được xét bằng một phép join thay vì một truy vấn mỗi công thức.
+     */
+    static final String MATERIALIZE_SQL = "WITH claimed AS ("
+            + "INSERT INTO recipe_broadcast_deliveries (recipe_id, user_id) "
+            + "SELECT b.recipe_id, f.follower_id FROM recipe_broadcasts b "
+            + "JOIN follows f ON f.following_id = b.owner_id "
+            + "WHERE f.follower_id = ? AND b.owner_id <> f.follower_id AND b.created_at >= ? "
+            + "ON CONFLICT DO NOTHING RETURNING recipe_id, user_id) "
+            + "INSERT INTO notifications "
+            + "(notification_id, user_id, type, title, message, related_id, related_type, is_read, is_sent, created_at) "
+            + "SELECT gen_random_uuid(), c.user_id, ?, ?, b.message, b.recipe_id, ?, false, false, b.created_at "
+            + "FROM claimed c JOIN recipe_broadcasts b ON b.recipe_id = c.recipe_id";
+
+    static final String CANCEL_BROADCAST_SQL = "DELETE FROM recipe_broadcasts WHERE recipe_id = ?";
+
+    static final String PRUNE_BROADCASTS_SQL = "DELETE FROM recipe_broadcasts WHERE created_at < ?";
+
+    static final String COUNT_BROADCASTS_SQL = "SELECT COUNT(*) FROM recipe_broadcasts WHERE created_at >= ?";
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private static final RowMapper<Recipient> RECIPIENT_MAPPER = (rs, rowNum) ->
+            new Recipient(rs.getObject(1, UUID.class), rs.getString(2));
+
+    private static final RowMapper<Delivery> DELIVERY_MAPPER = (rs, rowNum) ->
+            new Delivery(rs.getObject(1, UUID.class), new Recipient(rs.getObject(2, UUID.class), rs.getString(3)));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FollowRepository followRepository;
+    private final NotificationHydrator notificationHydrator;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry simpUserRegistry;
+    private final Executor executor;
+    private final int batchSize;
+    private final boolean readEnabled;
+    private final long readThreshold;
+    private final Duration broadcastRetention;
+
+    private final AtomicLong activeBroadcasts = new AtomicLong();
+    private final LongAdder writtenNotifications = new LongAdder();
+    private final LongAdder pushedNotifications = new LongAdder();
+    private final LongAdder failedNotifications = new LongAdder();
+
+    public NotificationFanoutService(
+            JdbcTemplate jdbcTemplate,
+            FollowRepository followRepository,
+            NotificationHydrator notificationHydrator,
+            SimpMessagingTemplate messagingTemplate,
+            SimpUserRegistry simpUserRegistry,
+            @Qualifier("taskExecutor") Executor executor,
+            MeterRegistry meterRegistry,
+            @Value("${cookshare.notification.fanout.batch-size:1000}") int batchSize,
+            @Value("${cookshare.notification.fanout.read-enabled:false}") boolean readEnabled,
+            @Value("${cookshare.notification.fanout.read-threshold:5000}") long readThreshold,
+            @Value("${cookshare.notification.fanout.broadcast-retention-hours:168}") long broadcastRetentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.followRepository = followRepository;
+        this.notificationHydrator = notificationHydrator;
+        this.messagingTemplate = messagingTemplate;
+        this.simpUserRegistry = simpUserRegistry;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.readEnabled = readEnabled;
+        this.readThreshold = readThreshold;
+        this.broadcastRetention = Duration.ofHours(broadcastRetentionHours);
+
+        Gauge.builder("cookshare.notification.fanout.written", writtenNotifications, LongAdder::sum)
+                .description("Số thông báo công thức mới đã ghi cho follower")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.notification.fanout.pushed", pushedNotifications, LongAdder::sum)
+                .description("Số thông báo công thức mới đã đẩy qua WebSocket")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.notification.fanout.failed", failedNotifications, LongAdder::sum)
+                .description("Số thông báo công thức mới ghi lỗi")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.notification.fanout.broadcasts", activeBroadcasts, AtomicLong::get)
+                .description("Số công thức đang phát theo kiểu fan-out-on-read")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lên lịch phát thông báo công thức mới. Nếu đang trong transaction thì chỉ phát sau khi commit.
+     */
+    public void publishNewRecipe(UUID recipeOwnerId, String ownerName, UUID recipeId, String recipeTitle) {
+        RecipeBroadcast broadcast = new RecipeBroadcast(recipeOwnerId, recipeId,
+                ownerName + " vừa đăng công thức mới: \"" + recipeTitle + "\"", LocalDateTime.now());
+
+        AfterCommit.execute(executor, "phát thông báo công thức mới " + recipeId, () -> fanOut(broadcast));
+    }
+
+    void fanOut(RecipeBroadcast broadcast) {
+        long followerCount = followRepository.countFollowers(broadcast.ownerId());
+        if (followerCount == 0) {
+            return;
+        }
+        if (readEnabled && followerCount > readThreshold) {
+            jdbcTemplate.update(INSERT_BROADCAST_SQL, broadcast.recipeId(), broadcast.ownerId(), broadcast.message(),
+                    Timestamp.valueOf(broadcast.createdAt()));
+            activeBroadcasts.incrementAndGet();
+            int online = deliverToOnlineFollowers(broadcast);
+            log.info("Công thức {} có {} follower, dùng fan-out-on-read ({} follower online đã nhận ngay)",
+                    broadcast.recipeId(), followerCount, online);
+            return;
+        }
+        int written = writeToAllFollowers(broadcast);
+        log.info("Đã ghi {} thông báo công thức mới cho follower của {}", written, broadcast.ownerId());
+    }
+
+    /**
+     * Duyệt toàn bộ follower theo keyset, mỗi trang một batch insert
+     */
+    int writeToAllFollowers(RecipeBroadcast broadcast) {
+        NotificationResponse template = null;
+        UUID lastFollowerId = MIN_UUID;
+        int written = 0;
+        while (true) {
+            List<Recipient> page = jdbcTemplate.query(
+                    FOLLOWER_PAGE_SQL, RECIPIENT_MAPPER, broadcast.ownerId(), lastFollowerId, batchSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            lastFollowerId = page.get(page.size() - 1).userId();
+
+            List<Recipient> recipients = page.stream()
+                    .filter(recipient -> !recipient.userId().equals(broadcast.ownerId()))
+                    .toList();
+            List<Notification> inserted = insert(broadcast, recipients);
+            written += inserted.size();
+            if (template == null && !inserted.isEmpty()) {
+                template = notificationHydrator.hydrate(inserted.get(0));
+            }
+            push(template, inserted, recipients);
+
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Ghi và đẩy ngay cho các follower đang kết nối STOMP (chế độ fan-out-on-read)
+     */
+    int deliverToOnlineFollowers(RecipeBroadcast broadcast) {
+        List<String> onlineUsernames = simpUserRegistry.getUsers().stream()
+                .map(SimpUser::getName)
+                .filter(Objects::nonNull)
+                .toList();
+        int delivered = 0;
+        for (int from = 0; from < onlineUsernames.size(); from += batchSize) {
+            List<String> chunk = onlineUsernames.subList(from, Math.min(onlineUsernames.size(), from + batchSize));
+            Object[] args = new Object[chunk.size() + 8];
+            args[0] = broadcast.recipeId();
+            args[1] = broadcast.ownerId();
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 2] = chunk.get(i);
+            }
+            int next = chunk.size() + 2;
+            args[next] = NotificationType.RECIPE_PUBLISHED.name();
+            args[next + 1] = TITLE;
+            args[next + 2] = broadcast.message();
+            args[next + 3] = broadcast.recipeId();
+            args[next + 4] = RelatedType.user.name();
+            args[next + 5] = Timestamp.valueOf(broadcast.createdAt());
+
+            List<Delivery> deliveries;
+            try {
+                deliveries = jdbcTemplate.query(buildOnlineDeliverySql(chunk.size()), DELIVERY_MAPPER, args);
+            } catch (Exception e) {
+                failedNotifications.add(chunk.size());
+                log.warn("Không thể ghi thông báo công thức mới cho follower online: {}", e.getMessage());
+                continue;
+            }
+            if (deliveries.isEmpty()) {
+                continue;
+            }
+            writtenNotifications.add(deliveries.size());
+            List<Notification> inserted = new ArrayList<>(deliveries.size());
+            List<Recipient> recipients = new ArrayList<>(deliveries.size());
+            for (Delivery delivery : deliveries) {
+                Notification notification = toNotification(broadcast, delivery.recipient().userId());
+                notification.setNotificationId(delivery.notificationId());
+                inserted.add(notification);
+                recipients.add(delivery.recipient());
+            }
+            push(notificationHydrator.hydrate(inserted.get(0)), inserted, recipients);
+            delivered += inserted.size();
+        }
+        return delivered;
+    }
+
+    /**
+     * Tạo thông báo cho các công thức đang phát kiểu fan-out-on-read mà user chưa nhận.
+     * Một câu lệnh cho mọi công thức đang phát; cặp (công thức, user) đã giao thì bị ON CONFLICT bỏ qua.
+     *
+     * @return số thông báo vừa được tạo
+     */
+    public int materializeFor(UUID userId) {
+        if (!readEnabled || userId == null) {
+            return 0;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(broadcastRetention);
+        try {
+            int created = jdbcTemplate.update(MATERIALIZE_SQL, userId, Timestamp.valueOf(cutoff),
+                    NotificationType.RECIPE_PUBLISHED.name(), TITLE, RelatedType.user.name());
+            writtenNotifications.add(created);
+            return created;
+        } catch (Exception e) {
+            failedNotifications.increment();
+            log.warn("Không thể tạo thông báo công thức mới cho {}: {}", userId, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Ngừng phát công thức đã bị xóa
+     */
+    public void cancel(UUID recipeId) {
+        if (readEnabled && recipeId != null && jdbcTemplate.update(CANCEL_BROADCAST_SQL, recipeId) > 0) {
+            activeBroadcasts.decrementAndGet();
+        }
+    }
+
+    public long activeBroadcasts() {
+        return activeBroadcasts.get();
+    }
+
+    @Scheduled(fixedDelayString = "${cookshare.notification.fanout.prune-interval-ms:3600000}",
+            initialDelayString = "${cookshare.notification.fanout.prune-interval-ms:3600000}")
+    public void pruneExpiredBroadcasts() {
+        if (!readEnabled) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(broadcastRetention));
+        try {
+            int pruned = jdbcTemplate.update(PRUNE_BROADCASTS_SQL, cutoff);
+            Long active = jdbcTemplate.queryForObject(COUNT_BROADCASTS_SQL, Long.class, cutoff);
+            activeBroadcasts.set(active == null ? 0 : active);
+            if (pruned > 0) {
+                log.info("Đã dọn {} công thức fan-out-on-read hết hạn", pruned);
+            }
+        } catch (Exception e) {
+            log.warn("Không thể dọn công thức fan-out-on-read: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Đánh dấu đã giao, ghi thông báo và trả về (notification_id, user_id, username) để đẩy WebSocket, trong một câu lệnh
+     */
+    static String buildOnlineDeliverySql(int usernames) {
+        StringJoiner placeholders = new StringJoiner(", ");
+        for (int i = 0; i < usernames; i++) {
+            placeholders.add("?");
+        }
+        return "WITH claimed AS ("
+                + "INSERT INTO recipe_broadcast_deliveries (recipe_id, user_id) "
+                + "SELECT b.recipe_id, u.user_id FROM recipe_broadcasts b "
+                + "JOIN follows f ON f.following_id = b.owner_id "
+                + "JOIN users u ON u.user_id = f.follower_id "
+                + "WHERE b.recipe_id = ? AND b.owner_id = ? AND u.user_id <> b.owner_id "
+                + "AND u.username IN (" + placeholders + ") "
+                + "ON CONFLICT DO NOTHING RETURNING user_id), "
+                + "inserted AS ("
+                + "INSERT INTO notifications "
+                + "(notification_id, user_id, type, title, message, related_id, related_type, is_read, is_sent, created_at) "
+                + "SELECT gen_random_uuid(), c.user_id, ?, ?, ?, ?, ?, false, false, ? FROM claimed c "
+                + "RETURNING notification_id, user_id) "
+                + "SELECT i.notification_id, i.user_id, u.username FROM inserted i JOIN users u ON u.user_id = i.user_id";
+    }
+
+    private List<Notification> insert(RecipeBroadcast broadcast, List<Recipient> recipients) {
+        List<Notification> notifications = new ArrayList<>(recipients.size());
+        for (Recipient recipient : recipients) {
+            notifications.add(toNotification(broadcast, recipient.userId()));
+        }
+        return write(notifications);
+    }
+
+    private List<Notification> write(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return notifications;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, notifications, notifications.size(), (ps, notification) -> {
+                ps.setObject(1, notification.getNotificationId());
+                ps.setObject(2, notification.getUserId());
+                ps.setString(3, notification.getType().name());
+                ps.setString(4, notification.getTitle());
+                ps.setString(5, notification.getMessage());
+                ps.setObject(6, notification.getRelatedId());
+                ps.setString(7, notification.getRelatedType().name());
+                ps.setBoolean(8, false);
+                ps.setBoolean(9, false);
+                ps.setTimestamp(10, Timestamp.valueOf(notification.getCreatedAt()));
+            });
+            writtenNotifications.add(notifications.size());
+            return notifications;
+        } catch (Exception e) {
+            failedNotifications.add(notifications.size());
+            log.warn("Không thể ghi {} thông báo công thức mới: {}", notifications.size(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Chỉ đẩy cho follower đang có phiên STOMP; người offline sẽ thấy thông báo khi mở ứng dụng
+     */
+    private void push(NotificationResponse template, List<Notification> inserted, List<Recipient> recipients) {
+        if (template == null || inserted.isEmpty()) {
+            return;
+        }
+        Map<UUID, String> usernames = new HashMap<>();
+        recipients.forEach(recipient -> usernames.put(recipient.userId(), recipient.username()));
+
+        for (Notification notification : inserted) {
+            String username = usernames.get(notification.getUserId());
+            if (username == null || simpUserRegistry.getUser(username) == null) {
+                continue;
+            }
+            NotificationWebSocketMessage message = NotificationWebSocketMessage.builder()
+                    .action("NEW")
+                    .notification(template.toBuilder()
+                            .notificationId(notification.getNotificationId())
+                            .createdAt(notification.getCreatedAt())
+                            .build())
+                    .userId(notification.getUserId())
+                    .timestamp(LocalDateTime.now())
+                    .build();
+            try {
+                messagingTemplate.convertAndSendToUser(username, DESTINATION, message);
+                pushedNotifications.increment();
+            } catch (Exception e) {
+                log.debug("Không thể đẩy thông báo cho {}: {}", username, e.getMessage());
+            }
+        }
+    }
+
+    private static Notification toNotification(RecipeBroadcast broadcast, UUID followerId) {
+        return Notification.builder()
+                .notificationId(UUID.randomUUID())
+                .userId(followerId)
+                .type(NotificationType.RECIPE_PUBLISHED)
+                .title(TITLE)
+                .message(broadcast.message())
+                .relatedId(broadcast.recipeId())
+                .relatedType(RelatedType.user)
+                .isRead(false)
+                .isSent(false)
+                .createdAt(broadcast.createdAt())
+                .build();
+    }
+
+    record Recipient(UUID userId, String username) {
+    }
+
+    record Delivery(UUID notificationId, Recipient recipient) {
+    }
+
+    /**
+     * createdAt: thời điểm công thức được duyệt, dùng làm created_at cho mọi thông báo của lần phát này
+     */
+    record RecipeBroadcast(UUID ownerId, UUID recipeId, String message, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,217 @@
+package com.backend.cookshare.user.service.hydrator;
+
+import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.repository.UserRepository.UserSummaryProjection;
+import com.backend.cookshare.authentication.service.FirebaseStorageService;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository.RecipeCardProjection;
+import com.backend.cookshare.user.dto.NotificationResponse;
+import com.backend.cookshare.user.entity.Notification;
+import com.backend.cookshare.user.enums.NotificationType;
+import com.backend.cookshare.user.repository.CommentRepository;
+import com.backend.cookshare.user.repository.CommentRepository.CommentSummaryProjection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bổ sung thông tin actor / recipe cho cả một trang thông báo.
+ *
+ * Thay vì mỗi thông báo gọi findById riêng, hydrator gom ID của cả trang rồi nạp theo thứ tự
+ * comment → recipe → user, mỗi loại đúng một câu IN (projection, không nạp quan hệ của entity).
+ * Số câu truy vấn tối đa là 3, không phụ thuộc kích thước trang.
+ *
+ * Quy ước relatedId theo loại thông báo:
+ * COMMENT / MENTION: commentId; LIKE, RECIPE_PUBLISHED, SYSTEM: recipeId; FOLLOW: userId của người theo dõi.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationHydrator {
+
+    /**
+     * Thông báo LIKE lưu người thích ở đầu message theo dạng "actorId::nội dung"
+     */
+    static final String LIKE_ACTOR_SEPARATOR = "::";
+    private static final int UUID_LENGTH = 36;
+
+    private final CommentRepository commentRepository;
+    private final RecipeRepository recipeRepository;
+    private final UserRepository userRepository;
+    private final FirebaseStorageService fileStorageService;
+
+    public NotificationResponse hydrate(Notification notification) {
+        return hydrate(List.of(notification)).get(0);
+    }
+
+    /**
+     * Chuyển danh sách thông báo sang NotificationResponse, giữ nguyên thứ tự đầu vào
+     */
+    public List<NotificationResponse> hydrate(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return List.of();
+        }
+
+        // Lượt 1: gom ID cần nạp
+        Set<UUID> commentIds = new HashSet<>();
+        Set<UUID> recipeIds = new HashSet<>();
+        Set<UUID> userIds = new HashSet<>();
+        List<LikeMessage> likeMessages = new ArrayList<>(Collections.nCopies(notifications.size(), null));
+
+        for (int i = 0; i < notifications.size(); i++) {
+            Notification notification = notifications.get(i);
+            UUID relatedId = notification.getRelatedId();
+            if (relatedId == null || notification.getType() == null) {
+                continue;
+            }
+            switch (notification.getType()) {
+                case MENTION, COMMENT -> commentIds.add(relatedId);
+                case LIKE -> {
+                    recipeIds.add(relatedId);
+                    LikeMessage likeMessage = LikeMessage.of(notification.getMessage());
+                    likeMessages.set(i, likeMessage);
+                    if (likeMessage.actorId() != null) {
+                        userIds.add(likeMessage.actorId());
+                    }
+                }
+                case FOLLOW -> userIds.add(relatedId);
+                case RECIPE_PUBLISHED, SYSTEM -> recipeIds.add(relatedId);
+            }
+        }
+
+        // Lượt 2: mỗi loại entity một câu truy vấn
+        Map<UUID, CommentSummaryProjection> comments = commentIds.isEmpty() ? Collections.emptyMap()
+                : index(commentRepository.findSummariesByCommentIdIn(commentIds), CommentSummaryProjection::getCommentId);
+        comments.values().forEach(comment -> {
+            recipeIds.add(comment.getRecipeId());
+            userIds.add(comment.getUserId());
+        });
+        recipeIds.remove(null);
+
+        Map<UUID, RecipeCardProjection> recipes = recipeIds.isEmpty() ? Collections.emptyMap()
+                : index(recipeRepository.findCardsByRecipeIdIn(recipeIds), RecipeCardProjection::getRecipeId);
+        for (Notification notification : notifications) {
+            if (isRecipeNotification(notification)) {
+                RecipeCardProjection recipe = recipes.get(notification.getRelatedId());
+                if (recipe != null && recipe.getUserId() != null) {
+                    userIds.add(recipe.getUserId());
+                }
+            }
+        }
+
+        userIds.remove(null);
+        Map<UUID, UserSummaryProjection> users = userIds.isEmpty() ? Collections.emptyMap()
+                : index(userRepository.findSummariesByUserIdIn(userIds), UserSummaryProjection::getUserId);
+
+        // Lượt 3: ghép response từ các map
+        List<NotificationResponse> responses = new ArrayList<>(notifications.size());
+        for (int i = 0; i < notifications.size(); i++) {
+            responses.add(assemble(notifications.get(i), likeMessages.get(i), comments, recipes, users));
+        }
+        return responses;
+    }
+
+    private NotificationResponse assemble(Notification notification,
+                                          LikeMessage likeMessage,
+                                          Map<UUID, CommentSummaryProjection> comments,
+                                          Map<UUID, RecipeCardProjection> recipes,
+                                          Map<UUID, UserSummaryProjection> users) {
+        NotificationResponse.NotificationResponseBuilder builder = NotificationResponse.builder()
+                .notificationId(notification.getNotificationId())
+                .type(notification.getType())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .relatedId(notification.getRelatedId())
+                .relatedType(notification.getRelatedType())
+                .isRead(notification.getIsRead())
+                .createdAt(notification.getCreatedAt())
+                .readAt(notification.getReadAt());
+
+        UUID relatedId = notification.getRelatedId();
+        if (relatedId == null || notification.getType() == null) {
+            return builder.build();
+        }
+
+        switch (notification.getType()) {
+            case MENTION, COMMENT -> {
+                CommentSummaryProjection comment = comments.get(relatedId);
+                if (comment != null) {
+                    builder.recipeId(comment.getRecipeId());
+                    applyRecipe(builder, recipes.get(comment.getRecipeId()));
+                    applyActor(builder, users.get(comment.getUserId()));
+                }
+            }
+            case LIKE -> {
+                builder.recipeId(relatedId);
+                applyRecipe(builder, recipes.get(relatedId));
+                builder.message(likeMessage.text());
+                if (likeMessage.actorId() != null) {
+                    applyActor(builder, users.get(likeMessage.actorId()));
+                }
+            }
+            case FOLLOW -> applyActor(builder, users.get(relatedId));
+            case RECIPE_PUBLISHED, SYSTEM -> {
+                builder.recipeId(relatedId);
+                RecipeCardProjection recipe = recipes.get(relatedId);
+                applyRecipe(builder, recipe);
+                if (recipe != null && recipe.getUserId() != null) {
+                    applyActor(builder, users.get(recipe.getUserId()));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private void applyRecipe(NotificationResponse.NotificationResponseBuilder builder, RecipeCardProjection recipe) {
+        if (recipe == null) {
+            return;
+        }
+        builder.recipeTitle(recipe.getTitle())
+                .recipeImage(toUrl(recipe.getFeaturedImage()));
+    }
+
+    private void applyActor(NotificationResponse.NotificationResponseBuilder builder, UserSummaryProjection actor) {
+        if (actor == null) {
+            return;
+        }
+        builder.actorId(actor.getUserId())
+                .actorName(actor.getFullName())
+                .actorAvatar(toUrl(actor.getAvatarUrl()));
+    }
+
+    private String toUrl(String path) {
+        return path != null ? fileStorageService.convertPathToFirebaseUrl(path) : null;
+    }
+
+    private static boolean isRecipeNotification(Notification notification) {
+        return notification.getRelatedId() != null
+                && (notification.getType() == NotificationType.RECIPE_PUBLISHED
+                || notification.getType() == NotificationType.SYSTEM);
+    }
+
+    private static <T> Map<UUID, T> index(List<T> rows, Function<T, UUID> key) {
+        return rows.stream().collect(Collectors.toMap(key, Function.identity(), (first, second) -> first));
+    }
+
+    /**
+     * Tách actorId khỏi message của thông báo LIKE; message không đúng định dạng thì giữ nguyên
+     */
+    record LikeMessage(UUID actorId, String text) {
+
+        static LikeMessage of(String message) {
+            if (message == null
+                    || message.length() <= UUID_LENGTH + LIKE_ACTOR_SEPARATOR.length()
+                    || !message.startsWith(LIKE_ACTOR_SEPARATOR, UUID_LENGTH)) {
+                return new LikeMessage(null, message);
+            }
+            try {
+                UUID actorId = UUID.fromString(message.substring(0, UUID_LENGTH));
+                return new LikeMessage(actorId, message.substring(UUID_LENGTH + LIKE_ACTOR_SEPARATOR.length()));
+            } catch (IllegalArgumentException e) {
+                return new LikeMessage(null, message);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.backend.cookshare.user.service.pipeline;
+
+import com.backend.cookshare.common.pipeline.BoundedBatchWriter;
+import com.backend.cookshare.common.transaction.AfterCommit;
+import com.backend.cookshare.user.entity.ActivityLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hàng đợi ghi activity_logs bất đồng bộ.
+ *
+ * Người gọi chỉ đưa ActivityLog (đã có sẵn IP / User-Agent / Referer) vào một ring buffer có giới hạn
+ * ({@link BoundedBatchWriter}); một luồng riêng gom tối đa batch-size bản ghi rồi ghi xuống DB bằng một JDBC batch insert.
+ * Khi buffer đầy, người gọi chờ tối đa enqueue-timeout-ms rồi bỏ bản ghi (0 = bỏ ngay),
+ * để log hoạt động không bao giờ làm chậm luồng nghiệp vụ chính.
+ */
+@Component
+@Slf4j
+public class ActivityLogPipeline {
+
+    static final String INSERT_SQL = "INSERT INTO activity_logs "
+            + "(log_id, user_id, activity_type, target_id, ip_address, user_agent, referrer, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BoundedBatchWriter<ActivityLog> writer;
+
+    public ActivityLogPipeline(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${cookshare.activity-log.buffer-capacity:10000}") int bufferCapacity,
+            @Value("${cookshare.activity-log.batch-size:500}") int batchSize,
+            @Value("${cookshare.activity-log.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${cookshare.activity-log.enqueue-timeout-ms:0}") long enqueueTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writer = new BoundedBatchWriter<>("activity-log", meterRegistry, "cookshare.activity-log",
+                bufferCapacity, batchSize, flushIntervalMs, enqueueTimeoutMs, ActivityLog::getCreatedAt, this::insert);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Dừng luồng ghi và ghi nốt những gì còn trong buffer
+     */
+    @PreDestroy
+    public void stop() {
+        writer.stop();
+    }
+
+    /**
+     * Đưa activity log vào hàng đợi. Nếu đang trong transaction thì chỉ đưa vào sau khi commit,
+     * để log của thao tác bị rollback không được ghi.
+     */
+    public void submit(ActivityLog activityLog) {
+        if (activityLog.getCreatedAt() == null) {
+            activityLog.setCreatedAt(LocalDateTime.now());
+        }
+        AfterCommit.run("đưa activity log vào hàng đợi", () -> enqueue(activityLog));
+    }
+
+    boolean enqueue(ActivityLog activityLog) {
+        boolean accepted = writer.offer(activityLog);
+        if (!accepted) {
+            log.debug("Buffer activity log đã đầy, bỏ bản ghi {} của user {}",
+                    activityLog.getActivityType(), activityLog.getUserId());
+        }
+        return accepted;
+    }
+
+    public long droppedCount() {
+        return writer.droppedCount();
+    }
+
+    public long pendingCount() {
+        return writer.pendingCount();
+    }
+
+    /**
+     * Ghi toàn bộ buffer hiện tại trên luồng gọi (dùng khi tắt ứng dụng)
+     */
+    int drainAll() {
+        return writer.drainAll();
+    }
+
+    void writeBatch(List<ActivityLog> batch) {
+        writer.writeBatch(batch);
+    }
+
+    private int insert(List<ActivityLog> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, activityLog) -> {
+            ps.setObject(1, activityLog.getLogId() != null ? activityLog.getLogId() : UUID.randomUUID());
+            ps.setObject(2, activityLog.getUserId());
+            ps.setString(3, activityLog.getActivityType().name());
+            ps.setObject(4, activityLog.getTargetId());
+            ps.setString(5, activityLog.getIpAddress());
+            ps.setString(6, activityLog.getUserAgent());
+            ps.setString(7, activityLog.getReferrer());
+            ps.setTimestamp(8, Timestamp.valueOf(activityLog.getCreatedAt()));
+        });
+        return batch.size();
+    }
+}
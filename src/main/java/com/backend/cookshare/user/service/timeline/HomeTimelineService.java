@@ -0,0 +1,344 @@
+package com.backend.cookshare.user.service.timeline;
+
+import com.backend.cookshare.common.dto.PageCursor;
+import com.backend.cookshare.common.transaction.AfterCommit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Home timeline của bảng tin "đang follow" theo kiểu fan-out-on-write.
+ *
+ * Khi công thức được duyệt, (follower, công thức, created_at của công thức) được ghi vào timeline của từng follower
+ * theo từng trang keyset, mỗi trang một JDBC batch insert, chạy trên taskExecutor sau khi commit.
+ * Tác giả có follower_count vượt celebrity-threshold thì không ghi; công thức của họ được đọc thẳng từ recipes
+ * và trộn vào lúc đọc. Nhờ vậy đọc bảng tin chỉ là một range scan (created_at, recipe_id) trên timeline của user.
+ *
+ * Follow mới nạp sẵn backfill-size công thức gần nhất của tác giả, unfollow xóa các dòng của tác giả đó.
+ * User chưa có dòng home_timeline_state (ví dụ ngay sau khi bật tính năng) vẫn đọc bảng tin từ follows + recipes,
+ * đồng thời timeline của họ được nạp nền backfill-size công thức gần nhất của mỗi tác giả đang follow.
+ * Mọi nguồn (fan-out, backfill, nạp nền, trộn celebrity, đọc fallback) đều dùng recipes.created_at làm vị trí
+ * trong bảng tin, để một cursor (created_at, recipe_id) đi qua được cả timeline lẫn công thức trộn vào lúc đọc
+ * mà không bỏ sót hay lặp; recipes không có cột thời điểm duyệt để các nguồn đọc thẳng từ recipes dùng chung.
+ * Dòng cũ hơn retention-days bị dọn định kỳ. Chỉ dùng khi bật cookshare.timeline.enabled:
+ * CREATE TABLE home_timeline (user_id UUID NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+ *   recipe_id UUID NOT NULL REFERENCES recipes(recipe_id) ON DELETE CASCADE, author_id UUID NOT NULL,
+ *   created_at TIMESTAMP NOT NULL, PRIMARY KEY (user_id, recipe_id));
+ * CREATE INDEX idx_home_timeline_seek ON home_timeline (user_id, created_at DESC, recipe_id DESC);
+ * CREATE TABLE home_timeline_state (user_id UUID PRIMARY KEY REFERENCES users(user_id) ON DELETE CASCADE,
+ *   materialized_at TIMESTAMP NOT NULL);
+ * Tác giả vượt ngưỡng rồi lại xuống dưới ngưỡng thì các công thức đăng trong lúc vượt ngưỡng không có trong timeline.
+ */
+@Service
+@Slf4j
+public class HomeTimelineService {
+
+    static final String INSERT_SQL = "INSERT INTO home_timeline (user_id, recipe_id, author_id, created_at) "
+            + "VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    static final String FOLLOWER_COUNT_SQL = "SELECT follower_count FROM users WHERE user_id = ?";
+
+    static final String FOLLOWER_PAGE_SQL = "SELECT follower_id FROM follows "
+            + "WHERE following_id = ? AND follower_id > ? ORDER BY follower_id LIMIT ?";
+
+    static final String BACKFILL_SQL = "INSERT INTO home_timeline (user_id, recipe_id, author_id, created_at) "
+            + "SELECT ?, recipe_id, user_id, created_at FROM recipes "
+            + "WHERE user_id = ? AND status = 'APPROVED' AND is_published = true "
+            + "ORDER BY created_at DESC LIMIT ? ON CONFLICT DO NOTHING";
+
+    static final String MATERIALIZED_SQL = "SELECT EXISTS (SELECT 1 FROM home_timeline_state WHERE user_id = ?)";
+
+    static final String MATERIALIZE_SQL = "INSERT INTO home_timeline (user_id, recipe_id, author_id, created_at) "
+            + "SELECT ?, recipe_id, user_id, created_at FROM ("
+            + "SELECT r.recipe_id, r.user_id, r.created_at, "
+            + "ROW_NUMBER() OVER (PARTITION BY r.user_id ORDER BY r.created_at DESC) AS rn "
+            + "FROM follows f JOIN users u ON u.user_id = f.following_id "
+            + "JOIN recipes r ON r.user_id = f.following_id "
+            + "WHERE f.follower_id = ? AND u.follower_count <= ? AND r.status = 'APPROVED' AND r.is_published = true"
+            + ") recent WHERE rn <= ? ON CONFLICT DO NOTHING";
+
+    static final String MARK_MATERIALIZED_SQL = "INSERT INTO home_timeline_state (user_id, materialized_at) "
+            + "VALUES (?, ?) ON CONFLICT DO NOTHING";
+
+    static final String UNFOLLOW_SQL = "DELETE FROM home_timeline WHERE user_id = ? AND author_id = ?";
+
+    static final String TIMELINE_SLICE_SQL = "SELECT recipe_id, created_at FROM home_timeline "
+            + "WHERE user_id = ? AND (created_at, recipe_id) < (?, ?) "
+            + "ORDER BY created_at DESC, recipe_id DESC LIMIT ?";
+
+    static final String CELEBRITY_SQL = "SELECT f.following_id FROM follows f "
+            + "JOIN users u ON u.user_id = f.following_id "
+            + "WHERE f.follower_id = ? AND u.follower_count > ?";
+
+    static final String PRUNE_SQL = "DELETE FROM home_timeline WHERE created_at < ?";
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    /**
+     * Cùng thứ tự với ORDER BY created_at DESC, recipe_id DESC của Postgres (uuid so sánh theo byte không dấu)
+     */
+    static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator
+            .comparing(TimelineEntry::createdAt)
+            .thenComparing(TimelineEntry::recipeId, (a, b) -> {
+                int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+                return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+            })
+            .reversed();
+
+    private static final RowMapper<TimelineEntry> ENTRY_MAPPER = (rs, rowNum) ->
+            new TimelineEntry(rs.getObject(1, UUID.class), rs.getTimestamp(2).toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Executor executor;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long celebrityThreshold;
+    private final int backfillSize;
+    private final long retentionDays;
+
+    // User đang được nạp timeline nền, tránh nạp trùng khi đọc bảng tin liên tiếp
+    private final Set<UUID> materializing = ConcurrentHashMap.newKeySet();
+    private final LongAdder writtenEntries = new LongAdder();
+    private final LongAdder failedEntries = new LongAdder();
+    private final LongAdder celebrityPosts = new LongAdder();
+
+    public HomeTimelineService(
+            JdbcTemplate jdbcTemplate,
+            @Qualifier("taskExecutor") Executor executor,
+            MeterRegistry meterRegistry,
+            @Value("${cookshare.timeline.enabled:false}") boolean enabled,
+            @Value("${cookshare.timeline.batch-size:1000}") int batchSize,
+            @Value("${cookshare.timeline.celebrity-threshold:5000}") long celebrityThreshold,
+            @Value("${cookshare.timeline.backfill-size:50}") int backfillSize,
+            @Value("${cookshare.timeline.retention-days:90}") long retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.celebrityThreshold = celebrityThreshold;
+        this.backfillSize = backfillSize;
+        this.retentionDays = retentionDays;
+
+        Gauge.builder("cookshare.timeline.written", writtenEntries, LongAdder::sum)
+                .description("Số dòng đã ghi vào home timeline của follower")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.timeline.failed", failedEntries, LongAdder::sum)
+                .description("Số dòng home timeline ghi lỗi")
+                .register(meterRegistry);
+        Gauge.builder("cookshare.timeline.celebrity-posts", celebrityPosts, LongAdder::sum)
+                .description("Số công thức không fan-out vì tác giả vượt ngưỡng follower")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ghi công thức vừa được duyệt vào timeline của follower. Nếu đang trong transaction thì chỉ ghi sau khi commit.
+     *
+     * @param createdAt recipes.created_at của công thức, cùng mốc thời gian với mọi nguồn đọc bảng tin khác
+     */
+    public void publish(UUID authorId, UUID recipeId, LocalDateTime createdAt) {
+        if (!enabled || authorId == null || recipeId == null || createdAt == null) {
+            return;
+        }
+        AfterCommit.execute(executor, "cập nhật home timeline", () -> fanOut(authorId, recipeId, createdAt));
+    }
+
+    /**
+     * Timeline của user đã được nạp chưa. Nếu chưa thì lên lịch nạp nền và trả về false,
+     * bên gọi đọc bảng tin theo follows + recipes cho đến khi nạp xong.
+     */
+    public boolean ensureMaterialized(UUID userId) {
+        if (!enabled || userId == null) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(MATERIALIZED_SQL, Boolean.class, userId))) {
+            return true;
+        }
+        if (materializing.add(userId)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        materialize(userId);
+                    } finally {
+                        materializing.remove(userId);
+                    }
+                });
+            } catch (RuntimeException e) {
+                materializing.remove(userId);
+                log.warn("Không thể lên lịch nạp home timeline cho {}: {}", userId, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Nạp công thức gần nhất của các tác giả đang follow rồi mới đánh dấu đã nạp; lỗi thì lần đọc sau thử lại
+     */
+    void materialize(UUID userId) {
+        try {
+            int rows = jdbcTemplate.update(MATERIALIZE_SQL, userId, userId, celebrityThreshold, backfillSize);
+            writtenEntries.add(rows);
+            jdbcTemplate.update(MARK_MATERIALIZED_SQL, userId, Timestamp.valueOf(LocalDateTime.now()));
+            log.info("Đã nạp {} dòng home timeline cho {}", rows, userId);
+        } catch (Exception e) {
+            log.warn("Không thể nạp home timeline cho {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Nạp sẵn các công thức gần nhất của người vừa được follow
+     */
+    public void followed(UUID followerId, UUID authorId) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.execute(executor, "cập nhật home timeline", () -> {
+            if (isCelebrity(authorId)) {
+                return;
+            }
+            int rows = jdbcTemplate.update(BACKFILL_SQL, followerId, authorId, backfillSize);
+            writtenEntries.add(rows);
+        });
+    }
+
+    /**
+     * Bỏ các công thức của người vừa bị unfollow khỏi timeline
+     */
+    public void unfollowed(UUID followerId, UUID authorId) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.execute(executor, "cập nhật home timeline",
+                () -> jdbcTemplate.update(UNFOLLOW_SQL, followerId, authorId));
+    }
+
+    /**
+     * Đọc một trang timeline sau cursor, đã trộn công thức của các tác giả vượt ngưỡng mà user đang follow.
+     * Kết quả có tối đa limit dòng, sắp xếp mới nhất trước.
+     */
+    public List<TimelineEntry> readSlice(UUID userId, PageCursor after, int limit) {
+        Timestamp createdAt = Timestamp.valueOf(after.createdAt());
+        List<TimelineEntry> entries = jdbcTemplate.query(
+                TIMELINE_SLICE_SQL, ENTRY_MAPPER, userId, createdAt, after.id(), limit);
+
+        List<UUID> celebrities = jdbcTemplate.queryForList(CELEBRITY_SQL, UUID.class, userId, celebrityThreshold);
+        if (celebrities.isEmpty()) {
+            return entries;
+        }
+        Object[] args = new Object[celebrities.size() + 3];
+        for (int i = 0; i < celebrities.size(); i++) {
+            args[i] = celebrities.get(i);
+        }
+        args[celebrities.size()] = createdAt;
+        args[celebrities.size() + 1] = after.id();
+        args[celebrities.size() + 2] = limit;
+        List<TimelineEntry> celebrityEntries = jdbcTemplate.query(
+                buildCelebrityRecipesSql(celebrities.size()), ENTRY_MAPPER, args);
+        return merge(entries, celebrityEntries, limit);
+    }
+
+    @Scheduled(fixedDelayString = "${cookshare.timeline.prune-interval-ms:3600000}",
+            initialDelayString = "${cookshare.timeline.prune-interval-ms:3600000}")
+    public void pruneExpiredEntries() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int rows = jdbcTemplate.update(PRUNE_SQL, Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays)));
+            if (rows > 0) {
+                log.info("Đã dọn {} dòng home timeline cũ hơn {} ngày", rows, retentionDays);
+            }
+        } catch (Exception e) {
+            log.warn("Không thể dọn home timeline: {}", e.getMessage());
+        }
+    }
+
+    void fanOut(UUID authorId, UUID recipeId, LocalDateTime createdAt) {
+        if (isCelebrity(authorId)) {
+            celebrityPosts.increment();
+            log.info("Tác giả {} vượt ngưỡng follower, công thức {} được trộn vào bảng tin lúc đọc", authorId, recipeId);
+            return;
+        }
+        Timestamp postedAt = Timestamp.valueOf(createdAt);
+        UUID lastFollowerId = MIN_UUID;
+        int written = 0;
+        while (true) {
+            List<UUID> followers = jdbcTemplate.queryForList(
+                    FOLLOWER_PAGE_SQL, UUID.class, authorId, lastFollowerId, batchSize);
+            if (followers.isEmpty()) {
+                break;
+            }
+            lastFollowerId = followers.get(followers.size() - 1);
+            written += write(followers, recipeId, authorId, postedAt);
+            if (followers.size() < batchSize) {
+                break;
+            }
+        }
+        log.info("Đã ghi công thức {} vào {} home timeline", recipeId, written);
+    }
+
+    static String buildCelebrityRecipesSql(int authors) {
+        StringJoiner placeholders = new StringJoiner(", ");
+        for (int i = 0; i < authors; i++) {
+            placeholders.add("?");
+        }
+        return "SELECT recipe_id, created_at FROM recipes "
+                + "WHERE user_id IN (" + placeholders + ") AND status = 'APPROVED' AND is_published = true "
+                + "AND (created_at, recipe_id) < (?, ?) "
+                + "ORDER BY created_at DESC, recipe_id DESC LIMIT ?";
+    }
+
+    /**
+     * Trộn hai danh sách đã sắp xếp, bỏ công thức trùng (tác giả vừa vượt ngưỡng có thể có ở cả hai nơi)
+     */
+    static List<TimelineEntry> merge(List<TimelineEntry> timeline, List<TimelineEntry> celebrity, int limit) {
+        Map<UUID, TimelineEntry> byRecipe = new HashMap<>();
+        timeline.forEach(entry -> byRecipe.putIfAbsent(entry.recipeId(), entry));
+        celebrity.forEach(entry -> byRecipe.putIfAbsent(entry.recipeId(), entry));
+        return byRecipe.values().stream()
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    private boolean isCelebrity(UUID authorId) {
+        Long followerCount = jdbcTemplate.queryForObject(FOLLOWER_COUNT_SQL, Long.class, authorId);
+        return followerCount != null && followerCount > celebrityThreshold;
+    }
+
+    private int write(List<UUID> followers, UUID recipeId, UUID authorId, Timestamp postedAt) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, followers, followers.size(), (ps, followerId) -> {
+                ps.setObject(1, followerId);
+                ps.setObject(2, recipeId);
+                ps.setObject(3, authorId);
+                ps.setTimestamp(4, postedAt);
+            });
+            writtenEntries.add(followers.size());
+            return followers.size();
+        } catch (Exception e) {
+            failedEntries.add(followers.size());
+            log.warn("Không thể ghi công thức {} vào {} home timeline: {}", recipeId, followers.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    public record TimelineEntry(UUID recipeId, LocalDateTime createdAt) {
+    }
+}
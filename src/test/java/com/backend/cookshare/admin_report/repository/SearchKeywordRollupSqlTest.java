@@ -0,0 +1,90 @@
+package com.backend.cookshare.admin_report.repository;
+
+import com.backend.cookshare.common.EmbeddedPostgresTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy các câu thống kê từ khóa của {@link SearchStatisticsRepository} trên Postgres thật
+ */
+class SearchKeywordRollupSqlTest {
+
+    private final LocalDateTime day = LocalDateTime.of(2026, 3, 1, 10, 0);
+    private final UUID lan = UUID.randomUUID();
+    private final UUID minh = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedPostgresTestSupport.freshSchema("search_rollup_sql");
+        jdbcTemplate.execute("CREATE TABLE search_history (search_id UUID PRIMARY KEY, user_id UUID NOT NULL, "
+                + "search_query TEXT NOT NULL, search_type VARCHAR(20), result_count INT, created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE search_keyword_daily (stat_date DATE NOT NULL, search_query TEXT NOT NULL, "
+                + "search_count BIGINT NOT NULL, result_sum BIGINT NOT NULL, last_searched TIMESTAMP NOT NULL, "
+                + "PRIMARY KEY (stat_date, search_query))");
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+
+        // Lan tìm "pho bo" cả hai ngày, Minh chỉ tìm ngày thứ hai
+        search(lan, "pho bo", day);
+        search(lan, "pho bo", day.plusDays(1));
+        search(minh, "pho bo", day.plusDays(1));
+        search(minh, "bun cha", day.plusDays(1));
+        jdbcTemplate.update("INSERT INTO search_keyword_daily VALUES (?, 'pho bo', 1, 4, ?), (?, 'pho bo', 2, 6, ?), "
+                        + "(?, 'bun cha', 1, 0, ?)",
+                day.toLocalDate(), Timestamp.valueOf(day),
+                day.toLocalDate().plusDays(1), Timestamp.valueOf(day.plusDays(1)),
+                day.toLocalDate().plusDays(1), Timestamp.valueOf(day.plusDays(1)));
+    }
+
+    private void search(UUID userId, String query, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO search_history VALUES (?, ?, ?, 'recipe', 3, ?)",
+                UUID.randomUUID(), userId, query, Timestamp.valueOf(at));
+    }
+
+    private static String sqlOf(String method, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return SearchStatisticsRepository.class.getMethod(method, parameterTypes).getAnnotation(Query.class).value();
+    }
+
+    @Test
+    void getPopularKeywordsFromRollup_ShouldSumCountsAcrossDays() throws NoSuchMethodException {
+        String sql = sqlOf("getPopularKeywordsFromRollup", int.class, LocalDateTime.class, LocalDateTime.class);
+
+        List<Map<String, Object>> rows = namedJdbcTemplate.queryForList(sql,
+                Map.of("limit", 10, "startDate", day, "endDate", day.plusDays(1)));
+
+        assertEquals("pho bo", rows.get(0).get("searchQuery"));
+        assertEquals(3L, ((Number) rows.get(0).get("searchCount")).longValue());
+        assertNull(rows.get(0).get("uniqueUsers"));
+    }
+
+    @Test
+    void countUniqueUsersByQueries_ShouldCountUserOnceAcrossDays() throws NoSuchMethodException {
+        String sql = sqlOf("countUniqueUsersByQueries", Collection.class, LocalDateTime.class, LocalDateTime.class);
+
+        Map<String, Long> uniqueUsers = namedJdbcTemplate.queryForList(sql,
+                        Map.of("queries", List.of("pho bo", "bun cha"),
+                                "startDate", day.toLocalDate().atStartOfDay(),
+                                "endDate", day.toLocalDate().plusDays(2).atStartOfDay()))
+                .stream()
+                .collect(Collectors.toMap(row -> (String) row.get("searchQuery"),
+                        row -> ((Number) row.get("uniqueUsers")).longValue()));
+
+        // Cộng unique_users theo từng ngày sẽ ra 3 cho "pho bo"
+        assertEquals(Map.of("pho bo", 2L, "bun cha", 1L), uniqueUsers);
+    }
+}
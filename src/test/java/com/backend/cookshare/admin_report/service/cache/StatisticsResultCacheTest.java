@@ -0,0 +1,175 @@
+package com.backend.cookshare.admin_report.service.cache;
+
+import com.backend.cookshare.admin_report.dto.recipe_response.RecipeStatisticsResponse;
+import com.backend.cookshare.admin_report.repository.RecipeStatisticsRepository;
+import com.backend.cookshare.admin_report.repository.recipe_projection.ContentAnalysisStats;
+import com.backend.cookshare.admin_report.repository.recipe_projection.RecipeOverviewCounts;
+import com.backend.cookshare.admin_report.service.cache.StatisticsResultCache.RangeKey;
+import com.backend.cookshare.admin_report.service.impl.RecipeStatisticsServiceImpl;
+import com.backend.cookshare.common.config.AsyncExecutorConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StatisticsResultCacheTest {
+
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+
+    private StatisticsResultCache newCache(boolean enabled, long freshMillis, long staleMillis) {
+        return new StatisticsResultCache(new SimpleMeterRegistry(), pendingRefreshes::add,
+                enabled, 300, freshMillis, staleMillis, 100);
+    }
+
+    @Test
+    void rangeKey_RollingRangesWithinBucket_ShouldShareKey() {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 30, 10, 2, 13);
+        LocalDateTime later = now.plusSeconds(90);
+
+        RangeKey first = RangeKey.of(now.minusDays(30), now, now, 300);
+        RangeKey second = RangeKey.of(later.minusDays(30).plusNanos(123_000), later, later, 300);
+
+        assertEquals(first, second);
+        assertEquals(RangeKey.of(null, null, now, 300), RangeKey.of(null, later, later, 300));
+        assertNotEquals(first, RangeKey.of(now.minusDays(7), now, now, 300));
+    }
+
+    @Test
+    void rangeKey_RollingRange_ShouldResolveFromCurrentBucket() {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 30, 10, 2, 13);
+        RangeKey range = RangeKey.of(now.minusDays(30), now, now, 300);
+
+        LocalDateTime end = range.resolveEnd(now.plusMinutes(4), 300);
+
+        assertEquals(LocalDateTime.of(2025, 6, 30, 10, 10), end);
+        assertEquals(LocalDateTime.of(2025, 5, 31, 10, 10), range.resolveStart(end));
+        RangeKey defaults = RangeKey.of(null, null, now, 300);
+        assertNull(defaults.resolveEnd(now, 300));
+        assertNull(defaults.resolveStart(null));
+    }
+
+    @Test
+    void rangeKey_PastRange_ShouldRoundOutwardToBucket() {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 30, 10, 0);
+        RangeKey range = RangeKey.of(LocalDateTime.of(2025, 6, 1, 8, 7, 30), LocalDateTime.of(2025, 6, 2, 8, 0), now, 300);
+
+        LocalDateTime end = range.resolveEnd(now, 300);
+
+        assertEquals(LocalDateTime.of(2025, 6, 2, 8, 0), end);
+        assertEquals(LocalDateTime.of(2025, 6, 1, 8, 5), range.resolveStart(end));
+    }
+
+    @Test
+    void get_FreshEntry_ShouldNotReload() {
+        StatisticsResultCache cache = newCache(true, 60_000, 600_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, cache.<Integer>get("recipes.overview", loads::incrementAndGet));
+        assertEquals(1, cache.<Integer>get("recipes.overview", loads::incrementAndGet));
+        assertEquals(2, cache.<Integer>get("recipes.top-viewed", loads::incrementAndGet, 10));
+
+        assertEquals(2, loads.get());
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    @Test
+    void get_StaleEntry_ShouldReturnOldValueAndRefreshInBackground() {
+        StatisticsResultCache cache = newCache(true, 0, 600_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, cache.<Integer>get("search.overview", null, null, (start, end) -> loads.incrementAndGet()));
+        assertEquals(1, cache.<Integer>get("search.overview", null, null, (start, end) -> loads.incrementAndGet()));
+        assertEquals(1, cache.<Integer>get("search.overview", null, null, (start, end) -> loads.incrementAndGet()));
+        assertEquals(1, pendingRefreshes.size());
+
+        pendingRefreshes.get(0).run();
+
+        assertEquals(2, cache.<Integer>get("search.overview", null, null, (start, end) -> loads.incrementAndGet()));
+    }
+
+    @Test
+    void get_LoaderFails_ShouldNotCacheFailure() {
+        StatisticsResultCache cache = newCache(true, 60_000, 600_000);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("recipes.overview", () -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        assertEquals(0, cache.size());
+        assertEquals("ok", cache.get("recipes.overview", () -> "ok"));
+    }
+
+    @Test
+    void get_Disabled_ShouldPassRangeThrough() {
+        StatisticsResultCache cache = newCache(false, 60_000, 600_000);
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 8, 7, 30);
+
+        assertEquals(start, cache.get("interaction.detailed", start, null, (s, e) -> s));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void refresh_TwoComprehensiveRefreshesAtOnce_ShouldNotStarveStatisticsPool() throws Exception {
+        AsyncExecutorConfig executorConfig = new AsyncExecutorConfig();
+        ThreadPoolTaskExecutor statisticsExecutor = (ThreadPoolTaskExecutor) executorConfig.statisticsExecutor();
+        ThreadPoolTaskExecutor refreshExecutor = (ThreadPoolTaskExecutor) executorConfig.statisticsRefreshExecutor();
+        try {
+            statisticsExecutor.setMaxPoolSize(2);
+            RecipeStatisticsRepository repository = mock(RecipeStatisticsRepository.class);
+            when(repository.getRecipeOverviewCounts(any(), any(), any(), any(), any(), any()))
+                    .thenReturn(mock(RecipeOverviewCounts.class));
+            when(repository.getContentAnalysisStats()).thenReturn(mock(ContentAnalysisStats.class));
+            RecipeStatisticsServiceImpl service = new RecipeStatisticsServiceImpl(repository, statisticsExecutor);
+            StatisticsResultCache cache = new StatisticsResultCache(new SimpleMeterRegistry(), refreshExecutor,
+                    true, 300, 0, 600_000, 100);
+
+            // Hai lần làm mới phải cùng chạy thì mới chiếm đủ 2 thread như trường hợp xấu nhất
+            AtomicBoolean refreshing = new AtomicBoolean();
+            CyclicBarrier bothRefreshing = new CyclicBarrier(2);
+            AtomicInteger refreshed = new AtomicInteger();
+            Map<Integer, Supplier<RecipeStatisticsResponse>> loaders = new HashMap<>();
+            for (int limit : new int[]{5, 10}) {
+                loaders.put(limit, () -> {
+                    if (refreshing.get()) {
+                        try {
+                            bothRefreshing.await(5, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                        RecipeStatisticsResponse response = service.getComprehensiveStatistics(null, null, limit);
+                        refreshed.incrementAndGet();
+                        return response;
+                    }
+                    return service.getComprehensiveStatistics(null, null, limit);
+                });
+                cache.get("recipes.comprehensive", loaders.get(limit), limit);
+            }
+
+            refreshing.set(true);
+            loaders.forEach((limit, loader) -> cache.get("recipes.comprehensive", loader, limit));
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (refreshed.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(2, refreshed.get());
+        } finally {
+            refreshExecutor.shutdown();
+            statisticsExecutor.shutdown();
+        }
+    }
+}
@@ -4,6 +4,12 @@ import com.backend.cookshare.admin_report.dto.interaction_reponse.*;
 import com.backend.cookshare.admin_report.dto.search_response.EngagementByCategoryDTO;
 import com.backend.cookshare.admin_report.repository.InteractionStatisticsRepository;
 import com.backend.cookshare.admin_report.repository.interaction_projection.*;
+import com.backend.cookshare.admin_report.service.rollup.RollupMetric;
+import com.backend.cookshare.admin_report.service.rollup.StatisticsRollupReader;
+import com.backend.cookshare.admin_report.service.rollup.StatisticsRollupReader.RecipeMetricSummary;
+import com.backend.cookshare.admin_report.service.sketch.InteractionSketchService;
+import com.backend.cookshare.admin_report.service.sketch.InteractionSketchService.PercentileSummary;
+import com.backend.cookshare.admin_report.service.sketch.InteractionSketchService.TopRecipe;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -13,6 +19,7 @@ import org.mockito.MockitoAnnotations;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +31,12 @@ class InteractionStatisticsServiceImplTest {
     @Mock
     private InteractionStatisticsRepository interactionRepository;
 
+    @Mock
+    private StatisticsRollupReader rollupReader;
+
+    @Mock
+    private InteractionSketchService interactionSketchService;
+
     @InjectMocks
     private InteractionStatisticsServiceImpl service;
 
@@ -207,4 +220,70 @@ class InteractionStatisticsServiceImplTest {
         assertEquals(1, dto.getCategoryEngagements().size());
         assertTrue(dto.getOverallEngagementRate().compareTo(BigDecimal.ZERO) > 0);
     }
+
+    // ---------------------------------------------------------
+    // 7) Test đọc từ bảng gộp khi bật rollup
+    // ---------------------------------------------------------
+    @Test
+    void testGetInteractionOverview_RollupEnabled_ShouldNotCountEventTables() {
+        when(rollupReader.isEnabled()).thenReturn(true);
+        when(rollupReader.totals(start, end)).thenReturn(Map.of(
+                RollupMetric.LIKE, 100L, RollupMetric.COMMENT, 50L,
+                RollupMetric.SAVE, 25L, RollupMetric.VIEW, 1000L));
+        when(interactionRepository.countPublishedRecipes(any(), any())).thenReturn(5L);
+
+        InteractionOverviewDTO dto = service.getInteractionOverview(start, end);
+
+        assertEquals(100L, dto.getTotalLikes());
+        assertEquals(0, new BigDecimal("17.50").compareTo(dto.getEngagementRate()));
+        assertEquals(0, BigDecimal.valueOf(20).compareTo(dto.getAverageLikesPerRecipe()));
+        verify(interactionRepository, never()).countTotalLikes(any(), any());
+        verify(interactionRepository, never()).countTotalViews(any(), any());
+    }
+
+    @Test
+    void testGetDetailedInteractionStats_RollupEnabled_ShouldUseRecipeSummaries() {
+        InteractionDistributionProjection dist = mock(InteractionDistributionProjection.class);
+        when(dist.getRange0To10()).thenReturn(3L);
+        when(rollupReader.isEnabled()).thenReturn(true);
+        when(rollupReader.recipeSummary(eq(RollupMetric.LIKE), any(), any()))
+                .thenReturn(new RecipeMetricSummary(4, 40, 25, dist));
+        when(rollupReader.recipeSummary(eq(RollupMetric.COMMENT), any(), any()))
+                .thenReturn(new RecipeMetricSummary(4, 8, 5, dist));
+        when(rollupReader.recipeSummary(eq(RollupMetric.SAVE), any(), any()))
+                .thenReturn(new RecipeMetricSummary(0, 0, 0, dist));
+        when(interactionRepository.getMedianLikesPerRecipe(any(), any())).thenReturn(BigDecimal.valueOf(6));
+
+        DetailedInteractionStatsDTO dto = service.getDetailedInteractionStats(start, end);
+
+        assertEquals(0, BigDecimal.TEN.compareTo(dto.getAverageLikesPerRecipe()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(dto.getAverageSavesPerRecipe()));
+        assertEquals(25L, dto.getMaxLikesOnRecipe());
+        assertEquals(BigDecimal.valueOf(6), dto.getMedianLikesPerRecipe());
+        assertEquals(3L, dto.getLikeDistribution().getCount0to10());
+        verify(interactionRepository, never()).getAverageLikesPerRecipe(any(), any());
+        verify(interactionRepository, never()).getInteractionDistribution(any(), any(), any());
+    }
+
+    @Test
+    void testGetDetailedInteractionStats_SketchCoversRange_ShouldSkipPercentileQueries() {
+        UUID recipeId = UUID.randomUUID();
+        InteractionDistributionProjection dist = mock(InteractionDistributionProjection.class);
+        when(interactionRepository.getInteractionDistribution(any(), any(), any())).thenReturn(dist);
+        when(interactionSketchService.covers(start, end)).thenReturn(true);
+        when(interactionSketchService.percentiles(any()))
+                .thenReturn(new PercentileSummary(BigDecimal.valueOf(2), BigDecimal.valueOf(9), 40));
+        when(interactionSketchService.topRecipes(eq(RollupMetric.COMMENT), anyInt()))
+                .thenReturn(List.of(new TopRecipe(recipeId, 12, 1)));
+
+        DetailedInteractionStatsDTO dto = service.getDetailedInteractionStats(start, end);
+
+        assertEquals(BigDecimal.valueOf(2), dto.getMedianLikesPerRecipe());
+        assertEquals(BigDecimal.valueOf(9), dto.getP90CommentsPerRecipe());
+        assertEquals(40L, dto.getMaxSavesOnRecipe());
+        assertEquals(recipeId, dto.getTopCommentedRecipes().get(0).getRecipeId());
+        assertEquals(12L, dto.getTopCommentedRecipes().get(0).getCount());
+        verify(interactionRepository, never()).getMedianLikesPerRecipe(any(), any());
+        verify(interactionRepository, never()).getMaxCommentsOnRecipe(any(), any());
+    }
 }
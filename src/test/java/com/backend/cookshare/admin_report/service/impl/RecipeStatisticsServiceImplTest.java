@@ -32,39 +32,75 @@ class RecipeStatisticsServiceImplTest {
     }
 
     // ------------------------ Recipe Overview ------------------------
-    @Test
-    void testGetRecipeOverview() {
-        when(statisticsRepository.countTotalRecipes()).thenReturn(100L);
-        when(statisticsRepository.countNewRecipes(any())).thenReturn(10L);
+    private RecipeOverviewCounts overviewCounts(long total, long today, long previousDay) {
+        RecipeOverviewCounts counts = mock(RecipeOverviewCounts.class);
+        when(counts.getTotalRecipes()).thenReturn(total);
+        when(counts.getNewToday()).thenReturn(today);
+        when(counts.getNewThisWeek()).thenReturn(today);
+        when(counts.getNewThisMonth()).thenReturn(today);
+        when(counts.getPreviousDay()).thenReturn(previousDay);
+        when(counts.getPreviousWeek()).thenReturn(previousDay);
+        when(counts.getPreviousMonth()).thenReturn(previousDay);
+        return counts;
+    }
 
-        CategoryDistribution cat = mock(CategoryDistribution.class);
-        when(cat.getName()).thenReturn("Dessert");
-        when(cat.getCount()).thenReturn(30L);
-        when(statisticsRepository.countRecipesByCategory()).thenReturn(List.of(cat));
+    private OverviewDistribution distribution(String dimension, String name, long count) {
+        OverviewDistribution distribution = mock(OverviewDistribution.class);
+        when(distribution.getDimension()).thenReturn(dimension);
+        when(distribution.getName()).thenReturn(name);
+        when(distribution.getCount()).thenReturn(count);
+        return distribution;
+    }
 
-        DifficultyDistribution diff = mock(DifficultyDistribution.class);
-        when(diff.getDifficulty()).thenReturn("EASY");
-        when(diff.getCount()).thenReturn(20L);
-        when(statisticsRepository.countRecipesByDifficulty()).thenReturn(List.of(diff));
+    @Test
+    void testGetRecipeOverview() {
+        RecipeOverviewCounts counts = overviewCounts(100L, 10L, 5L);
+        when(statisticsRepository.getRecipeOverviewCounts(any(), any(), any(), any(), any(), any())).thenReturn(counts);
+        List<OverviewDistribution> distributions = List.of(
+                distribution("CATEGORY", "Dessert", 30L),
+                distribution("DIFFICULTY", "EASY", 20L));
+        when(statisticsRepository.getOverviewDistributions()).thenReturn(distributions);
 
         RecipeOverviewDTO dto = service.getRecipeOverview();
 
         assertNotNull(dto);
         assertEquals(100L, dto.getTotalRecipes());
         assertEquals(10L, dto.getNewRecipesToday());
-        assertTrue(dto.getRecipesByCategory().containsKey("Dessert"));
+        assertEquals(100.0, dto.getGrowthRateDaily());
+        assertEquals(Map.of("Dessert", 30L), dto.getRecipesByCategory());
+        assertEquals(Map.of("EASY", 20L), dto.getRecipesByDifficulty());
+    }
+
+    @Test
+    void testGetRecipeOverview_ShouldUseSinglePassQueriesWithPreviousPeriodBounds() {
+        RecipeOverviewCounts counts = overviewCounts(0L, 0L, 0L);
+        when(statisticsRepository.getRecipeOverviewCounts(any(), any(), any(), any(), any(), any())).thenReturn(counts);
+        when(statisticsRepository.getOverviewDistributions()).thenReturn(Collections.emptyList());
+
+        service.getRecipeOverview();
+
+        ArgumentCaptor<LocalDateTime> bounds = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(statisticsRepository).getRecipeOverviewCounts(bounds.capture(), bounds.capture(), bounds.capture(),
+                bounds.capture(), bounds.capture(), bounds.capture());
+        List<LocalDateTime> values = bounds.getAllValues();
+        // Kỳ trước kết thúc đúng tại đầu kỳ hiện tại
+        assertEquals(values.get(0).minusDays(1), values.get(3));
+        assertEquals(values.get(1).minusWeeks(1), values.get(4));
+        assertEquals(values.get(2).minusMonths(1), values.get(5));
+        verify(statisticsRepository, times(1)).getOverviewDistributions();
+        verifyNoMoreInteractions(statisticsRepository);
     }
 
     @Test
     void testGetRecipeOverviewEmpty() {
-        when(statisticsRepository.countTotalRecipes()).thenReturn(0L);
-        when(statisticsRepository.countNewRecipes(any())).thenReturn(0L);
-        when(statisticsRepository.countRecipesByCategory()).thenReturn(Collections.emptyList());
-        when(statisticsRepository.countRecipesByDifficulty()).thenReturn(Collections.emptyList());
+        RecipeOverviewCounts counts = overviewCounts(0L, 0L, 0L);
+        when(statisticsRepository.getRecipeOverviewCounts(any(), any(), any(), any(), any(), any())).thenReturn(counts);
+        when(statisticsRepository.getOverviewDistributions()).thenReturn(Collections.emptyList());
 
         RecipeOverviewDTO dto = service.getRecipeOverview();
 
         assertEquals(0L, dto.getTotalRecipes());
+        assertEquals(0.0, dto.getGrowthRateDaily());
         assertTrue(dto.getRecipesByCategory().isEmpty());
     }
 
@@ -236,55 +272,38 @@ class RecipeStatisticsServiceImplTest {
     // ------------------------ Content Analysis ------------------------
     @Test
     void testContentAnalysis() throws Exception {
-        CookingTimeStats cook = mock(CookingTimeStats.class);
-        when(cook.getAvgCookTime()).thenReturn(10.0);
-        when(cook.getAvgPrepTime()).thenReturn(5.0);
-        when(cook.getAvgTotalTime()).thenReturn(15.0);
-        when(statisticsRepository.getAverageCookingTimes()).thenReturn(cook);
-        when(statisticsRepository.getAverageIngredientCount()).thenReturn(7.0);
-        when(statisticsRepository.getAverageStepCount()).thenReturn(5.0);
-
-        MediaStats ms = mock(MediaStats.class);
-        when(ms.getTotalRecipes()).thenReturn(100L);
-        when(ms.getRecipesWithImage()).thenReturn(80L);
-        when(ms.getRecipesWithVideo()).thenReturn(20L);
-        when(statisticsRepository.getMediaStatistics()).thenReturn(ms);
-
-        ContentLengthStats cl = mock(ContentLengthStats.class);
-        when(cl.getAvgDescriptionLength()).thenReturn(100.0);
-        when(cl.getAvgInstructionLength()).thenReturn(200.0);
-        when(statisticsRepository.getAverageContentLength()).thenReturn(cl);
+        ContentAnalysisStats stats = mock(ContentAnalysisStats.class);
+        when(stats.getAvgCookTime()).thenReturn(10.0);
+        when(stats.getAvgPrepTime()).thenReturn(5.0);
+        when(stats.getAvgTotalTime()).thenReturn(15.0);
+        when(stats.getAvgIngredientCount()).thenReturn(7.0);
+        when(stats.getAvgStepCount()).thenReturn(5.0);
+        when(stats.getTotalRecipes()).thenReturn(100L);
+        when(stats.getRecipesWithImage()).thenReturn(80L);
+        when(stats.getRecipesWithVideo()).thenReturn(20L);
+        when(stats.getAvgDescriptionLength()).thenReturn(100.0);
+        when(stats.getAvgInstructionLength()).thenReturn(200.0);
+        when(statisticsRepository.getContentAnalysisStats()).thenReturn(stats);
 
         RecipeContentAnalysisDTO dto = service.getContentAnalysis();
         assertEquals(80L, dto.getRecipesWithImage());
         assertEquals(20.0, dto.getVideoPercentage());
+        assertEquals(7.0, dto.getAvgIngredientCount());
+        assertEquals(15.0, dto.getAvgTotalTime());
     }
 
     @Test
     void testContentAnalysisNullMedia() throws Exception {
-        CookingTimeStats cookStats = mock(CookingTimeStats.class);
-        when(cookStats.getAvgCookTime()).thenReturn(0.0);
-        when(cookStats.getAvgPrepTime()).thenReturn(0.0);
-        when(cookStats.getAvgTotalTime()).thenReturn(0.0);
-
-        MediaStats mediaStats = mock(MediaStats.class);
-        when(mediaStats.getTotalRecipes()).thenReturn(0L);
-        when(mediaStats.getRecipesWithImage()).thenReturn(0L);
-        when(mediaStats.getRecipesWithVideo()).thenReturn(0L);
-
-        ContentLengthStats contentStats = mock(ContentLengthStats.class);
-        when(contentStats.getAvgDescriptionLength()).thenReturn(0.0);
-        when(contentStats.getAvgInstructionLength()).thenReturn(0.0);
-
-        when(statisticsRepository.getAverageCookingTimes()).thenReturn(cookStats);
-        when(statisticsRepository.getAverageIngredientCount()).thenReturn(0.0);
-        when(statisticsRepository.getAverageStepCount()).thenReturn(0.0);
-        when(statisticsRepository.getMediaStatistics()).thenReturn(mediaStats);
-        when(statisticsRepository.getAverageContentLength()).thenReturn(contentStats);
+        ContentAnalysisStats stats = mock(ContentAnalysisStats.class);
+        when(stats.getTotalRecipes()).thenReturn(0L);
+        when(stats.getRecipesWithImage()).thenReturn(0L);
+        when(stats.getRecipesWithVideo()).thenReturn(0L);
+        when(statisticsRepository.getContentAnalysisStats()).thenReturn(stats);
 
         RecipeContentAnalysisDTO dto = service.getContentAnalysis();
         assertNotNull(dto);
         assertEquals(0.0, dto.getVideoPercentage());
+        assertEquals(0.0, dto.getAvgStepCount());
         assertEquals(0L, dto.getRecipesWithImage());
     }
 
@@ -411,27 +430,30 @@ class RecipeStatisticsServiceImplTest {
         LocalDateTime end = LocalDateTime.now();
 
         // Mock các repository trả dữ liệu giả lập
-        when(statisticsRepository.countTotalRecipes()).thenReturn(10L);
-        when(statisticsRepository.countNewRecipes(any())).thenReturn(2L);
-        when(statisticsRepository.countRecipesByCategory()).thenReturn(Collections.emptyList());
-        when(statisticsRepository.countRecipesByDifficulty()).thenReturn(Collections.emptyList());
+        RecipeOverviewCounts counts = overviewCounts(10L, 2L, 1L);
+        when(statisticsRepository.getRecipeOverviewCounts(any(), any(), any(), any(), any(), any())).thenReturn(counts);
+        when(statisticsRepository.getOverviewDistributions()).thenReturn(Collections.emptyList());
         when(statisticsRepository.findTopViewedRecipes(anyInt())).thenReturn(Collections.emptyList());
         when(statisticsRepository.findTopLikedRecipes(anyInt())).thenReturn(Collections.emptyList());
         when(statisticsRepository.findTopSavedRecipes(anyInt())).thenReturn(Collections.emptyList());
         when(statisticsRepository.findTrendingRecipes(any(), anyInt())).thenReturn(Collections.emptyList());
         when(statisticsRepository.findLowPerformanceRecipes(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(statisticsRepository.getAverageCookingTimes()).thenReturn(mock(CookingTimeStats.class));
-        when(statisticsRepository.getAverageIngredientCount()).thenReturn(0.0);
-        when(statisticsRepository.getAverageStepCount()).thenReturn(0.0);
-        when(statisticsRepository.getMediaStatistics()).thenReturn(mock(MediaStats.class));
-        when(statisticsRepository.getAverageContentLength()).thenReturn(mock(ContentLengthStats.class));
+        ContentAnalysisStats contentStats = mock(ContentAnalysisStats.class);
+        when(contentStats.getTotalRecipes()).thenReturn(10L);
+        when(contentStats.getRecipesWithImage()).thenReturn(5L);
+        when(contentStats.getRecipesWithVideo()).thenReturn(1L);
+        when(statisticsRepository.getContentAnalysisStats()).thenReturn(contentStats);
         when(statisticsRepository.getTimeSeriesData(any(), any())).thenReturn(Collections.emptyList());
 
         var stats = service.getComprehensiveStatistics(start, end, 5);
 
         assertNotNull(stats);
         assertNotNull(stats.getOverview());
+        assertEquals(10L, stats.getOverview().getTotalRecipes());
+        assertEquals(50.0, stats.getContentAnalysis().getImagePercentage());
         assertTrue(stats.getTopViewedRecipes().isEmpty());
+        verify(statisticsRepository, times(1)).getRecipeOverviewCounts(any(), any(), any(), any(), any(), any());
+        verify(statisticsRepository, times(1)).getContentAnalysisStats();
     }
 
     // ------------------------ Async executor test ------------------------
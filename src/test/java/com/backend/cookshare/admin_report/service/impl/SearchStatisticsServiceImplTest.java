@@ -3,21 +3,26 @@ package com.backend.cookshare.admin_report.service.impl;
 import com.backend.cookshare.admin_report.dto.search_response.*;
 import com.backend.cookshare.admin_report.repository.SearchStatisticsRepository;
 import com.backend.cookshare.admin_report.repository.search_projection.*;
+import com.backend.cookshare.admin_report.service.rollup.RollupMetric;
+import com.backend.cookshare.admin_report.service.rollup.StatisticsRollupReader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +31,9 @@ class SearchStatisticsServiceImplTest {
     @Mock
     private SearchStatisticsRepository searchRepository;
 
+    @Mock
+    private StatisticsRollupReader statisticsRollupReader;
+
     @InjectMocks
     private SearchStatisticsServiceImpl searchService;
 
@@ -71,6 +79,23 @@ class SearchStatisticsServiceImplTest {
         assertEquals(BigDecimal.ZERO, result.getAverageSearchesPerUser());
     }
 
+    @Test
+    void getSearchOverview_WithStatisticsRollup_ShouldReadTotalsFromRollup() {
+        when(statisticsRollupReader.isEnabled()).thenReturn(true);
+        when(statisticsRollupReader.totals(startDate, endDate))
+                .thenReturn(Map.of(RollupMetric.SEARCH, 100L, RollupMetric.SEARCH_SUCCESS, 80L));
+        when(searchRepository.countUniqueQueries(startDate, endDate)).thenReturn(50L);
+        when(searchRepository.countUniqueSearchUsers(startDate, endDate)).thenReturn(20L);
+        when(searchRepository.getAverageResultsPerSearch(startDate, endDate)).thenReturn(BigDecimal.ONE);
+
+        SearchOverviewDTO result = searchService.getSearchOverview(startDate, endDate);
+
+        assertEquals(100L, result.getTotalSearches());
+        assertEquals(80L, result.getSuccessfulSearches());
+        verify(searchRepository, never()).countTotalSearches(any(), any());
+        verify(searchRepository, never()).countSuccessfulSearches(any(), any());
+    }
+
     // ==================== getPopularKeywords ====================
     @Test
     void getPopularKeywords_ShouldReturnList() {
@@ -92,6 +117,32 @@ class SearchStatisticsServiceImplTest {
         assertEquals("chicken", result.getKeywords().get(0).getKeyword());
     }
 
+    @Test
+    void getPopularKeywords_WithRollupEnabled_ShouldReadRollupTable() {
+        ReflectionTestUtils.setField(searchService, "rollupEnabled", true);
+        PopularKeywordProjection projection = mock(PopularKeywordProjection.class);
+        when(projection.getSearchQuery()).thenReturn("pho bo");
+        when(projection.getSearchCount()).thenReturn(42L);
+
+        when(searchRepository.getPopularKeywordsFromRollup(5, startDate, endDate)).thenReturn(List.of(projection));
+        when(searchRepository.countUniqueQueriesFromRollup(startDate, endDate)).thenReturn(7L);
+        KeywordUserCountProjection userCount = mock(KeywordUserCountProjection.class);
+        when(userCount.getSearchQuery()).thenReturn("pho bo");
+        when(userCount.getUniqueUsers()).thenReturn(3L);
+        when(searchRepository.countUniqueUsersByQueries(List.of("pho bo"),
+                startDate.toLocalDate().atStartOfDay(), endDate.toLocalDate().plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(userCount));
+
+        PopularKeywordsDTO result = searchService.getPopularKeywords(5, startDate, endDate);
+
+        assertEquals("pho bo", result.getKeywords().get(0).getKeyword());
+        // Số user khác nhau lấy từ search_history, không cộng từ các ngày của bảng gộp
+        assertEquals(3L, result.getKeywords().get(0).getUniqueUsers());
+        assertEquals(7, result.getTotalUniqueKeywords());
+        verify(searchRepository, never()).getPopularKeywords(anyInt(), any(), any());
+        verify(searchRepository, never()).countUniqueQueries(any(), any());
+    }
+
     // ==================== getPopularIngredients ====================
     @Test
     void getPopularIngredients_ShouldReturnList() {
@@ -0,0 +1,100 @@
+package com.backend.cookshare.admin_report.service.rollup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticsRollupJobTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final LocalDateTime upperBound = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private StatisticsRollupJob newJob(boolean enabled, long maxWindowHours) {
+        return new StatisticsRollupJob(jdbcTemplate, transactionManager, new SimpleMeterRegistry(),
+                enabled, 120, maxWindowHours);
+    }
+
+    private void lockAcquired(RollupMetric metric, boolean acquired) {
+        when(jdbcTemplate.queryForObject(StatisticsRollupJob.LOCK_SQL, Boolean.class,
+                StatisticsRollupJob.ADVISORY_LOCK_KEY + metric.ordinal())).thenReturn(acquired);
+    }
+
+    @Test
+    void rollupMetric_FirstRun_ShouldStartFromOldestEventHourAndCapWindow() {
+        StatisticsRollupJob job = newJob(true, 1);
+        lockAcquired(RollupMetric.LIKE, true);
+        when(jdbcTemplate.queryForList(StatisticsRollupJob.WATERMARK_SQL, Timestamp.class, "LIKE")).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(StatisticsRollupJob.oldestEventSql(RollupMetric.LIKE), Timestamp.class))
+                .thenReturn(Timestamp.valueOf(LocalDateTime.of(2025, 6, 1, 8, 37)));
+        when(jdbcTemplate.update(anyString(), any(), any(), any())).thenReturn(2);
+
+        int rows = job.rollupMetric(RollupMetric.LIKE, upperBound);
+
+        Timestamp from = Timestamp.valueOf(LocalDateTime.of(2025, 6, 1, 8, 0));
+        Timestamp to = Timestamp.valueOf(LocalDateTime.of(2025, 6, 1, 9, 0));
+        assertEquals(8, rows);
+        verify(jdbcTemplate).update(StatisticsRollupJob.hourlySql(RollupMetric.LIKE), "LIKE", from, to);
+        verify(jdbcTemplate).update(StatisticsRollupJob.categoryDailySql(RollupMetric.LIKE), "LIKE", from, to);
+        verify(jdbcTemplate).update(StatisticsRollupJob.SAVE_WATERMARK_SQL, "LIKE", to);
+    }
+
+    @Test
+    void rollupMetric_WithoutRecipe_ShouldOnlyWriteHourlyAndDaily() {
+        StatisticsRollupJob job = newJob(true, 168);
+        Timestamp watermark = Timestamp.valueOf(LocalDateTime.of(2025, 6, 1, 11, 0));
+        Timestamp upper = Timestamp.valueOf(upperBound);
+        lockAcquired(RollupMetric.FOLLOW, true);
+        when(jdbcTemplate.queryForList(StatisticsRollupJob.WATERMARK_SQL, Timestamp.class, "FOLLOW"))
+                .thenReturn(List.of(watermark));
+
+        job.rollupMetric(RollupMetric.FOLLOW, upperBound);
+
+        verify(jdbcTemplate).update(StatisticsRollupJob.hourlySql(RollupMetric.FOLLOW), "FOLLOW", watermark, upper);
+        verify(jdbcTemplate).update(StatisticsRollupJob.dailySql(RollupMetric.FOLLOW), "FOLLOW", watermark, upper);
+        verify(jdbcTemplate).update(StatisticsRollupJob.SAVE_WATERMARK_SQL, "FOLLOW", upper);
+        verify(jdbcTemplate, times(2)).update(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void rollupMetric_LockHeldByOtherInstance_ShouldSkip() {
+        StatisticsRollupJob job = newJob(true, 168);
+        lockAcquired(RollupMetric.VIEW, false);
+
+        assertEquals(0, job.rollupMetric(RollupMetric.VIEW, upperBound));
+
+        verify(jdbcTemplate).queryForObject(StatisticsRollupJob.LOCK_SQL, Boolean.class,
+                StatisticsRollupJob.ADVISORY_LOCK_KEY + RollupMetric.VIEW.ordinal());
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void scheduledRollup_Disabled_ShouldNotTouchDatabase() {
+        newJob(false, 168).scheduledRollup();
+
+        verifyNoInteractions(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void sql_ShouldApplyMetricFilterAndUpsert() {
+        String sql = StatisticsRollupJob.hourlySql(RollupMetric.SEARCH_SUCCESS);
+
+        assertTrue(sql.contains("FROM search_history e WHERE e.created_at >= ? AND e.created_at < ? AND e.result_count > 0"));
+        assertTrue(sql.contains("ON CONFLICT (metric, bucket_start) DO UPDATE"));
+        assertTrue(StatisticsRollupJob.recipeDailySql(RollupMetric.VIEW).contains("e.target_id IS NOT NULL"));
+    }
+}
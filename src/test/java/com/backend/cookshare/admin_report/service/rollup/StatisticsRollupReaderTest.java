@@ -0,0 +1,44 @@
+package com.backend.cookshare.admin_report.service.rollup;
+
+import com.backend.cookshare.admin_report.service.rollup.StatisticsRollupReader.RangeSplit;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsRollupReaderTest {
+
+    @Test
+    void rangeSplit_ShouldReadFullDaysFromDailyAndEdgesFromHourly() {
+        RangeSplit split = RangeSplit.of(LocalDateTime.of(2025, 6, 1, 9, 30), LocalDateTime.of(2025, 6, 5, 14, 10));
+
+        assertEquals(LocalDate.of(2025, 6, 2), split.fullDaysStart());
+        assertEquals(LocalDate.of(2025, 6, 5), split.fullDaysEnd());
+        assertEquals(LocalDateTime.of(2025, 6, 1, 9, 0), split.headStart());
+        assertEquals(LocalDateTime.of(2025, 6, 2, 0, 0), split.headEnd());
+        assertEquals(LocalDateTime.of(2025, 6, 5, 0, 0), split.tailStart());
+        assertEquals(LocalDateTime.of(2025, 6, 5, 14, 10), split.tailEnd());
+    }
+
+    @Test
+    void rangeSplit_StartAtMidnight_ShouldIncludeFirstDayAsFullDay() {
+        RangeSplit split = RangeSplit.of(LocalDateTime.of(2025, 6, 1, 0, 0), LocalDateTime.of(2025, 6, 3, 0, 0));
+
+        assertEquals(LocalDate.of(2025, 6, 1), split.fullDaysStart());
+        assertEquals(LocalDate.of(2025, 6, 3), split.fullDaysEnd());
+        assertEquals(split.headStart(), split.headEnd());
+        assertEquals(split.tailStart(), split.tailEnd());
+    }
+
+    @Test
+    void rangeSplit_WithinOneDay_ShouldOnlyReadHourly() {
+        RangeSplit split = RangeSplit.of(LocalDateTime.of(2025, 6, 1, 9, 30), LocalDateTime.of(2025, 6, 1, 18, 0));
+
+        assertEquals(split.fullDaysStart(), split.fullDaysEnd());
+        assertEquals(LocalDateTime.of(2025, 6, 1, 9, 0), split.headStart());
+        assertEquals(LocalDateTime.of(2025, 6, 1, 18, 0), split.headEnd());
+        assertEquals(split.tailStart(), split.tailEnd());
+    }
+}
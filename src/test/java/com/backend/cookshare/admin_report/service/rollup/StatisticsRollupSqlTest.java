@@ -0,0 +1,133 @@
+package com.backend.cookshare.admin_report.service.rollup;
+
+import com.backend.cookshare.admin_report.repository.interaction_projection.CategoryEngagementProjection;
+import com.backend.cookshare.admin_report.repository.interaction_projection.FollowTrendProjection;
+import com.backend.cookshare.admin_report.repository.interaction_projection.HourlyInteractionProjection;
+import com.backend.cookshare.admin_report.service.rollup.StatisticsRollupReader.RecipeMetricSummary;
+import com.backend.cookshare.common.EmbeddedPostgresTestSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy các câu SQL của {@link StatisticsRollupJob} và {@link StatisticsRollupReader} trên Postgres thật
+ */
+class StatisticsRollupSqlTest {
+
+    private final UUID recipeA = UUID.randomUUID();
+    private final UUID recipeB = UUID.randomUUID();
+    private final UUID category = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+    private StatisticsRollupReader reader;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedPostgresTestSupport.freshSchema("rollup_sql");
+        jdbcTemplate.execute("CREATE TABLE stats_metric_hourly (metric VARCHAR(20) NOT NULL, bucket_start TIMESTAMP NOT NULL, "
+                + "event_count BIGINT NOT NULL, PRIMARY KEY (metric, bucket_start))");
+        jdbcTemplate.execute("CREATE TABLE stats_metric_daily (metric VARCHAR(20) NOT NULL, bucket_date DATE NOT NULL, "
+                + "event_count BIGINT NOT NULL, PRIMARY KEY (metric, bucket_date))");
+        jdbcTemplate.execute("CREATE TABLE stats_recipe_daily (metric VARCHAR(20) NOT NULL, bucket_date DATE NOT NULL, "
+                + "recipe_id UUID NOT NULL, event_count BIGINT NOT NULL, PRIMARY KEY (metric, bucket_date, recipe_id))");
+        jdbcTemplate.execute("CREATE TABLE stats_category_daily (metric VARCHAR(20) NOT NULL, bucket_date DATE NOT NULL, "
+                + "category_id UUID NOT NULL, event_count BIGINT NOT NULL, PRIMARY KEY (metric, bucket_date, category_id))");
+        jdbcTemplate.execute("CREATE TABLE stats_rollup_watermark (metric VARCHAR(20) PRIMARY KEY, high_watermark TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE recipes (recipe_id UUID PRIMARY KEY, is_published BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE categories (category_id UUID PRIMARY KEY, name VARCHAR(100))");
+        jdbcTemplate.execute("CREATE TABLE recipe_categories (recipe_id UUID NOT NULL, category_id UUID NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE recipe_likes (recipe_id UUID NOT NULL, created_at TIMESTAMP NOT NULL)");
+
+        jdbcTemplate.update("INSERT INTO recipes VALUES (?, true), (?, true), (?, true), (?, false)",
+                recipeA, recipeB, UUID.randomUUID(), UUID.randomUUID());
+        jdbcTemplate.update("INSERT INTO categories VALUES (?, 'Món chính')", category);
+        jdbcTemplate.update("INSERT INTO recipe_categories VALUES (?, ?)", recipeA, category);
+        reader = new StatisticsRollupReader(jdbcTemplate, true);
+    }
+
+    private void like(UUID recipeId, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO recipe_likes VALUES (?, ?)", recipeId, Timestamp.valueOf(at));
+    }
+
+    private void follows(LocalDate day, long count) {
+        jdbcTemplate.update("INSERT INTO stats_metric_daily (metric, bucket_date, event_count) VALUES ('FOLLOW', ?, ?)",
+                Date.valueOf(day), count);
+    }
+
+    @Test
+    void rollupThenRead_ShouldMatchRawEvents() {
+        like(recipeA, LocalDateTime.of(2025, 6, 1, 9, 15));
+        like(recipeA, LocalDateTime.of(2025, 6, 1, 9, 40));
+        like(recipeA, LocalDateTime.of(2025, 6, 2, 20, 5));
+        like(recipeB, LocalDateTime.of(2025, 6, 2, 21, 0));
+        StatisticsRollupJob job = new StatisticsRollupJob(jdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()), new SimpleMeterRegistry(), true, 0, 168);
+
+        assertTrue(job.rollupMetric(RollupMetric.LIKE, LocalDateTime.of(2025, 6, 3, 0, 0)) > 0);
+        // Chạy lại với cùng mốc không được đếm trùng
+        assertEquals(0, job.rollupMetric(RollupMetric.LIKE, LocalDateTime.of(2025, 6, 3, 0, 0)));
+
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 9, 30);
+        LocalDateTime end = LocalDateTime.of(2025, 6, 3, 0, 0);
+        Map<RollupMetric, Long> totals = reader.totals(start, end);
+        assertEquals(4L, totals.get(RollupMetric.LIKE));
+        assertEquals(0L, totals.get(RollupMetric.COMMENT));
+
+        List<HourlyInteractionProjection> byHour = reader.interactionsByHour(start, end);
+        assertEquals(List.of(9, 20, 21), byHour.stream().map(HourlyInteractionProjection::getHour).toList());
+        assertEquals(2L, byHour.get(0).getLikes());
+
+        RecipeMetricSummary summary = reader.recipeSummary(RollupMetric.LIKE, start, end);
+        assertEquals(3, summary.publishedRecipes());
+        assertEquals(4, summary.total());
+        assertEquals(3, summary.max());
+        assertEquals(3L, summary.distribution().getRange0To10());
+
+        List<CategoryEngagementProjection> categories = reader.engagementByCategory(start, end);
+        assertEquals(1, categories.size());
+        assertEquals(1L, categories.get(0).getRecipeCount());
+        assertEquals(3L, categories.get(0).getTotalLikes());
+    }
+
+    @Test
+    void followTrends_ByWeek_ShouldGroupAndAccumulate() {
+        follows(LocalDate.of(2025, 6, 2), 3);
+        follows(LocalDate.of(2025, 6, 4), 2);
+        follows(LocalDate.of(2025, 6, 10), 5);
+        jdbcTemplate.update("INSERT INTO stats_metric_daily VALUES ('LIKE', '2025-06-03', 100)");
+
+        List<FollowTrendProjection> trends = reader.followTrends(
+                LocalDateTime.of(2025, 6, 1, 0, 0), LocalDateTime.of(2025, 6, 30, 0, 0), "WEEK");
+
+        assertEquals(2, trends.size());
+        assertEquals(LocalDateTime.of(2025, 6, 2, 0, 0), trends.get(0).getPeriodDate());
+        assertEquals(5L, trends.get(0).getNewFollows());
+        assertEquals(5L, trends.get(0).getCumulativeFollows());
+        assertEquals(LocalDateTime.of(2025, 6, 9, 0, 0), trends.get(1).getPeriodDate());
+        assertEquals(5L, trends.get(1).getNewFollows());
+        assertEquals(10L, trends.get(1).getCumulativeFollows());
+    }
+
+    @Test
+    void followTrends_ByDay_ShouldReturnOneRowPerDay() {
+        follows(LocalDate.of(2025, 6, 2), 1);
+        follows(LocalDate.of(2025, 6, 3), 4);
+
+        List<FollowTrendProjection> trends = reader.followTrends(
+                LocalDateTime.of(2025, 6, 1, 0, 0), LocalDateTime.of(2025, 6, 3, 12, 0), "DAY");
+
+        assertEquals(List.of(1L, 5L), trends.stream().map(FollowTrendProjection::getCumulativeFollows).toList());
+    }
+}
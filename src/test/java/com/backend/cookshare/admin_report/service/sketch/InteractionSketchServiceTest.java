@@ -0,0 +1,165 @@
+package com.backend.cookshare.admin_report.service.sketch;
+
+import com.backend.cookshare.admin_report.service.rollup.RollupMetric;
+import com.backend.cookshare.admin_report.service.sketch.InteractionSketchService.PercentileSummary;
+import com.backend.cookshare.admin_report.service.sketch.InteractionSketchService.TopRecipe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InteractionSketchServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate today = LocalDate.of(2025, 6, 30);
+    private final UUID recipeA = UUID.randomUUID();
+    private final UUID recipeB = UUID.randomUUID();
+
+    private InteractionSketchService newService() {
+        return new InteractionSketchService(jdbcTemplate, new SimpleMeterRegistry(), true, 31, 3, 200);
+    }
+
+    private InteractionSketchService restoredService(long publishedRecipes) {
+        when(jdbcTemplate.queryForObject(InteractionSketchService.PUBLISHED_COUNT_SQL, Long.class)).thenReturn(publishedRecipes);
+        InteractionSketchService service = newService();
+        service.restore(today);
+        return service;
+    }
+
+    @Test
+    void percentiles_ShouldCountPublishedRecipesWithoutEventsAsZero() {
+        InteractionSketchService service = restoredService(10);
+        for (int i = 0; i < 3; i++) {
+            service.record(RollupMetric.LIKE, recipeA, today.minusDays(i));
+        }
+        service.record(RollupMetric.LIKE, recipeB, today);
+
+        PercentileSummary summary = service.percentiles(RollupMetric.LIKE, today);
+
+        assertEquals(BigDecimal.ZERO, summary.median());
+        assertEquals(BigDecimal.ONE, summary.p90());
+        assertEquals(3, summary.max());
+        assertEquals(0, service.percentiles(RollupMetric.SAVE, today).max());
+    }
+
+    @Test
+    void percentiles_DaysOutsideWindow_ShouldExpire() {
+        InteractionSketchService service = restoredService(2);
+        service.record(RollupMetric.COMMENT, recipeA, today.minusDays(30));
+        service.record(RollupMetric.COMMENT, recipeA, today);
+
+        assertEquals(2, service.percentiles(RollupMetric.COMMENT, today).max());
+        assertEquals(1, service.percentiles(RollupMetric.COMMENT, today.plusDays(1)).max());
+    }
+
+    @Test
+    void covers_ShouldRequireRangeEndingTodayNearWindowStart() {
+        InteractionSketchService service = newService();
+        LocalDateTime end = today.atTime(15, 0);
+
+        assertTrue(service.covers(today.minusDays(30).atStartOfDay(), end, today));
+        assertTrue(service.covers(today.minusDays(33).atStartOfDay(), end, today));
+        assertFalse(service.covers(today.minusDays(7).atStartOfDay(), end, today));
+        assertFalse(service.covers(today.minusDays(30).atStartOfDay(), today.minusDays(1).atTime(23, 0), today));
+        assertFalse(new InteractionSketchService(jdbcTemplate, new SimpleMeterRegistry(), false, 31, 3, 200)
+                .covers(today.minusDays(30).atStartOfDay(), end, today));
+    }
+
+    @Test
+    void topRecipes_ShouldMergeDailyCounters() {
+        InteractionSketchService service = newService();
+        LocalDate now = LocalDate.now();
+        service.record(RollupMetric.COMMENT, recipeA, now.minusDays(1));
+        service.record(RollupMetric.COMMENT, recipeA, now);
+        service.record(RollupMetric.COMMENT, recipeB, now);
+
+        List<TopRecipe> top = service.topRecipes(RollupMetric.COMMENT, 1);
+
+        assertEquals(List.of(new TopRecipe(recipeA, 2, 0)), top);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkpoint_ShouldWriteOnlyChangedRowsAndPrune() {
+        InteractionSketchService service = restoredService(5);
+        service.record(RollupMetric.LIKE, recipeA, today);
+        service.record(RollupMetric.LIKE, recipeA, today);
+        service.record(RollupMetric.SAVE, recipeB, today);
+
+        assertEquals(2, service.checkpoint(today));
+        assertEquals(0, service.checkpoint(today));
+
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(InteractionSketchService.UPSERT_SQL), anyList(), eq(1),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, times(2)).update(InteractionSketchService.PRUNE_SQL, Date.valueOf(today.minusDays(30)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkpoint_ShouldWriteDeltaSinceLastCheckpoint() {
+        InteractionSketchService service = restoredService(5);
+        service.record(RollupMetric.LIKE, recipeA, today);
+        service.record(RollupMetric.LIKE, recipeA, today);
+        service.checkpoint(today);
+        service.record(RollupMetric.LIKE, recipeA, today);
+        service.checkpoint(today);
+
+        ArgumentCaptor<List<InteractionSketchService.DayCount>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(InteractionSketchService.UPSERT_SQL), rows.capture(), eq(1),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(new InteractionSketchService.DayCount(today, recipeA, 2)), rows.getAllValues().get(0));
+        assertEquals(List.of(new InteractionSketchService.DayCount(today, recipeA, 1)), rows.getAllValues().get(1));
+        assertEquals(3, service.percentiles(RollupMetric.LIKE, today).max());
+    }
+
+    @Test
+    void restore_EmptyCheckpoint_ShouldSeedFromEventTablesAndDropEarlierRecords() {
+        when(jdbcTemplate.update(eq(InteractionSketchService.seedSql(RollupMetric.LIKE)), any(Object[].class))).thenReturn(4);
+        when(jdbcTemplate.queryForObject(InteractionSketchService.PUBLISHED_COUNT_SQL, Long.class)).thenReturn(5L);
+        InteractionSketchService service = newService();
+        service.record(RollupMetric.LIKE, recipeA, today);
+        service.record(RollupMetric.SAVE, recipeA, today);
+
+        service.restore(today);
+
+        // Sự kiện LIKE ghi trước lúc nạp đã nằm trong số tính từ bảng gốc, SAVE chưa được nạp thì giữ nguyên
+        assertEquals(0, service.percentiles(RollupMetric.LIKE, today).max());
+        assertEquals(1, service.percentiles(RollupMetric.SAVE, today).max());
+        verify(jdbcTemplate).update(InteractionSketchService.seedSql(RollupMetric.COMMENT), "COMMENT",
+                Timestamp.valueOf(today.minusDays(30).atStartOfDay()), "COMMENT");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkpoint_RestoreFailed_ShouldNotOverwriteCheckpoint() {
+        doThrow(new DataAccessResourceFailureException("down")).when(jdbcTemplate)
+                .query(eq(InteractionSketchService.RESTORE_SQL), any(RowCallbackHandler.class), any(Date.class));
+        InteractionSketchService service = newService();
+        service.record(RollupMetric.LIKE, recipeA, today);
+
+        assertEquals(0, service.checkpoint(today));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+}
@@ -0,0 +1,99 @@
+package com.backend.cookshare.admin_report.service.sketch;
+
+import com.backend.cookshare.admin_report.service.rollup.RollupMetric;
+import com.backend.cookshare.common.EmbeddedPostgresTestSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy các câu SQL checkpoint của {@link InteractionSketchService} trên Postgres thật
+ */
+class InteractionSketchSqlTest {
+
+    private final LocalDate today = LocalDate.now();
+    private final UUID recipeA = UUID.randomUUID();
+    private final UUID recipeB = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedPostgresTestSupport.freshSchema("sketch_sql");
+        jdbcTemplate.execute("CREATE TABLE interaction_sketch_checkpoint (metric VARCHAR(20) NOT NULL, bucket_date DATE NOT NULL, "
+                + "recipe_id UUID NOT NULL, event_count BIGINT NOT NULL, PRIMARY KEY (metric, bucket_date, recipe_id))");
+        jdbcTemplate.execute("CREATE TABLE recipes (recipe_id UUID PRIMARY KEY, is_published BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE recipe_likes (recipe_id UUID NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE comments (recipe_id UUID NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE collection_recipes (recipe_id UUID NOT NULL, added_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.update("INSERT INTO recipes VALUES (?, true), (?, true)", recipeA, recipeB);
+    }
+
+    private InteractionSketchService newService() {
+        return new InteractionSketchService(jdbcTemplate, new SimpleMeterRegistry(), true, 31, 3, 200);
+    }
+
+    private long checkpointed(RollupMetric metric, UUID recipeId) {
+        Long count = jdbcTemplate.queryForObject("SELECT SUM(event_count) FROM interaction_sketch_checkpoint "
+                + "WHERE metric = ? AND recipe_id = ?", Long.class, metric.name(), recipeId);
+        return count != null ? count : 0;
+    }
+
+    private void like(UUID recipeId, LocalDate day) {
+        jdbcTemplate.update("INSERT INTO recipe_likes VALUES (?, ?)", recipeId, Timestamp.valueOf(day.atTime(10, 0)));
+    }
+
+    @Test
+    void restore_EmptyCheckpoint_ShouldSeedFromEventTablesOnce() {
+        like(recipeA, today);
+        like(recipeA, today.minusDays(3));
+        like(recipeB, today.minusDays(3));
+        like(recipeB, today.minusDays(40));
+        jdbcTemplate.update("INSERT INTO collection_recipes VALUES (?, ?)", recipeB, Timestamp.valueOf(today.atStartOfDay()));
+
+        InteractionSketchService first = newService();
+        first.restore(today);
+        // Instance thứ hai khởi động sau không nạp lại từ bảng gốc
+        InteractionSketchService second = newService();
+        second.restore(today);
+
+        assertEquals(2, checkpointed(RollupMetric.LIKE, recipeA));
+        assertEquals(1, checkpointed(RollupMetric.LIKE, recipeB));
+        assertEquals(1, checkpointed(RollupMetric.SAVE, recipeB));
+        assertEquals(2, second.percentiles(RollupMetric.LIKE, today).max());
+        assertEquals(1, second.percentiles(RollupMetric.SAVE, today).max());
+    }
+
+    @Test
+    void checkpoint_TwoInstances_ShouldAccumulateInsteadOfOverwrite() {
+        like(recipeA, today);
+        InteractionSketchService first = newService();
+        InteractionSketchService second = newService();
+        first.restore(today);
+        second.restore(today);
+
+        first.record(RollupMetric.LIKE, recipeA, today);
+        first.record(RollupMetric.LIKE, recipeA, today);
+        second.record(RollupMetric.LIKE, recipeA, today);
+        first.checkpoint(today);
+        second.checkpoint(today);
+        first.record(RollupMetric.LIKE, recipeA, today);
+        first.checkpoint(today);
+
+        assertEquals(5, checkpointed(RollupMetric.LIKE, recipeA));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM interaction_sketch_checkpoint WHERE bucket_date = ?",
+                Integer.class, Date.valueOf(today)));
+
+        InteractionSketchService restarted = newService();
+        restarted.restore(today);
+        assertEquals(5, restarted.percentiles(RollupMetric.LIKE, today).max());
+    }
+}
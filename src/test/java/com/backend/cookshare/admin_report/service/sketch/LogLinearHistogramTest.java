@@ -0,0 +1,52 @@
+package com.backend.cookshare.admin_report.service.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogLinearHistogramTest {
+
+    @Test
+    void smallValues_ShouldBeExact() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (long value = 1; value <= 9; value++) {
+            histogram.record(value, 1);
+        }
+
+        assertEquals(5, histogram.valueAtQuantile(0.5, 0));
+        assertEquals(9, histogram.valueAtQuantile(0.9, 0));
+        assertEquals(9, histogram.max());
+    }
+
+    @Test
+    void extraZeros_ShouldShiftQuantiles() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        histogram.record(10, 3);
+
+        assertEquals(0, histogram.valueAtQuantile(0.5, 7));
+        assertEquals(10, histogram.valueAtQuantile(0.9, 7));
+        assertEquals(0, new LogLinearHistogram().valueAtQuantile(0.5, 0));
+    }
+
+    @Test
+    void largeValues_ShouldStayWithinRelativeErrorBound() {
+        for (long value : new long[]{64, 100, 1_000, 123_456, 9_876_543_210L, Long.MAX_VALUE}) {
+            LogLinearHistogram histogram = new LogLinearHistogram();
+            histogram.record(value, 1);
+
+            double error = Math.abs((double) histogram.max() - value) / value;
+            assertTrue(error <= 1.0 / 64, "value " + value + " error " + error);
+        }
+    }
+
+    @Test
+    void record_NegativeDelta_ShouldMoveValue() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        histogram.record(3, 1);
+        histogram.record(3, -1);
+        histogram.record(4, 1);
+
+        assertEquals(1, histogram.totalCount());
+        assertEquals(4, histogram.max());
+    }
+}
@@ -0,0 +1,44 @@
+package com.backend.cookshare.admin_report.service.sketch;
+
+import com.backend.cookshare.admin_report.service.sketch.SpaceSavingCounter.HeavyHitter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingCounterTest {
+
+    @Test
+    void offer_OverCapacity_ShouldKeepHeavyHittersWithBoundedError() {
+        SpaceSavingCounter<String> counter = new SpaceSavingCounter<>(3);
+        counter.offer("hot", 50);
+        for (int i = 0; i < 20; i++) {
+            counter.offer("cold-" + i, 1);
+        }
+        counter.offer("warm", 10);
+
+        List<HeavyHitter<String>> top = SpaceSavingCounter.merge(List.of(counter), 2);
+
+        assertEquals("hot", top.get(0).key());
+        assertEquals(50, top.get(0).count());
+        assertEquals(0, top.get(0).error());
+        assertEquals("warm", top.get(1).key());
+        // Số đếm của warm bị cộng thêm tối đa floor lúc nó được đưa vào
+        assertTrue(top.get(1).count() - top.get(1).error() <= 10);
+        assertEquals(3, counter.size());
+    }
+
+    @Test
+    void merge_ShouldSumCountsAcrossSummaries() {
+        SpaceSavingCounter<String> monday = new SpaceSavingCounter<>(10);
+        SpaceSavingCounter<String> tuesday = new SpaceSavingCounter<>(10);
+        monday.offer("a", 3);
+        monday.offer("b", 5);
+        tuesday.offer("a", 4);
+
+        List<HeavyHitter<String>> top = SpaceSavingCounter.merge(List.of(monday, tuesday), 10);
+
+        assertEquals(List.of(new HeavyHitter<>("a", 7, 0), new HeavyHitter<>("b", 5, 0)), top);
+    }
+}
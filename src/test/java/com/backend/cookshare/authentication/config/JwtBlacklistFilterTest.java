@@ -1,6 +1,7 @@
 package com.backend.cookshare.authentication.config;
 
 import com.backend.cookshare.authentication.service.TokenBlacklistService;
+import com.backend.cookshare.authentication.util.TokenFingerprint;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -35,7 +36,7 @@ class JwtBlacklistFilterTest {
 
         when(request.getRequestURI()).thenReturn("/some-path");
         when(request.getHeader("Authorization")).thenReturn("Bearer validToken");
-        when(tokenBlacklistService.isTokenBlacklisted("validToken")).thenReturn(false);
+        when(tokenBlacklistService.isBlacklisted(TokenFingerprint.of("validToken"))).thenReturn(false);
 
         filter.doFilterInternal(request, response, chain);
 
@@ -53,7 +54,7 @@ class JwtBlacklistFilterTest {
 
         when(request.getRequestURI()).thenReturn("/some-path");
         when(request.getHeader("Authorization")).thenReturn("Bearer blacklistedToken");
-        when(tokenBlacklistService.isTokenBlacklisted("blacklistedToken")).thenReturn(true);
+        when(tokenBlacklistService.isBlacklisted(TokenFingerprint.of("blacklistedToken"))).thenReturn(true);
         when(response.getWriter()).thenReturn(writer);
 
         filter.doFilterInternal(request, response, chain);
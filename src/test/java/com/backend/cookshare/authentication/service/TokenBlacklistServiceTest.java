@@ -1,17 +1,30 @@
 package com.backend.cookshare.authentication.service;
 
+import com.backend.cookshare.authentication.entity.RevokedToken;
+import com.backend.cookshare.authentication.repository.RevokedTokenRepository;
+import com.backend.cookshare.authentication.util.TokenFingerprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 class TokenBlacklistServiceTest {
 
     private TokenBlacklistService tokenBlacklistService;
+    private RevokedTokenRepository revokedTokenRepository;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
-        tokenBlacklistService = new TokenBlacklistService();
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenBlacklistService = new TokenBlacklistService(revokedTokenRepository, meterRegistry, 86400, false);
     }
 
     @Test
@@ -52,4 +65,57 @@ class TokenBlacklistServiceTest {
 
         assertEquals(3, tokenBlacklistService.getBlacklistSize());
     }
+
+    @Test
+    void testEvictExpired_ShouldDropTokensPastTheirExpiry() {
+        Instant now = Instant.now();
+        tokenBlacklistService.blacklistToken("short", now.plusSeconds(60));
+        tokenBlacklistService.blacklistToken("long", now.plusSeconds(3600));
+
+        assertEquals(1, tokenBlacklistService.evictExpired(now.plusSeconds(120)));
+
+        assertFalse(tokenBlacklistService.isTokenBlacklisted("short"));
+        assertTrue(tokenBlacklistService.isTokenBlacklisted("long"));
+        assertEquals(1.0, meterRegistry.get("cookshare.jwt.blacklist.evicted").gauge().value());
+        assertEquals(1.0, meterRegistry.get("cookshare.jwt.blacklist.size").gauge().value());
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void testIsTokenBlacklisted_ExpiredEntryIsIgnoredBeforeSweep() {
+        tokenBlacklistService.blacklistToken("expired", Instant.now().minusSeconds(1));
+
+        assertFalse(tokenBlacklistService.isTokenBlacklisted("expired"));
+    }
+
+    @Test
+    void testPersistent_ShouldSaveAndReloadRevokedTokens() {
+        TokenBlacklistService persistentService =
+                new TokenBlacklistService(revokedTokenRepository, new SimpleMeterRegistry(), 86400, true);
+        Instant expiry = Instant.now().plusSeconds(600);
+
+        persistentService.blacklistToken("revoked", expiry);
+        verify(revokedTokenRepository).save(RevokedToken.builder()
+                .fingerprint(TokenFingerprint.of("revoked").toHex())
+                .expiresAt(expiry)
+                .build());
+
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(RevokedToken.builder()
+                .fingerprint(TokenFingerprint.of("revoked").toHex())
+                .expiresAt(expiry)
+                .build()));
+        TokenBlacklistService restarted =
+                new TokenBlacklistService(revokedTokenRepository, new SimpleMeterRegistry(), 86400, true);
+        restarted.loadPersisted();
+
+        assertTrue(restarted.isTokenBlacklisted("revoked"));
+    }
+
+    @Test
+    void testFingerprint_HexRoundTrip() {
+        TokenFingerprint fingerprint = TokenFingerprint.of("some.jwt.token");
+
+        assertEquals(32, fingerprint.toHex().length());
+        assertEquals(fingerprint, TokenFingerprint.fromHex(fingerprint.toHex()));
+    }
 }
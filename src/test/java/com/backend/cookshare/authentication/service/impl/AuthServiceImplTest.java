@@ -368,7 +368,7 @@ class AuthServiceImplTest {
 
         verify(httpServletRequest).getHeader(HttpHeaders.AUTHORIZATION);
         verify(securityUtil).checkValidAccessToken("valid-access-token");
-        verify(tokenBlacklistService).blacklistToken("valid-access-token");
+        verify(tokenBlacklistService).blacklistToken(eq("valid-access-token"), any());
         verify(userService).updateUserToken(null, "testuser");
     }
 
@@ -442,7 +442,7 @@ class AuthServiceImplTest {
 
         assertEquals(ErrorCode.USER_NOT_FOUND, exception.getErrorCode());
         verify(userService).getUserByUsernameOrEmail("testuser");
-        verify(tokenBlacklistService, never()).blacklistToken(anyString());
+        verify(tokenBlacklistService, never()).blacklistToken(anyString(), any());
     }
 
     // ==================== CHANGE PASSWORD TESTS ====================
@@ -10,6 +10,7 @@ import com.backend.cookshare.authentication.service.FirebaseStorageService;
 import com.backend.cookshare.authentication.util.SecurityUtil;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
+import com.backend.cookshare.recipe_management.service.search.TypeaheadService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -46,6 +47,9 @@ class UserServiceImplTest {
     @Mock
     private SimpMessagingTemplate messagingTemplate;
 
+    @Mock
+    private TypeaheadService typeaheadService;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -194,6 +198,7 @@ class UserServiceImplTest {
 
         // Assert
         verify(userRepository).deleteById(userId);
+        verify(typeaheadService).removeUser(userId);
     }
 
     @Test
@@ -596,6 +601,7 @@ class UserServiceImplTest {
 
         // Assert
         verify(userRepository).delete(user);
+        verify(typeaheadService).removeUser(userId);
     }
 
     @Test
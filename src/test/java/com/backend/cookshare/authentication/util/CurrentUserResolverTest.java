@@ -0,0 +1,134 @@
+package com.backend.cookshare.authentication.util;
+
+import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.common.exception.CustomException;
+import com.backend.cookshare.common.exception.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentUserResolverTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CurrentUserResolver resolver;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // Test khác có thể để lại SecurityContext mock trên cùng luồng
+        SecurityContextHolder.clearContext();
+        meterRegistry = new SimpleMeterRegistry();
+        resolver = new CurrentUserResolver(userRepository, meterRegistry, 100, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void authenticateWithUsername(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList()));
+    }
+
+    @Test
+    void getCurrentUserId_WithUserClaim_ShouldNotQueryDatabase() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS512").subject("lan")
+                .claim("user", Map.of("userId", userId.toString(), "username", "lan"))
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+
+        assertEquals(Optional.of(userId), resolver.getCurrentUserId());
+        verifyNoInteractions(userRepository);
+        assertEquals(1.0, meterRegistry.get("cookshare.current-user.token-hits").gauge().value());
+    }
+
+    @Test
+    void getCurrentUserId_LegacyToken_ShouldCacheUsernameLookup() {
+        authenticateWithUsername("lan");
+        when(userRepository.findUserIdByUsername("lan")).thenReturn(Optional.of(userId));
+
+        assertEquals(Optional.of(userId), resolver.getCurrentUserId());
+        assertEquals(Optional.of(userId), resolver.getCurrentUserId());
+
+        verify(userRepository, times(1)).findUserIdByUsername("lan");
+        assertEquals(1.0, meterRegistry.get("cookshare.current-user.cache.hits").gauge().value());
+    }
+
+    @Test
+    void getCurrentUserId_AfterTtl_ShouldQueryAgain() {
+        resolver = new CurrentUserResolver(userRepository, meterRegistry, 100, 0);
+        authenticateWithUsername("lan");
+        when(userRepository.findUserIdByUsername("lan")).thenReturn(Optional.of(userId));
+
+        resolver.getCurrentUserId();
+        resolver.getCurrentUserId();
+
+        verify(userRepository, times(2)).findUserIdByUsername("lan");
+    }
+
+    @Test
+    void getCurrentUserId_WithinRequest_ShouldResolveOnce() {
+        ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+        resolver = new CurrentUserResolver(userRepository, meterRegistry, 100, 0);
+        authenticateWithUsername("lan");
+        when(userRepository.findUserIdByUsername("lan")).thenReturn(Optional.of(userId));
+
+        assertEquals(userId, resolver.requireCurrentUserId());
+        assertEquals(userId, resolver.requireCurrentUserId());
+
+        // TTL = 0 nên lần thứ hai chỉ có thể lấy từ request attribute
+        verify(userRepository, times(1)).findUserIdByUsername("lan");
+        assertNotNull(attributes.getAttribute(CurrentUserResolver.REQUEST_ATTRIBUTE, ServletRequestAttributes.SCOPE_REQUEST));
+    }
+
+    @Test
+    void requireCurrentUserId_Anonymous_ShouldThrowUserNotFound() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        CustomException ex = assertThrows(CustomException.class, () -> resolver.requireCurrentUserId());
+
+        assertEquals(ErrorCode.USER_NOT_FOUND, ex.getErrorCode());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getCurrentUserId_UnknownUser_ShouldNotBeCached() {
+        authenticateWithUsername("ghost");
+        when(userRepository.findUserIdByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertTrue(resolver.getCurrentUserId().isEmpty());
+        assertTrue(resolver.getCurrentUserId().isEmpty());
+
+        verify(userRepository, times(2)).findUserIdByUsername("ghost");
+    }
+}
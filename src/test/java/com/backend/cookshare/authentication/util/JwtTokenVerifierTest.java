@@ -0,0 +1,119 @@
+package com.backend.cookshare.authentication.util;
+
+import com.backend.cookshare.authentication.repository.RevokedTokenRepository;
+import com.backend.cookshare.authentication.service.TokenBlacklistService;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class JwtTokenVerifierTest {
+
+    private byte[] keyBytes;
+    private TokenBlacklistService tokenBlacklistService;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyBytes = MessageDigest.getInstance("SHA-512")
+                .digest("jwt-token-verifier-test-secret".getBytes(StandardCharsets.UTF_8));
+        tokenBlacklistService = new TokenBlacklistService(
+                mock(RevokedTokenRepository.class), new SimpleMeterRegistry(), 3600L, false);
+        meterRegistry = new SimpleMeterRegistry();
+        verifier = new JwtTokenVerifier(Base64.getEncoder().encodeToString(keyBytes), 2,
+                tokenBlacklistService, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private String token(String subject, Instant expiresAt) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS512), new JWTClaimsSet.Builder()
+                .subject(subject)
+                .issueTime(Date.from(Instant.now().minusSeconds(10)))
+                .expirationTime(Date.from(expiresAt))
+                .build());
+        jwt.sign(new MACSigner(keyBytes));
+        return jwt.serialize();
+    }
+
+    @Test
+    void decode_SecondCallIsServedFromCache() throws Exception {
+        String token = token("alice", Instant.now().plusSeconds(600));
+
+        Jwt first = verifier.decode(token);
+        Jwt second = verifier.decode(token);
+
+        assertSame(first, second);
+        assertEquals("alice", second.getSubject());
+        assertEquals(1.0, meterRegistry.get("cookshare.jwt.verified-cache.hits").gauge().value());
+        assertEquals(1.0, meterRegistry.get("cookshare.jwt.verified-cache.misses").gauge().value());
+    }
+
+    @Test
+    void decode_BlacklistedTokenIsRejectedEvenWhenCached() throws Exception {
+        String token = token("bob", Instant.now().plusSeconds(600));
+        verifier.decode(token);
+
+        tokenBlacklistService.blacklistToken(token, Instant.now().plusSeconds(600));
+
+        assertThrows(JwtException.class, () -> verifier.decode(token));
+        assertEquals(0, verifier.cachedTokenCount());
+    }
+
+    @Test
+    void decode_ExpiredOrForgedTokensAreRejected() throws Exception {
+        String expired = token("carol", Instant.now().minusSeconds(3600));
+
+        assertThrows(JwtException.class, () -> verifier.decode(expired));
+        assertThrows(JwtException.class, () -> verifier.decode("not.a.jwt"));
+        assertThrows(JwtException.class, () -> verifier.decode(""));
+        assertEquals(0, verifier.cachedTokenCount());
+    }
+
+    @Test
+    void decode_CacheStaysWithinConfiguredSize() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            verifier.decode(token("user" + i, Instant.now().plusSeconds(600)));
+        }
+
+        assertTrue(verifier.cachedTokenCount() <= 2);
+    }
+
+    @Test
+    void decode_SharesFingerprintWithTheRestOfTheRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        String token = token("dave", Instant.now().plusSeconds(600));
+
+        verifier.decode(token);
+        assertNotNull(request.getAttribute(TokenFingerprint.REQUEST_ATTRIBUTE));
+
+        TokenFingerprint fingerprint = TokenFingerprint.forCurrentRequest(token);
+        assertSame(fingerprint, TokenFingerprint.forCurrentRequest(token));
+        assertEquals(TokenFingerprint.of(token), fingerprint);
+        assertNotSame(fingerprint, TokenFingerprint.forCurrentRequest(token("erin", Instant.now().plusSeconds(600))));
+    }
+}
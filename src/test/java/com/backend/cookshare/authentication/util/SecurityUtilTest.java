@@ -2,6 +2,8 @@ package com.backend.cookshare.authentication.util;
 
 import com.backend.cookshare.authentication.dto.response.LoginResponseDTO;
 import com.backend.cookshare.authentication.enums.UserRole;
+import com.backend.cookshare.authentication.repository.RevokedTokenRepository;
+import com.backend.cookshare.authentication.service.TokenBlacklistService;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSSigner;
@@ -9,6 +11,7 @@ import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,6 +35,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
 
 class SecurityUtilTest {
 
@@ -51,10 +55,13 @@ class SecurityUtilTest {
         SecretKey secretKey = new SecretKeySpec(keyBytes, 0, keyBytes.length, SecurityUtil.JWT_ALGORITHM.getName());
         JwtEncoder realEncoder = new NimbusJwtEncoder(new ImmutableSecret<>(secretKey));
 
-        securityUtil = new SecurityUtil(realEncoder);
+        TokenBlacklistService tokenBlacklistService = new TokenBlacklistService(
+                mock(RevokedTokenRepository.class), new SimpleMeterRegistry(), 3600L, false);
+        JwtTokenVerifier jwtTokenVerifier =
+                new JwtTokenVerifier(base64Key, 100, tokenBlacklistService, new SimpleMeterRegistry());
+        securityUtil = new SecurityUtil(realEncoder, jwtTokenVerifier);
 
         // Set private fields
-        setPrivateField(securityUtil, "jwtKey", base64Key);
         setPrivateField(securityUtil, "accessTokenExpiration", 3600L);
         setPrivateField(securityUtil, "refreshTokenExpiration", 7200L);
     }
@@ -267,6 +274,30 @@ class SecurityUtilTest {
         assertEquals("stringuser", currentUser.get());
     }
 
+    @Test
+    void getCurrentUserId_WithUserClaim_ShouldReturnUserIdWithoutLookup() {
+        UUID userId = UUID.randomUUID();
+        LoginResponseDTO.UserInfo userInfo = LoginResponseDTO.UserInfo.builder()
+                .userId(userId)
+                .username("currentuser")
+                .role(UserRole.USER)
+                .build();
+
+        String token = securityUtil.createAccessToken("currentuser", userInfo);
+        Jwt jwt = securityUtil.checkValidAccessToken(token);
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+
+        assertEquals(Optional.of(userId), SecurityUtil.getCurrentUserId());
+    }
+
+    @Test
+    void getCurrentUserId_WithoutJwt_ShouldReturnEmpty() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("stringuser", null, Collections.emptyList()));
+
+        assertFalse(SecurityUtil.getCurrentUserId().isPresent());
+    }
+
     @Test
     void getCurrentUserLogin_WithNoAuthentication_ShouldReturnEmpty() {
         SecurityContextHolder.clearContext();
@@ -0,0 +1,47 @@
+package com.backend.cookshare.common;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Một instance Postgres nhúng dùng chung cho các test chạy câu SQL native (bảng stats_*, checkpoint, ...).
+ * Mỗi test tự tạo bảng nó cần trong schema riêng.
+ * Khi test chạy bằng root (container CI), embedded-postgres tự chạy initdb / postgres trong user namespace
+ * (unshare -U) vì Postgres không cho chạy bằng root. Không khởi động được Postgres thì test lỗi chứ không bị bỏ qua.
+ */
+public final class EmbeddedPostgresTestSupport {
+
+    private static EmbeddedPostgres postgres;
+
+    private EmbeddedPostgresTestSupport() {
+    }
+
+    /**
+     * JdbcTemplate trỏ vào schema mới tạo (search_path) để các test không đụng bảng của nhau
+     */
+    public static synchronized JdbcTemplate freshSchema(String schema) {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("Không khởi động được Postgres nhúng: " + e.getMessage(), e);
+            }
+        }
+        JdbcTemplate admin = new JdbcTemplate(postgres.getPostgresDatabase());
+        admin.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        admin.execute("CREATE SCHEMA " + schema);
+        SingleConnectionDataSource dataSource;
+        try {
+            dataSource = new SingleConnectionDataSource(postgres.getPostgresDatabase().getConnection(), true);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("SET search_path TO " + schema);
+        return jdbcTemplate;
+    }
+}
@@ -0,0 +1,64 @@
+package com.backend.cookshare.common.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaLagMonitorTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private ReplicaLagMonitor newMonitor(String lagQuery) {
+        return new ReplicaLagMonitor(jdbcTemplate, new SimpleMeterRegistry(), lagQuery, 5_000, 1_000);
+    }
+
+    @Test
+    void isReplicaUsable_BeforeFirstCheck_ShouldBeFalse() {
+        assertFalse(newMonitor("SELECT 0").isReplicaUsable(0));
+    }
+
+    @Test
+    void check_LagWithinLimit_ShouldUseReplicaUntilResultIsStale() {
+        ReplicaLagMonitor monitor = newMonitor("");
+        when(jdbcTemplate.queryForObject(ReplicaLagMonitor.POSTGRES_LAG_SQL, Long.class)).thenReturn(1_200L);
+
+        monitor.check(10_000);
+
+        assertTrue(monitor.isReplicaUsable(12_000));
+        assertFalse(monitor.isReplicaUsable(13_001));
+    }
+
+    @Test
+    void check_LagTooHighOrUnknown_ShouldFallBackToPrimary() {
+        ReplicaLagMonitor monitor = newMonitor("SELECT 0");
+        when(jdbcTemplate.queryForObject("SELECT 0", Long.class)).thenReturn(9_000L, null, 0L);
+
+        monitor.check(10_000);
+        assertFalse(monitor.isReplicaUsable(10_000));
+        monitor.check(11_000);
+        assertFalse(monitor.isReplicaUsable(11_000));
+        monitor.check(12_000);
+        assertTrue(monitor.isReplicaUsable(12_000));
+    }
+
+    @Test
+    void check_QueryFails_ShouldFallBackToPrimary() {
+        ReplicaLagMonitor monitor = newMonitor("SELECT 0");
+        when(jdbcTemplate.queryForObject("SELECT 0", Long.class))
+                .thenReturn(0L)
+                .thenThrow(new DataAccessResourceFailureException("replica down"));
+
+        monitor.check(10_000);
+        monitor.check(11_000);
+
+        assertFalse(monitor.isReplicaUsable(11_000));
+    }
+}
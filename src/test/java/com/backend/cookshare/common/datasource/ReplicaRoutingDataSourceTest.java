@@ -0,0 +1,114 @@
+package com.backend.cookshare.common.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock private DataSource primary;
+    @Mock private DataSource replica;
+    @Mock private ReplicaLagMonitor lagMonitor;
+    @Mock private Connection connection;
+
+    private final ReplicaStickiness stickiness = new ReplicaStickiness(60_000);
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, lagMonitor, stickiness, new SimpleMeterRegistry());
+        routingDataSource.afterPropertiesSet();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    private void loginAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    @Test
+    void getConnection_ReadOnlyTransaction_ShouldUseReplica() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+        when(replica.getConnection()).thenReturn(connection);
+
+        assertSame(connection, routingDataSource.getConnection());
+
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_ReplicaLagging_ShouldFallBackToPrimary() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.isReplicaUsable()).thenReturn(false);
+        when(primary.getConnection()).thenReturn(connection);
+
+        assertSame(connection, routingDataSource.getConnection());
+
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    void getConnection_AfterOwnWriteCommitted_ShouldReadFromPrimaryWithinWindow() throws Exception {
+        loginAs("alice");
+        when(primary.getConnection()).thenReturn(connection);
+
+        routingDataSource.getConnection();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.getConnection();
+
+        verify(primary, times(2)).getConnection();
+        verifyNoInteractions(replica, lagMonitor);
+    }
+
+    @Test
+    void getConnection_OtherUserWrote_ShouldStillUseReplica() throws Exception {
+        stickiness.markWrite("bob");
+        loginAs("alice");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+        when(replica.getConnection()).thenReturn(connection);
+
+        assertSame(connection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void stickiness_ShouldExpireAfterWindow() {
+        ReplicaStickiness shortWindow = new ReplicaStickiness(1_000);
+        shortWindow.markWrite("alice", 10_000);
+
+        assertTrue(shortWindow.isSticky("alice", 10_500));
+        assertFalse(shortWindow.isSticky("alice", 11_000));
+        assertEquals(0, shortWindow.size());
+        assertFalse(shortWindow.isSticky(null, 10_500));
+    }
+}
@@ -0,0 +1,43 @@
+package com.backend.cookshare.common.dto;
+
+import com.backend.cookshare.common.exception.CustomException;
+import com.backend.cookshare.common.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void encodeDecode_ShouldRoundTrip() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123456000), UUID.randomUUID());
+
+        String encoded = cursor.encode();
+
+        assertFalse(encoded.contains("="));
+        assertEquals(cursor, PageCursor.decode(encoded));
+    }
+
+    @Test
+    void decode_BlankCursor_ShouldReturnFirstPage() {
+        assertEquals(PageCursor.FIRST, PageCursor.decode(null));
+        assertEquals(PageCursor.FIRST, PageCursor.decode(" "));
+        assertEquals("ffffffff-ffff-ffff-ffff-ffffffffffff", PageCursor.FIRST.id().toString());
+    }
+
+    @Test
+    void decode_InvalidCursor_ShouldThrowInvalidCursor() {
+        CustomException ex = assertThrows(CustomException.class, () -> PageCursor.decode("not-a-cursor"));
+        assertEquals(ErrorCode.INVALID_CURSOR, ex.getErrorCode());
+    }
+
+    @Test
+    void pageSize_ShouldClampToAllowedRange() {
+        assertEquals(1, PageCursor.pageSize(0));
+        assertEquals(20, PageCursor.pageSize(20));
+        assertEquals(PageCursor.MAX_PAGE_SIZE, PageCursor.pageSize(10_000));
+    }
+}
@@ -1,12 +1,16 @@
 package com.backend.cookshare.common.mapper;
 
+import com.backend.cookshare.common.dto.CursorPageResponse;
+import com.backend.cookshare.common.dto.PageCursor;
 import com.backend.cookshare.common.dto.PageResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 import org.springframework.data.domain.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -114,4 +118,33 @@ class PageMapperTest {
         assertFalse(response.isLast());
         assertEquals(3, response.getNumberOfElements());
     }
+
+    @Test
+    void toCursorPageResponse_WithExtraRow_ShouldReturnNextCursor() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<PageCursor> rows = List.of(
+                new PageCursor(now, UUID.randomUUID()),
+                new PageCursor(now.minusMinutes(1), UUID.randomUUID()),
+                new PageCursor(now.minusMinutes(2), UUID.randomUUID()));
+
+        CursorPageResponse<String> response = PageMapper.toCursorPageResponse(rows, 2, Function.identity(),
+                slice -> slice.stream().map(c -> c.id().toString()).toList());
+
+        assertEquals(2, response.getContent().size());
+        assertEquals(2, response.getNumberOfElements());
+        assertTrue(response.isHasNext());
+        assertEquals(rows.get(1), PageCursor.decode(response.getNextCursor()));
+    }
+
+    @Test
+    void toCursorPageResponse_LastPage_ShouldHaveNoCursor() {
+        List<PageCursor> rows = List.of(new PageCursor(LocalDateTime.now(), UUID.randomUUID()));
+
+        CursorPageResponse<PageCursor> response = PageMapper.toCursorPageResponse(rows, 2, Function.identity(),
+                Function.identity());
+
+        assertEquals(1, response.getNumberOfElements());
+        assertFalse(response.isHasNext());
+        assertNull(response.getNextCursor());
+    }
 }
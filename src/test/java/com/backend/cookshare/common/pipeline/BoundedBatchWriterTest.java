@@ -0,0 +1,117 @@
+package com.backend.cookshare.common.pipeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedBatchWriterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private final List<List<Event>> batches = new CopyOnWriteArrayList<>();
+
+    private record Event(String name, LocalDateTime createdAt) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        batches.clear();
+    }
+
+    private BoundedBatchWriter<Event> writer(BoundedBatchWriter.BatchHandler<Event> handler) {
+        return new BoundedBatchWriter<>("test", meterRegistry, "cookshare.test", 3, 2, 50, 0,
+                Event::createdAt, handler);
+    }
+
+    private BoundedBatchWriter<Event> recordingWriter() {
+        return writer(batch -> {
+            batches.add(new ArrayList<>(batch));
+            return batch.size();
+        });
+    }
+
+    private static Event event(String name) {
+        return new Event(name, LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("drainAll - hands buffered items to the handler in batches of batch-size")
+    void drainAll_writesInBatches() {
+        BoundedBatchWriter<Event> writer = recordingWriter();
+        writer.offer(event("a"));
+        writer.offer(event("b"));
+        writer.offer(event("c"));
+
+        assertEquals(3, writer.drainAll());
+
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+        assertEquals(0, writer.pendingCount());
+        assertEquals(3.0, meterRegistry.get("cookshare.test.written").gauge().value());
+    }
+
+    @Test
+    @DisplayName("offer - full buffer drops and counts new items")
+    void offer_fullBufferDrops() {
+        BoundedBatchWriter<Event> writer = recordingWriter();
+        for (int i = 0; i < 5; i++) {
+            writer.offer(event("e" + i));
+        }
+
+        assertEquals(3, writer.pendingCount());
+        assertEquals(2, writer.droppedCount());
+        assertEquals(3.0, meterRegistry.get("cookshare.test.accepted").gauge().value());
+        assertEquals(2.0, meterRegistry.get("cookshare.test.dropped").gauge().value());
+    }
+
+    @Test
+    @DisplayName("writeBatch - handler decides how many rows were written, failures are counted")
+    void writeBatch_countsWrittenAndFailed() {
+        BoundedBatchWriter<Event> skipping = writer(batch -> batch.size() - 1);
+        skipping.writeBatch(List.of(event("a"), event("b")));
+        assertEquals(1.0, meterRegistry.get("cookshare.test.written").gauge().value());
+
+        meterRegistry = new SimpleMeterRegistry();
+        BoundedBatchWriter<Event> failing = writer(batch -> {
+            throw new IllegalStateException("down");
+        });
+        assertDoesNotThrow(() -> failing.writeBatch(List.of(event("a"), event("b"))));
+        assertEquals(2.0, meterRegistry.get("cookshare.test.failed").gauge().value());
+    }
+
+    @Test
+    @DisplayName("lag gauge - age of the oldest pending item")
+    void lagGauge_tracksOldestItem() {
+        BoundedBatchWriter<Event> writer = recordingWriter();
+        assertEquals(0.0, meterRegistry.get("cookshare.test.queue.lag.ms").gauge().value());
+
+        writer.offer(new Event("old", LocalDateTime.now().minusSeconds(5)));
+        writer.offer(event("new"));
+
+        assertTrue(meterRegistry.get("cookshare.test.queue.lag.ms").gauge().value() >= 5000);
+    }
+
+    @Test
+    @DisplayName("start/stop - consumer thread writes items, stop flushes the rest")
+    void consumerThread_writesItems() throws InterruptedException {
+        BoundedBatchWriter<Event> writer = recordingWriter();
+        writer.start();
+        writer.offer(event("a"));
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (batches.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        writer.stop();
+
+        assertEquals(1, batches.size());
+        assertEquals(0, writer.pendingCount());
+    }
+}
@@ -0,0 +1,127 @@
+package com.backend.cookshare.common.service.counter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CounterDeltaBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CounterDeltaBuffer buffer;
+
+    private final UUID recipeA = UUID.randomUUID();
+    private final UUID recipeB = UUID.randomUUID();
+    private final UUID user = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = new CounterDeltaBuffer(jdbcTemplate, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("flush - coalesces deltas into one UPDATE per counter type")
+    void flush_coalescesDeltasPerType() {
+        buffer.add(CounterType.RECIPE_LIKES, recipeA, 1);
+        buffer.add(CounterType.RECIPE_LIKES, recipeA, 1);
+        buffer.add(CounterType.RECIPE_LIKES, recipeB, -1);
+        buffer.add(CounterType.USER_FOLLOWERS, user, 1);
+
+        assertEquals(3, buffer.pendingCount());
+        assertEquals(3, buffer.flush());
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(eq(CounterType.RECIPE_LIKES.buildUpdateSql(2)), args.capture());
+        List<Object> values = Arrays.asList(args.getValue());
+        assertEquals(2, values.get(values.indexOf(recipeA.toString()) + 1));
+        assertEquals(-1, values.get(values.indexOf(recipeB.toString()) + 1));
+        verify(jdbcTemplate).update(eq(CounterType.USER_FOLLOWERS.buildUpdateSql(1)), any(Object[].class));
+        assertEquals(0, buffer.pendingCount());
+        assertEquals(3.0, meterRegistry.get("cookshare.counters.flushed").gauge().value());
+    }
+
+    @Test
+    @DisplayName("add - like then unlike cancels out without any statement")
+    void add_opposingDeltasCancel() {
+        buffer.add(CounterType.RECIPE_LIKES, recipeA, 1);
+        buffer.add(CounterType.RECIPE_LIKES, recipeA, -1);
+
+        assertEquals(0, buffer.pending(CounterType.RECIPE_LIKES, recipeA));
+        assertEquals(0, buffer.flush());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("add - inside a transaction the delta is applied only after commit")
+    void add_waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        buffer.add(CounterType.USER_FOLLOWING, user, 1);
+
+        assertEquals(0, buffer.pending(CounterType.USER_FOLLOWING, user));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, buffer.pending(CounterType.USER_FOLLOWING, user));
+    }
+
+    @Test
+    @DisplayName("flush - failed batch keeps deltas for the next attempt")
+    void flush_failureKeepsDeltas() {
+        buffer.add(CounterType.RECIPE_LIKES, recipeA, 1);
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(1);
+
+        assertEquals(0, buffer.flush());
+        assertEquals(1, buffer.pending(CounterType.RECIPE_LIKES, recipeA));
+        assertEquals(1.0, meterRegistry.get("cookshare.counters.flush.failures").gauge().value());
+
+        buffer.add(CounterType.RECIPE_LIKES, recipeA, 1);
+        assertEquals(1, buffer.flush());
+        assertEquals(0, buffer.pending(CounterType.RECIPE_LIKES, recipeA));
+    }
+
+    @Test
+    void buildUpdateSql_clampsAtZero() {
+        String sql = CounterType.USER_FOLLOWERS.buildUpdateSql(2);
+        assertTrue(sql.startsWith("UPDATE users t SET follower_count = GREATEST(COALESCE(t.follower_count, 0) + v.delta, 0)"));
+        assertTrue(sql.contains("FROM (VALUES (CAST(? AS uuid), CAST(? AS integer)), (CAST(? AS uuid), CAST(? AS integer)))"));
+        assertTrue(sql.endsWith("WHERE t.user_id = v.id"));
+    }
+
+    @Test
+    void buildUpdateSql_userCountersRefreshUpdatedAt() {
+        assertTrue(CounterType.USER_FOLLOWERS.buildUpdateSql(1).contains(", updated_at = LOCALTIMESTAMP FROM"));
+        assertTrue(CounterType.USER_FOLLOWING.buildUpdateSql(1).contains(", updated_at = LOCALTIMESTAMP FROM"));
+        assertFalse(CounterType.RECIPE_LIKES.buildUpdateSql(1).contains("updated_at"));
+    }
+}
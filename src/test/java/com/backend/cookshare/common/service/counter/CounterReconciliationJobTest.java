@@ -0,0 +1,70 @@
+package com.backend.cookshare.common.service.counter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CounterReconciliationJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CounterDeltaBuffer counterDeltaBuffer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CounterReconciliationJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new CounterReconciliationJob(jdbcTemplate, counterDeltaBuffer, meterRegistry, false);
+    }
+
+    @Test
+    void reconcile_shouldFlushPendingDeltasBeforeRecomputing() {
+        when(jdbcTemplate.update(anyString())).thenReturn(2, 0, 1, 0);
+
+        assertEquals(3, job.reconcile());
+
+        InOrder inOrder = inOrder(counterDeltaBuffer, jdbcTemplate);
+        inOrder.verify(counterDeltaBuffer).flush();
+        inOrder.verify(jdbcTemplate, times(CounterReconciliationJob.RECONCILE_SQL.size())).update(anyString());
+        assertEquals(3.0, meterRegistry.get("cookshare.counters.reconciled").gauge().value());
+    }
+
+    @Test
+    void reconcile_shouldContinueWhenOneStatementFails() {
+        when(jdbcTemplate.update(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (sql.equals(CounterReconciliationJob.RECONCILE_SQL.get("like_count"))) {
+                throw new DataAccessResourceFailureException("down");
+            }
+            return sql.equals(CounterReconciliationJob.RECONCILE_SQL.get("rating")) ? 4 : 0;
+        });
+
+        assertEquals(4, job.reconcile());
+        verify(jdbcTemplate, times(4)).update(anyString());
+    }
+
+    @Test
+    void reconcile_withRatingSumEnabled_shouldAlsoRecomputeRatingSum() {
+        job = new CounterReconciliationJob(jdbcTemplate, counterDeltaBuffer, meterRegistry, true);
+
+        job.reconcile();
+
+        verify(jdbcTemplate).update(CounterReconciliationJob.RATING_WITH_SUM_SQL);
+        verify(jdbcTemplate, never()).update(CounterReconciliationJob.RECONCILE_SQL.get("rating"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.backend.cookshare.common.service.counter;
+
+import com.backend.cookshare.common.EmbeddedPostgresTestSupport;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy các câu UPDATE đánh giá của {@link RecipeRepository}, {@link RatingAggregateVerifier}
+ * và {@link CounterReconciliationJob} trên Postgres thật, cả với schema hiện tại (không có rating_sum)
+ * lẫn khi đã thêm cột rating_sum
+ */
+class RatingAggregateSqlTest {
+
+    private final UUID recipeId = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedPostgresTestSupport.freshSchema("rating_sql");
+        // Giống bảng recipes hiện có: chưa có cột rating_sum
+        jdbcTemplate.execute("CREATE TABLE recipes (recipe_id UUID PRIMARY KEY, rating_count INT DEFAULT 0, "
+                + "average_rating NUMERIC(3, 2) DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE recipe_ratings (recipe_id UUID NOT NULL, rating INT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO recipes (recipe_id) VALUES (?)", recipeId);
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    private void addRatingSumColumn() {
+        jdbcTemplate.execute("ALTER TABLE recipes ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0");
+    }
+
+    private void apply(String method, int countDelta, int ratingDelta) {
+        try {
+            String sql = RecipeRepository.class.getMethod(method, UUID.class, int.class, int.class)
+                    .getAnnotation(Query.class).value();
+            namedJdbcTemplate.update(sql,
+                    Map.of("recipeId", recipeId, "countDelta", countDelta, "ratingDelta", ratingDelta));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, Object> recipe() {
+        return jdbcTemplate.queryForMap("SELECT * FROM recipes WHERE recipe_id = ?", recipeId);
+    }
+
+    @Test
+    void defaultPath_ShouldWorkWithoutRatingSumColumn() {
+        apply("applyRating", 1, 5);
+        apply("applyRating", 1, 4);
+        apply("applyRating", 0, -2);
+        jdbcTemplate.update("INSERT INTO recipe_ratings VALUES (?, 5), (?, 2)", recipeId, recipeId);
+
+        Map<String, Object> row = recipe();
+        assertEquals(2, ((Number) row.get("rating_count")).intValue());
+        assertEquals(new BigDecimal("3.50"), row.get("average_rating"));
+
+        RatingAggregateVerifier verifier = new RatingAggregateVerifier(jdbcTemplate, new SimpleMeterRegistry(), false);
+        verifier.markChanged(recipeId);
+        assertEquals(0, verifier.verify());
+        jdbcTemplate.update("UPDATE recipes SET average_rating = 1.00 WHERE recipe_id = ?", recipeId);
+        assertEquals(1, jdbcTemplate.update(CounterReconciliationJob.RECONCILE_SQL.get("rating")));
+        assertEquals(new BigDecimal("3.50"), recipe().get("average_rating"));
+    }
+
+    @Test
+    void ratingSumPath_ManyRatings_ShouldNotDriftFromExactAverage() {
+        addRatingSumColumn();
+        long sum = 0;
+        for (int i = 0; i < 1000; i++) {
+            int rate = i % 7 == 0 ? 1 : (i % 3) + 3;
+            apply("applyRatingWithSum", 1, rate);
+            sum += rate;
+        }
+        // Sửa một đánh giá từ 5 xuống 2
+        apply("applyRatingWithSum", 0, -3);
+        sum -= 3;
+
+        Map<String, Object> row = recipe();
+        assertEquals(1000, ((Number) row.get("rating_count")).intValue());
+        assertEquals(sum, ((Number) row.get("rating_sum")).longValue());
+        assertEquals(BigDecimal.valueOf(sum).divide(BigDecimal.valueOf(1000), 2, RoundingMode.HALF_UP),
+                row.get("average_rating"));
+    }
+
+    @Test
+    void ratingSumPath_LastRatingRemoved_ShouldResetSumAndAverage() {
+        addRatingSumColumn();
+        apply("applyRatingWithSum", 1, 4);
+        apply("applyRatingWithSum", -1, -4);
+
+        Map<String, Object> row = recipe();
+        assertEquals(0, ((Number) row.get("rating_count")).intValue());
+        assertEquals(0L, ((Number) row.get("rating_sum")).longValue());
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) row.get("average_rating")));
+    }
+
+    @Test
+    void ratingSumPath_Verify_ShouldRecomputeDriftedSumFromRatings() {
+        addRatingSumColumn();
+        jdbcTemplate.update("INSERT INTO recipe_ratings VALUES (?, 5), (?, 4)", recipeId, recipeId);
+        jdbcTemplate.update("UPDATE recipes SET rating_count = 2, rating_sum = 7, average_rating = 3.50 WHERE recipe_id = ?",
+                recipeId);
+        RatingAggregateVerifier verifier = new RatingAggregateVerifier(jdbcTemplate, new SimpleMeterRegistry(), true);
+        verifier.markChanged(recipeId);
+
+        assertEquals(1, verifier.verify());
+
+        Map<String, Object> row = recipe();
+        assertEquals(9L, ((Number) row.get("rating_sum")).longValue());
+        assertEquals(new BigDecimal("4.50"), row.get("average_rating"));
+
+        jdbcTemplate.update("UPDATE recipes SET rating_sum = 1 WHERE recipe_id = ?", recipeId);
+        assertEquals(1, jdbcTemplate.update(CounterReconciliationJob.RATING_WITH_SUM_SQL));
+        assertEquals(9L, ((Number) recipe().get("rating_sum")).longValue());
+    }
+}
@@ -0,0 +1,71 @@
+package com.backend.cookshare.common.service.counter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingAggregateVerifierTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RatingAggregateVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifier = new RatingAggregateVerifier(jdbcTemplate, meterRegistry, false);
+    }
+
+    @Test
+    void verify_shouldRecomputeOnlyMarkedRecipesOnce() {
+        UUID recipeA = UUID.randomUUID();
+        UUID recipeB = UUID.randomUUID();
+        verifier.markChanged(recipeA);
+        verifier.markChanged(recipeA);
+        verifier.markChanged(recipeB);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        assertEquals(1, verifier.verify());
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(eq(RatingAggregateVerifier.buildVerifySql(2, false)), args.capture());
+        assertTrue(Arrays.asList(args.getValue()).containsAll(
+                List.of(recipeA.toString(), recipeB.toString())));
+        assertEquals(1.0, meterRegistry.get("cookshare.ratings.verify.repaired").gauge().value());
+
+        assertEquals(0, verifier.verify());
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void verify_shouldKeepRecipesForRetryWhenStatementFails() {
+        UUID recipe = UUID.randomUUID();
+        verifier.markChanged(recipe);
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(0);
+
+        assertEquals(0, verifier.verify());
+        assertEquals(1.0, meterRegistry.get("cookshare.ratings.verify.pending").gauge().value());
+
+        verifier.verify();
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+    }
+}
@@ -0,0 +1,60 @@
+package com.backend.cookshare.common.service.counter;
+
+import com.backend.cookshare.common.EmbeddedPostgresTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy câu UPDATE follower_count của {@link CounterDeltaBuffer} và {@link CounterReconciliationJob} trên Postgres thật:
+ * cả hai phải đẩy updated_at lên để TypeaheadService đọc được số follower mới
+ */
+class UserCounterSqlTest {
+
+    private final UUID author = UUID.randomUUID();
+    private final UUID follower = UUID.randomUUID();
+    private final LocalDateTime longAgo = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedPostgresTestSupport.freshSchema("user_counter_sql");
+        jdbcTemplate.execute("CREATE TABLE users (user_id UUID PRIMARY KEY, follower_count INT DEFAULT 0, "
+                + "following_count INT DEFAULT 0, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE follows (follower_id UUID NOT NULL, following_id UUID NOT NULL)");
+        jdbcTemplate.update("INSERT INTO users (user_id, updated_at) VALUES (?, ?), (?, ?)",
+                author, Timestamp.valueOf(longAgo), follower, Timestamp.valueOf(longAgo));
+    }
+
+    private LocalDateTime updatedAt(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT updated_at FROM users WHERE user_id = ?",
+                Timestamp.class, userId).toLocalDateTime();
+    }
+
+    @Test
+    void flushedFollowerDelta_ShouldRefreshUpdatedAt() {
+        jdbcTemplate.update(CounterType.USER_FOLLOWERS.buildUpdateSql(1), author.toString(), 1);
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT follower_count FROM users WHERE user_id = ?", Integer.class, author));
+        assertTrue(updatedAt(author).isAfter(longAgo));
+        assertEquals(longAgo, updatedAt(follower));
+    }
+
+    @Test
+    void reconcileFollowerCount_ShouldRefreshUpdatedAtOfChangedRowsOnly() {
+        jdbcTemplate.update("INSERT INTO follows VALUES (?, ?)", follower, author);
+
+        jdbcTemplate.update(CounterReconciliationJob.RECONCILE_SQL.get("follower_count"));
+
+        assertTrue(updatedAt(author).isAfter(longAgo));
+        assertEquals(longAgo, updatedAt(follower));
+    }
+}
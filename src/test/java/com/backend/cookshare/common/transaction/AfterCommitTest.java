@@ -0,0 +1,96 @@
+package com.backend.cookshare.common.transaction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AfterCommitTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("run - no transaction runs immediately")
+    void run_withoutTransaction_runsImmediately() {
+        AtomicInteger calls = new AtomicInteger();
+
+        AfterCommit.run("test", calls::incrementAndGet);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("run - inside a transaction waits for commit and is dropped on rollback")
+    void run_insideTransaction_waitsForCommit() {
+        AtomicInteger calls = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+
+        AfterCommit.run("test", calls::incrementAndGet);
+        assertEquals(0, calls.get());
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(0, calls.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("run - failures are logged, not thrown to the caller")
+    void run_failure_isNotPropagated() {
+        assertDoesNotThrow(() -> AfterCommit.run("test", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        TransactionSynchronizationManager.initSynchronization();
+        AfterCommit.run("test", () -> {
+            throw new IllegalStateException("boom");
+        });
+        assertDoesNotThrow(() -> TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit));
+    }
+
+    @Test
+    @DisplayName("execute - hands off to the executor only after commit")
+    void execute_insideTransaction_handsOffAfterCommit() {
+        List<Runnable> submitted = new ArrayList<>();
+        AtomicInteger calls = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+
+        AfterCommit.execute(submitted::add, "test", calls::incrementAndGet);
+        assertTrue(submitted.isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, submitted.size());
+        assertEquals(0, calls.get());
+
+        submitted.get(0).run();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("execute - task failures and executor rejection are not propagated")
+    void execute_failures_areNotPropagated() {
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException("full");
+        };
+        assertDoesNotThrow(() -> AfterCommit.execute(rejecting, "test", () -> { }));
+        assertDoesNotThrow(() -> AfterCommit.execute(Runnable::run, "test", () -> {
+            throw new IllegalStateException("boom");
+        }));
+    }
+}
@@ -4,7 +4,9 @@ import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.interaction.dto.request.RecipeLikeRequest;
 import com.backend.cookshare.interaction.dto.response.RecipeLikeResponse;
 import com.backend.cookshare.interaction.dto.response.RecipeSummaryResponse;
+import com.backend.cookshare.interaction.dto.response.RecipeViewerStateResponse;
 import com.backend.cookshare.interaction.sevice.RecipeLikeService;
+import com.backend.cookshare.interaction.sevice.RecipeViewerStateService;
 import com.backend.cookshare.recipe_management.dto.ApiResponse;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +28,9 @@ class RecipeLikeControllerTest {
     @Mock
     private RecipeLikeService recipeLikeService;
 
+    @Mock
+    private RecipeViewerStateService recipeViewerStateService;
+
     @InjectMocks
     private RecipeLikeController recipeLikeController;
 
@@ -131,4 +136,25 @@ class RecipeLikeControllerTest {
 
         verify(recipeLikeService).checkMultipleLikes(recipeIds);
     }
+
+    @Test
+    void getViewerStates_ShouldReturnStatesFromService() {
+        List<UUID> recipeIds = List.of(recipeId);
+        Map<UUID, RecipeViewerStateResponse> states = Map.of(recipeId, RecipeViewerStateResponse.builder()
+                .recipeId(recipeId)
+                .liked(true)
+                .myRating(4)
+                .saved(false)
+                .collectionIds(List.of())
+                .build());
+
+        when(recipeViewerStateService.getViewerStates(recipeIds)).thenReturn(states);
+
+        ApiResponse<Map<UUID, RecipeViewerStateResponse>> response =
+                recipeLikeController.getViewerStates(recipeIds);
+
+        assertTrue(response.getResult().get(recipeId).getLiked());
+        assertEquals(4, response.getResult().get(recipeId).getMyRating());
+        verify(recipeViewerStateService).getViewerStates(recipeIds);
+    }
 }
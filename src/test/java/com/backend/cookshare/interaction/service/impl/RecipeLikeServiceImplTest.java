@@ -1,11 +1,13 @@
 package com.backend.cookshare.interaction.service.impl;
 
 import com.backend.cookshare.authentication.entity.User;
-import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.authentication.service.FirebaseStorageService;
 import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
+import com.backend.cookshare.common.service.counter.CounterDeltaBuffer;
+import com.backend.cookshare.common.service.counter.CounterType;
 import com.backend.cookshare.interaction.dto.response.RecipeLikeResponse;
 import com.backend.cookshare.interaction.entity.RecipeLike;
 import com.backend.cookshare.interaction.mapper.RecipeLikeMapper;
@@ -13,14 +15,12 @@ import com.backend.cookshare.interaction.repository.RecipeLikeRepository;
 import com.backend.cookshare.interaction.sevice.impl.RecipeLikeServiceImpl;
 import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import com.backend.cookshare.user.service.NotificationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.data.domain.*;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -34,7 +34,7 @@ class RecipeLikeServiceImplTest {
     private RecipeLikeRepository recipeLikeRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private CurrentUserResolver currentUserResolver;
 
     @Mock
     private RecipeRepository recipeRepository;
@@ -48,6 +48,12 @@ class RecipeLikeServiceImplTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private RecipeFeedSynchronizer recipeFeedSynchronizer;
+
+    @Mock
+    private CounterDeltaBuffer counterDeltaBuffer;
+
     @InjectMocks
     private RecipeLikeServiceImpl recipeLikeService;
 
@@ -80,19 +86,7 @@ class RecipeLikeServiceImplTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        mockSecurityContext();
-    }
-
-    void mockSecurityContext() {
-        Authentication authentication = mock(Authentication.class);
-        when(authentication.getName()).thenReturn("testuser");
-
-        SecurityContext context = mock(SecurityContext.class);
-        when(context.getAuthentication()).thenReturn(authentication);
-
-        SecurityContextHolder.setContext(context);
-
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(currentUserResolver.requireCurrentUserId()).thenReturn(userId);
     }
 
     // ---------------------------------------------------------
@@ -100,7 +94,7 @@ class RecipeLikeServiceImplTest {
     // ---------------------------------------------------------
     @Test
     void testLikeRecipe_Success() {
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.existsById(recipeId)).thenReturn(true);
         when(recipeLikeRepository.existsByUserIdAndRecipeId(userId, recipeId)).thenReturn(false);
         when(recipeLikeRepository.save(any())).thenReturn(recipeLike);
 
@@ -117,11 +111,13 @@ class RecipeLikeServiceImplTest {
         assertNotNull(response);
         assertEquals(recipeId, response.getRecipeId());
         verify(notificationService).createLikeNotification(any(), eq(userId), eq(recipeId));
+        verify(counterDeltaBuffer).add(CounterType.RECIPE_LIKES, recipeId, 1);
+        verify(recipeRepository, never()).save(any());
     }
 
     @Test
     void testLikeRecipe_AlreadyLiked_ShouldThrow() {
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.existsById(recipeId)).thenReturn(true);
         when(recipeLikeRepository.existsByUserIdAndRecipeId(userId, recipeId)).thenReturn(true);
 
         CustomException ex = assertThrows(CustomException.class,
@@ -135,19 +131,20 @@ class RecipeLikeServiceImplTest {
     // ---------------------------------------------------------
     @Test
     void testUnlikeRecipe_Success() {
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.existsById(recipeId)).thenReturn(true);
         when(recipeLikeRepository.findByUserIdAndRecipeId(userId, recipeId))
                 .thenReturn(Optional.of(recipeLike));
 
         recipeLikeService.unlikerecipe(recipeId);
 
         verify(recipeLikeRepository).delete(recipeLike);
-        verify(recipeRepository).save(any());
+        verify(counterDeltaBuffer).add(CounterType.RECIPE_LIKES, recipeId, -1);
+        verify(recipeRepository, never()).save(any());
     }
 
     @Test
     void testUnlikeRecipe_NotFound_ShouldThrow() {
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.existsById(recipeId)).thenReturn(true);
         when(recipeLikeRepository.findByUserIdAndRecipeId(userId, recipeId)).thenReturn(Optional.empty());
 
         assertThrows(CustomException.class, () -> recipeLikeService.unlikerecipe(recipeId));
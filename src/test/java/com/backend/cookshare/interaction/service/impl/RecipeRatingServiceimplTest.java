@@ -1,9 +1,10 @@
 package com.backend.cookshare.interaction.service.impl;
 
 import com.backend.cookshare.authentication.entity.User;
-import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
+import com.backend.cookshare.common.service.counter.RatingAggregateVerifier;
 import com.backend.cookshare.interaction.dto.response.RecipeRatingResponse;
 import com.backend.cookshare.interaction.entity.RecipeRating;
 import com.backend.cookshare.interaction.mapper.RecipeRatingMapper;
@@ -11,12 +12,10 @@ import com.backend.cookshare.interaction.repository.RecipeRatingRespository;
 import com.backend.cookshare.interaction.sevice.impl.RecipeRatingServiceimpl;
 import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -31,7 +30,7 @@ public class RecipeRatingServiceimplTest {
     RecipeRatingServiceimpl recipeRatingService;
 
     @Mock
-    UserRepository userRepository;
+    CurrentUserResolver currentUserResolver;
 
     @Mock
     RecipeRepository recipeRepository;
@@ -43,10 +42,10 @@ public class RecipeRatingServiceimplTest {
     RecipeRatingMapper recipeRatingMapper;
 
     @Mock
-    SecurityContext securityContext;
+    RecipeFeedSynchronizer recipeFeedSynchronizer;
 
     @Mock
-    Authentication authentication;
+    RatingAggregateVerifier ratingAggregateVerifier;
 
     private UUID userId;
     private UUID recipeId;
@@ -70,11 +69,7 @@ public class RecipeRatingServiceimplTest {
                 .ratingCount(1)
                 .build();
 
-        // Mock SecurityContext
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        SecurityContextHolder.setContext(securityContext);
-        when(authentication.getName()).thenReturn("testuser");
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(currentUserResolver.requireCurrentUserId()).thenReturn(userId);
     }
 
     // -------------------------------------------------------------
@@ -83,21 +78,38 @@ public class RecipeRatingServiceimplTest {
     @Test
     void testRatingRecipe_NewRating() {
 
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.existsById(recipeId)).thenReturn(true);
         when(recipeRatingRespository.findByUserIdAndRecipeId(userId, recipeId)).thenReturn(Optional.empty());
         when(recipeRatingRespository.save(any())).thenAnswer(inv -> inv.getArguments()[0]);
-        when(recipeRatingRespository.getAverageRatingByRecipeId(recipeId))
-                .thenReturn(BigDecimal.valueOf(4.5));
+        when(recipeRepository.findRatingSummary(recipeId)).thenReturn(Optional.of(summary(2, 4.5)));
 
         RecipeRatingResponse response = recipeRatingService.ratingrecipe(recipeId, 5);
 
         assertNotNull(response);
         assertEquals(5, response.getRating());
         assertEquals(BigDecimal.valueOf(4.5), response.getAverageRating());
-        assertEquals(2, recipe.getRatingCount());
+        assertEquals(2, response.getRatingCount());
 
         verify(recipeRatingRespository).save(any());
-        verify(recipeRepository).save(recipe);
+        verify(recipeRepository).applyRating(recipeId, 1, 5);
+        verify(recipeRepository, never()).save(any());
+        verify(recipeRatingRespository, never()).getAverageRatingByRecipeId(any());
+        verify(ratingAggregateVerifier).markChanged(recipeId);
+        verify(recipeFeedSynchronizer).ratingChanged(recipeId, 2, BigDecimal.valueOf(4.5), true);
+    }
+
+    @Test
+    void testRatingRecipe_WithRatingSumEnabled_ShouldUpdateSumColumn() {
+        when(ratingAggregateVerifier.isRatingSumEnabled()).thenReturn(true);
+        when(recipeRepository.existsById(recipeId)).thenReturn(true);
+        when(recipeRatingRespository.findByUserIdAndRecipeId(userId, recipeId)).thenReturn(Optional.empty());
+        when(recipeRatingRespository.save(any())).thenAnswer(inv -> inv.getArguments()[0]);
+        when(recipeRepository.findRatingSummary(recipeId)).thenReturn(Optional.of(summary(1, 5.0)));
+
+        recipeRatingService.ratingrecipe(recipeId, 5);
+
+        verify(recipeRepository).applyRatingWithSum(recipeId, 1, 5);
+        verify(recipeRepository, never()).applyRating(any(), anyInt(), anyInt());
     }
 
     // -------------------------------------------------------------
@@ -112,12 +124,11 @@ public class RecipeRatingServiceimplTest {
                 .rating(3)
                 .build();
 
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.existsById(recipeId)).thenReturn(true);
         when(recipeRatingRespository.findByUserIdAndRecipeId(userId, recipeId))
                 .thenReturn(Optional.of(existing));
         when(recipeRatingRespository.save(any())).thenAnswer(inv -> inv.getArguments()[0]);
-        when(recipeRatingRespository.getAverageRatingByRecipeId(recipeId))
-                .thenReturn(BigDecimal.valueOf(4.0));
+        when(recipeRepository.findRatingSummary(recipeId)).thenReturn(Optional.of(summary(1, 4.0)));
 
         RecipeRatingResponse response = recipeRatingService.ratingrecipe(recipeId, 4);
 
@@ -126,7 +137,18 @@ public class RecipeRatingServiceimplTest {
         assertEquals(BigDecimal.valueOf(4.0), response.getAverageRating());
 
         // Rating count must NOT increase when updating
-        assertEquals(1, recipe.getRatingCount());
+        assertEquals(1, response.getRatingCount());
+        // Chỉ cộng phần chênh lệch điểm (4 - 3)
+        verify(recipeRepository).applyRating(recipeId, 0, 1);
+        // Sửa đánh giá không phải sự kiện mới, trending không được cộng thêm
+        verify(recipeFeedSynchronizer).ratingChanged(recipeId, 1, BigDecimal.valueOf(4.0), false);
+    }
+
+    private static RecipeRepository.RatingSummaryProjection summary(int count, double average) {
+        return new RecipeRepository.RatingSummaryProjection() {
+            public Integer getRatingCount() { return count; }
+            public BigDecimal getAverageRating() { return BigDecimal.valueOf(average); }
+        };
     }
 
     // -------------------------------------------------------------
@@ -134,7 +156,7 @@ public class RecipeRatingServiceimplTest {
     // -------------------------------------------------------------
     @Test
     void testRatingRecipe_RecipeNotFound() {
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.empty());
+        when(recipeRepository.existsById(recipeId)).thenReturn(false);
 
         CustomException ex = assertThrows(CustomException.class,
                 () -> recipeRatingService.ratingrecipe(recipeId, 5));
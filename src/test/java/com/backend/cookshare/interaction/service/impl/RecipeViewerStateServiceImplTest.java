@@ -0,0 +1,120 @@
+package com.backend.cookshare.interaction.service.impl;
+
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
+import com.backend.cookshare.common.exception.CustomException;
+import com.backend.cookshare.common.exception.ErrorCode;
+import com.backend.cookshare.interaction.dto.response.RecipeViewerStateResponse;
+import com.backend.cookshare.interaction.repository.RecipeLikeRepository;
+import com.backend.cookshare.interaction.repository.RecipeRatingRespository;
+import com.backend.cookshare.interaction.sevice.impl.RecipeViewerStateServiceImpl;
+import com.backend.cookshare.user.repository.CollectionRecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeViewerStateServiceImplTest {
+
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+
+    @Mock
+    private RecipeLikeRepository recipeLikeRepository;
+
+    @Mock
+    private RecipeRatingRespository recipeRatingRespository;
+
+    @Mock
+    private CollectionRecipeRepository collectionRecipeRepository;
+
+    @InjectMocks
+    private RecipeViewerStateServiceImpl viewerStateService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID likedRecipe = UUID.randomUUID();
+    private final UUID ratedRecipe = UUID.randomUUID();
+    private final UUID savedRecipe = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(viewerStateService, "maxRecipes", 3);
+    }
+
+    private static RecipeRatingRespository.UserRatingProjection rating(UUID recipeId, int value) {
+        return new RecipeRatingRespository.UserRatingProjection() {
+            public UUID getRecipeId() { return recipeId; }
+            public Integer getRating() { return value; }
+        };
+    }
+
+    private static CollectionRecipeRepository.SavedRecipeProjection saved(UUID recipeId, UUID collectionId) {
+        return new CollectionRecipeRepository.SavedRecipeProjection() {
+            public UUID getRecipeId() { return recipeId; }
+            public UUID getCollectionId() { return collectionId; }
+        };
+    }
+
+    @Test
+    void getViewerStates_ShouldRunOneQueryPerRelation() {
+        when(currentUserResolver.requireCurrentUserId()).thenReturn(userId);
+        UUID collectionA = UUID.randomUUID();
+        UUID collectionB = UUID.randomUUID();
+        when(recipeLikeRepository.findLikedRecipeIds(eq(userId), any())).thenReturn(List.of(likedRecipe));
+        when(recipeRatingRespository.findUserRatings(eq(userId), any())).thenReturn(List.of(rating(ratedRecipe, 5)));
+        when(collectionRecipeRepository.findSavedRecipes(eq(userId), any()))
+                .thenReturn(List.of(saved(savedRecipe, collectionA), saved(savedRecipe, collectionB)));
+
+        Map<UUID, RecipeViewerStateResponse> states = viewerStateService.getViewerStates(
+                List.of(savedRecipe, likedRecipe, ratedRecipe, likedRecipe));
+
+        assertEquals(List.of(savedRecipe, likedRecipe, ratedRecipe), new ArrayList<>(states.keySet()));
+        assertTrue(states.get(likedRecipe).getLiked());
+        assertNull(states.get(likedRecipe).getMyRating());
+        assertEquals(5, states.get(ratedRecipe).getMyRating());
+        assertFalse(states.get(ratedRecipe).getSaved());
+        assertTrue(states.get(savedRecipe).getSaved());
+        assertEquals(List.of(collectionA, collectionB), states.get(savedRecipe).getCollectionIds());
+
+        verify(recipeLikeRepository, times(1)).findLikedRecipeIds(eq(userId), any());
+        verify(recipeRatingRespository, times(1)).findUserRatings(eq(userId), any());
+        verify(collectionRecipeRepository, times(1)).findSavedRecipes(eq(userId), any());
+        verify(currentUserResolver, times(1)).requireCurrentUserId();
+    }
+
+    @Test
+    void getViewerStates_WithTooManyIds_ShouldThrow() {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        CustomException ex = assertThrows(CustomException.class, () -> viewerStateService.getViewerStates(ids));
+
+        assertEquals(ErrorCode.TOO_MANY_RECIPE_IDS, ex.getErrorCode());
+        verifyNoInteractions(recipeLikeRepository, recipeRatingRespository, collectionRecipeRepository);
+    }
+
+    @Test
+    void getViewerStates_WithEmptyList_ShouldNotQuery() {
+        assertTrue(viewerStateService.getViewerStates(List.of()).isEmpty());
+        verifyNoInteractions(currentUserResolver, recipeLikeRepository, recipeRatingRespository, collectionRecipeRepository);
+    }
+
+    @Test
+    void getViewerStates_WithoutCurrentUser_ShouldThrowUserNotFound() {
+        when(currentUserResolver.requireCurrentUserId()).thenThrow(new CustomException(ErrorCode.USER_NOT_FOUND));
+
+        CustomException ex = assertThrows(CustomException.class,
+                () -> viewerStateService.getViewerStates(List.of(likedRecipe)));
+
+        assertEquals(ErrorCode.USER_NOT_FOUND, ex.getErrorCode());
+        verifyNoInteractions(recipeLikeRepository, recipeRatingRespository, collectionRecipeRepository);
+    }
+}
@@ -0,0 +1,149 @@
+package com.backend.cookshare.interaction.sevice.pipeline;
+
+import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.repository.UserRepository.UserIdProjection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchHistoryPipelineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchHistoryPipeline pipeline;
+
+    private final UUID lanId = UUID.randomUUID();
+    private final UUID longId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Không gọi start(): các test tự điều khiển việc ghi qua drainAll()
+        pipeline = new SearchHistoryPipeline(jdbcTemplate, userRepository, meterRegistry, 3, 2, 50, false);
+    }
+
+    private static UserIdProjection user(String username, UUID userId) {
+        return new UserIdProjection() {
+            public UUID getUserId() { return userId; }
+            public String getUsername() { return username; }
+        };
+    }
+
+    @Test
+    @DisplayName("drainAll - resolves usernames once per batch and writes JDBC batches")
+    void drainAll_writesInBatches() {
+        when(userRepository.findIdsByUsernameIn(anyCollection()))
+                .thenReturn(List.of(user("lan", lanId), user("long", longId)));
+        pipeline.record("lan", "pho bo", "recipe", 4);
+        pipeline.record("long", "bun cha", "recipe", 0);
+        pipeline.record("lan", "ga, toi", "ingredient", 2);
+
+        assertEquals(3, pipeline.drainAll());
+
+        ArgumentCaptor<Integer> batchSizes = ArgumentCaptor.forClass(Integer.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(SearchHistoryPipeline.INSERT_SQL), anyCollection(),
+                batchSizes.capture(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(2, 1), batchSizes.getAllValues());
+        verify(userRepository, times(2)).findIdsByUsernameIn(anyCollection());
+        assertEquals(3.0, meterRegistry.get("cookshare.search-history.written").gauge().value());
+        verify(jdbcTemplate, never()).batchUpdate(eq(SearchHistoryPipeline.ROLLUP_UPSERT_SQL), anyCollection(),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("writeBatch - events of unknown users are skipped")
+    void writeBatch_skipsUnknownUsers() {
+        when(userRepository.findIdsByUsernameIn(anyCollection())).thenReturn(List.of());
+
+        pipeline.writeBatch(List.of(new SearchHistoryPipeline.SearchEvent(
+                "ghost", "pho", "recipe", 1, LocalDateTime.now())));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("record - full buffer drops new events, blank queries are ignored")
+    void record_fullBufferDrops() {
+        pipeline.record("lan", "  ", "recipe", 0);
+        pipeline.record(null, "pho", "recipe", 0);
+        for (int i = 0; i < 5; i++) {
+            pipeline.record("lan", "pho " + i, "recipe", i);
+        }
+
+        assertEquals(3, pipeline.pendingCount());
+        assertEquals(2, pipeline.droppedCount());
+        assertEquals(2.0, meterRegistry.get("cookshare.search-history.dropped").gauge().value());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("writeBatch - rollup aggregates search count and result sum per day and keyword")
+    @SuppressWarnings("unchecked")
+    void writeBatch_rollupAggregatesKeywords() throws Exception {
+        pipeline = new SearchHistoryPipeline(jdbcTemplate, userRepository, meterRegistry, 10, 10, 50, true);
+        when(userRepository.findIdsByUsernameIn(anyCollection()))
+                .thenReturn(List.of(user("lan", lanId), user("long", longId)));
+        LocalDateTime now = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+        pipeline.writeBatch(List.of(
+                new SearchHistoryPipeline.SearchEvent("lan", "pho bo", "recipe", 4, now),
+                new SearchHistoryPipeline.SearchEvent("lan", "pho bo", "recipe", 2, now.plusMinutes(1)),
+                new SearchHistoryPipeline.SearchEvent("long", "pho bo", "recipe", 3, now.plusMinutes(2))));
+        pipeline.writeBatch(List.of(
+                new SearchHistoryPipeline.SearchEvent("lan", "pho bo", "recipe", 1, now.plusMinutes(3))));
+
+        ArgumentCaptor<Collection<Object>> rows = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(SearchHistoryPipeline.ROLLUP_UPSERT_SQL), rows.capture(),
+                anyInt(), setter.capture());
+
+        PreparedStatement first = mock(PreparedStatement.class);
+        assertEquals(1, rows.getAllValues().get(0).size());
+        setter.getAllValues().get(0).setValues(first, rows.getAllValues().get(0).iterator().next());
+        verify(first).setString(2, "pho bo");
+        verify(first).setLong(3, 3L);
+        verify(first).setLong(4, 9L);
+
+        // Batch sau được cộng dồn ở DB bằng ON CONFLICT, không cần nhớ gì trong bộ nhớ
+        PreparedStatement second = mock(PreparedStatement.class);
+        setter.getAllValues().get(1).setValues(second, rows.getAllValues().get(1).iterator().next());
+        verify(second).setLong(3, 1L);
+        verify(second).setLong(4, 1L);
+    }
+
+    @Test
+    @DisplayName("writeBatch - database errors are counted, not thrown")
+    void writeBatch_failureIsCounted() {
+        when(userRepository.findIdsByUsernameIn(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertDoesNotThrow(() -> pipeline.writeBatch(List.of(new SearchHistoryPipeline.SearchEvent(
+                "lan", "pho", "recipe", 1, LocalDateTime.now()))));
+        assertEquals(1.0, meterRegistry.get("cookshare.search-history.failed").gauge().value());
+    }
+}
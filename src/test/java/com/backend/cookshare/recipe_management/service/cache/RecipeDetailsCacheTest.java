@@ -0,0 +1,91 @@
+package com.backend.cookshare.recipe_management.service.cache;
+
+import com.backend.cookshare.recipe_management.dto.response.RecipeDetailsResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeDetailsCacheTest {
+
+    private static Supplier<RecipeDetailsResult> countingLoader(AtomicInteger loads, String fullName) {
+        return () -> {
+            loads.incrementAndGet();
+            RecipeDetailsResult result = new RecipeDetailsResult();
+            result.fullName = fullName;
+            return result;
+        };
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeFromCache() {
+        RecipeDetailsCache cache = new RecipeDetailsCache(new SimpleMeterRegistry(), 10, 60_000);
+        UUID recipeId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        RecipeDetailsResult first = cache.get(recipeId, countingLoader(loads, "An"));
+        RecipeDetailsResult second = cache.get(recipeId, countingLoader(loads, "Bình"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        RecipeDetailsCache cache = new RecipeDetailsCache(new SimpleMeterRegistry(), 10, 60_000);
+        UUID recipeId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(recipeId, countingLoader(loads, "An"));
+        cache.invalidate(recipeId);
+        RecipeDetailsResult reloaded = cache.get(recipeId, countingLoader(loads, "Bình"));
+
+        assertEquals("Bình", reloaded.fullName);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldReloadAfterTtl() {
+        RecipeDetailsCache cache = new RecipeDetailsCache(new SimpleMeterRegistry(), 10, 0);
+        UUID recipeId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(recipeId, countingLoader(loads, "An"));
+        cache.get(recipeId, countingLoader(loads, "An"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotCacheFailedLoads() {
+        RecipeDetailsCache cache = new RecipeDetailsCache(new SimpleMeterRegistry(), 10, 60_000);
+        UUID recipeId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThrows(RuntimeException.class, () -> cache.get(recipeId, () -> {
+            throw new RuntimeException("Lỗi khi load recipe details");
+        }));
+        RecipeDetailsResult result = cache.get(recipeId, countingLoader(loads, "An"));
+
+        assertEquals("An", result.fullName);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldStayWithinSizeBound() {
+        RecipeDetailsCache cache = new RecipeDetailsCache(new SimpleMeterRegistry(), 8, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            cache.get(UUID.randomUUID(), countingLoader(loads, "An"));
+        }
+
+        assertTrue(cache.size() <= 9, "size=" + cache.size());
+        assertEquals(100, loads.get());
+    }
+}
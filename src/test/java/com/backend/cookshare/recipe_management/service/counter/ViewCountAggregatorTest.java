@@ -0,0 +1,117 @@
+package com.backend.cookshare.recipe_management.service.counter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewCountAggregatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ViewCountAggregator aggregator;
+
+    private final UUID recipeA = UUID.randomUUID();
+    private final UUID recipeB = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aggregator = new ViewCountAggregator(jdbcTemplate, Runnable::run, meterRegistry, 1000);
+    }
+
+    @Test
+    @DisplayName("flush - coalesces views into one batched UPDATE")
+    void flush_coalescesViews() {
+        for (int i = 0; i < 3; i++) {
+            aggregator.record(recipeA);
+        }
+        aggregator.record(recipeB);
+
+        assertEquals(4, aggregator.pendingViews());
+        assertEquals(2, aggregator.pendingRecipes());
+
+        assertEquals(4, aggregator.flush());
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(eq(ViewCountAggregator.buildUpdateSql(2)), args.capture());
+        List<Object> values = Arrays.asList(args.getValue());
+        assertEquals(3, values.get(values.indexOf(recipeA.toString()) + 1));
+        assertEquals(1, values.get(values.indexOf(recipeB.toString()) + 1));
+        assertEquals(0, aggregator.pendingViews());
+        assertEquals(4.0, meterRegistry.get("cookshare.recipe.views.flushed").gauge().value());
+    }
+
+    @Test
+    @DisplayName("flush - nothing pending means no statement")
+    void flush_nothingPending() {
+        assertEquals(0, aggregator.flush());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("flush - failed batch keeps deltas for the next attempt")
+    void flush_failureKeepsDeltas() {
+        aggregator.record(recipeA);
+        aggregator.record(recipeA);
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(1);
+
+        assertEquals(0, aggregator.flush());
+        assertEquals(2, aggregator.pendingViews());
+        assertEquals(1.0, meterRegistry.get("cookshare.recipe.views.flush.failures").gauge().value());
+
+        aggregator.record(recipeA);
+        assertEquals(3, aggregator.flush());
+        assertEquals(0, aggregator.pendingViews());
+    }
+
+    @Test
+    @DisplayName("record - crossing the threshold triggers a flush")
+    void record_thresholdTriggersFlush() {
+        ViewCountAggregator small = new ViewCountAggregator(jdbcTemplate, Runnable::run, new SimpleMeterRegistry(), 2);
+
+        small.record(recipeA);
+        verifyNoInteractions(jdbcTemplate);
+
+        small.record(recipeB);
+        verify(jdbcTemplate).update(anyString(), any(Object[].class));
+        assertEquals(0, small.pendingViews());
+    }
+
+    @Test
+    @DisplayName("forget - deleted recipe is not written")
+    void forget_dropsPending() {
+        aggregator.record(recipeA);
+        aggregator.forget(recipeA);
+
+        assertEquals(0, aggregator.pendingViews());
+        assertEquals(0, aggregator.flush());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void buildUpdateSql_usesValuesList() {
+        String sql = ViewCountAggregator.buildUpdateSql(2);
+        assertTrue(sql.startsWith("UPDATE recipes r SET view_count"));
+        assertTrue(sql.contains("FROM (VALUES (CAST(? AS uuid), CAST(? AS integer)), (CAST(? AS uuid), CAST(? AS integer)))"));
+    }
+}
@@ -14,9 +14,12 @@ import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.enums.RecipeStatus;
 import com.backend.cookshare.recipe_management.dto.response.RecipeDetailsResult; // đúng tên helper
 import com.backend.cookshare.recipe_management.repository.*;
-import com.backend.cookshare.user.repository.FollowRepository;
+import com.backend.cookshare.recipe_management.service.cache.RecipeDetailsCache;
+import com.backend.cookshare.recipe_management.service.counter.ViewCountAggregator;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import com.backend.cookshare.user.service.ActivityLogService;
 import com.backend.cookshare.user.service.NotificationService;
+import com.backend.cookshare.user.service.timeline.HomeTimelineService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -44,7 +47,10 @@ class AdminRecipeServiceImplTest {
     @Mock private FirebaseStorageService firebaseStorageService;
     @Mock private NotificationService notificationService;
     @Mock private ActivityLogService activityLogService;
-    @Mock private FollowRepository followRepository;
+    @Mock private RecipeFeedSynchronizer recipeFeedSynchronizer;
+    @Mock private ViewCountAggregator viewCountAggregator;
+    @Mock private RecipeDetailsCache recipeDetailsCache;
+    @Mock private HomeTimelineService homeTimelineService;
 
     @Spy
     @InjectMocks
@@ -166,7 +172,6 @@ class AdminRecipeServiceImplTest {
         request.setApproved(true);
 
         when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(followRepository.findAllFollowerIdsByUser(userId)).thenReturn(List.of(UUID.randomUUID()));
         when(userService.getUserById(userId)).thenReturn(Optional.of(recipeOwner));
 
         adminRecipeService.approveRecipe(recipeId, request);
@@ -176,8 +181,10 @@ class AdminRecipeServiceImplTest {
         ));
         verify(notificationService).createRecipeApprovedNotification(userId, recipeId, recipe.getTitle());
         verify(notificationService).createNewRecipeNotificationForFollowers(
-                anyList(), eq(userId), eq("John Chef"), eq(recipeId), eq(recipe.getTitle()));
+                userId, "John Chef", recipeId, recipe.getTitle());
         verify(activityLogService).logRecipeActivity(userId, recipeId, "APPROVE");
+        // Cùng mốc recipes.created_at với backfill và các nguồn đọc bảng tin khác
+        verify(homeTimelineService).publish(userId, recipeId, recipe.getCreatedAt());
     }
 
     @Test
@@ -194,6 +201,7 @@ class AdminRecipeServiceImplTest {
                 r.getStatus() == RecipeStatus.REJECTED && !r.getIsPublished()
         ));
         verify(activityLogService).logRecipeActivity(userId, recipeId, "REJECT");
+        verifyNoInteractions(homeTimelineService);
     }
 
     @Test
@@ -341,34 +349,17 @@ class AdminRecipeServiceImplTest {
     }
 
     @Test
-    void approveRecipe_WhenApproved_NoFollowers_ShouldOnlyNotifyOwner() {
+    void approveRecipe_WhenApproved_ButOwnerNotFound_ShouldSkipFollowerNotification() {
         AdminRecipeApprovalRequest request = new AdminRecipeApprovalRequest();
         request.setApproved(true);
 
         when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(followRepository.findAllFollowerIdsByUser(userId)).thenReturn(Collections.emptyList());
-
-        adminRecipeService.approveRecipe(recipeId, request);
-
-        verify(notificationService).createRecipeApprovedNotification(userId, recipeId, recipe.getTitle());
-        verify(notificationService, never()).createNewRecipeNotificationForFollowers(any(), any(), any(), any(), any());
-        verify(recipeRepository).save(argThat(r -> r.getStatus() == RecipeStatus.APPROVED));
-        // → cover nhánh followerIds.isEmpty()
-    }
-
-    @Test
-    void approveRecipe_WhenApproved_FollowersExist_ButUserNotFound_ShouldSkipFollowerNotification() {
-        AdminRecipeApprovalRequest request = new AdminRecipeApprovalRequest();
-        request.setApproved(true);
-
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(followRepository.findAllFollowerIdsByUser(userId)).thenReturn(List.of(UUID.randomUUID()));
         when(userService.getUserById(userId)).thenReturn(Optional.empty()); // user null
 
         adminRecipeService.approveRecipe(recipeId, request);
 
         verify(notificationService).createRecipeApprovedNotification(any(), any(), any());
-        verify(notificationService, never()).createNewRecipeNotificationForFollowers(any(), any(), any(), any(), any());
+        verify(notificationService, never()).createNewRecipeNotificationForFollowers(any(), any(), any(), any());
         // → cover nhánh recipeOwner == null
     }
 
@@ -10,8 +10,12 @@ import com.backend.cookshare.recipe_management.entity.*;
 import com.backend.cookshare.recipe_management.enums.RecipeStatus;
 import com.backend.cookshare.recipe_management.mapper.*;
 import com.backend.cookshare.recipe_management.repository.*;
+import com.backend.cookshare.recipe_management.service.cache.RecipeDetailsCache;
+import com.backend.cookshare.recipe_management.service.counter.ViewCountAggregator;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import com.backend.cookshare.user.service.ActivityLogService;
 import com.backend.cookshare.user.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,6 +23,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -84,6 +89,15 @@ class RecipeServiceImplTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private RecipeFeedSynchronizer recipeFeedSynchronizer;
+
+    @Mock
+    private ViewCountAggregator viewCountAggregator;
+
+    @Spy
+    private RecipeDetailsCache recipeDetailsCache = new RecipeDetailsCache(new SimpleMeterRegistry(), 100, 60_000);
+
     @InjectMocks
     private RecipeServiceImpl recipeService;
 
@@ -884,7 +898,23 @@ class RecipeServiceImplTest {
 
         RecipeResponse result = recipeService.getRecipeById(recipeId);
 
+        verify(viewCountAggregator).record(recipeId);
+        verify(recipeFeedSynchronizer).viewed(recipeId);
+    }
+
+    @Test
+    void getRecipeById_RepeatedViews_ShouldLoadDetailsOnceAndKeepLiveCounters() {
+        testRecipe.setViewCount(10);
+        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(testRecipe));
+        when(recipeLoaderHelper.loadRecipeDetailsForPublic(recipeId, userId)).thenReturn(recipeDetails);
+        when(recipeMapper.toResponse(testRecipe)).thenAnswer(inv -> new RecipeResponse());
+
+        recipeService.getRecipeById(recipeId);
+        testRecipe.setViewCount(42);
+        RecipeResponse second = recipeService.getRecipeById(recipeId);
 
+        verify(recipeLoaderHelper, times(1)).loadRecipeDetailsForPublic(recipeId, userId);
+        assertEquals(43, second.getViewCount());
     }
 
     @Test
@@ -905,6 +935,7 @@ class RecipeServiceImplTest {
 
         recipeService.deleteRecipe(recipeId);
 
+        verify(recipeDetailsCache).invalidate(recipeId);
     }
 
     @Test
@@ -3,6 +3,7 @@ package com.backend.cookshare.recipe_management.service.impl;
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
 import com.backend.cookshare.authentication.service.FirebaseStorageService;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
@@ -10,6 +11,7 @@ import com.backend.cookshare.interaction.dto.response.SearchHistoryResponse;
 import com.backend.cookshare.interaction.entity.SearchHistory;
 import com.backend.cookshare.interaction.mapper.SearchHistoryMapper;
 import com.backend.cookshare.interaction.repository.SearchHistoryRepository;
+import com.backend.cookshare.interaction.sevice.pipeline.SearchHistoryPipeline;
 import com.backend.cookshare.recipe_management.dto.response.IngredientResponse;
 import com.backend.cookshare.recipe_management.dto.response.SearchReponse;
 import com.backend.cookshare.recipe_management.entity.Recipe;
@@ -17,6 +19,9 @@ import com.backend.cookshare.recipe_management.enums.RecipeStatus;
 import com.backend.cookshare.recipe_management.mapper.SearchMapper;
 import com.backend.cookshare.recipe_management.repository.IngredientRepository;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recipe_management.service.search.IngredientRecipeIndex;
+import com.backend.cookshare.recipe_management.service.search.RecipeSearchIndex;
+import com.backend.cookshare.recipe_management.service.search.TypeaheadService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -54,12 +59,27 @@ class SearchServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+
     @Mock
     private SearchHistoryMapper searchHistoryMapper;
 
     @Mock
     private FirebaseStorageService firebaseStorageService;
 
+    @Mock
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @Mock
+    private IngredientRecipeIndex ingredientRecipeIndex;
+
+    @Mock
+    private TypeaheadService typeaheadService;
+
+    @Mock
+    private SearchHistoryPipeline searchHistoryPipeline;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -96,22 +116,45 @@ class SearchServiceImplTest {
     void searchRecipesByName_WithValidKeyword_ShouldReturnRecipes() {
         String keyword = "pasta";
         Recipe recipe = createTestRecipe();
-        Page<Recipe> recipePage = new PageImpl<>(List.of(recipe), pageable, 1);
         SearchReponse searchResponse = createTestSearchResponse();
 
         setupSecurityContext();
-        when(recipeRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(recipePage);
+        when(recipeSearchIndex.search(keyword, 0, 10))
+                .thenReturn(new RecipeSearchIndex.SearchHits(List.of(recipe.getRecipeId()), 1));
+        when(recipeRepository.findAllById(List.of(recipe.getRecipeId()))).thenReturn(List.of(recipe));
         when(searchMapper.toSearchRecipeResponse(recipe)).thenReturn(searchResponse);
         when(firebaseStorageService.convertPathToFirebaseUrl(anyString())).thenReturn("https://firebase.url/image.jpg");
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
 
         PageResponse<SearchReponse> result = searchService.searchRecipesByName(keyword, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(1, result.getContent().size());
-        verify(recipeRepository).findAll(any(Specification.class), eq(pageable));
-        verify(searchHistoryRepository).save(any(SearchHistory.class));
+        verify(recipeRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(searchHistoryPipeline).record("testuser", keyword, "recipe", 1);
+    }
+
+    @Test
+    void searchRecipesByName_ShouldKeepIndexRankingOrder() {
+        Recipe first = createTestRecipe();
+        Recipe second = createTestRecipe();
+        second.setRecipeId(UUID.randomUUID());
+        SearchReponse firstResponse = createTestSearchResponse();
+        SearchReponse secondResponse = createTestSearchResponse();
+        Pageable secondPage = PageRequest.of(1, 2);
+
+        setupSecurityContext();
+        when(recipeSearchIndex.search("pho bo", 2, 2))
+                .thenReturn(new RecipeSearchIndex.SearchHits(List.of(second.getRecipeId(), first.getRecipeId()), 7));
+        when(recipeRepository.findAllById(anyList())).thenReturn(List.of(first, second));
+        when(searchMapper.toSearchRecipeResponse(first)).thenReturn(firstResponse);
+        when(searchMapper.toSearchRecipeResponse(second)).thenReturn(secondResponse);
+
+        PageResponse<SearchReponse> result = searchService.searchRecipesByName("pho bo", secondPage);
+
+        assertEquals(7, result.getTotalElements());
+        assertSame(secondResponse, result.getContent().get(0));
+        assertSame(firstResponse, result.getContent().get(1));
     }
 
     @Test
@@ -154,25 +197,19 @@ class SearchServiceImplTest {
     void searchRecipesByName_ShouldSaveSearchHistory() {
         String keyword = "pasta";
         Recipe recipe = createTestRecipe();
-        Page<Recipe> recipePage = new PageImpl<>(List.of(recipe), pageable, 1);
         SearchReponse searchResponse = createTestSearchResponse();
 
         setupSecurityContext();
-        when(recipeRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(recipePage);
+        when(recipeSearchIndex.search(keyword, 0, 10))
+                .thenReturn(new RecipeSearchIndex.SearchHits(List.of(recipe.getRecipeId()), 1));
+        when(recipeRepository.findAllById(List.of(recipe.getRecipeId()))).thenReturn(List.of(recipe));
         when(searchMapper.toSearchRecipeResponse(recipe)).thenReturn(searchResponse);
         when(firebaseStorageService.convertPathToFirebaseUrl(anyString())).thenReturn("https://firebase.url/image.jpg");
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
 
         searchService.searchRecipesByName(keyword, pageable);
 
-        ArgumentCaptor<SearchHistory> historyCaptor = ArgumentCaptor.forClass(SearchHistory.class);
-        verify(searchHistoryRepository).save(historyCaptor.capture());
-
-        SearchHistory savedHistory = historyCaptor.getValue();
-        assertEquals(keyword, savedHistory.getSearchQuery());
-        assertEquals("recipe", savedHistory.getSearchType());
-        assertEquals(1, savedHistory.getResultCount());
-        assertEquals(userId, savedHistory.getUserId());
+        verify(searchHistoryPipeline).record("testuser", keyword, "recipe", 1);
+        verifyNoInteractions(searchHistoryRepository, userRepository);
     }
 
     // ============ searchRecipesByIngredient Tests ============
@@ -182,21 +219,41 @@ class SearchServiceImplTest {
         String title = "pasta";
         List<String> ingredients = Arrays.asList("tomato", "cheese");
         Recipe recipe = createTestRecipe();
-        Page<Recipe> recipePage = new PageImpl<>(List.of(recipe), pageable, 1);
         SearchReponse searchResponse = createTestSearchResponse();
+        Set<UUID> titleMatches = Set.of(recipe.getRecipeId());
 
         setupSecurityContext();
-        when(recipeRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(recipePage);
+        when(recipeSearchIndex.matchAll(title)).thenReturn(titleMatches);
+        when(ingredientRecipeIndex.search(ingredients, titleMatches, 0, 10))
+                .thenReturn(new IngredientRecipeIndex.IngredientHits(List.of(recipe.getRecipeId()), 1, true));
+        when(recipeRepository.findAllById(List.of(recipe.getRecipeId()))).thenReturn(List.of(recipe));
         when(searchMapper.toSearchRecipeResponse(recipe)).thenReturn(searchResponse);
         when(firebaseStorageService.convertPathToFirebaseUrl(anyString())).thenReturn("https://firebase.url/image.jpg");
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
 
         PageResponse<SearchReponse> result = searchService.searchRecipesByIngredient(title, ingredients, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(recipeRepository).findAll(any(Specification.class), eq(pageable));
-        verify(searchHistoryRepository).save(any(SearchHistory.class));
+        verify(recipeRepository, never()).findAll(any(Specification.class));
+        verify(recipeRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(searchHistoryPipeline).record(eq("testuser"), anyString(), eq("ingredient"), eq(1L));
+    }
+
+    @Test
+    void searchRecipesByIngredient_WithTitleOnly_ShouldUseSearchIndex() {
+        Recipe recipe = createTestRecipe();
+        SearchReponse searchResponse = createTestSearchResponse();
+
+        setupSecurityContext();
+        when(recipeSearchIndex.search("pasta", 0, 10))
+                .thenReturn(new RecipeSearchIndex.SearchHits(List.of(recipe.getRecipeId()), 1));
+        when(recipeRepository.findAllById(List.of(recipe.getRecipeId()))).thenReturn(List.of(recipe));
+        when(searchMapper.toSearchRecipeResponse(recipe)).thenReturn(searchResponse);
+
+        PageResponse<SearchReponse> result = searchService.searchRecipesByIngredient("pasta", null, pageable);
+
+        assertEquals(1, result.getTotalElements());
+        verifyNoInteractions(ingredientRecipeIndex);
     }
 
     @Test
@@ -212,15 +269,16 @@ class SearchServiceImplTest {
     void searchRecipesByIngredient_WithEmptyResults_ShouldNotSaveHistory() {
         String title = "pasta";
         List<String> ingredients = Arrays.asList("tomato", "cheese");
-        Page<Recipe> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
 
-        when(recipeRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(emptyPage);
+        when(recipeSearchIndex.matchAll(title)).thenReturn(Set.of());
+        when(ingredientRecipeIndex.search(ingredients, Set.of(), 0, 10))
+                .thenReturn(new IngredientRecipeIndex.IngredientHits(List.of(), 0, false));
 
         PageResponse<SearchReponse> result = searchService.searchRecipesByIngredient(title, ingredients, pageable);
 
         assertNotNull(result);
         assertEquals(0, result.getTotalElements());
-        verify(searchHistoryRepository, never()).save(any(SearchHistory.class));
+        verifyNoInteractions(searchHistoryPipeline);
     }
 
     // ============ top10MostUsedIngredients Tests ============
@@ -267,8 +325,7 @@ class SearchServiceImplTest {
                 .resultCount(5)
                 .build();
 
-        setupSecurityContext();
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(currentUserResolver.requireCurrentUserId()).thenReturn(userId);
         when(searchHistoryRepository.findTop5ByUserIdOrderByCreatedAtDesc(userId))
                 .thenReturn(List.of(history1));
         when(searchHistoryMapper.toSearchHistoryResponse(history1)).thenReturn(response1);
@@ -290,7 +347,9 @@ class SearchServiceImplTest {
         Page<Recipe> recipePage = new PageImpl<>(List.of(recipe), pageable, 1);
         SearchReponse searchResponse = createTestSearchResponse();
 
-        when(recipeRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(recipePage);
+        when(recipeSearchIndex.searchByAuthor(keyword, 0, pageable.getPageSize()))
+                .thenReturn(new RecipeSearchIndex.SearchHits(List.of(recipe.getRecipeId()), 1));
+        when(recipeRepository.findAllById(List.of(recipe.getRecipeId()))).thenReturn(List.of(recipe));
         when(searchMapper.toSearchRecipeResponse(recipe)).thenReturn(searchResponse);
         when(firebaseStorageService.convertPathToFirebaseUrl(anyString())).thenReturn("https://firebase.url/image.jpg");
 
@@ -298,20 +357,20 @@ class SearchServiceImplTest {
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(recipeRepository).findAll(any(Specification.class), eq(pageable));
+        verify(recipeRepository, never()).findAll(any(Specification.class), any(Pageable.class));
         verify(userRepository, never()).findByFullNameContainingIgnoreCase(anyString(), any(Pageable.class));
     }
 
     @Test
     void searchRecipesByfullName_WithNoRecipeButUserFound_ShouldReturnUsers() {
         String keyword = "John";
-        Page<Recipe> emptyRecipePage = new PageImpl<>(Collections.emptyList(), pageable, 0);
         Page<User> userPage = new PageImpl<>(List.of(testUser), pageable, 1);
         SearchReponse userResponse = SearchReponse.builder()
                 .fullName("Test User")
                 .build();
 
-        when(recipeRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(emptyRecipePage);
+        when(recipeSearchIndex.searchByAuthor(keyword, 0, pageable.getPageSize()))
+                .thenReturn(new RecipeSearchIndex.SearchHits(List.of(), 0));
         when(userRepository.findByFullNameContainingIgnoreCase(eq(keyword), any(Pageable.class)))
                 .thenReturn(userPage);
         when(searchMapper.toSearchUserResponse(testUser)).thenReturn(userResponse);
@@ -327,10 +386,10 @@ class SearchServiceImplTest {
     @Test
     void searchRecipesByfullName_WithNoRecipeAndNoUser_ShouldThrowException() {
         String keyword = "nonexistent";
-        Page<Recipe> emptyRecipePage = new PageImpl<>(Collections.emptyList(), pageable, 0);
         Page<User> emptyUserPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
 
-        when(recipeRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(emptyRecipePage);
+        when(recipeSearchIndex.searchByAuthor(keyword, 0, pageable.getPageSize()))
+                .thenReturn(new RecipeSearchIndex.SearchHits(List.of(), 0));
         when(userRepository.findByFullNameContainingIgnoreCase(eq(keyword), any(Pageable.class)))
                 .thenReturn(emptyUserPage);
 
@@ -342,107 +401,25 @@ class SearchServiceImplTest {
     // ============ getUsernameSuggestions Tests ============
 
     @Test
-    void getUsernameSuggestions_ShouldReturnUsernameSuggestions() {
-        String query = "test";
-        int limit = 5;
-        List<User> users = Arrays.asList(
-                User.builder().fullName("Test User 1").build(),
-                User.builder().fullName("Test User 2").build()
-        );
-
-        when(userRepository.findByFullNameContainingIgnoreCase(query.toLowerCase()))
-                .thenReturn(users);
-
-        List<String> result = searchService.getUsernameSuggestions(query, limit);
-
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertTrue(result.contains("Test User 1"));
-        assertTrue(result.contains("Test User 2"));
-    }
-
-    @Test
-    void getUsernameSuggestions_WithLimit_ShouldRespectLimit() {
-        String query = "test";
-        int limit = 1;
-        List<User> users = Arrays.asList(
-                User.builder().fullName("Test User 1").build(),
-                User.builder().fullName("Test User 2").build(),
-                User.builder().fullName("Test User 3").build()
-        );
+    void getUsernameSuggestions_ShouldReturnTypeaheadSuggestions() {
+        when(typeaheadService.suggestUserNames("test", 5)).thenReturn(List.of("Test User 1", "Test User 2"));
 
-        when(userRepository.findByFullNameContainingIgnoreCase(query.toLowerCase()))
-                .thenReturn(users);
+        List<String> result = searchService.getUsernameSuggestions("test", 5);
 
-        List<String> result = searchService.getUsernameSuggestions(query, limit);
-
-        assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(List.of("Test User 1", "Test User 2"), result);
+        verifyNoInteractions(userRepository);
     }
 
     // ============ getRecipeSuggestions Tests ============
 
     @Test
-    void getRecipeSuggestions_ShouldReturnRecipeSuggestions() {
-        String query = "pasta";
-        int limit = 5;
-        List<Recipe> recipes = Arrays.asList(
-                Recipe.builder().title("Pasta Carbonara").status(RecipeStatus.APPROVED).build(),
-                Recipe.builder().title("Pasta Bolognese").status(RecipeStatus.APPROVED).build()
-        );
-
-        when(recipeRepository.findByTitleContainingIgnoreCaseAndStatus(
-                query.toLowerCase(), RecipeStatus.APPROVED))
-                .thenReturn(recipes);
-
-        List<String> result = searchService.getRecipeSuggestions(query, limit);
-
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertTrue(result.contains("Pasta Carbonara"));
-        assertTrue(result.contains("Pasta Bolognese"));
-    }
-
-    @Test
-    void getRecipeSuggestions_WithLimit_ShouldRespectLimit() {
-        String query = "pasta";
-        int limit = 1;
-        List<Recipe> recipes = Arrays.asList(
-                Recipe.builder().title("Pasta Carbonara").status(RecipeStatus.APPROVED).build(),
-                Recipe.builder().title("Pasta Bolognese").status(RecipeStatus.APPROVED).build(),
-                Recipe.builder().title("Pasta Primavera").status(RecipeStatus.APPROVED).build()
-        );
+    void getRecipeSuggestions_ShouldReturnTypeaheadSuggestions() {
+        when(typeaheadService.suggestRecipeTitles("pasta", 5)).thenReturn(List.of("Pasta Carbonara", "Pasta Bolognese"));
 
-        when(recipeRepository.findByTitleContainingIgnoreCaseAndStatus(
-                query.toLowerCase(), RecipeStatus.APPROVED))
-                .thenReturn(recipes);
+        List<String> result = searchService.getRecipeSuggestions("pasta", 5);
 
-        List<String> result = searchService.getRecipeSuggestions(query, limit);
-
-        assertNotNull(result);
-        assertEquals(1, result.size());
-    }
-
-    @Test
-    void getRecipeSuggestions_ShouldReturnDistinctTitles() {
-        String query = "pasta";
-        int limit = 5;
-        List<Recipe> recipes = Arrays.asList(
-                Recipe.builder().title("Pasta Carbonara").status(RecipeStatus.APPROVED).build(),
-                Recipe.builder().title("Pasta Carbonara").status(RecipeStatus.APPROVED).build(),
-                Recipe.builder().title("Pasta Bolognese").status(RecipeStatus.APPROVED).build()
-        );
-
-        when(recipeRepository.findByTitleContainingIgnoreCaseAndStatus(
-                query.toLowerCase(), RecipeStatus.APPROVED))
-                .thenReturn(recipes);
-
-        List<String> result = searchService.getRecipeSuggestions(query, limit);
-
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertTrue(result.contains("Pasta Carbonara"));
-        assertTrue(result.contains("Pasta Bolognese"));
+        assertEquals(List.of("Pasta Carbonara", "Pasta Bolognese"), result);
+        verifyNoInteractions(recipeRepository);
     }
 
     // ============ Helper Methods ============
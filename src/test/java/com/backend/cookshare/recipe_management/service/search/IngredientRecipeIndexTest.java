@@ -0,0 +1,115 @@
+package com.backend.cookshare.recipe_management.service.search;
+
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
+import com.backend.cookshare.recipe_management.repository.RecipeIngredientRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeIngredientRepository.RecipeIngredientNameProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientRecipeIndexTest {
+
+    private static final UUID BEEF = UUID.randomUUID();
+    private static final UUID NOODLE = UUID.randomUUID();
+    private static final UUID TOMATO = UUID.randomUUID();
+    private static final UUID EGG = UUID.randomUUID();
+
+    @Mock
+    private RecipeIngredientRepository recipeIngredientRepository;
+
+    @InjectMocks
+    private IngredientRecipeIndex index;
+
+    private UUID phoBo;
+    private UUID trungSotCa;
+    private UUID boSotCa;
+
+    @BeforeEach
+    void setUp() {
+        phoBo = UUID.randomUUID();
+        trungSotCa = UUID.randomUUID();
+        boSotCa = UUID.randomUUID();
+
+        when(recipeIngredientRepository.findPublishedIngredientNames()).thenReturn(List.of(
+                ref(phoBo, BEEF, "Thịt bò"),
+                ref(phoBo, NOODLE, "Bánh phở"),
+                ref(trungSotCa, EGG, "Trứng gà"),
+                ref(trungSotCa, TOMATO, "Cà chua"),
+                ref(boSotCa, BEEF, "Thịt bò"),
+                ref(boSotCa, TOMATO, "Cà chua"),
+                ref(boSotCa, EGG, "Trứng gà")));
+    }
+
+    @Test
+    void search_ShouldReturnOnlyRecipesWithAllIngredients_WhenAnyExist() {
+        IngredientRecipeIndex.IngredientHits hits = index.search(List.of("thit bo", "CÀ CHUA"), null, 0, 10);
+
+        assertTrue(hits.matchedAll());
+        assertEquals(List.of(boSotCa), hits.recipeIds());
+        assertEquals(1, hits.total());
+    }
+
+    @Test
+    void search_ShouldFallBackToAnyIngredient_RankedByMatchCountThenMissing() {
+        IngredientRecipeIndex.IngredientHits hits = index.search(List.of("bò", "trứng", "nấm"), null, 0, 10);
+
+        assertFalse(hits.matchedAll());
+        // boSotCa khớp 2, phoBo và trungSotCa khớp 1 nhưng mỗi món chỉ thiếu 1 nguyên liệu
+        assertEquals(boSotCa, hits.recipeIds().get(0));
+        assertEquals(Set.of(phoBo, trungSotCa), Set.copyOf(hits.recipeIds().subList(1, 3)));
+        assertEquals(3, hits.total());
+    }
+
+    @Test
+    void search_ShouldRespectAllowedRecipesAndPaging() {
+        IngredientRecipeIndex.IngredientHits filtered = index.search(List.of("ca chua"), Set.of(trungSotCa), 0, 10);
+        IngredientRecipeIndex.IngredientHits secondPage = index.search(List.of("ca chua"), null, 1, 1);
+
+        assertEquals(List.of(trungSotCa), filtered.recipeIds());
+        assertEquals(1, secondPage.recipeIds().size());
+        assertEquals(2, secondPage.total());
+        verify(recipeIngredientRepository, times(1)).findPublishedIngredientNames();
+    }
+
+    @Test
+    void sync_ShouldUpdatePostingsAndDropUnpublishedRecipes() {
+        index.search(List.of("bo"), null, 0, 10);
+        Recipe recipe = Recipe.builder()
+                .recipeId(phoBo)
+                .status(RecipeStatus.APPROVED)
+                .isPublished(true)
+                .build();
+        when(recipeIngredientRepository.findIngredientRefsByRecipeId(phoBo))
+                .thenReturn(List.of(ref(phoBo, NOODLE, "Bánh phở"), ref(phoBo, EGG, "Trứng gà")));
+
+        index.sync(recipe);
+
+        assertEquals(List.of(boSotCa), index.search(List.of("thit bo"), null, 0, 10).recipeIds());
+        assertEquals(3, index.search(List.of("trung"), null, 0, 10).total());
+
+        recipe.setIsPublished(false);
+        index.sync(recipe);
+
+        assertEquals(2, index.search(List.of("trung"), null, 0, 10).total());
+        assertTrue(index.search(List.of("banh pho"), null, 0, 10).recipeIds().isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    private static RecipeIngredientNameProjection ref(UUID recipeId, UUID ingredientId, String name) {
+        return new RecipeIngredientNameProjection() {
+            public UUID getRecipeId() { return recipeId; }
+            public UUID getIngredientId() { return ingredientId; }
+            public String getName() { return name; }
+        };
+    }
+}
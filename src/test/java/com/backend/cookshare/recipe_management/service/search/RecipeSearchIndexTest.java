@@ -0,0 +1,140 @@
+package com.backend.cookshare.recipe_management.service.search;
+
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
+import com.backend.cookshare.recipe_management.repository.RecipeIngredientRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeIngredientRepository.RecipeIngredientNameProjection;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository.RecipeSearchProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeSearchIndexTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private RecipeIngredientRepository recipeIngredientRepository;
+
+    @InjectMocks
+    private RecipeSearchIndex index;
+
+    private UUID phoBo;
+    private UUID bunCha;
+    private UUID pasta;
+
+    @BeforeEach
+    void setUp() {
+        phoBo = UUID.randomUUID();
+        bunCha = UUID.randomUUID();
+        pasta = UUID.randomUUID();
+
+        when(recipeRepository.findPublishedSearchDocuments()).thenReturn(List.of(
+                document(phoBo, "Phở bò Hà Nội", "Nước dùng hầm xương trong 8 tiếng", "Nguyễn Văn An"),
+                document(bunCha, "Bún chả", "Món ăn đặc trưng của Hà Nội, ăn kèm phở cuốn", "Trần Thị Lan"),
+                document(pasta, "Pasta sốt cà chua", null, "Nguyễn Lan Anh")));
+        when(recipeIngredientRepository.findPublishedIngredientNames()).thenReturn(List.of(
+                ingredient(phoBo, "Thịt bò"),
+                ingredient(phoBo, "Bánh phở"),
+                ingredient(bunCha, "Thịt lợn"),
+                ingredient(pasta, "Cà chua")));
+    }
+
+    @Test
+    void search_ShouldIgnoreAccentsAndCase() {
+        RecipeSearchIndex.SearchHits hits = index.search("PHO BO", 0, 10);
+
+        assertEquals(List.of(phoBo), hits.recipeIds());
+        assertEquals(1, hits.total());
+        assertEquals(List.of(phoBo), index.search("phở bò", 0, 10).recipeIds());
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesAboveDescriptionMatches() {
+        RecipeSearchIndex.SearchHits hits = index.search("ha noi", 0, 10);
+
+        assertEquals(List.of(phoBo, bunCha), hits.recipeIds());
+    }
+
+    @Test
+    void search_ShouldMatchIngredientNamesAndPrefixes() {
+        assertEquals(List.of(bunCha), index.search("thit lon", 0, 10).recipeIds());
+        assertEquals(List.of(pasta), index.search("past", 0, 10).recipeIds());
+    }
+
+    @Test
+    void search_ShouldPageAndReportTotal() {
+        RecipeSearchIndex.SearchHits first = index.search("ha noi", 0, 1);
+        RecipeSearchIndex.SearchHits second = index.search("ha noi", 1, 1);
+
+        assertEquals(List.of(phoBo), first.recipeIds());
+        assertEquals(List.of(bunCha), second.recipeIds());
+        assertEquals(2, second.total());
+        verify(recipeRepository, times(1)).findPublishedSearchDocuments();
+    }
+
+    @Test
+    void searchByAuthor_ShouldRequireEveryNameTokenAndIgnoreAccents() {
+        assertEquals(List.of(pasta), index.searchByAuthor("NGUYEN LAN", 0, 10).recipeIds());
+        assertEquals(Set.of(phoBo, pasta), Set.copyOf(index.searchByAuthor("nguyễn", 0, 10).recipeIds()));
+        assertEquals(List.of(bunCha), index.searchByAuthor("tran thi", 0, 10).recipeIds());
+        // Tên người tạo không trộn vào tìm kiếm theo tên công thức
+        assertTrue(index.search("nguyen", 0, 10).recipeIds().isEmpty());
+    }
+
+    @Test
+    void sync_ShouldReindexUpdatedRecipeAndDropUnpublished() {
+        index.search("pho", 0, 10);
+        Recipe recipe = Recipe.builder()
+                .recipeId(pasta)
+                .title("Mì Ý sốt bò bằm")
+                .status(RecipeStatus.APPROVED)
+                .isPublished(true)
+                .build();
+        when(recipeIngredientRepository.findIngredientNamesByRecipeId(pasta)).thenReturn(List.of("Thịt bò"));
+        when(recipeRepository.findAuthorFullNameByRecipeId(pasta)).thenReturn("Lê Minh");
+
+        index.sync(recipe);
+
+        assertTrue(index.search("pasta", 0, 10).recipeIds().isEmpty());
+        assertEquals(List.of(pasta), index.search("mi y", 0, 10).recipeIds());
+        assertEquals(List.of(pasta), index.searchByAuthor("le minh", 0, 10).recipeIds());
+        assertTrue(index.searchByAuthor("lan anh", 0, 10).recipeIds().isEmpty());
+
+        recipe.setStatus(RecipeStatus.PENDING);
+        index.sync(recipe);
+
+        assertTrue(index.search("mi y", 0, 10).recipeIds().isEmpty());
+        assertTrue(index.searchByAuthor("le minh", 0, 10).recipeIds().isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    private static RecipeSearchProjection document(UUID recipeId, String title, String description,
+                                                   String authorName) {
+        return new RecipeSearchProjection() {
+            public UUID getRecipeId() { return recipeId; }
+            public String getTitle() { return title; }
+            public String getDescription() { return description; }
+            public String getAuthorName() { return authorName; }
+        };
+    }
+
+    private static RecipeIngredientNameProjection ingredient(UUID recipeId, String name) {
+        return new RecipeIngredientNameProjection() {
+            public UUID getRecipeId() { return recipeId; }
+            public UUID getIngredientId() { return UUID.nameUUIDFromBytes(name.getBytes()); }
+            public String getName() { return name; }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.backend.cookshare.recipe_management.service.search;
+
+import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.repository.UserRepository.UserNameProjection;
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository.RecipeTitleProjection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TypeaheadServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private TypeaheadService typeaheadService;
+
+    private UUID phoBo;
+    private UUID lan;
+
+    @BeforeEach
+    void setUp() {
+        phoBo = UUID.randomUUID();
+        lan = UUID.randomUUID();
+
+        when(recipeRepository.findPublishedTitles()).thenReturn(List.of(
+                title(phoBo, "Phở bò", 10, 100, 0),
+                title(UUID.randomUUID(), "Bò kho", 50, 0, 0),
+                title(UUID.randomUUID(), "Bánh mì", 1, 0, 0),
+                title(UUID.randomUUID(), "Bò kho", 1, 0, 0)));
+        when(userRepository.findAllNames()).thenReturn(List.of(
+                name(lan, "Nguyễn Thị Lan", 3),
+                name(UUID.randomUUID(), "Lê Văn Long", 40)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void suggestRecipeTitles_ShouldMatchAnyWordPrefixAndRankByPopularity() {
+        assertEquals(List.of("Bò kho", "Phở bò"), typeaheadService.suggestRecipeTitles("bo", 5));
+        assertEquals(List.of("Bò kho"), typeaheadService.suggestRecipeTitles("BÒ", 1));
+        assertEquals(List.of("Phở bò"), typeaheadService.suggestRecipeTitles("pho b", 5));
+        assertTrue(typeaheadService.suggestRecipeTitles("xyz", 5).isEmpty());
+        verify(recipeRepository, times(1)).findPublishedTitles();
+    }
+
+    @Test
+    void suggestUserNames_ShouldRankByFollowerCount() {
+        assertEquals(List.of("Lê Văn Long", "Nguyễn Thị Lan"), typeaheadService.suggestUserNames("l", 5));
+        assertEquals(List.of("Nguyễn Thị Lan"), typeaheadService.suggestUserNames("nguyen", 5));
+    }
+
+    @Test
+    void syncRecipe_ShouldAddRenameAndRemoveTitles() {
+        typeaheadService.suggestRecipeTitles("bo", 5);
+        Recipe recipe = Recipe.builder()
+                .recipeId(phoBo)
+                .title("Phở gà")
+                .status(RecipeStatus.APPROVED)
+                .isPublished(true)
+                .likeCount(10)
+                .viewCount(100)
+                .saveCount(0)
+                .build();
+
+        typeaheadService.syncRecipe(recipe);
+        assertEquals(List.of("Phở gà"), typeaheadService.suggestRecipeTitles("pho", 5));
+
+        recipe.setIsPublished(false);
+        typeaheadService.syncRecipe(recipe);
+        assertTrue(typeaheadService.suggestRecipeTitles("pho", 5).isEmpty());
+    }
+
+    @Test
+    void syncRecipe_InsideTransaction_ShouldWaitForCommit() {
+        typeaheadService.suggestRecipeTitles("bo", 5);
+        TransactionSynchronizationManager.initSynchronization();
+
+        typeaheadService.syncRecipe(Recipe.builder()
+                .recipeId(phoBo)
+                .title("Phở gà")
+                .status(RecipeStatus.APPROVED)
+                .isPublished(true)
+                .build());
+        typeaheadService.removeUser(lan);
+
+        assertTrue(typeaheadService.suggestRecipeTitles("pho ga", 5).isEmpty());
+        assertEquals(List.of("Nguyễn Thị Lan"), typeaheadService.suggestUserNames("nguyen", 5));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(List.of("Phở gà"), typeaheadService.suggestRecipeTitles("pho ga", 5));
+        assertTrue(typeaheadService.suggestUserNames("nguyen", 5).isEmpty());
+    }
+
+    @Test
+    void pollUserChanges_ShouldApplyRenamesSinceLastPoll() {
+        typeaheadService.suggestUserNames("lan", 5);
+        when(userRepository.findNamesUpdatedAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(name(lan, "Trần Lan Anh", 3)));
+
+        typeaheadService.pollUserChanges();
+
+        assertTrue(typeaheadService.suggestUserNames("nguyen", 5).isEmpty());
+        assertEquals(List.of("Trần Lan Anh"), typeaheadService.suggestUserNames("lan", 5));
+
+        typeaheadService.removeUser(lan);
+        assertTrue(typeaheadService.suggestUserNames("tran", 5).isEmpty());
+    }
+
+    private static RecipeTitleProjection title(UUID recipeId, String title, int likes, int views, int saves) {
+        return new RecipeTitleProjection() {
+            public UUID getRecipeId() { return recipeId; }
+            public String getTitle() { return title; }
+            public Integer getLikeCount() { return likes; }
+            public Integer getViewCount() { return views; }
+            public Integer getSaveCount() { return saves; }
+        };
+    }
+
+    private static UserNameProjection name(UUID userId, String fullName, int followers) {
+        return new UserNameProjection() {
+            public UUID getUserId() { return userId; }
+            public String getFullName() { return fullName; }
+            public Integer getFollowerCount() { return followers; }
+        };
+    }
+}
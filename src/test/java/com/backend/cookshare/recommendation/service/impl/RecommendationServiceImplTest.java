@@ -3,14 +3,21 @@ package com.backend.cookshare.recommendation.service.impl;
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
 import com.backend.cookshare.authentication.service.FirebaseStorageService;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.common.exception.CustomException;
 import com.backend.cookshare.common.exception.ErrorCode;
 import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.enums.Difficulty;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
 import com.backend.cookshare.recommendation.dto.response.HomeRecommendationResponse;
 import com.backend.cookshare.recommendation.dto.response.RecipeRecommendationPageResponse;
 import com.backend.cookshare.recommendation.dto.response.RecipeRecommendationResponse;
+import com.backend.cookshare.recommendation.enums.RankingFeed;
+import com.backend.cookshare.recommendation.enums.TimePeriod;
+import com.backend.cookshare.recommendation.service.ranking.RecipeRankingEngine;
+import com.backend.cookshare.recommendation.service.ranking.TrendingWindowTracker;
+import com.backend.cookshare.recommendation.service.sampler.DailyRecipeSampler;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -20,8 +27,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.springframework.data.domain.*;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.lang.reflect.Method;
@@ -45,9 +50,21 @@ class RecommendationServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+
     @Mock
     private FirebaseStorageService firebaseStorageService;
 
+    @Mock
+    private DailyRecipeSampler dailyRecipeSampler;
+
+    @Mock
+    private RecipeRankingEngine recipeRankingEngine;
+
+    @Mock
+    private TrendingWindowTracker trendingWindowTracker;
+
     @InjectMocks
     private RecommendationServiceImpl recommendationService;
 
@@ -78,6 +95,7 @@ class RecommendationServiceImplTest {
         recipe.setAverageRating(new BigDecimal("4.5"));
         recipe.setRatingCount(20);
         recipe.setIsPublished(true);
+        recipe.setStatus(RecipeStatus.APPROVED);
         recipe.setCreatedAt(LocalDateTime.now());
         recipe.setUpdatedAt(LocalDateTime.now());
 
@@ -97,10 +115,21 @@ class RecommendationServiceImplTest {
         SecurityContextHolder.clearContext();
     }
 
+    private void setupRanking(RankingFeed feed, long total) {
+        List<UUID> ids = mockRecipes.stream().map(Recipe::getRecipeId).toList();
+        when(recipeRankingEngine.getRankedIds(eq(feed), anyInt(), anyInt())).thenReturn(ids);
+        when(recipeRankingEngine.count(feed)).thenReturn(total);
+        when(recipeRepository.findAllById(ids)).thenReturn(mockRecipes);
+    }
+
+    private void setupDailySample() {
+        List<UUID> ids = mockRecipes.stream().map(Recipe::getRecipeId).toList();
+        when(dailyRecipeSampler.sample(anyLong(), eq(3))).thenReturn(ids);
+        when(recipeRepository.findAllById(ids)).thenReturn(mockRecipes);
+    }
+
     private void setupAuthentication() {
-        Authentication auth = new UsernamePasswordAuthenticationToken("testuser", null);
-        SecurityContextHolder.getContext().setAuthentication(auth);
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(currentUserResolver.requireCurrentUserId()).thenReturn(testUser.getUserId());
     }
 
     @Test
@@ -111,11 +140,11 @@ class RecommendationServiceImplTest {
         Page<Recipe> page = new PageImpl<>(mockRecipes, PageRequest.of(0, 10), 1);
 
         when(recipeRepository.findFeaturedRecipes(any(Pageable.class))).thenReturn(page);
-        when(recipeRepository.findPopularRecipes(any(Pageable.class))).thenReturn(page);
         when(recipeRepository.findNewestRecipes(any(Pageable.class))).thenReturn(page);
-        when(recipeRepository.findTopRatedRecipes(anyInt(), any(Pageable.class))).thenReturn(page);
-        when(recipeRepository.findTrendingRecipes(any(Pageable.class))).thenReturn(page);
-        when(recipeRepository.findAllPublishedRecipes()).thenReturn(mockRecipes);
+        setupRanking(RankingFeed.POPULAR, 1);
+        setupRanking(RankingFeed.TOP_RATED, 1);
+        setupRanking(RankingFeed.TRENDING, 1);
+        setupDailySample();
 
         HomeRecommendationResponse response = recommendationService.getHomeRecommendations();
 
@@ -128,19 +157,21 @@ class RecommendationServiceImplTest {
         assertEquals(1, response.getDailyRecommendations().size()); // limit 3 but only 1 recipe available
 
         verify(recipeRepository, times(1)).findFeaturedRecipes(any(Pageable.class));
-        verify(recipeRepository, times(1)).findPopularRecipes(any(Pageable.class));
         verify(recipeRepository, times(1)).findNewestRecipes(any(Pageable.class));
-        verify(recipeRepository, times(1)).findTopRatedRecipes(anyInt(), any(Pageable.class));
-        verify(recipeRepository, times(1)).findTrendingRecipes(any(Pageable.class));
-        verify(recipeRepository, times(1)).findAllPublishedRecipes();
+        verify(recipeRankingEngine, times(1)).getRankedIds(RankingFeed.POPULAR, 0, 10);
+        verify(recipeRankingEngine, times(1)).getRankedIds(RankingFeed.TOP_RATED, 0, 10);
+        verify(recipeRankingEngine, times(1)).getRankedIds(RankingFeed.TRENDING, 0, 10);
+        verify(recipeRepository, never()).findPopularRecipes(any(Pageable.class));
+        verify(recipeRepository, never()).findTopRatedRecipes(anyInt(), any(Pageable.class));
+        verify(recipeRepository, never()).findTrendingRecipes(any(Pageable.class));
+        verify(dailyRecipeSampler, times(1)).sample(anyLong(), eq(3));
+        verify(recipeRepository, never()).findAllPublishedRecipes();
     }
 
     @Test
     @DisplayName("getHomeRecommendations - user not found throws exception")
     void getHomeRecommendations_userNotFound() {
-        Authentication auth = new UsernamePasswordAuthenticationToken("unknown", null);
-        SecurityContextHolder.getContext().setAuthentication(auth);
-        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+        when(currentUserResolver.requireCurrentUserId()).thenThrow(new CustomException(ErrorCode.USER_NOT_FOUND));
 
         CustomException exception = assertThrows(CustomException.class,
                 () -> recommendationService.getHomeRecommendations());
@@ -152,7 +183,7 @@ class RecommendationServiceImplTest {
     @DisplayName("getDailyRecommendations - deterministic shuffle with same seed")
     void getDailyRecommendations_deterministic() {
         UUID userId = testUser.getUserId();
-        when(recipeRepository.findAllPublishedRecipes()).thenReturn(mockRecipes);
+        setupDailySample();
 
         List<RecipeRecommendationResponse> result1 = recommendationService.getDailyRecommendations(userId);
         List<RecipeRecommendationResponse> result2 = recommendationService.getDailyRecommendations(userId);
@@ -164,11 +195,12 @@ class RecommendationServiceImplTest {
     @Test
     @DisplayName("getDailyRecommendations - empty when no published recipes")
     void getDailyRecommendations_emptyList() {
-        when(recipeRepository.findAllPublishedRecipes()).thenReturn(List.of());
+        when(dailyRecipeSampler.sample(anyLong(), anyInt())).thenReturn(List.of());
 
         List<RecipeRecommendationResponse> result = recommendationService.getDailyRecommendations(testUser.getUserId());
 
         assertTrue(result.isEmpty());
+        verify(recipeRepository, never()).findAllById(anyCollection());
     }
 
     @ParameterizedTest
@@ -195,14 +227,15 @@ class RecommendationServiceImplTest {
     }
 
     @Test
-    @DisplayName("getTopRatedRecipes - calls with MIN_RATING_COUNT")
-    void getTopRatedRecipes_callsWithMinRatingCount() {
-        Page<Recipe> page = new PageImpl<>(mockRecipes);
-        when(recipeRepository.findTopRatedRecipes(eq(5), any(Pageable.class))).thenReturn(page);
+    @DisplayName("getTopRatedRecipes - served from ranking engine")
+    void getTopRatedRecipes_servedFromRankingEngine() {
+        setupRanking(RankingFeed.TOP_RATED, 1);
 
-        recommendationService.getTopRatedRecipes(10);
+        List<RecipeRecommendationResponse> result = recommendationService.getTopRatedRecipes(10);
 
-        verify(recipeRepository).findTopRatedRecipes(5, PageRequest.of(0, 10));
+        assertEquals(1, result.size());
+        verify(recipeRankingEngine).getRankedIds(RankingFeed.TOP_RATED, 0, 10);
+        verify(recipeRepository, never()).findTopRatedRecipes(anyInt(), any(Pageable.class));
     }
 
     @Test
@@ -276,22 +309,28 @@ class RecommendationServiceImplTest {
     }
 
     @Test
-    @DisplayName("shuffleWithSeed - same seed gives same order")
-    void shuffleWithSeed_deterministic() throws Exception {
-        List<Recipe> recipes = new ArrayList<>(mockRecipes);
-        recipes.addAll(mockRecipes); // duplicate to have multiple items
+    @DisplayName("getDailyRecommendations - hydrates only sampled ids and drops unpublished ones")
+    void getDailyRecommendations_dropsUnpublishedRecipes() {
+        Recipe hidden = new Recipe();
+        hidden.setRecipeId(UUID.randomUUID());
+        hidden.setUserId(testUser.getUserId());
+        hidden.setIsPublished(false);
+        hidden.setStatus(RecipeStatus.APPROVED);
 
-        Method method = RecommendationServiceImpl.class
-                .getDeclaredMethod("shuffleWithSeed", List.class, long.class);
-        method.setAccessible(true);
+        UUID missingId = UUID.randomUUID();
+        UUID visibleId = mockRecipes.get(0).getRecipeId();
+        List<UUID> sampled = List.of(hidden.getRecipeId(), missingId, visibleId);
 
-        List<Recipe> shuffled1 = (List<Recipe>) method.invoke(recommendationService, recipes, 12345L);
-        List<Recipe> shuffled2 = (List<Recipe>) method.invoke(recommendationService, recipes, 12345L);
+        when(dailyRecipeSampler.sample(anyLong(), eq(3))).thenReturn(sampled);
+        when(recipeRepository.findAllById(sampled)).thenReturn(List.of(mockRecipes.get(0), hidden));
 
-        assertEquals(shuffled1.size(), shuffled2.size());
-        for (int i = 0; i < shuffled1.size(); i++) {
-            assertEquals(shuffled1.get(i).getRecipeId(), shuffled2.get(i).getRecipeId());
-        }
+        List<RecipeRecommendationResponse> result = recommendationService.getDailyRecommendations(testUser.getUserId());
+
+        assertEquals(1, result.size());
+        assertEquals(visibleId, result.get(0).getRecipeId());
+        verify(dailyRecipeSampler).remove(hidden.getRecipeId());
+        verify(dailyRecipeSampler).remove(missingId);
+        verify(recipeRepository, never()).findAllPublishedRecipes();
     }
 
     @Test
@@ -305,23 +344,16 @@ class RecommendationServiceImplTest {
                     Thread.sleep(50);
                     return new PageImpl<>(mockRecipes);
                 });
-        when(recipeRepository.findPopularRecipes(any(Pageable.class))).thenAnswer(inv -> {
+        when(recipeRankingEngine.getRankedIds(any(RankingFeed.class), anyInt(), anyInt())).thenAnswer(inv -> {
             Thread.sleep(50);
-            return new PageImpl<>(mockRecipes);
+            return mockRecipes.stream().map(Recipe::getRecipeId).toList();
         });
+        when(recipeRepository.findAllById(anyCollection())).thenReturn(mockRecipes);
         when(recipeRepository.findNewestRecipes(any(Pageable.class))).thenAnswer(inv -> {
             Thread.sleep(50);
             return new PageImpl<>(mockRecipes);
         });
-        when(recipeRepository.findTopRatedRecipes(anyInt(), any(Pageable.class))).thenAnswer(inv -> {
-            Thread.sleep(50);
-            return new PageImpl<>(mockRecipes);
-        });
-        when(recipeRepository.findTrendingRecipes(any(Pageable.class))).thenAnswer(inv -> {
-            Thread.sleep(50);
-            return new PageImpl<>(mockRecipes);
-        });
-        when(recipeRepository.findAllPublishedRecipes()).thenReturn(mockRecipes);
+        setupDailySample();
 
         long start = System.currentTimeMillis();
         recommendationService.getHomeRecommendations();
@@ -348,7 +380,7 @@ class RecommendationServiceImplTest {
     @Test
     void popularRecipes_repositoryException() {
         setupAuthentication();
-        when(recipeRepository.findPopularRecipes(any(Pageable.class)))
+        when(recipeRankingEngine.getRankedIds(eq(RankingFeed.POPULAR), anyInt(), anyInt()))
                 .thenThrow(new RuntimeException("DB error"));
 
         CustomException ex = assertThrows(CustomException.class,
@@ -389,12 +421,12 @@ class RecommendationServiceImplTest {
     @Test
     @DisplayName("Pagination methods - other sections work")
     void getPopularRecipesWithPagination_success() {
-        Page<Recipe> page = new PageImpl<>(mockRecipes, PageRequest.of(1, 10), 25);
-        when(recipeRepository.findPopularRecipes(any(Pageable.class))).thenReturn(page);
+        setupRanking(RankingFeed.POPULAR, 25);
 
         RecipeRecommendationPageResponse response =
                 recommendationService.getPopularRecipesWithPagination(1, 10);
 
+        verify(recipeRankingEngine).getRankedIds(RankingFeed.POPULAR, 10, 10);
         assertEquals(1, response.getContent().size());
         assertEquals(1, response.getCurrentPage());
         assertEquals(10, response.getPageSize());
@@ -416,8 +448,7 @@ class RecommendationServiceImplTest {
 
     @Test
     void getTopRatedRecipesWithPagination_success() {
-        Page<Recipe> page = new PageImpl<>(mockRecipes);
-        when(recipeRepository.findTopRatedRecipes(eq(5), any(Pageable.class))).thenReturn(page);
+        setupRanking(RankingFeed.TOP_RATED, 1);
 
         RecipeRecommendationPageResponse response =
                 recommendationService.getTopRatedRecipesWithPagination(0, 20);
@@ -427,8 +458,7 @@ class RecommendationServiceImplTest {
 
     @Test
     void getTrendingRecipesWithPagination_success() {
-        Page<Recipe> page = new PageImpl<>(mockRecipes);
-        when(recipeRepository.findTrendingRecipes(any(Pageable.class))).thenReturn(page);
+        setupRanking(RankingFeed.TRENDING, 1);
 
         RecipeRecommendationPageResponse response =
                 recommendationService.getTrendingRecipesWithPagination(0, 10);
@@ -436,6 +466,48 @@ class RecommendationServiceImplTest {
         assertEquals(1, response.getContent().size());
     }
 
+    @Test
+    void getTrendingRecipes_weekly_servedFromWindowTracker() {
+        List<UUID> ids = mockRecipes.stream().map(Recipe::getRecipeId).toList();
+        when(trendingWindowTracker.getRankedIds(TimePeriod.WEEKLY, 0, 10)).thenReturn(ids);
+        when(recipeRepository.findAllById(ids)).thenReturn(mockRecipes);
+
+        List<RecipeRecommendationResponse> result =
+                recommendationService.getTrendingRecipes(10, TimePeriod.WEEKLY);
+
+        assertEquals(1, result.size());
+        verify(recipeRankingEngine, never()).getRankedIds(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getTrendingRecipesWithPagination_daily_dropsUnpublishedRecipes() {
+        Recipe hidden = new Recipe();
+        hidden.setRecipeId(UUID.randomUUID());
+        hidden.setIsPublished(false);
+        hidden.setStatus(RecipeStatus.APPROVED);
+        List<UUID> ids = List.of(mockRecipes.get(0).getRecipeId(), hidden.getRecipeId());
+        when(trendingWindowTracker.getRankedIds(TimePeriod.DAILY, 0, 10)).thenReturn(ids);
+        when(trendingWindowTracker.count(TimePeriod.DAILY)).thenReturn(2L);
+        when(recipeRepository.findAllById(ids)).thenReturn(List.of(mockRecipes.get(0), hidden));
+
+        RecipeRecommendationPageResponse response =
+                recommendationService.getTrendingRecipesWithPagination(0, 10, TimePeriod.DAILY);
+
+        assertEquals(1, response.getContent().size());
+        verify(trendingWindowTracker).remove(hidden.getRecipeId());
+    }
+
+    @Test
+    void getTrendingRecipes_allTime_fallsBackToRankingEngine() {
+        setupRanking(RankingFeed.TRENDING, 1);
+
+        List<RecipeRecommendationResponse> result =
+                recommendationService.getTrendingRecipes(10, TimePeriod.ALL_TIME);
+
+        assertEquals(1, result.size());
+        verifyNoInteractions(trendingWindowTracker);
+    }
+
     // Cover validateLimit message chi tiết (optional nhưng tốt)
     @ParameterizedTest
     @ValueSource(ints = {0, 51})
@@ -522,7 +594,7 @@ class RecommendationServiceImplTest {
     @Test
     @DisplayName("getDailyRecommendations - exception in repository")
     void getDailyRecommendations_repositoryException() {
-        when(recipeRepository.findAllPublishedRecipes())
+        when(dailyRecipeSampler.sample(anyLong(), anyInt()))
                 .thenThrow(new RuntimeException("DB connection failed"));
 
         CustomException ex = assertThrows(CustomException.class,
@@ -0,0 +1,180 @@
+package com.backend.cookshare.recommendation.service.ranking;
+
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository.RecipeRankingProjection;
+import com.backend.cookshare.recommendation.enums.RankingFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeRankingEngineTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @InjectMocks
+    private RecipeRankingEngine engine;
+
+    private final UUID recipeA = UUID.randomUUID();
+    private final UUID recipeB = UUID.randomUUID();
+    private final UUID recipeC = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.of(2025, 12, 1, 10, 0);
+
+    @BeforeEach
+    void setUp() {
+        List<RecipeRankingProjection> rows = List.of(
+                projection(recipeA, 10, 100, 0, 6, "4.50", now.minusDays(3)),
+                projection(recipeB, 50, 10, 5, 2, "5.00", now.minusDays(2)),
+                projection(recipeC, 0, 20, 0, 8, "3.00", now.minusDays(1))
+        );
+        lenient().when(recipeRepository.findPublishedRankingStats()).thenReturn(rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("getRankedIds - orders by the same scores as the old SQL")
+    void getRankedIds_ordersByScore() {
+        // popular: A=70, B=112.5, C=10
+        assertEquals(List.of(recipeB, recipeA, recipeC), engine.getRankedIds(RankingFeed.POPULAR, 0, 10));
+        // trending: A=142, B=164, C=36
+        assertEquals(List.of(recipeB, recipeA, recipeC), engine.getRankedIds(RankingFeed.TRENDING, 0, 10));
+        // top rated: B has too few ratings
+        assertEquals(List.of(recipeA, recipeC), engine.getRankedIds(RankingFeed.TOP_RATED, 0, 10));
+        assertEquals(2, engine.count(RankingFeed.TOP_RATED));
+        verify(recipeRepository, times(1)).findPublishedRankingStats();
+    }
+
+    @Test
+    @DisplayName("getRankedIds - offset and limit page through the ranking")
+    void getRankedIds_paginates() {
+        assertEquals(List.of(recipeA), engine.getRankedIds(RankingFeed.POPULAR, 1, 1));
+        assertTrue(engine.getRankedIds(RankingFeed.POPULAR, 3, 10).isEmpty());
+        assertEquals(3, engine.count(RankingFeed.POPULAR));
+    }
+
+    @Test
+    @DisplayName("incremental events re-rank without touching the database")
+    void events_reRankIncrementally() {
+        engine.count(RankingFeed.POPULAR);
+
+        engine.addViews(recipeC, 300);   // C popular = 160
+        engine.addLikes(recipeA, -10);   // A popular = 50
+        engine.updateRating(recipeB, 5, new BigDecimal("4.80"));
+
+        assertEquals(List.of(recipeC, recipeB, recipeA), engine.getRankedIds(RankingFeed.POPULAR, 0, 10));
+        assertEquals(List.of(recipeB, recipeA, recipeC), engine.getRankedIds(RankingFeed.TOP_RATED, 0, 10));
+        assertEquals(3, engine.count(RankingFeed.TOP_RATED));
+        verify(recipeRepository, times(1)).findPublishedRankingStats();
+    }
+
+    @Test
+    @DisplayName("sync / remove - unpublished recipes leave every feed")
+    void sync_removesUnpublished() {
+        engine.count(RankingFeed.POPULAR);
+
+        Recipe hidden = Recipe.builder()
+                .recipeId(recipeA)
+                .status(RecipeStatus.APPROVED)
+                .isPublished(false)
+                .build();
+        engine.sync(hidden);
+
+        assertFalse(engine.getRankedIds(RankingFeed.POPULAR, 0, 10).contains(recipeA));
+        assertEquals(1, engine.count(RankingFeed.TOP_RATED));
+
+        Recipe approved = Recipe.builder()
+                .recipeId(UUID.randomUUID())
+                .status(RecipeStatus.APPROVED)
+                .isPublished(true)
+                .likeCount(1000)
+                .createdAt(now)
+                .build();
+        engine.sync(approved);
+        assertEquals(approved.getRecipeId(), engine.getRankedIds(RankingFeed.POPULAR, 0, 1).get(0));
+
+        engine.remove(approved.getRecipeId());
+        assertEquals(2, engine.count(RankingFeed.POPULAR));
+    }
+
+    @Test
+    @DisplayName("getRankedIds - readers never see a recipe twice while it is re-ranked")
+    void getRankedIds_noDuplicatesDuringReRank() throws InterruptedException {
+        engine.count(RankingFeed.POPULAR);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                engine.addViews(recipeC, i % 2 == 0 ? 500 : -500);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            List<UUID> ids = engine.getRankedIds(RankingFeed.POPULAR, 0, 10);
+            assertEquals(ids.size(), ids.stream().distinct().count());
+        }
+        writer.join();
+        assertEquals(3, engine.getRankedIds(RankingFeed.POPULAR, 0, 10).size());
+    }
+
+    @Test
+    @DisplayName("events inside a transaction re-rank only after commit")
+    void events_waitForCommit() {
+        engine.count(RankingFeed.POPULAR);
+        TransactionSynchronizationManager.initSynchronization();
+
+        engine.addViews(recipeC, 300);
+        engine.sync(Recipe.builder()
+                .recipeId(recipeB)
+                .status(RecipeStatus.APPROVED)
+                .isPublished(false)
+                .build());
+
+        assertEquals(List.of(recipeB, recipeA, recipeC), engine.getRankedIds(RankingFeed.POPULAR, 0, 10));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(List.of(recipeC, recipeA), engine.getRankedIds(RankingFeed.POPULAR, 0, 10));
+    }
+
+    @Test
+    @DisplayName("events before the first load are ignored")
+    void events_beforeLoad_areIgnored() {
+        engine.addLikes(recipeA, 1);
+        engine.remove(recipeA);
+
+        verify(recipeRepository, never()).findPublishedRankingStats();
+    }
+
+    private RecipeRankingProjection projection(UUID id, int likes, int views, int saves,
+                                               int ratingCount, String average, LocalDateTime createdAt) {
+        RecipeRankingProjection projection = mock(RecipeRankingProjection.class);
+        lenient().when(projection.getRecipeId()).thenReturn(id);
+        lenient().when(projection.getLikeCount()).thenReturn(likes);
+        lenient().when(projection.getViewCount()).thenReturn(views);
+        lenient().when(projection.getSaveCount()).thenReturn(saves);
+        lenient().when(projection.getRatingCount()).thenReturn(ratingCount);
+        lenient().when(projection.getAverageRating()).thenReturn(new BigDecimal(average));
+        lenient().when(projection.getCreatedAt()).thenReturn(createdAt);
+        return projection;
+    }
+}
@@ -0,0 +1,66 @@
+package com.backend.cookshare.recommendation.service.ranking;
+
+import com.backend.cookshare.common.EmbeddedPostgresTestSupport;
+import com.backend.cookshare.recommendation.enums.TimePeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy câu SQL nạp bộ đếm của {@link TrendingWindowTracker} từ bảng sự kiện trên Postgres thật
+ */
+class TrendingWindowSeedSqlTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 12, 1, 10, 30);
+    private final UUID today = UUID.randomUUID();
+    private final UUID thisWeek = UUID.randomUUID();
+    private final UUID thisYear = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedPostgresTestSupport.freshSchema("trending_sql");
+        jdbcTemplate.execute("CREATE TABLE activity_logs (target_id UUID, activity_type VARCHAR(20) NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE recipe_likes (recipe_id UUID NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE recipe_ratings (recipe_id UUID NOT NULL, created_at TIMESTAMP NOT NULL)");
+    }
+
+    private void event(String table, UUID recipeId, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO " + table + " VALUES (?, ?)", recipeId, Timestamp.valueOf(at));
+    }
+
+    private void view(UUID recipeId, String type, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO activity_logs VALUES (?, ?, ?)", recipeId, type, Timestamp.valueOf(at));
+    }
+
+    @Test
+    void seed_ShouldRestoreWindowsFromEventTables() {
+        view(today, "VIEW", now.minusMinutes(10));
+        view(today, "VIEW", now.minusMinutes(20));
+        view(today, "LIKE", now.minusMinutes(20));
+        event("recipe_likes", thisWeek, now.minusDays(3));
+        event("recipe_ratings", thisWeek, now.minusDays(3).minusHours(2));
+        event("recipe_likes", thisYear, now.minusDays(100));
+        event("recipe_likes", thisYear, now.minusDays(100));
+        event("recipe_likes", UUID.randomUUID(), now.minusDays(400));
+        long nowMillis = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        TrendingWindowTracker tracker = new TrendingWindowTracker(jdbcTemplate, 100, 60_000L, 60_000L, true);
+
+        assertEquals(4, tracker.seed(nowMillis));
+
+        assertEquals(List.of(today), tracker.getRankedIds(TimePeriod.DAILY, 0, 10, nowMillis));
+        // thisWeek: like 3 + rating 2 = 5 > today: 2 view
+        assertEquals(List.of(thisWeek, today), tracker.getRankedIds(TimePeriod.WEEKLY, 0, 10, nowMillis));
+        assertEquals(List.of(thisYear, thisWeek, today), tracker.getRankedIds(TimePeriod.YEARLY, 0, 10, nowMillis));
+    }
+}
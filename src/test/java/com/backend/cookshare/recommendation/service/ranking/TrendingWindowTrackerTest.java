@@ -0,0 +1,133 @@
+package com.backend.cookshare.recommendation.service.ranking;
+
+import com.backend.cookshare.recommendation.enums.TimePeriod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.backend.cookshare.recommendation.service.ranking.TrendingWindowTracker.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TrendingWindowTrackerTest {
+
+    private static final long NOW = 1_764_583_200_000L; // 2025-12-01T10:00:00Z
+
+    private TrendingWindowTracker tracker;
+
+    private final UUID recipeA = UUID.randomUUID();
+    private final UUID recipeB = UUID.randomUUID();
+    private final UUID recipeC = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        tracker = new TrendingWindowTracker(mock(JdbcTemplate.class), 100, 60_000L, 60_000L, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Each period only counts events inside its window")
+    void getRankedIds_respectsWindows() {
+        tracker.record(recipeA, 5, NOW - HOUR_MILLIS);           // hôm nay
+        tracker.record(recipeB, 20, NOW - 3 * DAY_MILLIS);       // tuần này
+        tracker.record(recipeC, 50, NOW - 20 * DAY_MILLIS);      // tháng này
+
+        assertEquals(List.of(recipeA), tracker.getRankedIds(TimePeriod.DAILY, 0, 10, NOW));
+        assertEquals(List.of(recipeB, recipeA), tracker.getRankedIds(TimePeriod.WEEKLY, 0, 10, NOW));
+        assertEquals(List.of(recipeC, recipeB, recipeA), tracker.getRankedIds(TimePeriod.MONTHLY, 0, 10, NOW));
+        assertEquals(List.of(recipeC, recipeB, recipeA), tracker.getRankedIds(TimePeriod.YEARLY, 0, 10, NOW));
+    }
+
+    @Test
+    @DisplayName("Old buckets expire once the ring wraps around")
+    void rebuild_expiresOldBuckets() {
+        tracker.record(recipeA, LIKE_WEIGHT, NOW - 2 * DAY_MILLIS);
+        tracker.record(recipeA, VIEW_WEIGHT, NOW);
+
+        tracker.rebuild(NOW + 23 * HOUR_MILLIS);
+        assertEquals(List.of(recipeA), tracker.getRankedIds(TimePeriod.DAILY, 0, 10, NOW + 23 * HOUR_MILLIS));
+
+        tracker.rebuild(NOW + 25 * HOUR_MILLIS);
+        assertTrue(tracker.getRankedIds(TimePeriod.DAILY, 0, 10, NOW + 25 * HOUR_MILLIS).isEmpty());
+        assertEquals(List.of(recipeA), tracker.getRankedIds(TimePeriod.WEEKLY, 0, 10, NOW + 25 * HOUR_MILLIS));
+    }
+
+    @Test
+    @DisplayName("Unlike cancels a like and removed recipes disappear")
+    void record_negativeAndRemove() {
+        tracker.record(recipeA, LIKE_WEIGHT, NOW);
+        tracker.record(recipeA, -LIKE_WEIGHT, NOW);
+        tracker.record(recipeB, RATING_WEIGHT, NOW);
+        tracker.record(recipeC, VIEW_WEIGHT, NOW);
+        tracker.remove(recipeC);
+
+        assertEquals(List.of(recipeB), tracker.getRankedIds(TimePeriod.DAILY, 0, 10, NOW));
+    }
+
+    @Test
+    @DisplayName("Likes and ratings inside a transaction only count after commit")
+    void recordLikeAndRating_waitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.recordLike(recipeA, 1);
+        tracker.recordRating(recipeB);
+        long now = System.currentTimeMillis();
+
+        assertEquals(List.of(), tracker.getRankedIds(TimePeriod.DAILY, 0, 10, now));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        tracker.rebuild(now);
+        assertEquals(List.of(recipeA, recipeB), tracker.getRankedIds(TimePeriod.DAILY, 0, 10, now));
+    }
+
+    @Test
+    @DisplayName("Pagination slices the cached top-K")
+    void getRankedIds_pagination() {
+        tracker.record(recipeA, 3, NOW);
+        tracker.record(recipeB, 2, NOW);
+        tracker.record(recipeC, 1, NOW);
+
+        assertEquals(List.of(recipeB), tracker.getRankedIds(TimePeriod.DAILY, 1, 1, NOW));
+        assertTrue(tracker.getRankedIds(TimePeriod.DAILY, 5, 1, NOW).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Snapshot keeps only the configured capacity")
+    void rebuild_capsAtCapacity() {
+        TrendingWindowTracker small = new TrendingWindowTracker(mock(JdbcTemplate.class), 2, 60_000L, 60_000L, true);
+        small.record(recipeA, 1, NOW);
+        small.record(recipeB, 5, NOW);
+        small.record(recipeC, 3, NOW);
+
+        assertEquals(List.of(recipeB, recipeC), small.getRankedIds(TimePeriod.DAILY, 0, 10, NOW));
+    }
+
+    @Test
+    @DisplayName("Snapshot outlives the scheduled refresh so reads do not rebuild on their own")
+    void getRankedIds_ttlLongerThanRefreshInterval() {
+        tracker.rebuild(NOW);
+        tracker.record(recipeA, VIEW_WEIGHT, NOW);
+
+        assertTrue(tracker.getRankedIds(TimePeriod.DAILY, 0, 10, NOW + 2 * 60_000L).isEmpty());
+        assertEquals(List.of(recipeA), tracker.getRankedIds(TimePeriod.DAILY, 0, 10, NOW + 2 * 60_000L + 1));
+    }
+
+    @Test
+    void allTime_isNotSupported() {
+        assertFalse(TrendingWindowTracker.supports(TimePeriod.ALL_TIME));
+        assertThrows(IllegalArgumentException.class,
+                () -> tracker.getRankedIds(TimePeriod.ALL_TIME, 0, 10, NOW));
+    }
+}
@@ -0,0 +1,157 @@
+package com.backend.cookshare.recommendation.service.sampler;
+
+import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailyRecipeSamplerTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @InjectMocks
+    private DailyRecipeSampler sampler;
+
+    private List<UUID> publishedIds;
+
+    @BeforeEach
+    void setUp() {
+        publishedIds = IntStream.range(0, 50)
+                .mapToObj(i -> UUID.randomUUID())
+                .toList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("sample - same seed gives same ids, loads index only once")
+    void sample_deterministic() {
+        when(recipeRepository.findPublishedRecipeIds()).thenReturn(publishedIds);
+
+        List<UUID> first = sampler.sample(20251213L, 3);
+        List<UUID> second = sampler.sample(20251213L, 3);
+
+        assertEquals(3, first.size());
+        assertEquals(first, second);
+        assertEquals(3, new HashSet<>(first).size());
+        assertTrue(publishedIds.containsAll(first));
+        verify(recipeRepository, times(1)).findPublishedRecipeIds();
+    }
+
+    @Test
+    @DisplayName("sample - independent of the order ids are loaded in")
+    void sample_independentOfLoadOrder() {
+        List<UUID> reversed = new ArrayList<>(publishedIds);
+        Collections.reverse(reversed);
+
+        when(recipeRepository.findPublishedRecipeIds()).thenReturn(publishedIds);
+        List<UUID> first = sampler.sample(42L, 3);
+
+        when(recipeRepository.findPublishedRecipeIds()).thenReturn(reversed);
+        sampler.refresh();
+        List<UUID> second = sampler.sample(42L, 3);
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("sample - returns all ids when catalog is smaller than count")
+    void sample_smallCatalog() {
+        when(recipeRepository.findPublishedRecipeIds()).thenReturn(publishedIds.subList(0, 2));
+
+        List<UUID> result = sampler.sample(7L, 3);
+
+        assertEquals(2, result.size());
+        assertTrue(result.containsAll(publishedIds.subList(0, 2)));
+    }
+
+    @Test
+    @DisplayName("sample - empty catalog returns empty list")
+    void sample_emptyCatalog() {
+        when(recipeRepository.findPublishedRecipeIds()).thenReturn(List.of());
+
+        assertTrue(sampler.sample(1L, 3).isEmpty());
+    }
+
+    @Test
+    @DisplayName("sync / remove - keeps index in step with publish state")
+    void sync_updatesIndexIncrementally() {
+        when(recipeRepository.findPublishedRecipeIds()).thenReturn(publishedIds.subList(0, 1));
+        sampler.refresh();
+
+        Recipe approved = Recipe.builder()
+                .recipeId(publishedIds.get(1))
+                .status(RecipeStatus.APPROVED)
+                .isPublished(true)
+                .build();
+        sampler.sync(approved);
+        sampler.sync(approved);
+        assertEquals(2, sampler.size());
+
+        approved.setIsPublished(false);
+        sampler.sync(approved);
+        assertEquals(1, sampler.size());
+
+        Recipe pending = Recipe.builder()
+                .recipeId(publishedIds.get(2))
+                .status(RecipeStatus.PENDING)
+                .isPublished(true)
+                .build();
+        sampler.sync(pending);
+        assertEquals(1, sampler.size());
+
+        sampler.remove(publishedIds.get(0));
+        assertEquals(0, sampler.size());
+        verify(recipeRepository, times(1)).findPublishedRecipeIds();
+    }
+
+    @Test
+    @DisplayName("sync - inside a transaction the index changes only after commit")
+    void sync_waitsForCommit() {
+        when(recipeRepository.findPublishedRecipeIds()).thenReturn(publishedIds.subList(0, 1));
+        sampler.refresh();
+        TransactionSynchronizationManager.initSynchronization();
+
+        sampler.sync(Recipe.builder()
+                .recipeId(publishedIds.get(1))
+                .status(RecipeStatus.APPROVED)
+                .isPublished(true)
+                .build());
+        sampler.remove(publishedIds.get(0));
+
+        assertEquals(List.of(publishedIds.get(0)), sampler.sample(1L, 5));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(List.of(publishedIds.get(1)), sampler.sample(1L, 5));
+    }
+
+    @Test
+    @DisplayName("add - ignored until the index has been loaded")
+    void add_beforeLoad_isIgnored() {
+        sampler.add(publishedIds.get(0));
+
+        assertEquals(0, sampler.size());
+        verifyNoInteractions(recipeRepository);
+    }
+}
@@ -1,5 +1,6 @@
 package com.backend.cookshare.system.service.impl;
 
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
 import com.backend.cookshare.authentication.util.SecurityUtil;
 import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.common.exception.CustomException;
@@ -43,6 +44,7 @@ class ReportServiceImplTest {
     @Mock ReportQueryRepository reportQueryRepository;
     @Mock ReportGroupRepository groupRepository;
     @Mock SecurityUtil securityUtil;
+    @Mock CurrentUserResolver currentUserResolver;
     @Mock ReportValidator validator;
     @Mock ReportMapper mapper;
     @Mock ReportStatusManager statusManager;
@@ -86,8 +88,8 @@ class ReportServiceImplTest {
             mocked.when(SecurityUtil::getCurrentUserLogin)
                     .thenReturn(Optional.of(username));
 
-            when(reportQueryRepository.findUserIdByUsername(username))
-                    .thenReturn(Optional.of(userId));
+            when(currentUserResolver.requireCurrentUserId())
+                    .thenReturn(userId);
 
             when(reportRepository.save(any()))
                     .thenAnswer(inv -> inv.getArgument(0));
@@ -168,8 +170,8 @@ class ReportServiceImplTest {
             mocked.when(SecurityUtil::getCurrentUserLogin)
                     .thenReturn(Optional.of(username));
 
-            when(reportQueryRepository.findUserIdByUsername(username))
-                    .thenReturn(Optional.of(userId));
+            when(currentUserResolver.requireCurrentUserId())
+                    .thenReturn(userId);
 
             when(reportRepository.findById(reportId))
                     .thenReturn(Optional.of(report));
@@ -205,8 +207,8 @@ class ReportServiceImplTest {
             mocked.when(SecurityUtil::getCurrentUserLogin)
                     .thenReturn(Optional.of(username));
 
-            when(reportQueryRepository.findUserIdByUsername(username))
-                    .thenReturn(Optional.of(userId));
+            when(currentUserResolver.requireCurrentUserId())
+                    .thenReturn(userId);
 
             when(reportRepository.findById(reportId))
                     .thenReturn(Optional.of(report));
@@ -283,8 +285,8 @@ class ReportServiceImplTest {
             mocked.when(SecurityUtil::getCurrentUserLogin)
                     .thenReturn(Optional.of(username));
 
-            when(reportQueryRepository.findUserIdByUsername(username))
-                    .thenReturn(Optional.of(userId));
+            when(currentUserResolver.requireCurrentUserId())
+                    .thenReturn(userId);
 
             when(groupRepository.findReportsByRecipe(recipeId))
                     .thenReturn(List.of(report));
@@ -318,8 +320,8 @@ class ReportServiceImplTest {
             mocked.when(SecurityUtil::getCurrentUserLogin)
                     .thenReturn(Optional.of(username));
 
-            when(reportQueryRepository.findUserIdByUsername(username))
-                    .thenReturn(Optional.of(userId));
+            when(currentUserResolver.requireCurrentUserId())
+                    .thenReturn(userId);
 
             when(groupRepository.findReportsByRecipe(recipeId))
                     .thenReturn(List.of(report));
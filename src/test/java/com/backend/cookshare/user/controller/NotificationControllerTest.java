@@ -2,7 +2,11 @@ package com.backend.cookshare.user.controller;
 
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
+import com.backend.cookshare.common.dto.CursorPageResponse;
 import com.backend.cookshare.common.dto.PageResponse;
+import com.backend.cookshare.common.exception.CustomException;
+import com.backend.cookshare.common.exception.ErrorCode;
 import com.backend.cookshare.user.dto.NotificationResponse;
 import com.backend.cookshare.user.service.NotificationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -21,6 +25,7 @@ import org.springframework.security.core.Authentication;
 import java.util.Collections;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,6 +42,9 @@ class NotificationControllerTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+
     @InjectMocks
     private NotificationController notificationController;
 
@@ -79,8 +87,8 @@ class NotificationControllerTest {
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(notificationController).build();
-        when(authentication.getName()).thenReturn("testuser");
-        when(userRepository.findByUsername("testuser")).thenReturn(java.util.Optional.of(createUser()));
+        lenient().when(authentication.getName()).thenReturn("testuser");
+        lenient().when(userRepository.findByUsername("testuser")).thenReturn(java.util.Optional.of(createUser()));
     }
 
 //    @Test
@@ -100,6 +108,33 @@ class NotificationControllerTest {
 //        verify(notificationService).getUserNotifications(eq(userId), eq(0), eq(20));
 //    }
 
+    @Test
+    void getNotificationSlice_UsesCurrentUserResolver() throws Exception {
+        CursorPageResponse<NotificationResponse> slice = CursorPageResponse.<NotificationResponse>builder()
+                .content(Collections.singletonList(createNotificationResponse()))
+                .size(20)
+                .hasNext(false)
+                .build();
+        when(currentUserResolver.requireCurrentUserId()).thenReturn(userId);
+        when(notificationService.getUserNotificationSlice(userId, null, 20)).thenReturn(slice);
+
+        mockMvc.perform(get("/notifications/cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].notificationId").value(notificationId.toString()));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getNotificationSlice_UnknownUser_ThrowsUserNotFound() {
+        when(currentUserResolver.requireCurrentUserId()).thenThrow(new CustomException(ErrorCode.USER_NOT_FOUND));
+
+        CustomException exception = assertThrows(CustomException.class,
+                () -> notificationController.getNotificationSlice(null, 20));
+        assertEquals(ErrorCode.USER_NOT_FOUND, exception.getErrorCode());
+        verifyNoInteractions(notificationService);
+    }
+
     @Test
     void getUnreadCount_Success() throws Exception {
         when(notificationService.getUnreadCount(userId)).thenReturn(5L);
@@ -2,7 +2,7 @@ package com.backend.cookshare.user.service;
 
 import com.backend.cookshare.user.entity.ActivityLog;
 import com.backend.cookshare.user.enums.ActivityType;
-import com.backend.cookshare.user.repository.ActivityLogRepository;
+import com.backend.cookshare.user.service.pipeline.ActivityLogPipeline;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,7 +25,7 @@ import static org.mockito.Mockito.*;
 class ActivityLogServiceTest {
 
     @Mock
-    private ActivityLogRepository activityLogRepository;
+    private ActivityLogPipeline activityLogPipeline;
 
     @Mock
     private HttpServletRequest httpServletRequest;
@@ -69,13 +69,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logCommentActivity(userId, commentId, recipeId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertNotNull(savedLog);
@@ -99,13 +98,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logCommentActivity(userId, commentId, recipeId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.UPDATE, savedLog.getActivityType());
@@ -123,13 +121,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logCommentActivity(userId, commentId, recipeId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.DELETE, savedLog.getActivityType());
@@ -147,13 +144,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logCommentActivity(userId, commentId, recipeId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.VIEW, savedLog.getActivityType());
@@ -171,13 +167,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logLikeActivity(userId, recipeId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.CREATE, savedLog.getActivityType());
@@ -196,13 +191,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logLikeActivity(userId, recipeId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.DELETE, savedLog.getActivityType());
@@ -221,13 +215,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logFollowActivity(userId, targetUserId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.CREATE, savedLog.getActivityType());
@@ -247,13 +240,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logFollowActivity(userId, targetUserId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.DELETE, savedLog.getActivityType());
@@ -270,13 +262,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logViewActivity(userId, recipeId);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.VIEW, savedLog.getActivityType());
@@ -295,13 +286,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logSearchActivity(userId, searchQuery);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.SEARCH, savedLog.getActivityType());
@@ -319,13 +309,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logAuthActivity(userId, ActivityType.LOGIN);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.LOGIN, savedLog.getActivityType());
@@ -343,13 +332,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logAuthActivity(userId, ActivityType.LOGOUT);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.LOGOUT, savedLog.getActivityType());
@@ -362,7 +350,7 @@ class ActivityLogServiceTest {
         activityLogService.logAuthActivity(userId, ActivityType.CREATE);
 
         // Assert
-        verify(activityLogRepository, never()).save(any(ActivityLog.class));
+        verify(activityLogPipeline, never()).submit(any(ActivityLog.class));
     }
 
     @Test
@@ -375,13 +363,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logShareActivity(userId, recipeId);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.SHARE, savedLog.getActivityType());
@@ -399,13 +386,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logDownloadActivity(userId, recipeId);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.DOWNLOAD, savedLog.getActivityType());
@@ -423,13 +409,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logPrintActivity(userId, recipeId);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.PRINT, savedLog.getActivityType());
@@ -448,13 +433,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logCollectionActivity(userId, collectionId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.CREATE, savedLog.getActivityType());
@@ -473,13 +457,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logCollectionActivity(userId, collectionId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.CREATE, savedLog.getActivityType());
@@ -497,13 +480,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logCollectionActivity(userId, collectionId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.DELETE, savedLog.getActivityType());
@@ -521,13 +503,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logRecipeActivity(userId, recipeId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.CREATE, savedLog.getActivityType());
@@ -546,13 +527,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logRecipeActivity(userId, recipeId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.UPDATE, savedLog.getActivityType());
@@ -570,13 +550,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logRecipeActivity(userId, recipeId, action);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals(ActivityType.UPDATE, savedLog.getActivityType());
@@ -593,13 +572,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logViewActivity(userId, recipeId);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals("203.0.113.1", savedLog.getIpAddress());
@@ -614,13 +592,12 @@ class ActivityLogServiceTest {
                     .thenReturn(null);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logViewActivity(userId, recipeId);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertNull(savedLog.getIpAddress());
@@ -630,7 +607,7 @@ class ActivityLogServiceTest {
     }
 
     @Test
-    void logActivity_RepositoryThrowsException_ShouldNotPropagateException() {
+    void logActivity_PipelineThrowsException_ShouldNotPropagateException() {
         // Arrange
         mockRequestContext("192.168.1.1", "Mozilla/5.0", "http://example.com");
 
@@ -638,15 +615,34 @@ class ActivityLogServiceTest {
             mockedStatic.when(RequestContextHolder::getRequestAttributes)
                     .thenReturn(servletRequestAttributes);
 
-            when(activityLogRepository.save(any(ActivityLog.class)))
-                    .thenThrow(new RuntimeException("Database error"));
+            doThrow(new RuntimeException("Queue error"))
+                    .when(activityLogPipeline).submit(any(ActivityLog.class));
 
             // Act & Assert - Should not throw exception
             assertDoesNotThrow(() -> {
                 activityLogService.logViewActivity(userId, recipeId);
             });
 
-            verify(activityLogRepository).save(any(ActivityLog.class));
+            verify(activityLogPipeline).submit(any(ActivityLog.class));
+        }
+    }
+
+    @Test
+    void logActivity_LongUserAgent_ShouldBeTruncatedToColumnLength() {
+        mockRequestContext("192.168.1.1", "A".repeat(400), "http://example.com");
+
+        try (MockedStatic<RequestContextHolder> mockedStatic = mockStatic(RequestContextHolder.class)) {
+            mockedStatic.when(RequestContextHolder::getRequestAttributes)
+                    .thenReturn(servletRequestAttributes);
+
+            ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
+
+            activityLogService.logViewActivityAsync(userId, recipeId);
+
+            verify(activityLogPipeline).submit(captor.capture());
+            assertEquals(255, captor.getValue().getUserAgent().length());
+            assertEquals("192.168.1.1", captor.getValue().getIpAddress());
+            assertNotNull(captor.getValue().getCreatedAt());
         }
     }
 
@@ -675,13 +671,12 @@ class ActivityLogServiceTest {
                     .thenReturn(servletRequestAttributes);
 
             ArgumentCaptor<ActivityLog> captor = ArgumentCaptor.forClass(ActivityLog.class);
-            when(activityLogRepository.save(any(ActivityLog.class))).thenReturn(null);
 
             // Act
             activityLogService.logViewActivity(userId, recipeId);
 
             // Assert
-            verify(activityLogRepository).save(captor.capture());
+            verify(activityLogPipeline).submit(captor.capture());
             ActivityLog savedLog = captor.getValue();
 
             assertEquals("192.168.1.100", savedLog.getIpAddress());
@@ -9,6 +9,7 @@ import com.backend.cookshare.common.exception.ErrorCode;
 import com.backend.cookshare.common.mapper.PageMapper;
 import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import com.backend.cookshare.user.dto.*;
 import com.backend.cookshare.user.entity.Collection;
 import com.backend.cookshare.user.entity.CollectionRecipe;
@@ -64,6 +65,9 @@ class CollectionServiceTest {
     @Mock
     private ActivityLogService activityLogService;
 
+    @Mock
+    private RecipeFeedSynchronizer recipeFeedSynchronizer;
+
     @InjectMocks
     private CollectionService collectionService;
 
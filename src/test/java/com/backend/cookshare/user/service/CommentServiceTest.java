@@ -2,8 +2,11 @@ package com.backend.cookshare.user.service;
 
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.common.dto.CursorPageResponse;
+import com.backend.cookshare.common.dto.PageCursor;
 import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recommendation.service.sync.RecipeFeedSynchronizer;
 import com.backend.cookshare.user.dto.CommentRequest;
 import com.backend.cookshare.user.dto.CommentResponse;
 import com.backend.cookshare.user.dto.CommentWebSocketMessage;
@@ -48,6 +51,9 @@ class CommentServiceTest {
     @Mock
     private SimpMessagingTemplate messagingTemplate;
 
+    @Mock
+    private RecipeFeedSynchronizer recipeFeedSynchronizer;
+
     @InjectMocks
     private CommentService commentService;
 
@@ -86,6 +92,23 @@ class CommentServiceTest {
         comment.setUser(user);
     }
 
+    @Test
+    void getRecipeCommentSlice_ShouldSeekAfterCursor() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2025, 2, 1, 9, 30), UUID.randomUUID());
+        when(commentRepository.findRootCommentSlice(recipeId, cursor.createdAt(), cursor.id(), 11))
+                .thenReturn(List.of(comment));
+        when(commentRepository.countRepliesByParentCommentId(commentId)).thenReturn(0);
+        when(commentRepository.findRepliesByParentCommentId(commentId)).thenReturn(List.of());
+
+        CursorPageResponse<CommentResponse> result = commentService.getRecipeCommentSlice(recipeId, cursor.encode(), 10);
+
+        assertEquals(1, result.getNumberOfElements());
+        assertEquals(commentId, result.getContent().get(0).getCommentId());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        verify(commentRepository, never()).findRootCommentsByRecipeId(any(), any());
+    }
+
     @Test
     void getRecipeComments_ShouldReturnPageOfComments() {
         // Arrange
@@ -169,6 +192,7 @@ class CommentServiceTest {
         verify(recipeRepository).findById(recipeId);
         verify(commentRepository).save(any(Comment.class));
         verify(notificationService).createCommentNotification(recipeOwnerId, userId, commentId, recipeId);
+        verify(recipeFeedSynchronizer).commentAdded(recipeId);
         verify(messagingTemplate).convertAndSend(
                 eq("/topic/recipe/" + recipeId + "/comments"),
                 any(CommentWebSocketMessage.class)
@@ -3,22 +3,29 @@ package com.backend.cookshare.user.service;
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
 import com.backend.cookshare.authentication.service.FirebaseStorageService;
+import com.backend.cookshare.authentication.util.CurrentUserResolver;
+import com.backend.cookshare.common.dto.CursorPageResponse;
+import com.backend.cookshare.common.dto.PageCursor;
 import com.backend.cookshare.common.dto.PageResponse;
 import com.backend.cookshare.common.exception.CustomException;
+import com.backend.cookshare.common.exception.ErrorCode;
 import com.backend.cookshare.common.mapper.PageMapper;
+import com.backend.cookshare.common.service.counter.CounterDeltaBuffer;
+import com.backend.cookshare.common.service.counter.CounterType;
 import com.backend.cookshare.interaction.dto.response.RecipeSummaryResponse;
 import com.backend.cookshare.recipe_management.entity.Recipe;
+import com.backend.cookshare.recipe_management.enums.RecipeStatus;
 import com.backend.cookshare.recipe_management.mapper.RecipeMapper;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
 import com.backend.cookshare.user.dto.*;
 import com.backend.cookshare.user.entity.Follow;
 import com.backend.cookshare.user.repository.FollowRepository;
+import com.backend.cookshare.user.service.timeline.HomeTimelineService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.time.LocalDateTime;
@@ -40,6 +47,9 @@ class FollowServiceTest {
     @Mock private RecipeRepository recipeRepository;
     @Mock private RecipeMapper recipeMapper;
     @Mock private FirebaseStorageService firebaseStorageService;
+    @Mock private CounterDeltaBuffer counterDeltaBuffer;
+    @Mock private CurrentUserResolver currentUserResolver;
+    @Mock private HomeTimelineService homeTimelineService;
 
     @InjectMocks private FollowService followService;
 
@@ -75,9 +85,7 @@ class FollowServiceTest {
     }
 
     private void mockCurrentUserInSecurityContext() {
-        var auth = new UsernamePasswordAuthenticationToken("current", null);
-        SecurityContextHolder.getContext().setAuthentication(auth);
-        when(userRepository.findByUsername("current")).thenReturn(Optional.of(currentUser));
+        when(currentUserResolver.requireCurrentUserId()).thenReturn(currentUserId);
     }
 
     @AfterEach
@@ -102,11 +110,12 @@ class FollowServiceTest {
         FollowResponse response = followService.followUser(currentUserId, targetUserId);
 
         verify(followRepository).save(any(Follow.class));
-        verify(userRepository, times(2)).save(any(User.class));
+        verify(userRepository, never()).save(any(User.class));
         verify(notificationService).createFollowNotification(targetUserId, currentUserId);
 
-        assertEquals(21, targetUser.getFollowerCount());
-        assertEquals(6, currentUser.getFollowingCount());
+        verify(counterDeltaBuffer).add(CounterType.USER_FOLLOWERS, targetUserId, 1);
+        verify(counterDeltaBuffer).add(CounterType.USER_FOLLOWING, currentUserId, 1);
+        verify(homeTimelineService).followed(currentUserId, targetUserId);
         assertEquals("Đã follow thành công", response.getMessage());
     }
 
@@ -165,9 +174,9 @@ class FollowServiceTest {
 
         verify(followRepository).delete(follow);
         verify(notificationService).deleteFollowNotification(targetUserId, currentUserId);
-        verify(userRepository, times(2)).save(any(User.class));
-        assertEquals(19, targetUser.getFollowerCount());
-        assertEquals(4, currentUser.getFollowingCount());
+        verify(userRepository, never()).save(any(User.class));
+        verify(counterDeltaBuffer).add(CounterType.USER_FOLLOWERS, targetUserId, -1);
+        verify(counterDeltaBuffer).add(CounterType.USER_FOLLOWING, currentUserId, -1);
     }
 
     @Test void unfollowUser_NotFollowing() { when(followRepository.findByFollowerIdAndFollowingId(any(), any())).thenReturn(Optional.empty()); assertThrows(CustomException.class, () -> followService.unfollowUser(currentUserId, targetUserId)); }
@@ -209,6 +218,26 @@ class FollowServiceTest {
         assertTrue(result.getContent().isEmpty());
     }
 
+    @Test
+    void getFollowerSlice_ShouldFetchOneExtraRowAndKeepCursorOrder() {
+        UUID otherUserId = UUID.randomUUID();
+        LocalDateTime followedAt = LocalDateTime.of(2025, 1, 1, 8, 0);
+        Follow newest = Follow.builder().followerId(currentUserId).followingId(targetUserId).createdAt(followedAt).build();
+        Follow older = Follow.builder().followerId(otherUserId).followingId(targetUserId).createdAt(followedAt.minusDays(1)).build();
+
+        when(followRepository.findFollowerSlice(targetUserId, PageCursor.FIRST.createdAt(), PageCursor.FIRST.id(), 2))
+                .thenReturn(List.of(newest, older));
+        when(userRepository.findAllById(List.of(currentUserId))).thenReturn(List.of(currentUser));
+
+        CursorPageResponse<UserFollowDto> result = followService.getFollowerSlice(targetUserId, null, 1);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(currentUserId, result.getContent().get(0).getUserId());
+        assertTrue(result.isHasNext());
+        assertEquals(new PageCursor(followedAt, currentUserId), PageCursor.decode(result.getNextCursor()));
+        verify(userRepository, never()).findById(any());
+    }
+
     // ==================== getFollowing() ====================
 
     @Test
@@ -303,11 +332,52 @@ class FollowServiceTest {
         assertTrue(result.getContent().isEmpty());
     }
 
+    @Test
+    void getRecipesByFollowingSlice_TimelineEnabled_ShouldReadTimelineAndSkipUnpublished() {
+        mockCurrentUserInSecurityContext();
+        LocalDateTime now = LocalDateTime.of(2025, 5, 1, 12, 0);
+        Recipe published = Recipe.builder().recipeId(UUID.randomUUID()).userId(targetUserId)
+                .status(RecipeStatus.APPROVED).isPublished(true).build();
+        Recipe hidden = Recipe.builder().recipeId(UUID.randomUUID()).userId(targetUserId)
+                .status(RecipeStatus.APPROVED).isPublished(false).build();
+        List<HomeTimelineService.TimelineEntry> entries = List.of(
+                new HomeTimelineService.TimelineEntry(hidden.getRecipeId(), now),
+                new HomeTimelineService.TimelineEntry(published.getRecipeId(), now.minusHours(1)),
+                new HomeTimelineService.TimelineEntry(UUID.randomUUID(), now.minusHours(2)));
+
+        when(homeTimelineService.isEnabled()).thenReturn(true);
+        when(homeTimelineService.ensureMaterialized(currentUserId)).thenReturn(true);
+        when(homeTimelineService.readSlice(currentUserId, PageCursor.FIRST, 3)).thenReturn(entries);
+        when(recipeRepository.findAllById(List.of(hidden.getRecipeId(), published.getRecipeId())))
+                .thenReturn(List.of(published, hidden));
+        when(recipeMapper.toRecipeByFollowingResponse(eq(published), isNull()))
+                .thenReturn(RecipeByFollowingResponse.builder().build());
+
+        CursorPageResponse<RecipeByFollowingResponse> result = followService.getRecipesByFollowingSlice(null, 2);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(currentUserId, result.getContent().get(0).getFollowerId());
+        assertTrue(result.isHasNext());
+        assertEquals(new PageCursor(now.minusHours(1), published.getRecipeId()), PageCursor.decode(result.getNextCursor()));
+        verify(recipeRepository, never()).findFollowingFeedSlice(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getRecipesByFollowingSlice_TimelineNotMaterialized_ShouldReadFollowsInstead() {
+        mockCurrentUserInSecurityContext();
+        when(homeTimelineService.isEnabled()).thenReturn(true);
+        when(homeTimelineService.ensureMaterialized(currentUserId)).thenReturn(false);
+        when(recipeRepository.findFollowingFeedSlice(eq(currentUserId), any(), any(), eq(3))).thenReturn(List.of());
+
+        CursorPageResponse<RecipeByFollowingResponse> result = followService.getRecipesByFollowingSlice(null, 2);
+
+        assertTrue(result.getContent().isEmpty());
+        verify(homeTimelineService, never()).readSlice(any(), any(), anyInt());
+    }
+
     @Test
     void getRecipesByFollowing_ShouldThrow_WhenUserNotFound() {
-        var auth = new UsernamePasswordAuthenticationToken("unknown", null);
-        SecurityContextHolder.getContext().setAuthentication(auth);
-        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+        when(currentUserResolver.requireCurrentUserId()).thenThrow(new CustomException(ErrorCode.USER_NOT_FOUND));
 
         assertThrows(CustomException.class, () -> followService.getRecipesByFollowing(0, 10));
     }
@@ -2,9 +2,13 @@ package com.backend.cookshare.user.service;
 
 import com.backend.cookshare.authentication.entity.User;
 import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.repository.UserRepository.UserSummaryProjection;
 import com.backend.cookshare.authentication.service.FirebaseStorageService;
+import com.backend.cookshare.common.dto.CursorPageResponse;
+import com.backend.cookshare.common.dto.PageCursor;
 import com.backend.cookshare.recipe_management.entity.Recipe;
 import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository.RecipeCardProjection;
 import com.backend.cookshare.user.dto.NotificationResponse;
 import com.backend.cookshare.user.dto.NotificationWebSocketMessage;
 import com.backend.cookshare.user.entity.Comment;
@@ -12,12 +16,14 @@ import com.backend.cookshare.user.entity.Notification;
 import com.backend.cookshare.user.enums.NotificationType;
 import com.backend.cookshare.user.enums.RelatedType;
 import com.backend.cookshare.user.repository.CommentRepository;
+import com.backend.cookshare.user.repository.CommentRepository.CommentSummaryProjection;
 import com.backend.cookshare.user.repository.NotificationRepository;
+import com.backend.cookshare.user.service.fanout.NotificationFanoutService;
+import com.backend.cookshare.user.service.hydrator.NotificationHydrator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
@@ -43,8 +49,9 @@ class NotificationServiceTest {
     @Mock private SimpMessagingTemplate messagingTemplate;
     @Mock private ActivityLogService activityLogService;
     @Mock private FirebaseStorageService fileStorageService;
+    @Mock private NotificationFanoutService notificationFanoutService;
 
-    @InjectMocks private NotificationService notificationService;
+    private NotificationService notificationService;
 
     private UUID userId, actorId, recipeId, commentId, notificationId;
     private User actor, recipient;
@@ -54,6 +61,10 @@ class NotificationServiceTest {
 
     @BeforeEach
     void setUp() {
+        notificationService = new NotificationService(notificationRepository, userRepository, messagingTemplate,
+                activityLogService, new NotificationHydrator(commentRepository, recipeRepository, userRepository, fileStorageService),
+                notificationFanoutService);
+
         userId = UUID.randomUUID();
         actorId = UUID.randomUUID();
         recipeId = UUID.randomUUID();
@@ -104,9 +115,9 @@ class NotificationServiceTest {
 
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any(Pageable.class)))
                 .thenReturn(page);
-        when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(actorId)).thenReturn(Optional.of(actor));
+        when(commentRepository.findSummariesByCommentIdIn(anyCollection())).thenReturn(List.of(commentSummary(comment)));
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of(recipeCard(recipe)));
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of(userSummary(actorId, actor)));
         when(fileStorageService.convertPathToFirebaseUrl(anyString())).thenReturn("https://firebase.url/");
 
         Page<NotificationResponse> result = notificationService.getUserNotifications(userId, 0, 10);
@@ -403,14 +414,39 @@ class NotificationServiceTest {
     }
 
     @Test
-    void createNewRecipeNotificationForFollowers_ShouldNotifyAllExceptOwner() {
-        List<UUID> followers = List.of(UUID.randomUUID(), userId, UUID.randomUUID());
-        when(notificationRepository.save(any())).thenReturn(notification);
+    void createNewRecipeNotificationForFollowers_ShouldDelegateToFanout() {
+        notificationService.createNewRecipeNotificationForFollowers(userId, "Chef", recipeId, "New Dish");
+
+        verify(notificationFanoutService).publishNewRecipe(userId, "Chef", recipeId, "New Dish");
+        verify(notificationRepository, never()).save(any());
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+    }
+
+    @Test
+    void getUserNotifications_ShouldMaterializeFanoutOnReadFirst() {
+        when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        notificationService.getUserNotifications(userId, 0, 10);
+
+        var inOrder = inOrder(notificationFanoutService, notificationRepository);
+        inOrder.verify(notificationFanoutService).materializeFor(userId);
+        inOrder.verify(notificationRepository).findByUserIdOrderByCreatedAtDesc(eq(userId), any(Pageable.class));
+    }
+
+    @Test
+    void getUserNotificationSlice_ShouldMaterializeFanoutThenSeekWithoutCount() {
+        when(notificationRepository.findSliceByUserId(userId, PageCursor.FIRST.createdAt(), PageCursor.FIRST.id(), 21))
+                .thenReturn(List.of());
 
-        notificationService.createNewRecipeNotificationForFollowers(followers, userId, "Chef", recipeId, "New Dish");
+        CursorPageResponse<NotificationResponse> result = notificationService.getUserNotificationSlice(userId, null, 20);
 
-        verify(notificationRepository, times(2)).save(any());
-        verify(messagingTemplate, times(2)).convertAndSendToUser(anyString(), eq("/queue/notifications"), any());
+        assertTrue(result.getContent().isEmpty());
+        assertFalse(result.isHasNext());
+        var inOrder = inOrder(notificationFanoutService, notificationRepository);
+        inOrder.verify(notificationFanoutService).materializeFor(userId);
+        inOrder.verify(notificationRepository).findSliceByUserId(userId, PageCursor.FIRST.createdAt(), PageCursor.FIRST.id(), 21);
+        verify(notificationRepository, never()).findByUserIdOrderByCreatedAtDesc(any(), any());
     }
 
     @Test
@@ -426,6 +462,7 @@ class NotificationServiceTest {
                 NotificationType.COMMENT,
                 NotificationType.LIKE
         ));
+        verify(notificationFanoutService).cancel(recipeId);
         verify(notificationRepository).delete(notification);
     }
 
@@ -445,8 +482,8 @@ class NotificationServiceTest {
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any(Pageable.class)))
                 .thenReturn(mockedPage);
 
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(actorId)).thenReturn(Optional.of(actor));
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of(recipeCard(recipe)));
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of(userSummary(actorId, actor)));
         when(fileStorageService.convertPathToFirebaseUrl(anyString())).thenReturn("https://firebase.url/");
 
         // Act
@@ -515,7 +552,7 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.empty());
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of());
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -530,8 +567,8 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of(recipeCard(recipe)));
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of());
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -546,7 +583,7 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(commentRepository.findById(commentId)).thenReturn(Optional.empty());
+        when(commentRepository.findSummariesByCommentIdIn(anyCollection())).thenReturn(List.of());
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -561,8 +598,8 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.empty());
+        when(commentRepository.findSummariesByCommentIdIn(anyCollection())).thenReturn(List.of(commentSummary(comment)));
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of());
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -577,9 +614,9 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(actorId)).thenReturn(Optional.empty());
+        when(commentRepository.findSummariesByCommentIdIn(anyCollection())).thenReturn(List.of(commentSummary(comment)));
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of(recipeCard(recipe)));
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of());
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -595,8 +632,8 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.empty());
-        when(userRepository.findById(actorId)).thenReturn(Optional.of(actor));
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of());
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of(userSummary(actorId, actor)));
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -612,8 +649,8 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(actorId)).thenReturn(Optional.empty());
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of(recipeCard(recipe)));
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of());
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -630,8 +667,8 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(actorId)).thenReturn(Optional.of(actor));
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of(recipeCard(recipe)));
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of(userSummary(actorId, actor)));
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -646,7 +683,7 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(userRepository.findById(actorId)).thenReturn(Optional.empty());
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of());
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -662,7 +699,7 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(userRepository.findById(actorId)).thenReturn(Optional.of(actor));
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of(userSummary(actorId, actor)));
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -678,8 +715,8 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(actor)); // actor là author
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of(recipeCard(recipe)));
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of(userSummary(userId, actor))); // actor là author
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -695,8 +732,8 @@ class NotificationServiceTest {
 
         Page<Notification> page = new PageImpl<>(List.of(notification));
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(userId), any())).thenReturn(page);
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(actor));
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of(recipeCard(recipe)));
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of(userSummary(userId, actor)));
 
         var result = notificationService.getUserNotifications(userId, 0, 10);
 
@@ -734,4 +771,31 @@ class NotificationServiceTest {
         verify(notificationRepository, never()).delete(any());
         verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
     }
-}
\ No newline at end of file
+
+    // ====================== PROJECTION HELPERS ======================
+
+    private static RecipeCardProjection recipeCard(Recipe recipe) {
+        return new RecipeCardProjection() {
+            public UUID getRecipeId() { return recipe.getRecipeId(); }
+            public String getTitle() { return recipe.getTitle(); }
+            public String getFeaturedImage() { return recipe.getFeaturedImage(); }
+            public UUID getUserId() { return recipe.getUserId(); }
+        };
+    }
+
+    private static CommentSummaryProjection commentSummary(Comment comment) {
+        return new CommentSummaryProjection() {
+            public UUID getCommentId() { return comment.getCommentId(); }
+            public UUID getRecipeId() { return comment.getRecipeId(); }
+            public UUID getUserId() { return comment.getUserId(); }
+        };
+    }
+
+    private static UserSummaryProjection userSummary(UUID id, User user) {
+        return new UserSummaryProjection() {
+            public UUID getUserId() { return id; }
+            public String getFullName() { return user.getFullName(); }
+            public String getAvatarUrl() { return user.getAvatarUrl(); }
+        };
+    }
+}
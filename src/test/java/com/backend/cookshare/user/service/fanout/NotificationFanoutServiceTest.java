@@ -0,0 +1,170 @@
+package com.backend.cookshare.user.service.fanout;
+
+import com.backend.cookshare.user.dto.NotificationResponse;
+import com.backend.cookshare.user.dto.NotificationWebSocketMessage;
+import com.backend.cookshare.user.entity.Notification;
+import com.backend.cookshare.user.enums.NotificationType;
+import com.backend.cookshare.user.repository.FollowRepository;
+import com.backend.cookshare.user.service.hydrator.NotificationHydrator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationFanoutServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private FollowRepository followRepository;
+    @Mock private NotificationHydrator notificationHydrator;
+    @Mock private SimpMessagingTemplate messagingTemplate;
+    @Mock private SimpUserRegistry simpUserRegistry;
+
+    private NotificationFanoutService fanoutService;
+    private UUID ownerId;
+    private UUID recipeId;
+
+    @BeforeEach
+    void setUp() {
+        fanoutService = new NotificationFanoutService(jdbcTemplate, followRepository, notificationHydrator,
+                messagingTemplate, simpUserRegistry, Runnable::run, new SimpleMeterRegistry(), 2, true, 3, 168);
+        ownerId = UUID.randomUUID();
+        recipeId = UUID.randomUUID();
+    }
+
+    @Test
+    void publishNewRecipe_SmallAudience_ShouldBatchInsertPerKeysetPageAndPushOnlyOnlineFollowers() {
+        NotificationFanoutService.Recipient online = new NotificationFanoutService.Recipient(UUID.randomUUID(), "online");
+        NotificationFanoutService.Recipient offline = new NotificationFanoutService.Recipient(UUID.randomUUID(), "offline");
+        NotificationFanoutService.Recipient last = new NotificationFanoutService.Recipient(UUID.randomUUID(), "last");
+
+        when(followRepository.countFollowers(ownerId)).thenReturn(3L);
+        when(jdbcTemplate.query(eq(NotificationFanoutService.FOLLOWER_PAGE_SQL), any(RowMapper.class), any(), any(), any()))
+                .thenReturn(List.of(online, offline), List.of(last));
+        when(notificationHydrator.hydrate(any(Notification.class)))
+                .thenReturn(NotificationResponse.builder().type(NotificationType.RECIPE_PUBLISHED).recipeId(recipeId).build());
+        when(simpUserRegistry.getUser(anyString())).thenReturn(null);
+        when(simpUserRegistry.getUser("online")).thenReturn(mock(SimpUser.class));
+
+        fanoutService.publishNewRecipe(ownerId, "Chef", recipeId, "Phở");
+
+        ArgumentCaptor<Integer> batchSizes = ArgumentCaptor.forClass(Integer.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(NotificationFanoutService.INSERT_SQL), anyCollection(),
+                batchSizes.capture(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(2, 1), batchSizes.getAllValues());
+
+        // Trang thứ hai bắt đầu sau follower cuối của trang đầu
+        verify(jdbcTemplate).query(eq(NotificationFanoutService.FOLLOWER_PAGE_SQL), any(RowMapper.class),
+                eq(ownerId), eq(offline.userId()), eq(2));
+
+        ArgumentCaptor<NotificationWebSocketMessage> message = ArgumentCaptor.forClass(NotificationWebSocketMessage.class);
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("online"), eq("/queue/notifications"), message.capture());
+        assertEquals("NEW", message.getValue().getAction());
+        assertEquals(online.userId(), message.getValue().getUserId());
+        assertEquals(0, fanoutService.activeBroadcasts());
+    }
+
+    @Test
+    void publishNewRecipe_NoFollowers_ShouldDoNothing() {
+        when(followRepository.countFollowers(ownerId)).thenReturn(0L);
+
+        fanoutService.publishNewRecipe(ownerId, "Chef", recipeId, "Phở");
+
+        verifyNoInteractions(jdbcTemplate, messagingTemplate);
+    }
+
+    @Test
+    void publishNewRecipe_LargeAudience_ShouldPersistBroadcastAndDeliverToOnlineFollowersOnly() {
+        UUID onlineFollower = UUID.randomUUID();
+        UUID notificationId = UUID.randomUUID();
+        SimpUser simpUser = mock(SimpUser.class);
+        when(simpUser.getName()).thenReturn("online");
+        when(followRepository.countFollowers(ownerId)).thenReturn(50_000L);
+        when(simpUserRegistry.getUsers()).thenReturn(Set.of(simpUser));
+        when(jdbcTemplate.query(eq(NotificationFanoutService.buildOnlineDeliverySql(1)), any(RowMapper.class),
+                eq(recipeId), eq(ownerId), eq("online"), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(new NotificationFanoutService.Delivery(notificationId,
+                        new NotificationFanoutService.Recipient(onlineFollower, "online"))));
+        when(notificationHydrator.hydrate(any(Notification.class))).thenReturn(NotificationResponse.builder().build());
+        when(simpUserRegistry.getUser("online")).thenReturn(simpUser);
+
+        fanoutService.publishNewRecipe(ownerId, "Chef", recipeId, "Phở");
+
+        assertEquals(1, fanoutService.activeBroadcasts());
+        verify(jdbcTemplate).update(eq(NotificationFanoutService.INSERT_BROADCAST_SQL), eq(recipeId), eq(ownerId),
+                anyString(), any(Timestamp.class));
+        verify(jdbcTemplate, never()).query(eq(NotificationFanoutService.FOLLOWER_PAGE_SQL), any(RowMapper.class), any(), any(), any());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        ArgumentCaptor<NotificationWebSocketMessage> message = ArgumentCaptor.forClass(NotificationWebSocketMessage.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("online"), anyString(), message.capture());
+        assertEquals(notificationId, ((NotificationResponse) message.getValue().getNotification()).getNotificationId());
+    }
+
+    @Test
+    void publishNewRecipe_LargeAudienceWithReadDisabled_ShouldFanOutOnWrite() {
+        fanoutService = new NotificationFanoutService(jdbcTemplate, followRepository, notificationHydrator,
+                messagingTemplate, simpUserRegistry, Runnable::run, new SimpleMeterRegistry(), 2, false, 3, 168);
+        when(followRepository.countFollowers(ownerId)).thenReturn(50_000L);
+        when(jdbcTemplate.query(eq(NotificationFanoutService.FOLLOWER_PAGE_SQL), any(RowMapper.class), any(), any(), any()))
+                .thenReturn(List.of());
+
+        fanoutService.publishNewRecipe(ownerId, "Chef", recipeId, "Phở");
+
+        assertEquals(0, fanoutService.activeBroadcasts());
+        verify(jdbcTemplate, never()).update(eq(NotificationFanoutService.INSERT_BROADCAST_SQL), any(Object[].class));
+        assertEquals(0, fanoutService.materializeFor(UUID.randomUUID()));
+    }
+
+    @Test
+    void materializeFor_ShouldClaimAllBroadcastsInOneStatement() {
+        UUID follower = UUID.randomUUID();
+        when(jdbcTemplate.update(eq(NotificationFanoutService.MATERIALIZE_SQL), eq(follower), any(Timestamp.class),
+                eq(NotificationType.RECIPE_PUBLISHED.name()), eq(NotificationFanoutService.TITLE), eq("user")))
+                .thenReturn(2);
+
+        assertEquals(2, fanoutService.materializeFor(follower));
+        assertEquals(0, fanoutService.materializeFor(null));
+
+        verify(jdbcTemplate, times(1)).update(eq(NotificationFanoutService.MATERIALIZE_SQL), any(Object[].class));
+        verifyNoInteractions(followRepository);
+    }
+
+    @Test
+    void materializeFor_WhenInsertFails_ShouldReturnZero() {
+        when(jdbcTemplate.update(eq(NotificationFanoutService.MATERIALIZE_SQL), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertEquals(0, fanoutService.materializeFor(UUID.randomUUID()));
+    }
+
+    @Test
+    void cancel_ShouldDeletePersistedBroadcast() {
+        when(followRepository.countFollowers(ownerId)).thenReturn(50_000L);
+        when(simpUserRegistry.getUsers()).thenReturn(Set.of());
+        fanoutService.publishNewRecipe(ownerId, "Chef", recipeId, "Phở");
+        assertEquals(1, fanoutService.activeBroadcasts());
+        when(jdbcTemplate.update(NotificationFanoutService.CANCEL_BROADCAST_SQL, recipeId)).thenReturn(1);
+
+        fanoutService.cancel(recipeId);
+
+        assertEquals(0, fanoutService.activeBroadcasts());
+    }
+}
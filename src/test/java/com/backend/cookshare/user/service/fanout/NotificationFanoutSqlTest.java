@@ -0,0 +1,128 @@
+package com.backend.cookshare.user.service.fanout;
+
+import com.backend.cookshare.common.EmbeddedPostgresTestSupport;
+import com.backend.cookshare.user.dto.NotificationResponse;
+import com.backend.cookshare.user.entity.Notification;
+import com.backend.cookshare.user.repository.FollowRepository;
+import com.backend.cookshare.user.service.hydrator.NotificationHydrator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Chạy các câu SQL fan-out-on-read của {@link NotificationFanoutService} trên Postgres thật
+ */
+class NotificationFanoutSqlTest {
+
+    private final UUID owner = UUID.randomUUID();
+    private final UUID onlineFollower = UUID.randomUUID();
+    private final UUID offlineFollower = UUID.randomUUID();
+    private final UUID stranger = UUID.randomUUID();
+    private final UUID recipeId = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+    private FollowRepository followRepository;
+    private SimpUserRegistry simpUserRegistry;
+    private SimpMessagingTemplate messagingTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedPostgresTestSupport.freshSchema("fanout_sql");
+        jdbcTemplate.execute("CREATE TABLE users (user_id UUID PRIMARY KEY, username VARCHAR(50) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE follows (follower_id UUID NOT NULL, following_id UUID NOT NULL, "
+                + "PRIMARY KEY (follower_id, following_id))");
+        jdbcTemplate.execute("CREATE TABLE notifications (notification_id UUID PRIMARY KEY, user_id UUID NOT NULL, "
+                + "type VARCHAR(50) NOT NULL, title VARCHAR(255), message TEXT, related_id UUID, related_type VARCHAR(50), "
+                + "is_read BOOLEAN, is_sent BOOLEAN, created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE recipe_broadcasts (recipe_id UUID PRIMARY KEY, owner_id UUID NOT NULL, "
+                + "message TEXT NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE recipe_broadcast_deliveries ("
+                + "recipe_id UUID NOT NULL REFERENCES recipe_broadcasts (recipe_id) ON DELETE CASCADE, "
+                + "user_id UUID NOT NULL, PRIMARY KEY (recipe_id, user_id))");
+
+        jdbcTemplate.update("INSERT INTO users VALUES (?, 'owner'), (?, 'online'), (?, 'offline'), (?, 'stranger')",
+                owner, onlineFollower, offlineFollower, stranger);
+        jdbcTemplate.update("INSERT INTO follows VALUES (?, ?), (?, ?)", onlineFollower, owner, offlineFollower, owner);
+
+        followRepository = mock(FollowRepository.class);
+        when(followRepository.countFollowers(owner)).thenReturn(2L);
+        SimpUser online = mock(SimpUser.class);
+        when(online.getName()).thenReturn("online");
+        simpUserRegistry = mock(SimpUserRegistry.class);
+        when(simpUserRegistry.getUsers()).thenReturn(Set.of(online));
+        when(simpUserRegistry.getUser("online")).thenReturn(online);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+    }
+
+    private NotificationFanoutService newInstance() {
+        NotificationHydrator hydrator = mock(NotificationHydrator.class);
+        when(hydrator.hydrate(any(Notification.class))).thenReturn(NotificationResponse.builder().build());
+        return new NotificationFanoutService(jdbcTemplate, followRepository, hydrator, messagingTemplate,
+                simpUserRegistry, Runnable::run, new SimpleMeterRegistry(), 100, true, 1, 168);
+    }
+
+    private List<Timestamp> createdAtOf(UUID userId) {
+        return jdbcTemplate.queryForList("SELECT created_at FROM notifications WHERE user_id = ?", Timestamp.class, userId);
+    }
+
+    @Test
+    void publishThenMaterialize_ShouldDeliverOncePerFollowerAcrossInstances() {
+        NotificationFanoutService first = newInstance();
+        NotificationFanoutService second = newInstance();
+
+        first.publishNewRecipe(owner, "Chef", recipeId, "Phở");
+
+        Timestamp approvedAt = jdbcTemplate.queryForObject(
+                "SELECT created_at FROM recipe_broadcasts WHERE recipe_id = ?", Timestamp.class, recipeId);
+        assertEquals(List.of(approvedAt), createdAtOf(onlineFollower));
+        verify(messagingTemplate).convertAndSendToUser(eq("online"), anyString(), any());
+
+        // Follower online đã nhận lúc phát, instance khác cũng không tạo lại
+        assertEquals(0, second.materializeFor(onlineFollower));
+        assertEquals(1, second.materializeFor(offlineFollower));
+        assertEquals(0, first.materializeFor(offlineFollower));
+        assertEquals(0, first.materializeFor(stranger));
+        assertEquals(0, first.materializeFor(owner));
+
+        // created_at của thông báo là lúc phát, không phải lúc follower mở danh sách
+        assertEquals(List.of(approvedAt), createdAtOf(offlineFollower));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Integer.class));
+    }
+
+    @Test
+    void cancelAndPrune_ShouldRemoveBroadcastAndDeliveries() {
+        NotificationFanoutService service = newInstance();
+        service.publishNewRecipe(owner, "Chef", recipeId, "Phở");
+        UUID expiredRecipe = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO recipe_broadcasts VALUES (?, ?, 'cũ', ?)",
+                expiredRecipe, owner, Timestamp.valueOf(LocalDateTime.now().minusDays(30)));
+
+        // Chỉ công thức còn hạn được tạo thông báo
+        assertEquals(1, service.materializeFor(offlineFollower));
+        service.pruneExpiredBroadcasts();
+        assertEquals(1, service.activeBroadcasts());
+
+        service.cancel(recipeId);
+
+        assertEquals(0, service.activeBroadcasts());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recipe_broadcasts", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recipe_broadcast_deliveries", Integer.class));
+        assertEquals(0, service.materializeFor(stranger));
+    }
+}
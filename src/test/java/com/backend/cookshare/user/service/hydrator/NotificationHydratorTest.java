@@ -0,0 +1,183 @@
+package com.backend.cookshare.user.service.hydrator;
+
+import com.backend.cookshare.authentication.repository.UserRepository;
+import com.backend.cookshare.authentication.repository.UserRepository.UserSummaryProjection;
+import com.backend.cookshare.authentication.service.FirebaseStorageService;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository;
+import com.backend.cookshare.recipe_management.repository.RecipeRepository.RecipeCardProjection;
+import com.backend.cookshare.user.dto.NotificationResponse;
+import com.backend.cookshare.user.entity.Notification;
+import com.backend.cookshare.user.enums.NotificationType;
+import com.backend.cookshare.user.repository.CommentRepository;
+import com.backend.cookshare.user.repository.CommentRepository.CommentSummaryProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationHydratorTest {
+
+    @Mock private CommentRepository commentRepository;
+    @Mock private RecipeRepository recipeRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private FirebaseStorageService fileStorageService;
+
+    @InjectMocks private NotificationHydrator hydrator;
+
+    private UUID recipientId;
+
+    @BeforeEach
+    void setUp() {
+        recipientId = UUID.randomUUID();
+    }
+
+    @Test
+    void hydrate_ShouldIssueOneQueryPerEntityType_RegardlessOfPageSize() {
+        List<Notification> page = new ArrayList<>();
+        List<CommentSummaryProjection> comments = new ArrayList<>();
+        List<RecipeCardProjection> recipes = new ArrayList<>();
+        List<UserSummaryProjection> users = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            UUID actorId = UUID.randomUUID();
+            UUID recipeId = UUID.randomUUID();
+            users.add(user(actorId, "Actor " + i));
+            recipes.add(recipe(recipeId, "Recipe " + i, actorId));
+            switch (i % 4) {
+                case 0 -> {
+                    UUID commentId = UUID.randomUUID();
+                    comments.add(comment(commentId, recipeId, actorId));
+                    page.add(notification(NotificationType.COMMENT, commentId, "bình luận"));
+                }
+                case 1 -> page.add(notification(NotificationType.LIKE, recipeId, actorId + "::Actor đã thích"));
+                case 2 -> page.add(notification(NotificationType.FOLLOW, actorId, "theo dõi"));
+                default -> page.add(notification(NotificationType.RECIPE_PUBLISHED, recipeId, "công thức mới"));
+            }
+        }
+
+        when(commentRepository.findSummariesByCommentIdIn(anyCollection())).thenReturn(comments);
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(recipes);
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(users);
+
+        List<NotificationResponse> responses = hydrator.hydrate(page);
+
+        assertEquals(20, responses.size());
+        verify(commentRepository, times(1)).findSummariesByCommentIdIn(anyCollection());
+        verify(recipeRepository, times(1)).findCardsByRecipeIdIn(anyCollection());
+        verify(userRepository, times(1)).findSummariesByUserIdIn(anyCollection());
+        verify(commentRepository, never()).findById(any());
+        verify(recipeRepository, never()).findById(any());
+        verify(userRepository, never()).findById(any());
+        responses.forEach(response -> assertNotNull(response.getActorName(), response.getType().name()));
+    }
+
+    @Test
+    void hydrate_ShouldLoadRecipesAndActorsReachedThroughComments() {
+        UUID commentId = UUID.randomUUID();
+        UUID recipeId = UUID.randomUUID();
+        UUID actorId = UUID.randomUUID();
+
+        when(commentRepository.findSummariesByCommentIdIn(anyCollection()))
+                .thenReturn(List.of(comment(commentId, recipeId, actorId)));
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection()))
+                .thenReturn(List.of(recipe(recipeId, "Phở bò", UUID.randomUUID())));
+        when(userRepository.findSummariesByUserIdIn(anyCollection()))
+                .thenReturn(List.of(user(actorId, "Người bình luận")));
+
+        NotificationResponse response = hydrator.hydrate(notification(NotificationType.MENTION, commentId, "trả lời"));
+
+        assertEquals(recipeId, response.getRecipeId());
+        assertEquals("Phở bò", response.getRecipeTitle());
+        assertEquals(actorId, response.getActorId());
+        assertEquals("Người bình luận", response.getActorName());
+
+        ArgumentCaptor<Collection<UUID>> recipeIds = ArgumentCaptor.forClass(Collection.class);
+        verify(recipeRepository).findCardsByRecipeIdIn(recipeIds.capture());
+        assertEquals(Set.of(recipeId), Set.copyOf(recipeIds.getValue()));
+    }
+
+    @Test
+    void hydrate_ShouldStripActorPrefixFromLikeMessage() {
+        UUID recipeId = UUID.randomUUID();
+        UUID actorId = UUID.randomUUID();
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of());
+        when(userRepository.findSummariesByUserIdIn(anyCollection())).thenReturn(List.of(user(actorId, "Lan")));
+
+        NotificationResponse response = hydrator.hydrate(
+                notification(NotificationType.LIKE, recipeId, actorId + "::Lan đã thích công thức của bạn"));
+
+        assertEquals("Lan đã thích công thức của bạn", response.getMessage());
+        assertEquals(actorId, response.getActorId());
+        assertEquals(recipeId, response.getRecipeId());
+        assertNull(response.getRecipeTitle());
+    }
+
+    @Test
+    void hydrate_ShouldKeepMessage_WhenLikeMessageHasNoActorPrefix() {
+        UUID recipeId = UUID.randomUUID();
+        when(recipeRepository.findCardsByRecipeIdIn(anyCollection())).thenReturn(List.of());
+
+        NotificationResponse response = hydrator.hydrate(
+                notification(NotificationType.LIKE, recipeId, "not-a-uuid-at-all-but-long-enough-x::text"));
+
+        assertEquals("not-a-uuid-at-all-but-long-enough-x::text", response.getMessage());
+        assertNull(response.getActorId());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void hydrate_ShouldSkipQueries_WhenNothingToLoad() {
+        Notification system = notification(NotificationType.SYSTEM, null, "hệ thống");
+
+        assertTrue(hydrator.hydrate(List.of()).isEmpty());
+        NotificationResponse response = hydrator.hydrate(system);
+
+        assertEquals("hệ thống", response.getMessage());
+        verifyNoInteractions(commentRepository, recipeRepository, userRepository);
+    }
+
+    private Notification notification(NotificationType type, UUID relatedId, String message) {
+        return Notification.builder()
+                .notificationId(UUID.randomUUID())
+                .userId(recipientId)
+                .type(type)
+                .message(message)
+                .relatedId(relatedId)
+                .build();
+    }
+
+    private static CommentSummaryProjection comment(UUID commentId, UUID recipeId, UUID userId) {
+        return new CommentSummaryProjection() {
+            public UUID getCommentId() { return commentId; }
+            public UUID getRecipeId() { return recipeId; }
+            public UUID getUserId() { return userId; }
+        };
+    }
+
+    private static RecipeCardProjection recipe(UUID recipeId, String title, UUID userId) {
+        return new RecipeCardProjection() {
+            public UUID getRecipeId() { return recipeId; }
+            public String getTitle() { return title; }
+            public String getFeaturedImage() { return null; }
+            public UUID getUserId() { return userId; }
+        };
+    }
+
+    private static UserSummaryProjection user(UUID userId, String fullName) {
+        return new UserSummaryProjection() {
+            public UUID getUserId() { return userId; }
+            public String getFullName() { return fullName; }
+            public String getAvatarUrl() { return null; }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.backend.cookshare.user.service.pipeline;
+
+import com.backend.cookshare.user.entity.ActivityLog;
+import com.backend.cookshare.user.enums.ActivityType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityLogPipelineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ActivityLogPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Không gọi start(): các test tự điều khiển việc ghi qua drainAll()
+        pipeline = new ActivityLogPipeline(jdbcTemplate, meterRegistry, 3, 2, 50, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private ActivityLog event() {
+        return ActivityLog.builder()
+                .userId(UUID.randomUUID())
+                .activityType(ActivityType.VIEW)
+                .targetId(UUID.randomUUID())
+                .build();
+    }
+
+    @Test
+    @DisplayName("drainAll - writes buffered events in JDBC batches of batch-size")
+    void drainAll_writesInBatches() {
+        pipeline.submit(event());
+        pipeline.submit(event());
+        pipeline.submit(event());
+
+        assertEquals(3, pipeline.drainAll());
+
+        ArgumentCaptor<Integer> batchSizes = ArgumentCaptor.forClass(Integer.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ActivityLogPipeline.INSERT_SQL), anyCollection(),
+                batchSizes.capture(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(2, 1), batchSizes.getAllValues());
+        assertEquals(0, pipeline.pendingCount());
+        assertEquals(3.0, meterRegistry.get("cookshare.activity-log.written").gauge().value());
+    }
+
+    @Test
+    @DisplayName("submit - full buffer drops new events and counts them")
+    void submit_fullBufferDrops() {
+        for (int i = 0; i < 5; i++) {
+            pipeline.submit(event());
+        }
+
+        assertEquals(3, pipeline.pendingCount());
+        assertEquals(2, pipeline.droppedCount());
+        assertEquals(2.0, meterRegistry.get("cookshare.activity-log.dropped").gauge().value());
+    }
+
+    @Test
+    @DisplayName("submit - inside a transaction the event is queued only after commit")
+    void submit_waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        ActivityLog activityLog = event();
+
+        pipeline.submit(activityLog);
+
+        assertEquals(0, pipeline.pendingCount());
+        assertNotNull(activityLog.getCreatedAt());
+        List<TransactionSynchronization> synchronizations =
+                new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, pipeline.pendingCount());
+    }
+
+    @Test
+    @DisplayName("writeBatch - database errors are counted, not thrown")
+    void writeBatch_failureIsCounted() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        ActivityLog activityLog = event();
+        activityLog.setCreatedAt(LocalDateTime.now());
+
+        assertDoesNotThrow(() -> pipeline.writeBatch(List.of(activityLog)));
+        assertEquals(1.0, meterRegistry.get("cookshare.activity-log.failed").gauge().value());
+    }
+
+    @Test
+    @DisplayName("start/stop - consumer thread writes events and stops cleanly")
+    void consumerThread_writesEvents() {
+        pipeline.start();
+        pipeline.submit(event());
+
+        verify(jdbcTemplate, timeout(2000)).batchUpdate(eq(ActivityLogPipeline.INSERT_SQL), anyCollection(),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        pipeline.stop();
+        assertEquals(0, pipeline.pendingCount());
+    }
+}
@@ -0,0 +1,162 @@
+package com.backend.cookshare.user.service.timeline;
+
+import com.backend.cookshare.common.dto.PageCursor;
+import com.backend.cookshare.user.service.timeline.HomeTimelineService.TimelineEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HomeTimelineServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private HomeTimelineService timelineService;
+    private UUID authorId;
+    private UUID recipeId;
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 1, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        timelineService = newService(true);
+        authorId = UUID.randomUUID();
+        recipeId = UUID.randomUUID();
+    }
+
+    private HomeTimelineService newService(boolean enabled) {
+        return new HomeTimelineService(jdbcTemplate, Runnable::run, new SimpleMeterRegistry(),
+                enabled, 2, 3, 50, 90);
+    }
+
+    @Test
+    void publish_SmallAudience_ShouldBatchInsertPerKeysetPage() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(jdbcTemplate.queryForObject(HomeTimelineService.FOLLOWER_COUNT_SQL, Long.class, authorId)).thenReturn(3L);
+        when(jdbcTemplate.queryForList(eq(HomeTimelineService.FOLLOWER_PAGE_SQL), eq(UUID.class), any(), any(), any()))
+                .thenReturn(List.of(first, second), List.of(third));
+
+        timelineService.publish(authorId, recipeId, now);
+
+        ArgumentCaptor<Integer> batchSizes = ArgumentCaptor.forClass(Integer.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(HomeTimelineService.INSERT_SQL), anyCollection(),
+                batchSizes.capture(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(2, 1), batchSizes.getAllValues());
+        // Trang thứ hai bắt đầu sau follower cuối của trang đầu
+        verify(jdbcTemplate).queryForList(HomeTimelineService.FOLLOWER_PAGE_SQL, UUID.class, authorId, second, 2);
+    }
+
+    @Test
+    void publish_Celebrity_ShouldNotFanOut() {
+        when(jdbcTemplate.queryForObject(HomeTimelineService.FOLLOWER_COUNT_SQL, Long.class, authorId)).thenReturn(4L);
+
+        timelineService.publish(authorId, recipeId, now);
+
+        verify(jdbcTemplate, never()).queryForList(eq(HomeTimelineService.FOLLOWER_PAGE_SQL), eq(UUID.class), any(), any(), any());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void disabled_ShouldNotTouchDatabase() {
+        timelineService = newService(false);
+
+        timelineService.publish(authorId, recipeId, now);
+        timelineService.followed(UUID.randomUUID(), authorId);
+        timelineService.unfollowed(UUID.randomUUID(), authorId);
+        timelineService.pruneExpiredEntries();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void followed_ShouldBackfillRecentRecipes() {
+        UUID followerId = UUID.randomUUID();
+        when(jdbcTemplate.queryForObject(HomeTimelineService.FOLLOWER_COUNT_SQL, Long.class, authorId)).thenReturn(1L);
+
+        timelineService.followed(followerId, authorId);
+
+        verify(jdbcTemplate).update(HomeTimelineService.BACKFILL_SQL, followerId, authorId, 50);
+    }
+
+    @Test
+    void readSlice_WithCelebrities_ShouldMergeByRecencyAndLimit() {
+        UUID userId = UUID.randomUUID();
+        UUID celebrityId = UUID.randomUUID();
+        TimelineEntry older = new TimelineEntry(UUID.randomUUID(), now.minusHours(2));
+        TimelineEntry newest = new TimelineEntry(UUID.randomUUID(), now);
+        TimelineEntry middle = new TimelineEntry(UUID.randomUUID(), now.minusHours(1));
+
+        when(jdbcTemplate.query(eq(HomeTimelineService.TIMELINE_SLICE_SQL), any(RowMapper.class), any(), any(), any(), any()))
+                .thenReturn(List.of(newest, older));
+        when(jdbcTemplate.queryForList(HomeTimelineService.CELEBRITY_SQL, UUID.class, userId, 3L))
+                .thenReturn(List.of(celebrityId));
+        when(jdbcTemplate.query(eq(HomeTimelineService.buildCelebrityRecipesSql(1)), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(middle, newest));
+
+        List<TimelineEntry> slice = timelineService.readSlice(userId, PageCursor.FIRST, 2);
+
+        assertEquals(List.of(newest, middle), slice);
+    }
+
+    @Test
+    void ensureMaterialized_NotYetMaterialized_ShouldBackfillThenMarkAndReturnFalse() {
+        UUID userId = UUID.randomUUID();
+        when(jdbcTemplate.queryForObject(HomeTimelineService.MATERIALIZED_SQL, Boolean.class, userId)).thenReturn(false);
+
+        assertFalse(timelineService.ensureMaterialized(userId));
+
+        var inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update(HomeTimelineService.MATERIALIZE_SQL, userId, userId, 3L, 50);
+        inOrder.verify(jdbcTemplate).update(eq(HomeTimelineService.MARK_MATERIALIZED_SQL), eq(userId), any(Timestamp.class));
+    }
+
+    @Test
+    void ensureMaterialized_BackfillFails_ShouldNotMarkMaterialized() {
+        UUID userId = UUID.randomUUID();
+        when(jdbcTemplate.queryForObject(HomeTimelineService.MATERIALIZED_SQL, Boolean.class, userId)).thenReturn(false);
+        when(jdbcTemplate.update(HomeTimelineService.MATERIALIZE_SQL, userId, userId, 3L, 50))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertFalse(timelineService.ensureMaterialized(userId));
+
+        verify(jdbcTemplate, never()).update(eq(HomeTimelineService.MARK_MATERIALIZED_SQL), any(Object[].class));
+    }
+
+    @Test
+    void ensureMaterialized_AlreadyMaterialized_ShouldNotBackfill() {
+        UUID userId = UUID.randomUUID();
+        when(jdbcTemplate.queryForObject(HomeTimelineService.MATERIALIZED_SQL, Boolean.class, userId)).thenReturn(true);
+
+        assertTrue(timelineService.ensureMaterialized(userId));
+        assertFalse(newService(false).ensureMaterialized(userId));
+
+        verify(jdbcTemplate, never()).update(eq(HomeTimelineService.MATERIALIZE_SQL), any(Object[].class));
+    }
+
+    @Test
+    void merge_SameTimestamp_ShouldOrderIdsLikePostgres() {
+        // Postgres so sánh uuid theo byte không dấu: ffff... lớn hơn 0000...
+        TimelineEntry high = new TimelineEntry(UUID.fromString("ffffffff-0000-0000-0000-000000000000"), now);
+        TimelineEntry low = new TimelineEntry(UUID.fromString("00000000-0000-0000-0000-000000000001"), now);
+
+        assertEquals(List.of(high, low), HomeTimelineService.merge(List.of(low), List.of(high), 10));
+    }
+}
@@ -0,0 +1,90 @@
+package com.backend.cookshare.user.service.timeline;
+
+import com.backend.cookshare.common.EmbeddedPostgresTestSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy câu SQL nạp home timeline cho user chưa có timeline của {@link HomeTimelineService} trên Postgres thật
+ */
+class HomeTimelineSqlTest {
+
+    private final UUID reader = UUID.randomUUID();
+    private final UUID author = UUID.randomUUID();
+    private final UUID celebrity = UUID.randomUUID();
+    private final UUID stranger = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 1, 9, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private HomeTimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedPostgresTestSupport.freshSchema("timeline_sql");
+        jdbcTemplate.execute("CREATE TABLE users (user_id UUID PRIMARY KEY, follower_count INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE follows (follower_id UUID NOT NULL, following_id UUID NOT NULL, "
+                + "PRIMARY KEY (follower_id, following_id))");
+        jdbcTemplate.execute("CREATE TABLE recipes (recipe_id UUID PRIMARY KEY, user_id UUID NOT NULL, "
+                + "status VARCHAR(20) NOT NULL, is_published BOOLEAN NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE home_timeline (user_id UUID NOT NULL, recipe_id UUID NOT NULL, "
+                + "author_id UUID NOT NULL, created_at TIMESTAMP NOT NULL, PRIMARY KEY (user_id, recipe_id))");
+        jdbcTemplate.execute("CREATE TABLE home_timeline_state (user_id UUID PRIMARY KEY, materialized_at TIMESTAMP NOT NULL)");
+
+        jdbcTemplate.update("INSERT INTO users VALUES (?, 0), (?, 1), (?, 10), (?, 0)", reader, author, celebrity, stranger);
+        jdbcTemplate.update("INSERT INTO follows VALUES (?, ?), (?, ?)", reader, author, reader, celebrity);
+        // Mỗi tác giả nạp tối đa 2 công thức (backfill-size), tác giả vượt ngưỡng được trộn lúc đọc nên bỏ qua
+        for (int i = 0; i < 3; i++) {
+            recipe(author, "APPROVED", true, now.minusHours(i));
+        }
+        recipe(author, "PENDING", false, now.plusHours(1));
+        recipe(celebrity, "APPROVED", true, now);
+        recipe(stranger, "APPROVED", true, now);
+
+        timelineService = new HomeTimelineService(jdbcTemplate, Runnable::run, new SimpleMeterRegistry(),
+                true, 100, 5, 2, 90);
+    }
+
+    private UUID recipe(UUID userId, String status, boolean published, LocalDateTime createdAt) {
+        UUID recipeId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO recipes VALUES (?, ?, ?, ?, ?)",
+                recipeId, userId, status, published, Timestamp.valueOf(createdAt));
+        return recipeId;
+    }
+
+    @Test
+    void ensureMaterialized_ShouldBackfillRecentRecipesOfFollowedAuthorsOnce() {
+        assertFalse(timelineService.ensureMaterialized(reader));
+        assertTrue(timelineService.ensureMaterialized(reader));
+
+        List<Timestamp> rows = jdbcTemplate.queryForList(
+                "SELECT created_at FROM home_timeline WHERE user_id = ? AND author_id = ? ORDER BY created_at DESC",
+                Timestamp.class, reader, author);
+        assertEquals(List.of(Timestamp.valueOf(now), Timestamp.valueOf(now.minusHours(1))), rows);
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM home_timeline", Integer.class));
+    }
+
+    @Test
+    void publishAndFollowBackfill_ShouldPlaceRecipeAtSameCreatedAt() {
+        // Công thức tạo từ trước, được duyệt sau: cả fan-out lẫn backfill đều xếp theo recipes.created_at
+        LocalDateTime createdAt = now.minusMinutes(30);
+        UUID recipeId = recipe(author, "APPROVED", true, createdAt);
+
+        timelineService.publish(author, recipeId, createdAt);
+        jdbcTemplate.update("INSERT INTO follows VALUES (?, ?)", stranger, author);
+        timelineService.followed(stranger, author);
+
+        List<Timestamp> positions = jdbcTemplate.queryForList(
+                "SELECT created_at FROM home_timeline WHERE recipe_id = ? ORDER BY user_id",
+                Timestamp.class, recipeId);
+        assertEquals(List.of(Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt)), positions);
+    }
+}